@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Reads and writes a bean property through method handles, which are resolved
+ * once, on first use, from the read and write methods of the property
+ * descriptor. Invoking a method handle avoids the argument array and the
+ * access checks of {@link Method#invoke(Object, Object...)}.
+ * <p>
+ * Calls that the method handles would reject differently than reflection
+ * does, e.g. with a source of the wrong type or with a value that needs a
+ * widening conversion, are delegated to {@link BeanPropertyHelper}, so that
+ * both paths report errors in the same way.
+ * </p>
+ */
+public final class BeanPropertyAccessor {
+	private static final MethodType GETTER_TYPE = MethodType.methodType(
+			Object.class, Object.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(
+			void.class, Object.class, Object.class);
+
+	/**
+	 * Marks a method which cannot be invoked through a method handle.
+	 */
+	private static final Invoker UNAVAILABLE = new Invoker(null, null, null);
+
+	private final PropertyDescriptor propertyDescriptor;
+
+	private volatile Invoker getter;
+
+	private volatile Invoker setter;
+
+	/**
+	 * @param propertyDescriptor
+	 *            the property to access
+	 */
+	public BeanPropertyAccessor(PropertyDescriptor propertyDescriptor) {
+		this.propertyDescriptor = propertyDescriptor;
+	}
+
+	/**
+	 * Returns the contents of the property for the given bean.
+	 *
+	 * @param source
+	 *            the source bean
+	 * @return the contents of the property for the given bean
+	 * @see BeanPropertyHelper#readProperty(Object, PropertyDescriptor)
+	 */
+	public Object read(Object source) {
+		Invoker invoker = getter;
+		if (invoker == null) {
+			invoker = resolve(propertyDescriptor.getReadMethod(), GETTER_TYPE);
+			getter = invoker;
+		}
+		if (invoker == UNAVAILABLE || !invoker.receiverType.isInstance(source)) {
+			return BeanPropertyHelper.readProperty(source, propertyDescriptor);
+		}
+		try {
+			return invoker.handle.invokeExact(source);
+		} catch (Throwable t) {
+			// like InvocationTargetException, wrap anything thrown by the
+			// invoked method
+			throw new RuntimeException(t);
+		}
+	}
+
+	/**
+	 * Sets the contents of the property on the given bean to the given value.
+	 *
+	 * @param source
+	 *            the source bean
+	 * @param value
+	 *            the new value of the property
+	 * @see BeanPropertyHelper#writeProperty(Object, PropertyDescriptor,
+	 *      Object)
+	 */
+	public void write(Object source, Object value) {
+		Invoker invoker = setter;
+		if (invoker == null) {
+			invoker = resolve(propertyDescriptor.getWriteMethod(), SETTER_TYPE);
+			setter = invoker;
+		}
+		if (invoker == UNAVAILABLE || !invoker.receiverType.isInstance(source)
+				|| !invoker.accepts(value)) {
+			BeanPropertyHelper.writeProperty(source, propertyDescriptor, value);
+			return;
+		}
+		try {
+			invoker.handle.invokeExact(source, value);
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+
+	/**
+	 * @return the property accessed
+	 */
+	public PropertyDescriptor getPropertyDescriptor() {
+		return propertyDescriptor;
+	}
+
+	private static Invoker resolve(Method method, MethodType type) {
+		if (method == null) {
+			return UNAVAILABLE;
+		}
+		try {
+			if (!method.isAccessible()) {
+				method.setAccessible(true);
+			}
+			// the accessible flag suppresses the access checks of the lookup
+			MethodHandle handle = MethodHandles.lookup().unreflect(method)
+					.asType(type);
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			return new Invoker(handle, method.getDeclaringClass(),
+					parameterTypes.length == 0 ? null : parameterTypes[0]);
+		} catch (IllegalAccessException | RuntimeException e) {
+			// e.g. a static method or a security manager denying access, leave
+			// it to reflection
+			return UNAVAILABLE;
+		}
+	}
+
+	private static final class Invoker {
+		final MethodHandle handle;
+
+		final Class<?> receiverType;
+
+		/**
+		 * The parameter type of a write method, with primitive types replaced
+		 * by their wrapper types
+		 */
+		final Class<?> argumentType;
+
+		final boolean primitive;
+
+		Invoker(MethodHandle handle, Class<?> receiverType,
+				Class<?> parameterType) {
+			this.handle = handle;
+			this.receiverType = receiverType;
+			this.primitive = parameterType != null
+					&& parameterType.isPrimitive();
+			this.argumentType = primitive ? MethodType
+					.methodType(parameterType).wrap().returnType()
+					: parameterType;
+		}
+
+		/**
+		 * @return <code>false</code> if the value needs an unboxing or
+		 *         widening conversion that reflection performs or rejects
+		 *         differently
+		 */
+		boolean accepts(Object value) {
+			if (value == null) {
+				return !primitive;
+			}
+			return argumentType.isInstance(value);
+		}
+	}
+}
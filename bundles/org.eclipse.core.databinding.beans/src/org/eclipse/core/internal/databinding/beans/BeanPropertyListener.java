@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Matthew Hall and others.
+ * Copyright (c) 2009, 2016 Matthew Hall and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,8 @@ package org.eclipse.core.internal.databinding.beans;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyDescriptor;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import org.eclipse.core.databinding.observable.IDiff;
 import org.eclipse.core.databinding.property.IProperty;
@@ -28,6 +30,12 @@ public abstract class BeanPropertyListener extends NativePropertyListener
 		implements PropertyChangeListener {
 	private final PropertyDescriptor propertyDescriptor;
 
+	/**
+	 * Source -> listener registered with the source on behalf of this
+	 * listener. Referenced strongly, as the sources may not.
+	 */
+	private final Map<Object, PropertyChangeListener> registered = new IdentityHashMap<>();
+
 	protected BeanPropertyListener(IProperty property,
 			PropertyDescriptor propertyDescriptor,
 			ISimplePropertyListener listener) {
@@ -55,13 +63,19 @@ public abstract class BeanPropertyListener extends NativePropertyListener
 
 	@Override
 	protected void doAddTo(Object source) {
-		BeanPropertyListenerSupport.hookListener(source, propertyDescriptor
-				.getName(), this);
+		PropertyChangeListener listener = BeanPropertyListenerSupport
+				.addListener(source, propertyDescriptor.getName(), this);
+		synchronized (registered) {
+			registered.put(source, listener);
+		}
 	}
 
 	@Override
 	protected void doRemoveFrom(Object source) {
-		BeanPropertyListenerSupport.unhookListener(source, propertyDescriptor
+		BeanPropertyListenerSupport.removeListener(source, propertyDescriptor
 				.getName(), this);
+		synchronized (registered) {
+			registered.remove(source);
+		}
 	}
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -65,9 +65,94 @@ public class BeanPropertyListenerSupport {
 				"removePropertyChangeListener", "Cound not remove listener from "); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
+	/**
+	 * Start listen to the given property of the target through the single
+	 * listener that the target notifies for all its shared listeners, see
+	 * {@link PropertyChangeMultiplexer}. Targets without an unnamed
+	 * <code>addPropertyChangeListener</code> method get the listener itself,
+	 * as in {@link #hookListener(Object, String, PropertyChangeListener)}.
+	 * <p>
+	 * The bean may only hold the listener registered with it weakly, so the
+	 * caller must keep a reference to the returned listener until it stops
+	 * listening.
+	 * </p>
+	 *
+	 * @param bean
+	 * @param propertyName
+	 * @param listener
+	 * @return the listener registered with the bean, either the multiplexer of
+	 *         the bean or the given listener
+	 */
+	public static PropertyChangeListener addListener(Object bean,
+			String propertyName, PropertyChangeListener listener) {
+		Assert.isNotNull(bean, "Bean cannot be null"); //$NON-NLS-1$
+		Assert.isNotNull(listener, "Listener cannot be null"); //$NON-NLS-1$
+		Assert.isNotNull(propertyName, "Property name cannot be null"); //$NON-NLS-1$
+		PropertyChangeListener multiplexer = PropertyChangeMultiplexer.add(
+				bean, propertyName, listener);
+		if (multiplexer == null) {
+			hookListener(bean, propertyName, listener);
+			return listener;
+		}
+		return multiplexer;
+	}
+
+	/**
+	 * Stop listen to the given property of the target, for a listener added
+	 * with {@link #addListener(Object, String, PropertyChangeListener)}.
+	 *
+	 * @param bean
+	 * @param propertyName
+	 * @param listener
+	 */
+	public static void removeListener(Object bean, String propertyName,
+			PropertyChangeListener listener) {
+		Assert.isNotNull(bean, "Bean cannot be null"); //$NON-NLS-1$
+		Assert.isNotNull(listener, "Listener cannot be null"); //$NON-NLS-1$
+		Assert.isNotNull(propertyName, "Property name cannot be null"); //$NON-NLS-1$
+		if (!PropertyChangeMultiplexer.remove(bean, propertyName, listener)) {
+			unhookListener(bean, propertyName, listener);
+		}
+	}
+
+	/**
+	 * Registers the given listener for all properties of the target, if the
+	 * target has an unnamed <code>addPropertyChangeListener</code> method.
+	 *
+	 * @return <code>true</code> if the listener was registered
+	 */
+	static boolean hookGenericListener(Object bean,
+			PropertyChangeListener listener) {
+		try {
+			bean.getClass().getMethod("addPropertyChangeListener", //$NON-NLS-1$
+					new Class[] { PropertyChangeListener.class });
+		} catch (NoSuchMethodException e) {
+			return false;
+		} catch (SecurityException e) {
+			return false;
+		}
+		return processListener(bean, null, listener,
+				"addPropertyChangeListener", "Could not attach listener to ");//$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Unregisters a listener registered with
+	 * {@link #hookGenericListener(Object, PropertyChangeListener)}.
+	 */
+	static void unhookGenericListener(Object bean,
+			PropertyChangeListener listener) {
+		processListener(
+				bean,
+				null,
+				listener,
+				"removePropertyChangeListener", "Cound not remove listener from "); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	/**
 	 * Invokes the method for the provided <code>methodName</code> attempting to
 	 * first use the method with the property name and then the unnamed version.
+	 * Only the unnamed version is used if <code>propertyName</code> is
+	 * <code>null</code>.
 	 *
 	 * @param bean
 	 *            object to invoke the method on
@@ -85,14 +170,19 @@ public class BeanPropertyListenerSupport {
 		Object[] parameters = null;
 
 		try {
-			try {
-				method = bean.getClass().getMethod(
-						methodName,
-						new Class[] { String.class,
-								PropertyChangeListener.class });
+			if (propertyName != null) {
+				try {
+					method = bean.getClass().getMethod(
+							methodName,
+							new Class[] { String.class,
+									PropertyChangeListener.class });
 
-				parameters = new Object[] { propertyName, listener };
-			} catch (NoSuchMethodException e) {
+					parameters = new Object[] { propertyName, listener };
+				} catch (NoSuchMethodException e) {
+					// try the unnamed version
+				}
+			}
+			if (method == null) {
 				method = bean.getClass().getMethod(methodName,
 						new Class[] { PropertyChangeListener.class });
 
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.databinding.beans;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The single property change listener registered with a bean on behalf of all
+ * the listeners added through
+ * {@link BeanPropertyListenerSupport#addListener(Object, String, PropertyChangeListener)}
+ * . Events are dispatched to the listeners of their property with one map
+ * lookup, events without a property name to all listeners.
+ * <p>
+ * The multiplexer counts its listeners, it is registered with the bean when
+ * the first listener is added and removed from the bean with the last
+ * listener. The multiplexers are looked up by the identity of their bean,
+ * which is only referenced weakly, so beans that are never unhooked can still
+ * be garbage collected. Beans may hold their listeners weakly as well, so the
+ * listeners added through a multiplexer keep it reachable, see
+ * {@link BeanPropertyListener}.
+ * </p>
+ */
+/* package */final class PropertyChangeMultiplexer implements
+		PropertyChangeListener {
+	/**
+	 * The listeners of a multiplexer refer to it, and the multiplexer refers
+	 * to the bean through the observables listening to it, so neither the key
+	 * nor the value is referenced strongly.
+	 */
+	private static final Map<BeanReference, WeakReference<PropertyChangeMultiplexer>> multiplexers = new HashMap<>();
+
+	private static final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+	/**
+	 * Property name -> listeners. Replaced on every change, so that events
+	 * fired on other threads see a consistent snapshot.
+	 */
+	private volatile Map<String, PropertyChangeListener[]> listeners = new HashMap<>();
+
+	private int count;
+
+	private PropertyChangeMultiplexer() {
+	}
+
+	/**
+	 * Adds the given listener for the given property of the given bean. The
+	 * multiplexer of the bean is registered with the bean if this is its
+	 * first listener.
+	 *
+	 * @param bean
+	 * @param propertyName
+	 * @param listener
+	 * @return the multiplexer of the bean, which the listener must keep a
+	 *         reference to until it is removed, or <code>null</code> if the
+	 *         multiplexer could not be registered with the bean
+	 */
+	static PropertyChangeMultiplexer add(Object bean, String propertyName,
+			PropertyChangeListener listener) {
+		PropertyChangeMultiplexer multiplexer;
+		synchronized (multiplexers) {
+			expungeStaleEntries();
+			multiplexer = get(bean);
+			if (multiplexer == null) {
+				multiplexer = new PropertyChangeMultiplexer();
+				if (!BeanPropertyListenerSupport.hookGenericListener(bean,
+						multiplexer)) {
+					return null;
+				}
+				multiplexers.put(new BeanReference(bean, queue),
+						new WeakReference<>(multiplexer));
+			}
+			multiplexer.doAdd(propertyName, listener);
+		}
+		return multiplexer;
+	}
+
+	/**
+	 * Removes the given listener for the given property of the given bean.
+	 * The multiplexer of the bean is removed from the bean with its last
+	 * listener.
+	 *
+	 * @param bean
+	 * @param propertyName
+	 * @param listener
+	 * @return <code>false</code> if the listener was not added through the
+	 *         multiplexer of the bean
+	 */
+	static boolean remove(Object bean, String propertyName,
+			PropertyChangeListener listener) {
+		synchronized (multiplexers) {
+			expungeStaleEntries();
+			PropertyChangeMultiplexer multiplexer = get(bean);
+			if (multiplexer == null
+					|| !multiplexer.doRemove(propertyName, listener)) {
+				return false;
+			}
+			if (multiplexer.count == 0) {
+				multiplexers.remove(new BeanReference(bean, null));
+				BeanPropertyListenerSupport.unhookGenericListener(bean,
+						multiplexer);
+			}
+		}
+		return true;
+	}
+
+	private static PropertyChangeMultiplexer get(Object bean) {
+		WeakReference<PropertyChangeMultiplexer> reference = multiplexers
+				.get(new BeanReference(bean, null));
+		return reference == null ? null : reference.get();
+	}
+
+	private void doAdd(String propertyName, PropertyChangeListener listener) {
+		Map<String, PropertyChangeListener[]> copy = new HashMap<>(listeners);
+		PropertyChangeListener[] old = copy.get(propertyName);
+		PropertyChangeListener[] updated;
+		if (old == null) {
+			updated = new PropertyChangeListener[] { listener };
+		} else {
+			updated = Arrays.copyOf(old, old.length + 1);
+			updated[old.length] = listener;
+		}
+		copy.put(propertyName, updated);
+		listeners = copy;
+		count++;
+	}
+
+	private boolean doRemove(String propertyName,
+			PropertyChangeListener listener) {
+		PropertyChangeListener[] old = listeners.get(propertyName);
+		if (old == null) {
+			return false;
+		}
+		for (int i = 0; i < old.length; i++) {
+			if (old[i] == listener) {
+				Map<String, PropertyChangeListener[]> copy = new HashMap<>(
+						listeners);
+				if (old.length == 1) {
+					copy.remove(propertyName);
+				} else {
+					PropertyChangeListener[] updated = new PropertyChangeListener[old.length - 1];
+					System.arraycopy(old, 0, updated, 0, i);
+					System.arraycopy(old, i + 1, updated, i, old.length - i
+							- 1);
+					copy.put(propertyName, updated);
+				}
+				listeners = copy;
+				count--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void propertyChange(PropertyChangeEvent evt) {
+		Map<String, PropertyChangeListener[]> snapshot = listeners;
+		String propertyName = evt.getPropertyName();
+		if (propertyName != null) {
+			PropertyChangeListener[] targets = snapshot.get(propertyName);
+			if (targets != null) {
+				for (PropertyChangeListener target : targets) {
+					target.propertyChange(evt);
+				}
+			}
+		} else {
+			// an unspecified change, notify every listener once
+			Set<PropertyChangeListener> targets = new LinkedHashSet<>();
+			for (PropertyChangeListener[] list : snapshot.values()) {
+				targets.addAll(Arrays.asList(list));
+			}
+			for (PropertyChangeListener target : targets) {
+				target.propertyChange(evt);
+			}
+		}
+	}
+
+	private static void expungeStaleEntries() {
+		Reference<?> reference;
+		while ((reference = queue.poll()) != null) {
+			multiplexers.remove(reference);
+		}
+	}
+
+	/**
+	 * A weak reference to a bean, compared by the identity of the bean.
+	 */
+	private static final class BeanReference extends WeakReference<Object> {
+		private final int hashCode;
+
+		BeanReference(Object bean, ReferenceQueue<Object> queue) {
+			super(bean, queue);
+			this.hashCode = System.identityHashCode(bean);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof BeanReference)) {
+				return false;
+			}
+			Object bean = get();
+			return bean != null && bean == ((BeanReference) obj).get();
+		}
+	}
+}
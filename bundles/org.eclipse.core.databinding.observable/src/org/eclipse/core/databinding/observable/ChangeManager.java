@@ -14,6 +14,8 @@
 
 package org.eclipse.core.databinding.observable;
 
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
+import org.eclipse.core.internal.databinding.observable.Propagation;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ListenerList;
 
@@ -26,6 +28,23 @@ import org.eclipse.core.runtime.ListenerList;
  */
 /* package */class ChangeManager {
 
+	/**
+	 * Selects all the listeners in {@link #dispatchEvent(ObservableEvent, int)}.
+	 */
+	static final int ALL_LISTENERS = 0;
+
+	/**
+	 * Selects the {@link IDependencyListener}s in
+	 * {@link #dispatchEvent(ObservableEvent, int)}.
+	 */
+	static final int DEPENDENCY_LISTENERS = 1;
+
+	/**
+	 * Selects the listeners that are not {@link IDependencyListener}s in
+	 * {@link #dispatchEvent(ObservableEvent, int)}.
+	 */
+	static final int OTHER_LISTENERS = 2;
+
 	ListenerList<IObservablesListener>[] listenerLists = null;
 	Object listenerTypes[] = null;
 	private final Realm realm;
@@ -110,11 +129,52 @@ import org.eclipse.core.runtime.ListenerList;
 	}
 
 	protected void fireEvent(ObservableEvent event) {
+		EventBatch batch = realm.eventBatch;
+		if (batch != null && batch.add(this, event)) {
+			// the observables depending on this one follow the change now, the
+			// other listeners are notified when the transaction of the realm
+			// ends
+			dispatchEvent(event, DEPENDENCY_LISTENERS);
+			return;
+		}
+		dispatchEvent(event, ALL_LISTENERS);
+	}
+
+	/**
+	 * Notifies the listeners of the event's type of the given event.
+	 *
+	 * @param event
+	 * @param listeners
+	 *            {@link #ALL_LISTENERS}, {@link #DEPENDENCY_LISTENERS} or
+	 *            {@link #OTHER_LISTENERS}
+	 */
+	void dispatchEvent(ObservableEvent event, int listeners) {
 		Object listenerType = event.getListenerType();
 		int listenerTypeIndex = findListenerTypeIndex(listenerType);
 		if (listenerTypeIndex != -1) {
-			for (IObservablesListener listener : listenerLists[listenerTypeIndex]) {
-				event.dispatch(listener);
+			boolean waveChecked = false;
+			boolean started = false;
+			Throwable failure = null;
+			try {
+				for (IObservablesListener listener : listenerLists[listenerTypeIndex]) {
+					boolean dependency = listener instanceof IDependencyListener;
+					if (listeners == ALL_LISTENERS || dependency == (listeners == DEPENDENCY_LISTENERS)) {
+						if (dependency && !waveChecked) {
+							// computed observables dirtied by the dependency
+							// listeners notify their own listeners when all
+							// listeners returned. Only they schedule nodes,
+							// the other events need no wave.
+							started = Propagation.beginWave();
+							waveChecked = true;
+						}
+						event.dispatch(listener);
+					}
+				}
+			} catch (RuntimeException | Error e) {
+				failure = e;
+				throw e;
+			} finally {
+				Propagation.endWave(started, failure);
 			}
 		}
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,7 +14,9 @@
 
 package org.eclipse.core.databinding.observable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -22,6 +24,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.RandomAccess;
 import java.util.Set;
 
 import org.eclipse.core.databinding.observable.list.ListDiff;
@@ -36,6 +39,12 @@ import org.eclipse.core.internal.databinding.observable.Util;
  *
  */
 public class Diffs {
+	private static final int OP_ADD = 0;
+	private static final int OP_REMOVE = 1;
+	private static final int OP_MOVE_DOWN = 2;
+	private static final int OP_KEEP = 3;
+	private static final int OP_MOVE_UP = 4;
+
 	private static final class UnmodifiableListDiff<E> extends ListDiff<E> {
 		private ListDiff<? extends E> toWrap;
 
@@ -229,7 +238,7 @@ public class Diffs {
 	 */
 	public static <E> ListDiff<E> computeListDiff(List<? extends E> oldList, List<? extends E> newList) {
 		List<ListDiffEntry<E>> diffEntries = new ArrayList<>();
-		createListDiffs(new ArrayList<E>(oldList), newList, diffEntries);
+		createListDiffs(oldList, newList, diffEntries);
 		ListDiff<E> listDiff = createListDiff(diffEntries);
 		return listDiff;
 	}
@@ -265,96 +274,270 @@ public class Diffs {
 	}
 
 	/**
-	 * adapted from EMF's ListDifferenceAnalyzer
+	 * Computes the entries transforming the old list into the new list in
+	 * O((n + d) log n) time. Elements are matched with a hash index, the
+	 * matched elements in the longest increasing subsequence of old positions
+	 * stay in place and the others are moved with a removal followed by an
+	 * addition.
 	 */
-	private static <E> void createListDiffs(List<E> oldList, List<? extends E> newList,
+	private static <E> void createListDiffs(List<? extends E> oldList, List<? extends E> newList,
 			List<ListDiffEntry<E>> listDiffs) {
+		if (!(oldList instanceof RandomAccess)) {
+			oldList = new ArrayList<E>(oldList);
+		}
+		if (!(newList instanceof RandomAccess)) {
+			newList = new ArrayList<E>(newList);
+		}
+		int oldSize = oldList.size();
+		int newSize = newList.size();
+
+		// Common prefix and suffix produce no entries
+		int prefix = 0;
+		while (prefix < oldSize && prefix < newSize && equals(oldList.get(prefix), newList.get(prefix))) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < oldSize - prefix && suffix < newSize - prefix
+				&& equals(oldList.get(oldSize - 1 - suffix), newList.get(newSize - 1 - suffix))) {
+			suffix++;
+		}
+		List<? extends E> oldElements = oldList.subList(prefix, oldSize - suffix);
+		List<? extends E> newElements = newList.subList(prefix, newSize - suffix);
+		int oldCount = oldElements.size();
+		int newCount = newElements.size();
+
+		// Match the k-th occurrence of a value in the new list with its k-th
+		// occurrence in the old list
+		Map<Object, ArrayDeque<Integer>> oldIndices = new HashMap<>();
 		int index = 0;
-		for (Iterator<? extends E> it = newList.iterator(); it.hasNext();) {
-			E newValue = it.next();
-			if (oldList.size() <= index) {
-				// append newValue to newList
-				listDiffs.add(createListDiffEntry(index, true, newValue));
-			} else {
-				boolean done;
-				do {
-					done = true;
-					E oldValue = oldList.get(index);
-					if (oldValue == null ? newValue != null : !oldValue
-							.equals(newValue)) {
-						int oldIndexOfNewValue = listIndexOf(oldList, newValue,
-								index);
-						if (oldIndexOfNewValue != -1) {
-							int newIndexOfOldValue = listIndexOf(newList,
-									oldValue, index);
-							if (newIndexOfOldValue == -1) {
-								// removing oldValue from list[index]
-								listDiffs.add(createListDiffEntry(index, false,
-										oldValue));
-								oldList.remove(index);
-								done = false;
-							} else if (newIndexOfOldValue > oldIndexOfNewValue) {
-								// moving oldValue from list[index] to
-								// [newIndexOfOldValue]
-								if (oldList.size() <= newIndexOfOldValue) {
-									// The element cannot be moved to the
-									// correct index
-									// now, however later iterations will insert
-									// elements
-									// in front of it, eventually moving it into
-									// the
-									// correct spot.
-									newIndexOfOldValue = oldList.size() - 1;
-								}
-								listDiffs.add(createListDiffEntry(index, false,
-										oldValue));
-								oldList.remove(index);
-								listDiffs.add(createListDiffEntry(
-										newIndexOfOldValue, true, oldValue));
-								oldList.add(newIndexOfOldValue, oldValue);
-								done = false;
-							} else {
-								// move newValue from list[oldIndexOfNewValue]
-								// to [index]
-								listDiffs.add(createListDiffEntry(
-										oldIndexOfNewValue, false, newValue));
-								oldList.remove(oldIndexOfNewValue);
-								listDiffs.add(createListDiffEntry(index, true,
-										newValue));
-								oldList.add(index, newValue);
-							}
-						} else {
-							// add newValue at list[index]
-							oldList.add(index, newValue);
-							listDiffs.add(createListDiffEntry(index, true,
-									newValue));
-						}
-					}
-				} while (!done);
-			}
-			++index;
-		}
-		for (int i = oldList.size(); i > index;) {
-			// remove excess trailing elements not present in newList
-			listDiffs.add(createListDiffEntry(--i, false, oldList.get(i)));
+		for (E element : oldElements) {
+			ArrayDeque<Integer> indices = oldIndices.get(element);
+			if (indices == null) {
+				indices = new ArrayDeque<>(1);
+				oldIndices.put(element, indices);
+			}
+			indices.add(index++);
+		}
+		int[] oldIndexOfNew = new int[newCount];
+		int[] newIndexOfOld = new int[oldCount];
+		Arrays.fill(newIndexOfOld, -1);
+		index = 0;
+		for (E element : newElements) {
+			ArrayDeque<Integer> indices = oldIndices.get(element);
+			Integer oldIndex = indices == null ? null : indices.poll();
+			oldIndexOfNew[index] = oldIndex == null ? -1 : oldIndex.intValue();
+			if (oldIndex != null) {
+				newIndexOfOld[oldIndex.intValue()] = index;
+			}
+			index++;
+		}
+
+		// The matched elements in the longest increasing subsequence stay in
+		// place, the other matched elements are moved
+		boolean[] stays = longestIncreasingSubsequence(oldIndexOfNew, oldCount);
+		int[] stayingNewIndices = new int[newCount];
+		int stayingCount = 0;
+		for (int i = 0; i < newCount; i++) {
+			if (oldIndexOfNew[i] != -1 && stays[oldIndexOfNew[i]]) {
+				stayingNewIndices[stayingCount++] = i;
+			}
+		}
+
+		// First pass: compute the operations on a linked list of the old
+		// elements that have not been reached yet. Elements moved towards the
+		// end of the list are linked in as new nodes, so that the final order
+		// of all nodes gives each node a stable rank.
+		int maxNodes = oldCount * 2 + 1;
+		int[] next = new int[maxNodes];
+		int[] prev = new int[maxNodes];
+		int[] nodeElement = new int[maxNodes];
+		boolean[] alive = new boolean[maxNodes];
+		int[] nodeOfOld = new int[oldCount];
+		// node 0 is the sentinel
+		for (int i = 0; i < oldCount; i++) {
+			int node = i + 1;
+			nodeElement[node] = i;
+			nodeOfOld[i] = node;
+			alive[node] = true;
+			prev[node] = i;
+			next[node] = i + 2;
+		}
+		next[0] = oldCount > 0 ? 1 : 0;
+		prev[0] = oldCount;
+		if (oldCount > 0) {
+			next[oldCount] = 0;
+		}
+		int nodeCount = oldCount + 1;
+		boolean[] moved = new boolean[oldCount];
+
+		// operations, replayed in the second pass
+		int[] opType = new int[oldCount * 2 + newCount];
+		int[] opNode = new int[opType.length];
+		int[] opStep = new int[opType.length];
+		int opCount = 0;
+
+		int head = next[0];
+		for (int i = 0; i < newCount; i++) {
+			int oldIndex = oldIndexOfNew[i];
+			if (oldIndex == -1) {
+				opType[opCount] = OP_ADD;
+				opStep[opCount++] = i;
+				continue;
+			}
+			while (true) {
+				while (head != 0 && !alive[head]) {
+					head = next[head];
+				}
+				if (head == 0 || nodeElement[head] == oldIndex) {
+					break;
+				}
+				int headElement = nodeElement[head];
+				if (newIndexOfOld[headElement] == -1) {
+					// the head is not in the new list
+					alive[head] = false;
+					opType[opCount] = OP_REMOVE;
+					opNode[opCount] = head;
+					opStep[opCount++] = i;
+				} else if (!stays[headElement] && !moved[headElement]) {
+					// move the head in front of the next element that stays
+					// after it, or to the end
+					int anchorIndex = Arrays.binarySearch(stayingNewIndices, 0, stayingCount,
+							newIndexOfOld[headElement]);
+					anchorIndex = -anchorIndex - 1;
+					int anchor = anchorIndex < stayingCount
+							? nodeOfOld[oldIndexOfNew[stayingNewIndices[anchorIndex]]] : 0;
+					int node = nodeCount++;
+					nodeElement[node] = headElement;
+					nodeOfOld[headElement] = node;
+					moved[headElement] = true;
+					alive[node] = true;
+					alive[head] = false;
+					next[node] = anchor;
+					prev[node] = prev[anchor];
+					next[prev[anchor]] = node;
+					prev[anchor] = node;
+					opType[opCount] = OP_MOVE_DOWN;
+					opNode[opCount] = head;
+					opStep[opCount++] = i;
+				} else {
+					break;
+				}
+			}
+			int node = nodeOfOld[oldIndex];
+			alive[node] = false;
+			opType[opCount] = node == head ? OP_KEEP : OP_MOVE_UP;
+			opNode[opCount] = node;
+			opStep[opCount++] = i;
+		}
+
+		// Second pass: replay the operations, computing the positions from
+		// the number of remaining nodes in front of each node
+		int[] rank = new int[nodeCount];
+		int r = 1;
+		for (int node = next[0]; node != 0; node = next[node]) {
+			rank[node] = r++;
+		}
+		int[] tree = new int[nodeCount];
+		for (int node = 1; node <= oldCount; node++) {
+			addToTree(tree, rank[node], 1);
+		}
+		for (int op = 0; op < opCount; op++) {
+			int step = prefix + opStep[op];
+			int node = opNode[op];
+			switch (opType[op]) {
+			case OP_ADD:
+				listDiffs.add(createListDiffEntry(step, true, newElements.get(opStep[op])));
+				break;
+			case OP_REMOVE:
+				listDiffs.add(createListDiffEntry(step + countInTree(tree, rank[node]) - 1, false,
+						oldElements.get(nodeElement[node])));
+				addToTree(tree, rank[node], -1);
+				break;
+			case OP_MOVE_DOWN: {
+				E element = oldElements.get(nodeElement[node]);
+				listDiffs.add(createListDiffEntry(step, false, element));
+				addToTree(tree, rank[node], -1);
+				int newNode = nodeOfOld[nodeElement[node]];
+				addToTree(tree, rank[newNode], 1);
+				listDiffs.add(createListDiffEntry(step + countInTree(tree, rank[newNode]) - 1, true, element));
+				break;
+			}
+			case OP_KEEP:
+				addToTree(tree, rank[node], -1);
+				break;
+			case OP_MOVE_UP: {
+				E element = oldElements.get(nodeElement[node]);
+				listDiffs.add(createListDiffEntry(step + countInTree(tree, rank[node]) - 1, false, element));
+				addToTree(tree, rank[node], -1);
+				listDiffs.add(createListDiffEntry(step, true, element));
+				break;
+			}
+			}
+		}
+
+		// Remove the remaining old elements, starting at the end
+		int end = prefix + newCount + countInTree(tree, nodeCount - 1);
+		for (int node = prev[0]; node != 0; node = prev[node]) {
+			if (alive[node]) {
+				listDiffs.add(createListDiffEntry(--end, false, oldElements.get(nodeElement[node])));
+			}
 		}
 	}
 
 	/**
-	 * @param list
-	 * @param object
-	 * @param index
-	 * @return the index, or -1 if not found
+	 * Returns which old indices are part of a longest increasing subsequence
+	 * of the given old indices, ignoring -1 values.
 	 */
-	private static <E> int listIndexOf(List<E> list, Object object, int index) {
-		int size = list.size();
-		for (int i = index; i < size; i++) {
-			Object candidate = list.get(i);
-			if (candidate == null ? object == null : candidate.equals(object)) {
-				return i;
+	private static boolean[] longestIncreasingSubsequence(int[] oldIndices, int oldCount) {
+		boolean[] result = new boolean[oldCount];
+		int[] tails = new int[oldIndices.length];
+		int[] predecessors = new int[oldIndices.length];
+		int length = 0;
+		for (int i = 0; i < oldIndices.length; i++) {
+			int value = oldIndices[i];
+			if (value == -1) {
+				continue;
+			}
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (oldIndices[tails[mid]] < value) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			predecessors[i] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = i;
+			if (low == length) {
+				length++;
 			}
 		}
-		return -1;
+		for (int i = length > 0 ? tails[length - 1] : -1; i != -1; i = predecessors[i]) {
+			result[oldIndices[i]] = true;
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the given delta at the given rank of a Fenwick tree
+	 */
+	private static void addToTree(int[] tree, int rank, int delta) {
+		for (int i = rank; i < tree.length; i += i & -i) {
+			tree[i] += delta;
+		}
+	}
+
+	/**
+	 * Returns the sum of the values up to the given rank of a Fenwick tree
+	 */
+	private static int countInTree(int[] tree, int rank) {
+		int sum = 0;
+		for (int i = rank; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
 	}
 
 	/**
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.databinding.observable.list.IObservableList;
+import org.eclipse.core.databinding.observable.list.ListChangeEvent;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.map.IObservableMap;
+import org.eclipse.core.databinding.observable.map.MapChangeEvent;
+import org.eclipse.core.databinding.observable.map.MapDiff;
+import org.eclipse.core.databinding.observable.set.IObservableSet;
+import org.eclipse.core.databinding.observable.set.SetChangeEvent;
+import org.eclipse.core.databinding.observable.set.SetDiff;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.ValueDiff;
+
+/**
+ * Collects the events fired during a transaction of a realm and merges them
+ * into one event of each kind per observable, which are fired when the
+ * transaction ends.
+ *
+ * @see Realm#runInTransaction(Runnable)
+ * @since 1.6
+ */
+/* package */class EventBatch {
+
+	private final Thread thread = Thread.currentThread();
+
+	/**
+	 * ChangeManager -> PendingEvents. Change managers are compared by
+	 * identity, observable collections override equals.
+	 */
+	private final Map<ChangeManager, PendingEvents> pending = new IdentityHashMap<>();
+
+	private final List<PendingEvents> order = new ArrayList<>();
+
+	/**
+	 * Records the given event instead of dispatching it, if it can be merged.
+	 *
+	 * @param manager
+	 *            the change manager firing the event
+	 * @param event
+	 *            the event
+	 * @return <code>true</code> if the event was recorded, <code>false</code>
+	 *         if it must be dispatched immediately
+	 */
+	boolean add(ChangeManager manager, ObservableEvent event) {
+		if (thread != Thread.currentThread() || !isMergeable(event)) {
+			return false;
+		}
+		PendingEvents events = pending.get(manager);
+		if (events == null) {
+			events = new PendingEvents(manager, event.getObservable());
+			pending.put(manager, events);
+			order.add(events);
+		}
+		events.add(event);
+		return true;
+	}
+
+	/**
+	 * Fires the merged events, in the order in which the observables fired
+	 * their first event.
+	 */
+	void fire() {
+		for (PendingEvents events : order) {
+			events.fire();
+		}
+	}
+
+	private static boolean isMergeable(ObservableEvent event) {
+		return event instanceof ChangeEvent || event instanceof StaleEvent || event instanceof ListChangeEvent
+				|| event instanceof SetChangeEvent || event instanceof MapChangeEvent
+				|| event instanceof ValueChangeEvent;
+	}
+
+	/**
+	 * The merged events of one observable.
+	 */
+	private static class PendingEvents {
+		private static final Object ABSENT = new Object();
+
+		private final ChangeManager manager;
+
+		private final IObservable source;
+
+		private boolean changed;
+
+		private boolean stale;
+
+		// the typed event was fired at least once
+		private boolean typed;
+
+		// list: the contents before the first and after the last change
+		private List<Object> oldList;
+
+		private List<Object> newList;
+
+		// set: the net additions and removals
+		private Set<Object> additions;
+
+		private Set<Object> removals;
+
+		// map: the value of each changed key before the first and after the
+		// last change, or ABSENT
+		private Map<Object, Object> oldValues;
+
+		private Map<Object, Object> newValues;
+
+		// value: the first and the last diff
+		private ValueDiff<?> firstValueDiff;
+
+		private ValueDiff<?> lastValueDiff;
+
+		PendingEvents(ChangeManager manager, IObservable source) {
+			this.manager = manager;
+			this.source = source;
+		}
+
+		void add(ObservableEvent event) {
+			if (event instanceof ChangeEvent) {
+				changed = true;
+			} else if (event instanceof StaleEvent) {
+				stale = true;
+			} else if (event instanceof ListChangeEvent) {
+				typed = true;
+				addListDiff(((ListChangeEvent<?>) event).getObservableList(), ((ListChangeEvent<?>) event).diff);
+			} else if (event instanceof SetChangeEvent) {
+				typed = true;
+				addSetDiff(((SetChangeEvent<?>) event).diff);
+			} else if (event instanceof MapChangeEvent) {
+				typed = true;
+				addMapDiff(((MapChangeEvent<?, ?>) event).diff);
+			} else if (event instanceof ValueChangeEvent) {
+				typed = true;
+				if (firstValueDiff == null) {
+					firstValueDiff = ((ValueChangeEvent<?>) event).diff;
+				}
+				lastValueDiff = ((ValueChangeEvent<?>) event).diff;
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void addListDiff(final IObservableList<?> list, ListDiff<?> diff) {
+			if (newList == null) {
+				// the list already contains the change, undo it on a copy
+				ObservableTracker.setIgnore(true);
+				try {
+					newList = new ArrayList<Object>(list);
+				} finally {
+					ObservableTracker.setIgnore(false);
+				}
+				ListDiffEntry<?>[] differences = diff.getDifferences();
+				List<ListDiffEntry<Object>> inverse = new ArrayList<>(differences.length);
+				for (int i = differences.length - 1; i >= 0; i--) {
+					ListDiffEntry<?> entry = differences[i];
+					inverse.add(Diffs.createListDiffEntry(entry.getPosition(), !entry.isAddition(),
+							(Object) entry.getElement()));
+				}
+				oldList = new ArrayList<>(newList);
+				Diffs.createListDiff(inverse).applyTo(oldList);
+			} else {
+				((ListDiff<Object>) diff).applyTo(newList);
+			}
+		}
+
+		private void addSetDiff(SetDiff<?> diff) {
+			if (additions == null) {
+				additions = new HashSet<>();
+				removals = new HashSet<>();
+			}
+			for (Object element : diff.getRemovals()) {
+				if (!additions.remove(element)) {
+					removals.add(element);
+				}
+			}
+			for (Object element : diff.getAdditions()) {
+				if (!removals.remove(element)) {
+					additions.add(element);
+				}
+			}
+		}
+
+		private void addMapDiff(MapDiff<?, ?> diff) {
+			if (oldValues == null) {
+				oldValues = new LinkedHashMap<>();
+				newValues = new LinkedHashMap<>();
+			}
+			for (Object key : diff.getAddedKeys()) {
+				if (!oldValues.containsKey(key)) {
+					oldValues.put(key, ABSENT);
+				}
+				newValues.put(key, diff.getNewValue(key));
+			}
+			for (Object key : diff.getRemovedKeys()) {
+				if (!oldValues.containsKey(key)) {
+					oldValues.put(key, diff.getOldValue(key));
+				}
+				newValues.put(key, ABSENT);
+			}
+			for (Object key : diff.getChangedKeys()) {
+				if (!oldValues.containsKey(key)) {
+					oldValues.put(key, diff.getOldValue(key));
+				}
+				newValues.put(key, diff.getNewValue(key));
+			}
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		void fire() {
+			if (source.isDisposed()) {
+				return;
+			}
+			ObservableEvent typedEvent = null;
+			if (newList != null) {
+				ListDiff<Object> diff = Diffs.computeListDiff(oldList, newList);
+				if (!diff.isEmpty()) {
+					typedEvent = new ListChangeEvent<>((IObservableList<Object>) source, diff);
+				}
+			} else if (additions != null) {
+				if (!additions.isEmpty() || !removals.isEmpty()) {
+					typedEvent = new SetChangeEvent<>((IObservableSet<Object>) source,
+							Diffs.createSetDiff(additions, removals));
+				}
+			} else if (oldValues != null) {
+				typedEvent = createMapChangeEvent();
+			} else if (firstValueDiff != null) {
+				Object oldValue = firstValueDiff.getOldValue();
+				Object newValue = lastValueDiff.getNewValue();
+				if (!Diffs.equals(oldValue, newValue)) {
+					typedEvent = new ValueChangeEvent((IObservableValue) source,
+							Diffs.createValueDiff(oldValue, newValue));
+				}
+			}
+
+			// the dependency listeners were notified of each event already
+			if (changed && (typedEvent != null || !typed)) {
+				manager.dispatchEvent(new ChangeEvent(source), ChangeManager.OTHER_LISTENERS);
+			}
+			if (typedEvent != null) {
+				manager.dispatchEvent(typedEvent, ChangeManager.OTHER_LISTENERS);
+			}
+			if (stale && isStale()) {
+				manager.dispatchEvent(new StaleEvent(source), ChangeManager.OTHER_LISTENERS);
+			}
+		}
+
+		private boolean isStale() {
+			// the observable may have become current again
+			ObservableTracker.setIgnore(true);
+			try {
+				return source.isStale();
+			} finally {
+				ObservableTracker.setIgnore(false);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private ObservableEvent createMapChangeEvent() {
+			Set<Object> addedKeys = new HashSet<>();
+			Set<Object> removedKeys = new HashSet<>();
+			Set<Object> changedKeys = new HashSet<>();
+			Map<Object, Object> diffOldValues = new LinkedHashMap<>();
+			Map<Object, Object> diffNewValues = new LinkedHashMap<>();
+			for (Map.Entry<Object, Object> entry : oldValues.entrySet()) {
+				Object key = entry.getKey();
+				Object oldValue = entry.getValue();
+				Object newValue = newValues.get(key);
+				if (oldValue == ABSENT) {
+					if (newValue != ABSENT) {
+						addedKeys.add(key);
+						diffNewValues.put(key, newValue);
+					}
+				} else if (newValue == ABSENT) {
+					removedKeys.add(key);
+					diffOldValues.put(key, oldValue);
+				} else if (!Diffs.equals(oldValue, newValue)) {
+					changedKeys.add(key);
+					diffOldValues.put(key, oldValue);
+					diffNewValues.put(key, newValue);
+				}
+			}
+			if (addedKeys.isEmpty() && removedKeys.isEmpty() && changedKeys.isEmpty()) {
+				return null;
+			}
+			return new MapChangeEvent<>((IObservableMap<Object, Object>) source,
+					Diffs.createMapDiff(addedKeys, removedKeys, changedKeys, diffOldValues, diffNewValues));
+		}
+	}
+}
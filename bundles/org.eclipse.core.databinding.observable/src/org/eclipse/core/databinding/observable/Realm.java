@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,7 @@ import java.util.TimerTask;
 
 import org.eclipse.core.databinding.util.Policy;
 import org.eclipse.core.internal.databinding.observable.Queue;
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
@@ -121,6 +122,12 @@ public abstract class Realm {
 
 	Queue workQueue = new Queue();
 
+	/**
+	 * The events fired during the current transaction, or <code>null</code>
+	 * if no transaction is running. Only accessed within this realm.
+	 */
+	EventBatch eventBatch;
+
 	/**
 	 * Runs the given runnable. If an exception occurs within the runnable, it
 	 * is logged and not re-thrown. If the runnable implements
@@ -321,6 +328,54 @@ public abstract class Realm {
 		}
 	}
 
+	/**
+	 * Runs the given runnable within a transaction. The change events fired
+	 * by the observables of this realm while the runnable runs are not
+	 * delivered immediately. Instead, the changes of each observable are
+	 * merged and delivered when the runnable completes, so that listeners see
+	 * at most one change event and one list, set, map or value change event
+	 * with the net difference per observable. Observables whose net difference
+	 * is empty do not notify their listeners at all.
+	 * <p>
+	 * The events are delivered even if the runnable throws an exception.
+	 * Listeners notified at the end of the transaction run outside of it.
+	 * Dispose events and value changing events are delivered immediately.
+	 * Transactions may be nested, the events are delivered when the outermost
+	 * transaction ends. A stale event is only delivered if the observable is
+	 * still stale when the transaction ends.
+	 * </p>
+	 * <p>
+	 * Computed, detail and decorating observables follow the changes of the
+	 * observables they depend on immediately, so reading them within the
+	 * transaction returns up to date values. Only their own listeners are
+	 * notified when the transaction ends.
+	 * </p>
+	 * <p>
+	 * Listeners are not notified of intermediate states. Code that must react
+	 * to each change, such as validators vetoing a change, should not be run
+	 * within a transaction.
+	 * </p>
+	 *
+	 * @param runnable
+	 *            the runnable changing observables of this realm
+	 * @since 1.6
+	 */
+	public void runInTransaction(Runnable runnable) {
+		Assert.isTrue(isCurrent(), "This operation must be run within the realm"); //$NON-NLS-1$
+		if (eventBatch != null) {
+			runnable.run();
+			return;
+		}
+		EventBatch batch = new EventBatch();
+		eventBatch = batch;
+		try {
+			runnable.run();
+		} finally {
+			eventBatch = null;
+			batch.fire();
+		}
+	}
+
 	/**
 	 * Sets the provided <code>realm</code> as the default for the duration of
 	 * {@link Runnable#run()} and resets the previous realm after completion.
@@ -1,5 +1,5 @@
 /************************************************************************************************************
- * Copyright (c) 2007, 2015 Matthew Hall and others.
+ * Copyright (c) 2007, 2016 Matthew Hall and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -27,6 +27,8 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
+import org.eclipse.core.internal.databinding.observable.Propagation;
 
 /**
  * A lazily calculated list that automatically computes and registers listeners
@@ -154,7 +156,7 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 	 *
 	 */
 	private class PrivateInterface implements Runnable, IChangeListener,
-			IStaleListener {
+			IStaleListener, IDependencyListener {
 		@Override
 		public void run() {
 			cachedList = calculate();
@@ -176,6 +178,23 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 
 	private PrivateInterface privateInterface = new PrivateInterface();
 
+	/**
+	 * Notifies the listeners that this list is dirty, after the listeners of the
+	 * changed dependencies returned.
+	 */
+	private final Propagation.Node notifier = new Propagation.Node() {
+		@Override
+		protected void run() {
+			fireDirty();
+		}
+	};
+
+	/**
+	 * The contents the listeners last knew about, while the notifier is
+	 * scheduled.
+	 */
+	private List<E> notifiedList;
+
 	private Object elementType;
 
 	@Override
@@ -200,8 +219,16 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 			// - Run the calculate method
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
-			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
-					privateInterface, privateInterface, null);
+			int enclosing = Propagation.beginRanking();
+			IObservable[] newDependencies;
+			try {
+				newDependencies = ObservableTracker.runAndMonitor(
+						privateInterface, privateInterface, null);
+			} finally {
+				// rank the notifier above the computed dependencies
+				Propagation.endRanking(notifier, enclosing);
+			}
+			Propagation.recomputed();
 
 			// If any dependencies are stale, a stale event will be fired here
 			// even if we were already stale before recomputing. This is in case
@@ -225,6 +252,7 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 			dirty = false;
 		}
 
+		Propagation.dependedOn(notifier);
 		return cachedList;
 	}
 
@@ -250,23 +278,36 @@ public abstract class ComputedList<E> extends AbstractObservableList<E> {
 
 			stopListening();
 
-			// copy the old list
-			final List<E> oldList = new ArrayList<E>(cachedList);
-			// Fire the "dirty" event. This implementation recomputes the new
-			// list lazily.
-			fireListChange(new ListDiff<E>() {
-				List<ListDiffEntry<E>> differences;
-
-				@Override
-				public ListDiffEntry<E>[] getDifferences() {
-					if (differences == null)
-						return Diffs.computeListDiff(oldList, getList())
-								.getDifferences();
-					return differences.toArray(new ListDiffEntry[differences
-							.size()]);
-				}
-			});
+			if (!notifier.isScheduled()) {
+				// copy the old list
+				notifiedList = new ArrayList<E>(cachedList);
+			}
+			// Fire the "dirty" event once all dependencies that change in
+			// this wave are dirty, so that the new list is not computed from
+			// outdated dependencies.
+			Propagation.schedule(notifier);
+		}
+	}
+
+	private void fireDirty() {
+		final List<E> oldList = notifiedList;
+		notifiedList = null;
+		if (isDisposed()) {
+			return;
 		}
+		// This implementation recomputes the new list lazily.
+		fireListChange(new ListDiff<E>() {
+			List<ListDiffEntry<E>> differences;
+
+			@Override
+			public ListDiffEntry<E>[] getDifferences() {
+				if (differences == null)
+					return Diffs.computeListDiff(oldList, getList())
+							.getDifferences();
+				return differences.toArray(new ListDiffEntry[differences
+						.size()]);
+			}
+		});
 	}
 
 	private void stopListening() {
@@ -20,6 +20,7 @@ import java.util.ListIterator;
 
 import org.eclipse.core.databinding.observable.DecoratingObservableCollection;
 import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 
 /**
  * An observable list which decorates another observable list.
@@ -77,7 +78,7 @@ public class DecoratingObservableList<E> extends
 	@Override
 	protected void firstListenerAdded() {
 		if (listChangeListener == null) {
-			listChangeListener = new IListChangeListener<E>() {
+			listChangeListener = new IDependencyListener.ListChange<E>() {
 				@Override
 				public void handleListChange(ListChangeEvent<? extends E> event) {
 					DecoratingObservableList.this.handleListChange(event);
@@ -21,6 +21,7 @@ import java.util.Set;
 
 import org.eclipse.core.databinding.observable.DecoratingObservable;
 import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 
 /**
  * An observable map which decorates another observable map.
@@ -87,7 +88,7 @@ public class DecoratingObservableMap<K, V> extends DecoratingObservable
 	@Override
 	protected void firstListenerAdded() {
 		if (mapChangeListener == null) {
-			mapChangeListener = new IMapChangeListener<K, V>() {
+			mapChangeListener = new IDependencyListener.MapChange<K, V>() {
 				@Override
 				public void handleMapChange(MapChangeEvent<? extends K, ? extends V> event) {
 					DecoratingObservableMap.this.handleMapChange(event);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 Matthew Hall and others.
+ * Copyright (c) 2008, 2016 Matthew Hall and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -26,6 +26,8 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
+import org.eclipse.core.internal.databinding.observable.Propagation;
 
 /**
  * A lazily calculated set that automatically computes and registers listeners
@@ -150,7 +152,7 @@ public abstract class ComputedSet<E> extends AbstractObservableSet<E> {
 	 *
 	 */
 	private class PrivateInterface implements Runnable, IChangeListener,
-			IStaleListener {
+			IStaleListener, IDependencyListener {
 		@Override
 		public void run() {
 			cachedSet = calculate();
@@ -172,6 +174,23 @@ public abstract class ComputedSet<E> extends AbstractObservableSet<E> {
 
 	private PrivateInterface privateInterface = new PrivateInterface();
 
+	/**
+	 * Notifies the listeners that this set is dirty, after the listeners of the
+	 * changed dependencies returned.
+	 */
+	private final Propagation.Node notifier = new Propagation.Node() {
+		@Override
+		protected void run() {
+			fireDirty();
+		}
+	};
+
+	/**
+	 * The contents the listeners last knew about, while the notifier is
+	 * scheduled.
+	 */
+	private Set<E> notifiedSet;
+
 	private Object elementType;
 
 	protected int doGetSize() {
@@ -194,8 +213,16 @@ public abstract class ComputedSet<E> extends AbstractObservableSet<E> {
 			// - Run the calculate method
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
-			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
-privateInterface, privateInterface, null);
+			int enclosing = Propagation.beginRanking();
+			IObservable[] newDependencies;
+			try {
+				newDependencies = ObservableTracker.runAndMonitor(
+						privateInterface, privateInterface, null);
+			} finally {
+				// rank the notifier above the computed dependencies
+				Propagation.endRanking(notifier, enclosing);
+			}
+			Propagation.recomputed();
 
 			// If any dependencies are stale, a stale event will be fired here
 			// even if we were already stale before recomputing. This is in case
@@ -219,6 +246,7 @@ privateInterface, privateInterface, null);
 			dirty = false;
 		}
 
+		Propagation.dependedOn(notifier);
 		return cachedSet;
 	}
 
@@ -236,37 +264,50 @@ privateInterface, privateInterface, null);
 		if (!dirty) {
 			dirty = true;
 
-			// copy the old set
-			// bug 414297: moved before makeStale(), as cachedSet may be
-			// overwritten
-			// in makeStale() if a listener calls isStale()
-			final Set<E> oldSet = new HashSet<>(cachedSet);
+			if (!notifier.isScheduled()) {
+				// copy the old set
+				// bug 414297: moved before makeStale(), as cachedSet may be
+				// overwritten
+				// in makeStale() if a listener calls isStale()
+				notifiedSet = new HashSet<>(cachedSet);
+			}
 			makeStale();
 
 			stopListening();
 
-			// Fire the "dirty" event. This implementation recomputes the new
-			// set lazily.
-			fireSetChange(new SetDiff<E>() {
-				SetDiff<E> delegate;
+			// Fire the "dirty" event once all dependencies that change in
+			// this wave are dirty, so that the new set is not computed from
+			// outdated dependencies.
+			Propagation.schedule(notifier);
+		}
+	}
 
-				private SetDiff<E> getDelegate() {
-					if (delegate == null)
-						delegate = Diffs.computeSetDiff(oldSet, getSet());
-					return delegate;
-				}
+	private void fireDirty() {
+		final Set<E> oldSet = notifiedSet;
+		notifiedSet = null;
+		if (isDisposed()) {
+			return;
+		}
+		// This implementation recomputes the new set lazily.
+		fireSetChange(new SetDiff<E>() {
+			SetDiff<E> delegate;
+
+			private SetDiff<E> getDelegate() {
+				if (delegate == null)
+					delegate = Diffs.computeSetDiff(oldSet, getSet());
+				return delegate;
+			}
 
-				@Override
-				public Set<E> getAdditions() {
-					return getDelegate().getAdditions();
-				}
+			@Override
+			public Set<E> getAdditions() {
+				return getDelegate().getAdditions();
+			}
 
-				@Override
-				public Set<E> getRemovals() {
-					return getDelegate().getRemovals();
-				}
-			});
-		}
+			@Override
+			public Set<E> getRemovals() {
+				return getDelegate().getRemovals();
+			}
+		});
 	}
 
 	private void stopListening() {
@@ -16,6 +16,7 @@ package org.eclipse.core.databinding.observable.set;
 
 import org.eclipse.core.databinding.observable.DecoratingObservableCollection;
 import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 
 /**
  * An observable set which decorates another observable set.
@@ -79,7 +80,7 @@ public class DecoratingObservableSet<E> extends
 	@Override
 	protected void firstListenerAdded() {
 		if (setChangeListener == null) {
-			setChangeListener = new ISetChangeListener<E>() {
+			setChangeListener = new IDependencyListener.SetChange<E>() {
 				@Override
 				public void handleSetChange(SetChangeEvent<? extends E> event) {
 					DecoratingObservableSet.this.handleSetChange(event);
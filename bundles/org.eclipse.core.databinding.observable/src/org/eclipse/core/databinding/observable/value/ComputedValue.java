@@ -24,6 +24,8 @@ import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.StaleEvent;
 import org.eclipse.core.databinding.observable.list.IObservableList;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
+import org.eclipse.core.internal.databinding.observable.Propagation;
 
 /**
  * A Lazily calculated value that automatically computes and registers listeners
@@ -164,7 +166,7 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 	 *
 	 */
 	private class PrivateInterface implements Runnable, IChangeListener,
-			IStaleListener {
+			IStaleListener, IDependencyListener {
 		@Override
 		public void run() {
 			cachedValue = calculate();
@@ -186,6 +188,23 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 
 	private PrivateInterface privateInterface = new PrivateInterface();
 
+	/**
+	 * Notifies the listeners that this value is dirty, after the listeners of
+	 * the changed dependencies returned.
+	 */
+	private final Propagation.Node notifier = new Propagation.Node() {
+		@Override
+		protected void run() {
+			fireDirty();
+		}
+	};
+
+	/**
+	 * The value the listeners last knew about, while the notifier is
+	 * scheduled.
+	 */
+	private T notifiedValue;
+
 	private Object valueType;
 
 	@Override
@@ -195,8 +214,16 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 			// - Run the calculate method
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
-			IObservable[] newDependencies = ObservableTracker.runAndMonitor(
-					privateInterface, privateInterface, null);
+			int enclosing = Propagation.beginRanking();
+			IObservable[] newDependencies;
+			try {
+				newDependencies = ObservableTracker.runAndMonitor(
+						privateInterface, privateInterface, null);
+			} finally {
+				// rank the notifier above the computed dependencies
+				Propagation.endRanking(notifier, enclosing);
+			}
+			Propagation.recomputed();
 
 			stale = false;
 			for (int i = 0; i < newDependencies.length; i++) {
@@ -214,6 +241,7 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 			dirty = false;
 		}
 
+		Propagation.dependedOn(notifier);
 		return cachedValue;
 	}
 
@@ -233,23 +261,36 @@ public abstract class ComputedValue<T> extends AbstractObservableValue<T> {
 
 			stopListening();
 
-			// copy the old value
-			final T oldValue = cachedValue;
-			// Fire the "dirty" event. This implementation recomputes the new
-			// value lazily.
-			fireValueChange(new ValueDiff<T>() {
-
-				@Override
-				public T getOldValue() {
-					return oldValue;
-				}
+			if (!notifier.isScheduled()) {
+				// copy the old value
+				notifiedValue = cachedValue;
+			}
+			// Fire the "dirty" event once all dependencies that change in
+			// this wave are dirty, so that the new value is not computed from
+			// outdated dependencies.
+			Propagation.schedule(notifier);
+		}
+	}
 
-				@Override
-				public T getNewValue() {
-					return getValue();
-				}
-			});
+	private void fireDirty() {
+		final T oldValue = notifiedValue;
+		notifiedValue = null;
+		if (isDisposed()) {
+			return;
 		}
+		// This implementation recomputes the new value lazily.
+		fireValueChange(new ValueDiff<T>() {
+
+			@Override
+			public T getOldValue() {
+				return oldValue;
+			}
+
+			@Override
+			public T getNewValue() {
+				return getValue();
+			}
+		});
 	}
 
 	/**
@@ -16,6 +16,7 @@ package org.eclipse.core.databinding.observable.value;
 
 import org.eclipse.core.databinding.observable.DecoratingObservable;
 import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 
 /**
  * An observable value which decorates another observable value.
@@ -70,7 +71,7 @@ public class DecoratingObservableValue<T> extends DecoratingObservable
 	@Override
 	protected void firstListenerAdded() {
 		if (valueChangeListener == null) {
-			valueChangeListener = new IValueChangeListener<T>() {
+			valueChangeListener = new IDependencyListener.ValueChange<T>() {
 				@Override
 				public void handleValueChange(ValueChangeEvent<? extends T> event) {
 					DecoratingObservableValue.this.handleValueChange(event);
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.IListChangeListener;
+import org.eclipse.core.databinding.observable.map.IMapChangeListener;
+import org.eclipse.core.databinding.observable.set.ISetChangeListener;
+import org.eclipse.core.databinding.observable.value.IValueChangeListener;
+
+/**
+ * Marks the listeners through which an observable follows the observables it
+ * depends on. Within a transaction of a realm, these listeners are notified of
+ * each event immediately, so that the dependent observables are up to date
+ * when they are read. The other listeners are notified when the transaction
+ * ends.
+ *
+ * @see Realm#runInTransaction(Runnable)
+ */
+public interface IDependencyListener {
+
+	/**
+	 * A value change listener of a dependent observable.
+	 *
+	 * @param <T>
+	 *            the type of the value
+	 */
+	interface ValueChange<T> extends IValueChangeListener<T>, IDependencyListener {
+	}
+
+	/**
+	 * A list change listener of a dependent observable.
+	 *
+	 * @param <E>
+	 *            the type of the elements
+	 */
+	interface ListChange<E> extends IListChangeListener<E>, IDependencyListener {
+	}
+
+	/**
+	 * A set change listener of a dependent observable.
+	 *
+	 * @param <E>
+	 *            the type of the elements
+	 */
+	interface SetChange<E> extends ISetChangeListener<E>, IDependencyListener {
+	}
+
+	/**
+	 * A map change listener of a dependent observable.
+	 *
+	 * @param <K>
+	 *            the type of the keys
+	 * @param <V>
+	 *            the type of the values
+	 */
+	interface MapChange<K, V> extends IMapChangeListener<K, V>, IDependencyListener {
+	}
+}
@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.PriorityQueue;
+
+/**
+ * Orders the propagation of changes through computed observables and
+ * side-effects.
+ * <p>
+ * A change wave starts when an observable notifies the listeners of the
+ * computed observables depending on it (see {@link IDependencyListener}) while
+ * no wave is running on the calling thread, and ends when all listeners of the
+ * change return. Events without such listeners do not start a wave.
+ * Computed observables that become dirty during a wave mark themselves dirty
+ * immediately, but notify their own listeners through a {@link Node} that is
+ * run after the listeners of the original change returned. The nodes are run
+ * in the order of their ranks, so that a computed observable depending on
+ * several dirty computed observables is notified, and recomputed by its
+ * listeners, only after all of them are dirty. This prevents listeners from
+ * seeing a value computed from a mix of old and new values, and prevents
+ * recomputing the same observable several times per wave.
+ * </p>
+ * <p>
+ * A computed observable ranks its node each time it is recomputed, one above
+ * the highest rank of the computed observables it read, see
+ * {@link #beginRanking()}. The nodes of a dependency graph therefore run in
+ * topological order from the first wave on. A node scheduled while another
+ * node runs also depends on it and its rank is raised above it, which orders
+ * side-effects and other nodes that are not ranked by their dependencies.
+ * </p>
+ * <p>
+ * Computed observables and side-effects report each recomputation by calling
+ * {@link #recomputed()}. The number of recomputations of the last wave of the
+ * calling thread can be read with {@link #getLastWaveRecomputations()}, to find
+ * dependency graphs that do too much work.
+ * </p>
+ *
+ * @since 1.6
+ */
+public final class Propagation {
+
+	/**
+	 * A task whose order in a wave depends on its rank.
+	 */
+	public static abstract class Node implements Comparable<Node> {
+		int rank;
+
+		long sequence;
+
+		boolean scheduled;
+
+		/**
+		 * Performs the task.
+		 */
+		protected abstract void run();
+
+		/**
+		 * @return <code>true</code> if the node is scheduled and has not run
+		 *         yet
+		 */
+		public final boolean isScheduled() {
+			return scheduled;
+		}
+
+		/**
+		 * @return the rank of the node
+		 */
+		public final int getRank() {
+			return rank;
+		}
+
+		@Override
+		public final int compareTo(Node other) {
+			if (rank != other.rank) {
+				return rank < other.rank ? -1 : 1;
+			}
+			return Long.compare(sequence, other.sequence);
+		}
+	}
+
+	/**
+	 * A queue of nodes ordered by rank, and in the order of scheduling among
+	 * nodes of the same rank.
+	 */
+	public static final class NodeQueue {
+		private final PriorityQueue<Node> nodes = new PriorityQueue<>();
+
+		private long sequence;
+
+		/**
+		 * Adds the given node, unless it is already scheduled. The rank of the
+		 * node is raised above the rank of the node running on the calling
+		 * thread, if any.
+		 *
+		 * @param node
+		 */
+		public void add(Node node) {
+			Node running = Propagation.running.get();
+			int rank = running == null ? node.rank : Math.max(node.rank, running.rank + 1);
+			if (node.scheduled) {
+				if (rank != node.rank) {
+					// reposition the node
+					nodes.remove(node);
+					node.rank = rank;
+					nodes.add(node);
+				}
+				return;
+			}
+			node.rank = rank;
+			node.sequence = sequence++;
+			node.scheduled = true;
+			nodes.add(node);
+		}
+
+		/**
+		 * Sets the rank of the given node, repositioning it if it is
+		 * scheduled in this queue. The rank of a node scheduled in another
+		 * queue is left unchanged.
+		 *
+		 * @param node
+		 * @param rank
+		 */
+		void setRank(Node node, int rank) {
+			if (node.rank == rank) {
+				return;
+			}
+			if (!node.scheduled) {
+				node.rank = rank;
+			} else if (nodes.remove(node)) {
+				node.rank = rank;
+				nodes.add(node);
+			}
+		}
+
+		/**
+		 * @return the node with the lowest rank, which is no longer scheduled,
+		 *         or <code>null</code> if the queue is empty
+		 */
+		public Node poll() {
+			Node node = nodes.poll();
+			if (node != null) {
+				node.scheduled = false;
+			}
+			return node;
+		}
+
+		/**
+		 * @return <code>true</code> if the queue is empty
+		 */
+		public boolean isEmpty() {
+			return nodes.isEmpty();
+		}
+	}
+
+	private static final ThreadLocal<Propagation> current = new ThreadLocal<Propagation>() {
+		@Override
+		protected Propagation initialValue() {
+			return new Propagation();
+		}
+	};
+
+	private static final ThreadLocal<Node> running = new ThreadLocal<>();
+
+	private final NodeQueue queue = new NodeQueue();
+
+	private boolean active;
+
+	private int recomputations;
+
+	private int lastRecomputations;
+
+	// Highest rank of the nodes read by the computation being ranked
+	private int dependencyRank = -1;
+
+	private Propagation() {
+	}
+
+	/**
+	 * Starts a wave on the calling thread, unless a wave is running already.
+	 * Every call must be followed by a call to {@link #endWave(boolean)} with
+	 * the returned value, in a finally block.
+	 *
+	 * @return <code>true</code> if a wave was started
+	 */
+	public static boolean beginWave() {
+		Propagation propagation = current.get();
+		if (propagation.active) {
+			return false;
+		}
+		propagation.active = true;
+		propagation.recomputations = 0;
+		return true;
+	}
+
+	/**
+	 * Ends the wave started by {@link #beginWave()}, after running the nodes
+	 * scheduled during the wave.
+	 *
+	 * @param started
+	 *            the value returned by {@link #beginWave()}
+	 */
+	public static void endWave(boolean started) {
+		endWave(started, null);
+	}
+
+	/**
+	 * Ends the wave started by {@link #beginWave()}, after running the nodes
+	 * scheduled during the wave, when the code run during the wave failed. An
+	 * exception thrown by the nodes is added to the given failure as a
+	 * suppressed exception instead of replacing it.
+	 *
+	 * @param started
+	 *            the value returned by {@link #beginWave()}
+	 * @param failure
+	 *            the exception thrown during the wave, or <code>null</code>
+	 */
+	public static void endWave(boolean started, Throwable failure) {
+		if (!started) {
+			return;
+		}
+		Propagation propagation = current.get();
+		try {
+			propagation.drain();
+		} catch (RuntimeException e) {
+			if (failure == null) {
+				throw e;
+			}
+			failure.addSuppressed(e);
+		} finally {
+			propagation.active = false;
+			propagation.lastRecomputations = propagation.recomputations;
+		}
+	}
+
+	/**
+	 * Runs the nodes scheduled so far in the wave running on the calling
+	 * thread, without ending the wave.
+	 */
+	public static void flush() {
+		Propagation propagation = current.get();
+		if (propagation.active) {
+			propagation.drain();
+		}
+	}
+
+	/**
+	 * Schedules the given node in the wave running on the calling thread. If
+	 * no wave is running, a wave is started and the node runs immediately.
+	 *
+	 * @param node
+	 */
+	public static void schedule(Node node) {
+		boolean started = beginWave();
+		try {
+			current.get().queue.add(node);
+		} finally {
+			endWave(started);
+		}
+	}
+
+	/**
+	 * Runs the given node, so that the nodes scheduled while it runs get a
+	 * higher rank.
+	 *
+	 * @param node
+	 */
+	public static void run(Node node) {
+		Node previous = running.get();
+		running.set(node);
+		try {
+			node.run();
+		} finally {
+			running.set(previous);
+		}
+	}
+
+	/**
+	 * Starts ranking a computation on the calling thread, such as the
+	 * recomputation of a computed observable. Every call must be followed by a
+	 * call to {@link #endRanking(Node, int)} with the returned value, in a
+	 * finally block.
+	 *
+	 * @return the state of the enclosing ranking, to be restored by
+	 *         {@link #endRanking(Node, int)}
+	 */
+	public static int beginRanking() {
+		Propagation propagation = current.get();
+		int enclosing = propagation.dependencyRank;
+		propagation.dependencyRank = -1;
+		return enclosing;
+	}
+
+	/**
+	 * Records that the computation being ranked on the calling thread read the
+	 * computed observable notified by the given node.
+	 *
+	 * @param node
+	 */
+	public static void dependedOn(Node node) {
+		Propagation propagation = current.get();
+		if (node.rank > propagation.dependencyRank) {
+			propagation.dependencyRank = node.rank;
+		}
+	}
+
+	/**
+	 * Ends the ranking started by {@link #beginRanking()} and sets the rank of
+	 * the given node one above the highest rank of the nodes the computation
+	 * depended on, or to 0 if it did not depend on any.
+	 *
+	 * @param node
+	 *            the node notifying the changes of the computation
+	 * @param enclosing
+	 *            the value returned by {@link #beginRanking()}
+	 */
+	public static void endRanking(Node node, int enclosing) {
+		Propagation propagation = current.get();
+		int rank = propagation.dependencyRank + 1;
+		propagation.dependencyRank = enclosing;
+		propagation.queue.setRank(node, rank);
+	}
+
+	/**
+	 * Records a recomputation of a computed observable or side-effect in the
+	 * wave running on the calling thread.
+	 */
+	public static void recomputed() {
+		Propagation propagation = current.get();
+		if (propagation.active) {
+			propagation.recomputations++;
+		}
+	}
+
+	/**
+	 * @return the number of recomputations of computed observables and
+	 *         side-effects during the last wave that ended on the calling
+	 *         thread
+	 */
+	public static int getLastWaveRecomputations() {
+		return current.get().lastRecomputations;
+	}
+
+	private void drain() {
+		RuntimeException failure = null;
+		Node node;
+		while ((node = queue.poll()) != null) {
+			try {
+				run(node);
+			} catch (RuntimeException e) {
+				// the remaining nodes must still notify their listeners
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
@@ -33,6 +33,7 @@ import org.eclipse.core.databinding.observable.masterdetail.IObservableFactory;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
 import org.eclipse.core.databinding.observable.value.IValueChangeListener;
 import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.runtime.Assert;
 
 /**
@@ -47,7 +48,7 @@ public class DetailObservableList<M, E> extends ObservableList<E>implements IObs
 
 	private boolean updating = false;
 
-	private IListChangeListener<E> innerChangeListener = new IListChangeListener<E>() {
+	private IListChangeListener<E> innerChangeListener = new IDependencyListener.ListChange<E>() {
 		@Override
 		public void handleListChange(ListChangeEvent<? extends E> event) {
 			if (!updating) {
@@ -98,7 +99,7 @@ public class DetailObservableList<M, E> extends ObservableList<E>implements IObs
 		outerObservableValue.addValueChangeListener(outerChangeListener);
 	}
 
-	IValueChangeListener<M> outerChangeListener = new IValueChangeListener<M>() {
+	IValueChangeListener<M> outerChangeListener = new IDependencyListener.ValueChange<M>() {
 		@Override
 		public void handleValueChange(ValueChangeEvent<? extends M> event) {
 			if (isDisposed())
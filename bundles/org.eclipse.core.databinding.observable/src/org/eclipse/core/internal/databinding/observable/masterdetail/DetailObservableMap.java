@@ -32,6 +32,7 @@ import org.eclipse.core.databinding.observable.masterdetail.IObservableFactory;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
 import org.eclipse.core.databinding.observable.value.IValueChangeListener;
 import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.runtime.Assert;
 
 /**
@@ -55,7 +56,7 @@ public class DetailObservableMap<M, K, V> extends ObservableMap<K, V>implements
 	private Object detailKeyType;
 	private Object detailValueType;
 
-	private IValueChangeListener<M> masterChangeListener = new IValueChangeListener<M>() {
+	private IValueChangeListener<M> masterChangeListener = new IDependencyListener.ValueChange<M>() {
 		@Override
 		public void handleValueChange(ValueChangeEvent<? extends M> event) {
 			if (isDisposed())
@@ -71,7 +72,7 @@ public class DetailObservableMap<M, K, V> extends ObservableMap<K, V>implements
 		}
 	};
 
-	private IMapChangeListener<K, V> detailChangeListener = new IMapChangeListener<K, V>() {
+	private IMapChangeListener<K, V> detailChangeListener = new IDependencyListener.MapChange<K, V>() {
 		@Override
 		public void handleMapChange(MapChangeEvent<? extends K, ? extends V> event) {
 			if (!updating) {
@@ -32,6 +32,7 @@ import org.eclipse.core.databinding.observable.set.SetChangeEvent;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
 import org.eclipse.core.databinding.observable.value.IValueChangeListener;
 import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.runtime.Assert;
 
 /**
@@ -46,7 +47,7 @@ public class DetailObservableSet<M, E> extends ObservableSet<E>implements IObser
 
 	private boolean updating = false;
 
-	private ISetChangeListener<E> innerChangeListener = new ISetChangeListener<E>() {
+	private ISetChangeListener<E> innerChangeListener = new IDependencyListener.SetChange<E>() {
 		@Override
 		public void handleSetChange(SetChangeEvent<? extends E> event) {
 			if (!updating) {
@@ -95,7 +96,7 @@ public class DetailObservableSet<M, E> extends ObservableSet<E>implements IObser
 		outerObservableValue.addValueChangeListener(outerChangeListener);
 	}
 
-	IValueChangeListener<M> outerChangeListener = new IValueChangeListener<M>() {
+	IValueChangeListener<M> outerChangeListener = new IDependencyListener.ValueChange<M>() {
 		@Override
 		public void handleValueChange(ValueChangeEvent<? extends M> event) {
 			if (isDisposed())
@@ -25,6 +25,7 @@ import org.eclipse.core.databinding.observable.value.AbstractObservableValue;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
 import org.eclipse.core.databinding.observable.value.IValueChangeListener;
 import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.runtime.Assert;
 
 /**
@@ -40,7 +41,7 @@ public class DetailObservableValue<M, T> extends AbstractObservableValue<T>
 
 	private boolean updating = false;
 
-	private IValueChangeListener<T> innerChangeListener = new IValueChangeListener<T>() {
+	private IValueChangeListener<T> innerChangeListener = new IDependencyListener.ValueChange<T>() {
 		@Override
 		public void handleValueChange(ValueChangeEvent<? extends T> event) {
 			if (!updating) {
@@ -91,7 +92,7 @@ public class DetailObservableValue<M, T> extends AbstractObservableValue<T>
 		outerObservableValue.addValueChangeListener(outerChangeListener);
 	}
 
-	IValueChangeListener<M> outerChangeListener = new IValueChangeListener<M>() {
+	IValueChangeListener<M> outerChangeListener = new IDependencyListener.ValueChange<M>() {
 		@Override
 		public void handleValueChange(ValueChangeEvent<? extends M> event) {
 			if (isDisposed())
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Google, Inc. and others.
+ * Copyright (c) 2015, 2016 Google, Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,7 @@ import org.eclipse.core.databinding.observable.IObservable;
 import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.sideeffect.ISideEffect;
+import org.eclipse.core.internal.databinding.observable.Propagation;
 import org.eclipse.core.runtime.Assert;
 
 /**
@@ -80,11 +81,6 @@ public final class SideEffect implements ISideEffect {
 	 * </ul>
 	 */
 	private boolean dirty;
-	/**
-	 * True if PrivateInterface is currently enqueued in a call to
-	 * realm.asyncExec
-	 */
-	private boolean asyncScheduled;
 	private int pauseDepth;
 	private Runnable runnable;
 	/**
@@ -194,6 +190,7 @@ public final class SideEffect implements ISideEffect {
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
 			IObservable[] newDependencies = ObservableTracker.runAndMonitor(runnable, null, null);
+			Propagation.recomputed();
 
 			// If the side-effect disposed itself, exit without attaching any
 			// listeners.
@@ -294,12 +291,9 @@ public final class SideEffect implements ISideEffect {
 	}
 
 	private void scheduleUpdate() {
-		if (this.asyncScheduled) {
-			return;
-		}
-
-		this.asyncScheduled = true;
-		realm.asyncExec(privateInterface);
+		// Runs after the side-effects this one depends on, see
+		// SideEffectScheduler
+		SideEffectScheduler.getScheduler(realm).schedule(privateInterface);
 	}
 
 	private void checkRealm() {
@@ -331,18 +325,17 @@ public final class SideEffect implements ISideEffect {
 		};
 	}
 
-	private class PrivateInterface implements IChangeListener, Runnable {
+	private class PrivateInterface extends Propagation.Node implements IChangeListener {
 		@Override
 		public void handleChange(ChangeEvent event) {
 			markDirtyInternal();
 		}
 
 		@Override
-		public void run() {
+		protected void run() {
 			if (isDisposed()) {
 				return;
 			}
-			asyncScheduled = false;
 			update();
 		}
 	}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.databinding.observable.sideeffect;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.util.Policy;
+import org.eclipse.core.internal.databinding.observable.Propagation;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+/**
+ * Runs the dirty side-effects of a realm in one asynchronous runnable, in the
+ * order of their ranks, so that a side-effect depending on the results of
+ * other side-effects runs after them. Every side-effect runs at most once per
+ * flush; side-effects that become dirty again after they ran are run by the
+ * next flush.
+ *
+ * @since 1.6
+ */
+/* package */ final class SideEffectScheduler implements Runnable {
+
+	private static final Map<Realm, WeakReference<SideEffectScheduler>> schedulers = new WeakHashMap<>();
+
+	private final Realm realm;
+
+	private final Propagation.NodeQueue queue = new Propagation.NodeQueue();
+
+	/**
+	 * True if this scheduler is currently enqueued in a call to
+	 * realm.asyncExec
+	 */
+	private boolean flushScheduled;
+
+	private SideEffectScheduler(Realm realm) {
+		this.realm = realm;
+	}
+
+	/**
+	 * @param realm
+	 * @return the scheduler of the given realm
+	 */
+	static SideEffectScheduler getScheduler(Realm realm) {
+		synchronized (schedulers) {
+			WeakReference<SideEffectScheduler> reference = schedulers.get(realm);
+			SideEffectScheduler scheduler = reference == null ? null : reference.get();
+			if (scheduler == null) {
+				// the scheduler refers to the realm, it must not be
+				// referenced strongly by the map
+				scheduler = new SideEffectScheduler(realm);
+				schedulers.put(realm, new WeakReference<>(scheduler));
+			}
+			return scheduler;
+		}
+	}
+
+	/**
+	 * Schedules the given side-effect update. Must be called within the realm.
+	 *
+	 * @param update
+	 *            the node updating the side-effect
+	 */
+	void schedule(Propagation.Node update) {
+		queue.add(update);
+		if (!flushScheduled) {
+			flushScheduled = true;
+			realm.asyncExec(this);
+		}
+	}
+
+	@Override
+	public void run() {
+		flushScheduled = false;
+		Set<Propagation.Node> ran = new HashSet<>();
+		List<Propagation.Node> deferred = new ArrayList<>();
+		boolean started = Propagation.beginWave();
+		try {
+			Propagation.Node update;
+			while ((update = queue.poll()) != null) {
+				if (!ran.add(update)) {
+					deferred.add(update);
+					continue;
+				}
+				try {
+					Propagation.run(update);
+					// notify the dependents of the observables the
+					// side-effect changed, before the next side-effect runs
+					Propagation.flush();
+				} catch (RuntimeException e) {
+					Policy.getLog().log(new Status(IStatus.ERROR, Policy.JFACE_DATABINDING, IStatus.OK,
+							"Unhandled exception: " + e.getMessage(), e)); //$NON-NLS-1$
+				}
+			}
+		} finally {
+			Propagation.endWave(started);
+			for (Propagation.Node update : deferred) {
+				queue.add(update);
+			}
+			if (!queue.isEmpty() && !flushScheduled) {
+				flushScheduled = true;
+				realm.asyncExec(this);
+			}
+		}
+	}
+}
@@ -20,16 +20,15 @@ import java.util.Set;
 
 import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
-import org.eclipse.core.databinding.observable.map.IMapChangeListener;
 import org.eclipse.core.databinding.observable.map.IObservableMap;
 import org.eclipse.core.databinding.observable.map.MapChangeEvent;
 import org.eclipse.core.databinding.observable.set.IObservableSet;
-import org.eclipse.core.databinding.observable.set.ISetChangeListener;
 import org.eclipse.core.databinding.observable.set.SetChangeEvent;
 import org.eclipse.core.databinding.property.value.DelegatingValueProperty;
 import org.eclipse.core.databinding.property.value.IValueProperty;
 import org.eclipse.core.internal.databinding.identity.IdentityMap;
 import org.eclipse.core.internal.databinding.identity.IdentityObservableSet;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 
 /**
  * @since 3.3
@@ -41,7 +40,7 @@ abstract class DelegatingCache<S, K extends S, V> {
 	private IObservableSet<K> elements;
 	private Map<IValueProperty<S, V>, DelegateCache> delegateCaches;
 
-	private class DelegateCache implements IMapChangeListener<K, V> {
+	private class DelegateCache implements IDependencyListener.MapChange<K, V> {
 		private final IValueProperty<S, V> delegate;
 		private final IObservableSet<K> masterElements;
 		private final IObservableMap<K, V> masterElementValues;
@@ -134,7 +133,7 @@ abstract class DelegatingCache<S, K extends S, V> {
 
 		this.delegateCaches = new IdentityMap<>();
 
-		elements.addSetChangeListener(new ISetChangeListener<K>() {
+		elements.addSetChangeListener(new IDependencyListener.SetChange<K>() {
 			@Override
 			public void handleSetChange(SetChangeEvent<? extends K> event) {
 				for (K element : event.diff.getRemovals()) {
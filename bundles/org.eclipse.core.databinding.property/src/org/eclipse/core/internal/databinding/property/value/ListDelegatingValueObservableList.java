@@ -32,6 +32,7 @@ import org.eclipse.core.databinding.observable.list.ListDiff;
 import org.eclipse.core.databinding.observable.list.ListDiffEntry;
 import org.eclipse.core.databinding.property.IPropertyObservable;
 import org.eclipse.core.databinding.property.value.DelegatingValueProperty;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 
 /**
  * @param <S>
@@ -48,7 +49,7 @@ public class ListDelegatingValueObservableList<S, T extends S, E> extends Abstra
 	private DelegatingValueProperty<S, E> detailProperty;
 	private DelegatingCache<S, T, E> cache;
 
-	private IListChangeListener<T> masterListener = new IListChangeListener<T>() {
+	private IListChangeListener<T> masterListener = new IDependencyListener.ListChange<T>() {
 		@Override
 		public void handleListChange(ListChangeEvent<? extends T> event) {
 			if (isDisposed())
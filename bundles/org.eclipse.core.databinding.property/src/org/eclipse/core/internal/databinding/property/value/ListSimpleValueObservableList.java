@@ -33,7 +33,6 @@ import org.eclipse.core.databinding.observable.list.ListChangeEvent;
 import org.eclipse.core.databinding.observable.list.ListDiff;
 import org.eclipse.core.databinding.observable.list.ListDiffEntry;
 import org.eclipse.core.databinding.observable.set.IObservableSet;
-import org.eclipse.core.databinding.observable.set.ISetChangeListener;
 import org.eclipse.core.databinding.observable.set.SetChangeEvent;
 import org.eclipse.core.databinding.observable.value.ValueDiff;
 import org.eclipse.core.databinding.property.INativePropertyListener;
@@ -44,6 +43,7 @@ import org.eclipse.core.databinding.property.value.SimpleValueProperty;
 import org.eclipse.core.internal.databinding.identity.IdentityMap;
 import org.eclipse.core.internal.databinding.identity.IdentityObservableSet;
 import org.eclipse.core.internal.databinding.identity.IdentitySet;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.internal.databinding.property.Util;
 
 /**
@@ -67,7 +67,7 @@ public class ListSimpleValueObservableList<S, M extends S, T> extends AbstractOb
 
 	private boolean updating;
 
-	private IListChangeListener<M> masterListener = new IListChangeListener<M>() {
+	private IListChangeListener<M> masterListener = new IDependencyListener.ListChange<M>() {
 		@Override
 		public void handleListChange(ListChangeEvent<? extends M> event) {
 			if (!isDisposed()) {
@@ -151,7 +151,7 @@ public class ListSimpleValueObservableList<S, M extends S, T> extends AbstractOb
 
 		cachedValues = new IdentityMap<>();
 		staleElements = new IdentitySet<>();
-		knownMasterElements.addSetChangeListener(new ISetChangeListener<M>() {
+		knownMasterElements.addSetChangeListener(new IDependencyListener.SetChange<M>() {
 			@Override
 			public void handleSetChange(SetChangeEvent<? extends M> event) {
 				for (M key : event.diff.getRemovals()) {
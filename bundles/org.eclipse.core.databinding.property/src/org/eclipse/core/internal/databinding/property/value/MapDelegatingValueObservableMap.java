@@ -31,6 +31,7 @@ import org.eclipse.core.databinding.observable.map.MapChangeEvent;
 import org.eclipse.core.databinding.observable.map.MapDiff;
 import org.eclipse.core.databinding.property.IPropertyObservable;
 import org.eclipse.core.databinding.property.value.DelegatingValueProperty;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.internal.databinding.property.Util;
 
 /**
@@ -140,7 +141,7 @@ public class MapDelegatingValueObservableMap<S, K, I extends S, V> extends Abstr
 		}
 	}
 
-	private IMapChangeListener<K, I> masterListener = new IMapChangeListener<K, I>() {
+	private IMapChangeListener<K, I> masterListener = new IDependencyListener.MapChange<K, I>() {
 		@Override
 		public void handleMapChange(final MapChangeEvent<? extends K, ? extends I> event) {
 			if (isDisposed())
@@ -30,7 +30,6 @@ import org.eclipse.core.databinding.observable.map.IObservableMap;
 import org.eclipse.core.databinding.observable.map.MapChangeEvent;
 import org.eclipse.core.databinding.observable.map.MapDiff;
 import org.eclipse.core.databinding.observable.set.IObservableSet;
-import org.eclipse.core.databinding.observable.set.ISetChangeListener;
 import org.eclipse.core.databinding.observable.set.SetChangeEvent;
 import org.eclipse.core.databinding.observable.value.ValueDiff;
 import org.eclipse.core.databinding.property.INativePropertyListener;
@@ -41,6 +40,7 @@ import org.eclipse.core.databinding.property.value.SimpleValueProperty;
 import org.eclipse.core.internal.databinding.identity.IdentityMap;
 import org.eclipse.core.internal.databinding.identity.IdentityObservableSet;
 import org.eclipse.core.internal.databinding.identity.IdentitySet;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.internal.databinding.property.Util;
 
 /**
@@ -66,7 +66,7 @@ public class MapSimpleValueObservableMap<S, K, I extends S, V> extends AbstractO
 
 	private boolean updating = false;
 
-	private IMapChangeListener<K, I> masterListener = new IMapChangeListener<K, I>() {
+	private IMapChangeListener<K, I> masterListener = new IDependencyListener.MapChange<K, I>() {
 		@Override
 		public void handleMapChange(final MapChangeEvent<? extends K, ? extends I> event) {
 			if (!isDisposed()) {
@@ -186,7 +186,7 @@ public class MapSimpleValueObservableMap<S, K, I extends S, V> extends AbstractO
 
 		cachedValues = new IdentityMap<>();
 		staleMasterValues = new IdentitySet<>();
-		knownMasterValues.addSetChangeListener(new ISetChangeListener<I>() {
+		knownMasterValues.addSetChangeListener(new IDependencyListener.SetChange<I>() {
 			@Override
 			public void handleSetChange(SetChangeEvent<? extends I> event) {
 				for (I key : event.diff.getRemovals()) {
@@ -31,6 +31,7 @@ import org.eclipse.core.databinding.observable.set.SetChangeEvent;
 import org.eclipse.core.databinding.observable.set.SetDiff;
 import org.eclipse.core.databinding.property.IPropertyObservable;
 import org.eclipse.core.databinding.property.value.DelegatingValueProperty;
+import org.eclipse.core.internal.databinding.observable.IDependencyListener;
 import org.eclipse.core.internal.databinding.property.Util;
 
 /**
@@ -135,7 +136,7 @@ public class SetDelegatingValueObservableMap<S, K extends S, V> extends Abstract
 		}
 	}
 
-	private ISetChangeListener<K> masterListener = new ISetChangeListener<K>() {
+	private ISetChangeListener<K> masterListener = new IDependencyListener.SetChange<K>() {
 		@Override
 		public void handleSetChange(SetChangeEvent<? extends K> event) {
 			if (isDisposed())
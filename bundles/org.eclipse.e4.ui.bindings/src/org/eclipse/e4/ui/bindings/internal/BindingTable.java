@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 IBM Corporation and others.
+ * Copyright (c) 2010, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -126,7 +126,8 @@ public class BindingTable {
 	private ArrayList<Binding> bindings = new ArrayList<Binding>();
 	private Map<TriggerSequence, Binding> bindingsByTrigger = new HashMap<TriggerSequence, Binding>();
 	private Map<ParameterizedCommand, ArrayList<Binding>> bindingsByCommand = new HashMap<ParameterizedCommand, ArrayList<Binding>>();
-	private Map<TriggerSequence, ArrayList<Binding>> bindingsByPrefix = new HashMap<TriggerSequence, ArrayList<Binding>>();
+	private BindingTrie bindingsBySequence = new BindingTrie();
+	private int modificationCount;
 	private Map<TriggerSequence, ArrayList<Binding>> conflicts = new HashMap<TriggerSequence, ArrayList<Binding>>();
 	private Map<TriggerSequence, ArrayList<Binding>> orderedBindingsByTrigger = new HashMap<TriggerSequence, ArrayList<Binding>>();
 
@@ -203,15 +204,8 @@ public class BindingTable {
 		sequences.add(binding);
 		Collections.sort(sequences, BEST_SEQUENCE);
 
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings == null) {
-				bindings = new ArrayList<Binding>();
-				bindingsByPrefix.put(prefs[i], bindings);
-			}
-			bindings.add(binding);
-		}
+		bindingsBySequence.put(binding);
+		modificationCount++;
 	}
 
 	private void removeBindingSimple(Binding binding) {
@@ -222,13 +216,8 @@ public class BindingTable {
 		if (sequences != null) {
 			sequences.remove(binding);
 		}
-		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
-		for (int i = 1; i < prefs.length; i++) {
-			ArrayList<Binding> bindings = bindingsByPrefix.get(prefs[i]);
-			if (bindings != null) {
-				bindings.remove(binding);
-			}
-		}
+		bindingsBySequence.remove(binding.getTriggerSequence());
+		modificationCount++;
 	}
 
 	public void removeBinding(Binding binding) {
@@ -332,11 +321,46 @@ public class BindingTable {
 	}
 
 	public Collection<Binding> getPartialMatches(TriggerSequence sequence) {
-		return bindingsByPrefix.get(sequence);
+		BindingTrie.Node node = getPrefixNode(sequence);
+		if (node == null) {
+			return null;
+		}
+		Collection<Binding> partialMatches = new ArrayList<Binding>();
+		node.collectDescendants(partialMatches);
+		return partialMatches;
 	}
 
 	public boolean isPartialMatch(TriggerSequence seq) {
-		return bindingsByPrefix.get(seq) != null;
+		return getPrefixNode(seq) != null;
+	}
+
+	/**
+	 * @return the trie node of the given sequence if it is a proper prefix of
+	 *         the sequence of a binding, <code>null</code> otherwise
+	 */
+	private BindingTrie.Node getPrefixNode(TriggerSequence sequence) {
+		if (sequence.isEmpty()) {
+			return null;
+		}
+		BindingTrie.Node node = bindingsBySequence.getNode(sequence);
+		return node != null && node.hasChildren() ? node : null;
+	}
+
+	/**
+	 * @return the root of the trie of the bindings of this table, keyed by
+	 *         the triggers of their sequences
+	 */
+	BindingTrie.Node getTrieRoot() {
+		return bindingsBySequence.getRoot();
+	}
+
+	/**
+	 * @return a counter incremented whenever the bindings returned by
+	 *         {@link #getPerfectMatch(TriggerSequence)} or
+	 *         {@link #getPartialMatches(TriggerSequence)} change
+	 */
+	int getModificationCount() {
+		return modificationCount;
 	}
 
 	public Collection<Binding> getBindings() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 IBM Corporation and others.
+ * Copyright (c) 2010, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,21 +14,183 @@ package org.eclipse.e4.ui.bindings.internal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import javax.inject.Inject;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.Trigger;
 import org.eclipse.jface.bindings.TriggerSequence;
 
 /**
  * manage tables of bindings that can be used to look up commands from keys.
+ * <p>
+ * Key sequences are resolved against a merged view of the binding tables per
+ * context set, which walks the binding tries of all tables of the set in
+ * parallel and remembers the merged nodes it visited. A keystroke is then
+ * resolved in time proportional to the length of the sequence, and switching
+ * back to a context set used before reuses its view.
+ * </p>
  */
 public class BindingTableManager {
 	private static final String BINDING_TABLE_PREFIX = "bindingTable:"; //$NON-NLS-1$
 
+	/** The maximum number of context sets whose views are kept */
+	private static final int MAX_ACTIVE_VIEWS = 8;
+
+	/**
+	 * The bindings of the tables of a context set, merged into one trie.
+	 */
+	private final class ActiveBindingView {
+		private final int generation;
+		private final BindingTable[] tables;
+		private final int[] modificationCounts;
+		private final MergedNode root;
+
+		ActiveBindingView(ContextSet contextSet) {
+			generation = BindingTableManager.this.generation;
+			List<Context> contexts = contextSet.getContexts();
+			tables = new BindingTable[contexts.size()];
+			modificationCounts = new int[tables.length];
+			BindingTrie.Node[] roots = new BindingTrie.Node[tables.length];
+			for (int i = 0; i < tables.length; i++) {
+				BindingTable table = getTable(contexts.get(i).getId());
+				if (table != null) {
+					tables[i] = table;
+					modificationCounts[i] = table.getModificationCount();
+					roots[i] = table.getTrieRoot();
+				}
+			}
+			root = new MergedNode(roots);
+		}
+
+		/**
+		 * @return <code>false</code> if tables or schemes changed since this
+		 *         view was created
+		 */
+		boolean isValid() {
+			if (generation != BindingTableManager.this.generation) {
+				return false;
+			}
+			for (int i = 0; i < tables.length; i++) {
+				if (tables[i] != null && tables[i].getModificationCount() != modificationCounts[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * @return the merged node of the given sequence, or <code>null</code>
+		 *         if no table has a binding starting with it
+		 */
+		MergedNode getNode(TriggerSequence sequence) {
+			if (sequence.isEmpty()) {
+				return null;
+			}
+			MergedNode node = root;
+			for (Trigger trigger : sequence.getTriggers()) {
+				node = node.getChild(trigger);
+				if (node == null) {
+					return null;
+				}
+			}
+			return node;
+		}
+	}
+
+	/**
+	 * The trie nodes of one sequence in each table of a context set.
+	 */
+	private final class MergedNode {
+		/** The node of each table, in context order, or null */
+		private final BindingTrie.Node[] layers;
+		private Map<Trigger, MergedNode> children;
+		private boolean perfectMatchComputed;
+		private Binding perfectMatch;
+
+		MergedNode(BindingTrie.Node[] layers) {
+			this.layers = layers;
+		}
+
+		MergedNode getChild(Trigger trigger) {
+			MergedNode child = children == null ? null : children.get(trigger);
+			if (child != null) {
+				return child;
+			}
+			BindingTrie.Node[] childLayers = null;
+			for (int i = 0; i < layers.length; i++) {
+				BindingTrie.Node layerChild = layers[i] == null ? null : layers[i].getChild(trigger);
+				if (layerChild != null) {
+					if (childLayers == null) {
+						childLayers = new BindingTrie.Node[layers.length];
+					}
+					childLayers[i] = layerChild;
+				}
+			}
+			if (childLayers == null) {
+				return null;
+			}
+			child = new MergedNode(childLayers);
+			if (children == null) {
+				children = new HashMap<Trigger, MergedNode>(4);
+			}
+			children.put(trigger, child);
+			return child;
+		}
+
+		Binding getPerfectMatch() {
+			if (!perfectMatchComputed) {
+				perfectMatch = computePerfectMatch();
+				perfectMatchComputed = true;
+			}
+			return perfectMatch;
+		}
+
+		private Binding computePerfectMatch() {
+			Binding result = null;
+			for (int i = layers.length - 1; i >= 0; i--) {
+				Binding currentResult = layers[i] == null ? null : layers[i].getBinding();
+				if (currentResult != null) {
+					if (isMostActiveScheme(currentResult)) {
+						return currentResult;
+					}
+					if (result == null) {
+						result = currentResult;
+					} else {
+						int rc = compareSchemes(result.getSchemeId(), currentResult.getSchemeId());
+						if (rc < 0) {
+							result = currentResult;
+						}
+					}
+				}
+			}
+			return result;
+		}
+
+		boolean isPartialMatch() {
+			for (BindingTrie.Node layer : layers) {
+				if (layer != null && layer.hasChildren()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void collectPartialMatches(Collection<Binding> result) {
+			for (int i = layers.length - 1; i >= 0; i--) {
+				if (layers[i] != null) {
+					layers[i].collectDescendants(result);
+				}
+			}
+		}
+	}
+
 	@Inject
 	private IEclipseContext eclipseContext;
 
@@ -36,6 +198,21 @@ public class BindingTableManager {
 
 	private String[] activeSchemeIds;
 
+	/**
+	 * Incremented whenever tables are added or removed or the active schemes
+	 * change, which invalidates all views.
+	 */
+	private int generation;
+
+	@SuppressWarnings("serial")
+	private final Map<ContextSet, ActiveBindingView> activeViews = new LinkedHashMap<ContextSet, ActiveBindingView>(
+			16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ContextSet, ActiveBindingView> eldest) {
+			return size() > MAX_ACTIVE_VIEWS;
+		}
+	};
+
 	public void addTable(BindingTable table) {
 		String contextId = getTableId(table.getId());
 		if (eclipseContext.containsKey(contextId)) {
@@ -43,6 +220,7 @@ public class BindingTableManager {
 			//			throw new IllegalArgumentException("Already contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.set(contextId, table);
+		generation++;
 		final List<Context> contexts = definedTables.getContexts();
 		if (!contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -61,6 +239,7 @@ public class BindingTableManager {
 			throw new IllegalArgumentException("Does not contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.remove(contextId);
+		generation++;
 		final List<Context> contexts = definedTables.getContexts();
 		if (contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -120,31 +299,21 @@ public class BindingTableManager {
 	}
 
 	public Binding getPerfectMatch(ContextSet contextSet, TriggerSequence triggerSequence) {
-		Binding result = null;
-		Binding currentResult = null;
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				currentResult = table.getPerfectMatch(triggerSequence);
-			}
-			if (currentResult != null) {
-				if (isMostActiveScheme(currentResult)) {
-					return currentResult;
-				}
-				if (result == null) {
-					result = currentResult;
-				} else {
-					int rc = compareSchemes(result.getSchemeId(), currentResult.getSchemeId());
-					if (rc < 0) {
-						result = currentResult;
-					}
-				}
-			}
+		MergedNode node = getActiveView(contextSet).getNode(triggerSequence);
+		return node == null ? null : node.getPerfectMatch();
+	}
+
+	/**
+	 * Returns the merged view of the tables of the given context set, creating
+	 * it if the set was not used recently or its tables changed.
+	 */
+	private ActiveBindingView getActiveView(ContextSet contextSet) {
+		ActiveBindingView view = activeViews.get(contextSet);
+		if (view == null || !view.isValid()) {
+			view = new ActiveBindingView(contextSet);
+			activeViews.put(contextSet, view);
 		}
-		return result;
+		return view;
 	}
 
 	/**
@@ -203,33 +372,15 @@ public class BindingTableManager {
 	}
 
 	public boolean isPartialMatch(ContextSet contextSet, TriggerSequence sequence) {
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				if (table.isPartialMatch(sequence)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		MergedNode node = getActiveView(contextSet).getNode(sequence);
+		return node != null && node.isPartialMatch();
 	}
 
 	public Collection<Binding> getPartialMatches(ContextSet contextSet, TriggerSequence sequence) {
 		ArrayList<Binding> bindings = new ArrayList<Binding>();
-		List<Context> contexts = contextSet.getContexts();
-		ListIterator<Context> it = contexts.listIterator(contexts.size());
-		while (it.hasPrevious()) {
-			Context c = it.previous();
-			BindingTable table = getTable(c.getId());
-			if (table != null) {
-				Collection<Binding> partialMatches = table.getPartialMatches(sequence);
-				if (partialMatches != null) {
-					bindings.addAll(partialMatches);
-				}
-			}
+		MergedNode node = getActiveView(contextSet).getNode(sequence);
+		if (node != null) {
+			node.collectPartialMatches(bindings);
 		}
 		return bindings;
 	}
@@ -240,6 +391,7 @@ public class BindingTableManager {
 	public void setActiveSchemes(String[] activeSchemeIds) {
 		this.activeSchemeIds = activeSchemeIds;
 		BindingTable.BEST_SEQUENCE.setActiveSchemes(activeSchemeIds);
+		generation++;
 	}
 
 	/*
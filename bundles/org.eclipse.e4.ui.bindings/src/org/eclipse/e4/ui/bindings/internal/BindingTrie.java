@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.bindings.internal;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.Trigger;
+import org.eclipse.jface.bindings.TriggerSequence;
+
+/**
+ * A trie of the bindings of a {@link BindingTable}, keyed by the triggers
+ * (key strokes) of their sequences. The node of a sequence holds the binding
+ * for that sequence, if any, and its descendants hold the bindings the
+ * sequence is a prefix of.
+ */
+final class BindingTrie {
+
+	static final class Node {
+		private final Node parent;
+		private final Trigger trigger;
+		private Map<Trigger, Node> children;
+		private Binding binding;
+
+		Node(Node parent, Trigger trigger) {
+			this.parent = parent;
+			this.trigger = trigger;
+		}
+
+		Node getChild(Trigger trigger) {
+			return children == null ? null : children.get(trigger);
+		}
+
+		/**
+		 * @return <code>true</code> if bindings with longer sequences start
+		 *         with the sequence of this node
+		 */
+		boolean hasChildren() {
+			return children != null && !children.isEmpty();
+		}
+
+		Binding getBinding() {
+			return binding;
+		}
+
+		/**
+		 * Adds the bindings below this node, not including the binding of this
+		 * node, to the given collection.
+		 */
+		void collectDescendants(Collection<Binding> result) {
+			if (children == null) {
+				return;
+			}
+			for (Node child : children.values()) {
+				if (child.binding != null) {
+					result.add(child.binding);
+				}
+				child.collectDescendants(result);
+			}
+		}
+	}
+
+	private final Node root = new Node(null, null);
+
+	/**
+	 * Records the given binding as the one for its trigger sequence, replacing
+	 * any previous one.
+	 */
+	void put(Binding binding) {
+		Node node = root;
+		for (Trigger trigger : binding.getTriggerSequence().getTriggers()) {
+			Node child = node.getChild(trigger);
+			if (child == null) {
+				if (node.children == null) {
+					node.children = new HashMap<Trigger, Node>(4);
+				}
+				child = new Node(node, trigger);
+				node.children.put(trigger, child);
+			}
+			node = child;
+		}
+		node.binding = binding;
+	}
+
+	/**
+	 * Removes the binding recorded for the given trigger sequence and the
+	 * nodes which are no longer on the path to any binding.
+	 */
+	void remove(TriggerSequence sequence) {
+		Node node = getNode(sequence);
+		if (node == null) {
+			return;
+		}
+		node.binding = null;
+		while (node.parent != null && node.binding == null && !node.hasChildren()) {
+			node.parent.children.remove(node.trigger);
+			node = node.parent;
+		}
+	}
+
+	/**
+	 * @return the node of the given sequence, or <code>null</code> if no
+	 *         binding starts with it
+	 */
+	Node getNode(TriggerSequence sequence) {
+		Node node = root;
+		for (Trigger trigger : sequence.getTriggers()) {
+			node = node.getChild(trigger);
+			if (node == null) {
+				return null;
+			}
+		}
+		return node;
+	}
+
+	Node getRoot() {
+		return root;
+	}
+}
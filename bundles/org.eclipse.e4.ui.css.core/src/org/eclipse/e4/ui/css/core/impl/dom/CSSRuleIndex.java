@@ -0,0 +1,403 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+import org.w3c.dom.stylesheets.StyleSheetList;
+
+/**
+ * Index of the style rule selectors of a list of style sheets, bucketed by
+ * the id, class or element type required by their rightmost simple selector.
+ * An element only has to be matched against the selectors of the buckets for
+ * its own id, classes and type, plus the selectors which do not require any of
+ * them.
+ * <p>
+ * The index is a snapshot: it records the style sheets and rule lists it was
+ * built from so that {@link #isValid(StyleSheetList)} can tell when it has to
+ * be rebuilt.
+ * </p>
+ * <p>
+ * Selectors made only of element types, ids, classes and descendant or child
+ * combinators are <em>structural</em>: whether they match depends only on the
+ * type, id and classes of an element and of its ancestors. The outcome of
+ * matching them is cached per such structural fingerprint, see
+ * {@link #getRelevantEntries(Element)}. Since the cache lives in the index, it
+ * is dropped together with the index when a style sheet changes.
+ * </p>
+ */
+final class CSSRuleIndex {
+
+	/**
+	 * A selector of a style rule, with everything needed to match it and to
+	 * order it in the cascade computed upfront.
+	 */
+	static final class Entry {
+		final ExtendedSelector selector;
+		final CSSStyleRule rule;
+		final int specificity;
+		final int order;
+		final boolean structural;
+
+		Entry(ExtendedSelector selector, CSSStyleRule rule, int order) {
+			this.selector = selector;
+			this.rule = rule;
+			this.specificity = selector.getSpecificity();
+			this.order = order;
+			this.structural = isStructural(selector);
+		}
+	}
+
+	/**
+	 * The structural fingerprint of an element: its namespace, type, id and
+	 * classes, and the fingerprint of its parent element.
+	 */
+	static final class StyleKey {
+		private final String namespaceURI;
+		private final String type;
+		private final String id;
+		private final String classes;
+		private final StyleKey parent;
+		private final int hashCode;
+
+		private StyleKey(Element element, StyleKey parent) {
+			this.namespaceURI = element.getNamespaceURI();
+			this.type = getType(element);
+			this.id = getId(element);
+			this.classes = getClasses(element);
+			this.parent = parent;
+			this.hashCode = Objects.hash(namespaceURI, type, id, classes, parent);
+		}
+
+		static StyleKey of(Element element) {
+			Node parentNode = element.getParentNode();
+			StyleKey parent = null;
+			if (parentNode != null && parentNode.getNodeType() == Node.ELEMENT_NODE) {
+				parent = of((Element) parentNode);
+			}
+			return new StyleKey(element, parent);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof StyleKey)) {
+				return false;
+			}
+			StyleKey other = (StyleKey) obj;
+			return hashCode == other.hashCode && Objects.equals(type, other.type) && Objects.equals(id, other.id)
+					&& Objects.equals(classes, other.classes) && Objects.equals(namespaceURI, other.namespaceURI)
+					&& Objects.equals(parent, other.parent);
+		}
+	}
+
+	/** The maximum number of structural fingerprints whose matches are kept */
+	private static final int MAX_CACHED_KEYS = 4096;
+
+	private static final Comparator<Entry> ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			return Integer.compare(e1.order, e2.order);
+		}
+	};
+
+	private final Map<String, List<Entry>> byId = new HashMap<>();
+	private final Map<String, List<Entry>> byClass = new HashMap<>();
+	private final Map<String, List<Entry>> byType = new HashMap<>();
+	private final List<Entry> universal = new ArrayList<>();
+
+	private final List<CSSStyleSheet> styleSheets = new ArrayList<>();
+	private final List<CSSRuleList> ruleLists = new ArrayList<>();
+	private final List<Integer> ruleCounts = new ArrayList<>();
+
+	@SuppressWarnings("serial")
+	private final Map<StyleKey, List<Entry>> relevantEntries = new LinkedHashMap<StyleKey, List<Entry>>(64, 0.75f,
+			true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<StyleKey, List<Entry>> eldest) {
+			return size() > MAX_CACHED_KEYS;
+		}
+	};
+
+	private int cacheHits;
+	private int cacheMisses;
+
+	CSSRuleIndex(StyleSheetList styleSheetList) {
+		int order = 0;
+		int l = styleSheetList.getLength();
+		for (int i = 0; i < l; i++) {
+			CSSStyleSheet styleSheet = (CSSStyleSheet) styleSheetList.item(i);
+			CSSRuleList rules = styleSheet.getCssRules();
+			styleSheets.add(styleSheet);
+			ruleLists.add(rules);
+			ruleCounts.add(rules.getLength());
+
+			int rulesSize = rules.getLength();
+			for (int j = 0; j < rulesSize; j++) {
+				CSSRule rule = rules.item(j);
+				if (rule.getType() != CSSRule.STYLE_RULE || !(rule instanceof ExtendedCSSRule)) {
+					continue;
+				}
+				SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+				int selectors = selectorList.getLength();
+				for (int k = 0; k < selectors; k++) {
+					Selector selector = selectorList.item(k);
+					if (selector instanceof ExtendedSelector) {
+						add(new Entry((ExtendedSelector) selector, (CSSStyleRule) rule, order++));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the given list still holds the same style
+	 *         sheets and rule lists this index was built from
+	 */
+	boolean isValid(StyleSheetList styleSheetList) {
+		int l = styleSheetList.getLength();
+		if (l != styleSheets.size()) {
+			return false;
+		}
+		for (int i = 0; i < l; i++) {
+			CSSStyleSheet styleSheet = (CSSStyleSheet) styleSheetList.item(i);
+			if (styleSheet != styleSheets.get(i)) {
+				return false;
+			}
+			CSSRuleList rules = styleSheet.getCssRules();
+			if (rules != ruleLists.get(i) || rules.getLength() != ruleCounts.get(i).intValue()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the entries whose selectors may match the given element, in the
+	 * order of their rules in the style sheets.
+	 */
+	List<Entry> getCandidates(Element element) {
+		String classes = getClasses(element);
+		List<Entry> candidates = new ArrayList<>(universal);
+		addAll(candidates, byType, getType(element));
+		addAll(candidates, byId, getId(element));
+		if (classes != null && !byClass.isEmpty()) {
+			int length = classes.length();
+			int start = -1;
+			for (int i = 0; i <= length; i++) {
+				if (i == length || Character.isSpaceChar(classes.charAt(i))) {
+					if (start != -1) {
+						addAll(candidates, byClass, classes.substring(start, i));
+						start = -1;
+					}
+				} else if (start == -1) {
+					start = i;
+				}
+			}
+		}
+		if (candidates.size() != universal.size()) {
+			Collections.sort(candidates, ORDER);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Returns the entries which have to be considered for the given element,
+	 * in the order of their rules in the style sheets: the structural entries
+	 * which match the element and the non structural candidates, which still
+	 * have to be matched by the caller. The result is cached by the
+	 * structural fingerprint of the element, so elements sharing a type, id,
+	 * classes and ancestry are only matched against the structural selectors
+	 * once.
+	 */
+	List<Entry> getRelevantEntries(Element element) {
+		StyleKey key = StyleKey.of(element);
+		List<Entry> entries = relevantEntries.get(key);
+		if (entries != null) {
+			cacheHits++;
+			return entries;
+		}
+		cacheMisses++;
+		List<Entry> candidates = getCandidates(element);
+		entries = new ArrayList<>(candidates.size());
+		for (Entry entry : candidates) {
+			if (!entry.structural || entry.selector.match(element, null)) {
+				entries.add(entry);
+			}
+		}
+		relevantEntries.put(key, entries);
+		return entries;
+	}
+
+	/**
+	 * @return the number of lookups answered from the structural match cache
+	 */
+	int getCacheHits() {
+		return cacheHits;
+	}
+
+	/**
+	 * @return the number of lookups which had to match the candidates
+	 */
+	int getCacheMisses() {
+		return cacheMisses;
+	}
+
+	private static String getType(Element element) {
+		return element.getPrefix() == null ? element.getNodeName() : element.getLocalName();
+	}
+
+	private static String getId(Element element) {
+		if (element instanceof CSSStylableElement) {
+			return ((CSSStylableElement) element).getCSSId();
+		}
+		return element.getAttribute("id"); //$NON-NLS-1$
+	}
+
+	private static String getClasses(Element element) {
+		if (element instanceof CSSStylableElement) {
+			return ((CSSStylableElement) element).getCSSClass();
+		}
+		return element.getAttribute("class"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return <code>true</code> if matching the given selector only depends on
+	 *         the namespace, type, id and classes of an element and of its
+	 *         ancestors
+	 */
+	private static boolean isStructural(Selector selector) {
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+			return true;
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			return isStructural(((ConditionalSelector) selector).getSimpleSelector())
+					&& isStructural(((ConditionalSelector) selector).getCondition());
+		case Selector.SAC_DESCENDANT_SELECTOR:
+		case Selector.SAC_CHILD_SELECTOR:
+			return isStructural(((DescendantSelector) selector).getAncestorSelector())
+					&& isStructural(((DescendantSelector) selector).getSimpleSelector());
+		default:
+			return false;
+		}
+	}
+
+	private static boolean isStructural(Condition condition) {
+		switch (condition.getConditionType()) {
+		case Condition.SAC_ID_CONDITION:
+		case Condition.SAC_CLASS_CONDITION:
+			return true;
+		case Condition.SAC_AND_CONDITION:
+			return isStructural(((CombinatorCondition) condition).getFirstCondition())
+					&& isStructural(((CombinatorCondition) condition).getSecondCondition());
+		default:
+			return false;
+		}
+	}
+
+	private static void addAll(List<Entry> candidates, Map<String, List<Entry>> bucket, String key) {
+		if (key != null) {
+			List<Entry> entries = bucket.get(key);
+			if (entries != null) {
+				candidates.addAll(entries);
+			}
+		}
+	}
+
+	private void add(Entry entry) {
+		Selector rightmost = getRightmostSimpleSelector(entry.selector);
+		if (rightmost instanceof ConditionalSelector) {
+			Condition condition = ((ConditionalSelector) rightmost).getCondition();
+			if (add(byId, getConditionValue(condition, Condition.SAC_ID_CONDITION), entry)
+					|| add(byClass, getConditionValue(condition, Condition.SAC_CLASS_CONDITION), entry)) {
+				return;
+			}
+			rightmost = ((ConditionalSelector) rightmost).getSimpleSelector();
+		}
+		if (rightmost != null && rightmost.getSelectorType() == Selector.SAC_ELEMENT_NODE_SELECTOR
+				&& add(byType, ((ElementSelector) rightmost).getLocalName(), entry)) {
+			return;
+		}
+		universal.add(entry);
+	}
+
+	private static boolean add(Map<String, List<Entry>> bucket, String key, Entry entry) {
+		if (key == null) {
+			return false;
+		}
+		List<Entry> entries = bucket.get(key);
+		if (entries == null) {
+			entries = new ArrayList<>(2);
+			bucket.put(key, entries);
+		}
+		entries.add(entry);
+		return true;
+	}
+
+	private static Selector getRightmostSimpleSelector(Selector selector) {
+		switch (selector.getSelectorType()) {
+		case Selector.SAC_DESCENDANT_SELECTOR:
+		case Selector.SAC_CHILD_SELECTOR:
+			return getRightmostSimpleSelector(((DescendantSelector) selector).getSimpleSelector());
+		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
+			return getRightmostSimpleSelector(((SiblingSelector) selector).getSiblingSelector());
+		default:
+			return selector;
+		}
+	}
+
+	/**
+	 * Returns the value of an id or class condition the given condition
+	 * requires, or <code>null</code> if it does not require one.
+	 */
+	private static String getConditionValue(Condition condition, short conditionType) {
+		if (condition.getConditionType() == conditionType) {
+			return ((AttributeCondition) condition).getValue();
+		}
+		if (condition.getConditionType() == Condition.SAC_AND_CONDITION) {
+			CombinatorCondition and = (CombinatorCondition) condition;
+			String value = getConditionValue(and.getFirstCondition(), conditionType);
+			return value != null ? value : getConditionValue(and.getSecondCondition(), conditionType);
+		}
+		return null;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 Angelo Zerr and others.
+ * Copyright (c) 2008, 2016 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,10 +21,8 @@ import org.w3c.css.sac.Selector;
 import org.w3c.css.sac.SelectorList;
 import org.w3c.dom.Element;
 import org.w3c.dom.css.CSSRule;
-import org.w3c.dom.css.CSSRuleList;
 import org.w3c.dom.css.CSSStyleDeclaration;
 import org.w3c.dom.css.CSSStyleRule;
-import org.w3c.dom.css.CSSStyleSheet;
 import org.w3c.dom.css.DocumentCSS;
 import org.w3c.dom.css.ViewCSS;
 import org.w3c.dom.stylesheets.StyleSheetList;
@@ -38,6 +36,8 @@ public class ViewCSSImpl implements ViewCSS {
 
 	protected DocumentCSS documentCSS;
 
+	private CSSRuleIndex ruleIndex;
+
 	/**
 	 * Creates a new ViewCSS.
 	 */
@@ -55,29 +55,75 @@ public class ViewCSSImpl implements ViewCSS {
 	}
 
 	/**
-	 * Determines the relevant style declaration for an DOM element
+	 * Determines the relevant style declaration for an DOM element. Only the
+	 * rules whose rightmost simple selector may match the element are
+	 * evaluated, and the outcome of matching structural selectors is shared
+	 * by all elements with the same structural fingerprint, see
+	 * {@link CSSRuleIndex}.
 	 */
 	@Override
 	public CSSStyleDeclaration getComputedStyle(Element elt, String pseudoElt) {
-		// Loop over the CSS styleSheet list
-		StyleSheetList styleSheetList = documentCSS.getStyleSheets();
-		int l = styleSheetList.getLength();
+		List<CSSRuleIndex.Entry> entries = getRuleIndex().getRelevantEntries(elt);
 
-		List<CSSRule> combinedRuleList = new ArrayList<CSSRule>();
-		for (int i = 0; i < l; i++) {
-			CSSStyleSheet styleSheet = (CSSStyleSheet) styleSheetList.item(i);
-
-			CSSRuleList styleSheetRules = styleSheet.getCssRules();
-			int rulesSize = styleSheetRules.getLength();
-			for (int j = 0; j < rulesSize; j++) {
-				combinedRuleList.add(styleSheetRules.item(j));
+		List<StyleWrapper> styleDeclarations = null;
+		StyleWrapper firstStyleDeclaration = null;
+		int position = 0;
+		for (CSSRuleIndex.Entry entry : entries) {
+			if (entry.structural || entry.selector.match(elt, pseudoElt)) {
+				StyleWrapper wrapper = new StyleWrapper(entry.rule.getStyle(), entry.specificity, position++);
+				if (firstStyleDeclaration == null) {
+					firstStyleDeclaration = wrapper;
+				} else {
+					if (styleDeclarations == null) {
+						styleDeclarations = new ArrayList<StyleWrapper>();
+						styleDeclarations.add(firstStyleDeclaration);
+					}
+					styleDeclarations.add(wrapper);
+				}
 			}
 		}
+		if (styleDeclarations != null) {
+			return new CSSComputedStyleImpl(styleDeclarations);
+		}
+		if (firstStyleDeclaration != null) {
+			return firstStyleDeclaration.style;
+		}
+		return null;
+	}
 
-		CSSStyleDeclaration styleDeclaration = getComputedStyle(combinedRuleList, elt, pseudoElt);
-		return styleDeclaration;
+	/**
+	 * Returns the rule index of the current style sheets, rebuilding it if
+	 * the style sheets changed since it was built.
+	 */
+	private CSSRuleIndex getRuleIndex() {
+		StyleSheetList styleSheetList = documentCSS.getStyleSheets();
+		if (ruleIndex == null || !ruleIndex.isValid(styleSheetList)) {
+			ruleIndex = new CSSRuleIndex(styleSheetList);
+		}
+		return ruleIndex;
 	}
 
+	/**
+	 * @return the number of computed style lookups which reused the matches
+	 *         of an element with the same structural fingerprint since the
+	 *         style sheets last changed
+	 */
+	public int getStyleCacheHits() {
+		return ruleIndex != null ? ruleIndex.getCacheHits() : 0;
+	}
+
+	/**
+	 * @return the number of computed style lookups which had to match the
+	 *         candidate selectors since the style sheets last changed
+	 */
+	public int getStyleCacheMisses() {
+		return ruleIndex != null ? ruleIndex.getCacheMisses() : 0;
+	}
+
+	/**
+	 * Determines the relevant style declaration for an DOM element by
+	 * evaluating every rule of the given list.
+	 */
 	public CSSStyleDeclaration getComputedStyle(List<CSSRule> ruleList, Element elt, String pseudoElt) {
 		List<StyleWrapper> styleDeclarations = null;
 		StyleWrapper firstStyleDeclaration = null;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 Angelo Zerr and others.
+ * Copyright (c) 2008, 2016 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,6 +28,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IPath;
@@ -135,6 +136,59 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 
 	private Map<String, String> currentCSSPropertiesApplyed;
 
+	/**
+	 * Key of the {@link AppliedStyle} recorded in the element contexts.
+	 */
+	private static final String APPLIED_STYLE_KEY = "org.eclipse.e4.ui.css.core.appliedStyle"; //$NON-NLS-1$
+
+	/**
+	 * Incremented whenever style declarations have to be applied again even
+	 * though their values did not change, see {@link #invalidateAppliedStyles()}.
+	 */
+	private int appliedStylesGeneration;
+
+	/**
+	 * The property values of the style declaration last applied to an element
+	 * by {@link AbstractCSSEngine#applyStyles(Object, boolean, boolean)},
+	 * together with the inline style it was applied with.
+	 */
+	private static final class AppliedStyle {
+		private final int generation;
+		private final String[] properties;
+		private final CSSValue[] values;
+		private final String inlineStyle;
+
+		AppliedStyle(int generation, CSSStyleDeclaration style, String inlineStyle) {
+			this.generation = generation;
+			int length = style.getLength();
+			this.properties = new String[length];
+			this.values = new CSSValue[length];
+			for (int i = 0; i < length; i++) {
+				properties[i] = style.item(i);
+				values[i] = style.getPropertyCSSValue(properties[i]);
+			}
+			this.inlineStyle = inlineStyle;
+		}
+
+		/**
+		 * @return <code>true</code> if the given declaration holds the very
+		 *         same property values, none of them inherited from the parent
+		 */
+		boolean isSame(int generation, CSSStyleDeclaration style, String inlineStyle) {
+			if (this.generation != generation || style.getLength() != properties.length
+					|| !Objects.equals(this.inlineStyle, inlineStyle)) {
+				return false;
+			}
+			for (int i = 0; i < properties.length; i++) {
+				if (!properties[i].equals(style.item(i)) || values[i] != style.getPropertyCSSValue(properties[i])
+						|| values[i] == null || "inherit".equals(values[i].getCssText())) { //$NON-NLS-1$
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	private boolean throwError;
 
 	private Map<Object, ICSSValueConverter> valueConverters = null;
@@ -413,7 +467,11 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 
 			if (style != null) {
 				//applyStyleDeclaration(element, style, null);
-				applyStyleDeclaration(elt, style, null);
+				if (computeDefaultStyle || (pseudoInstances != null && pseudoInstances.length > 0)) {
+					applyStyleDeclaration(elt, style, null);
+				} else {
+					applyStyleDeclarationIfChanged(element, elt, style);
+				}
 			}
 			try {
 				// Apply inline style
@@ -439,6 +497,41 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 
 	}
 
+	/**
+	 * Applies the given style declaration to the element unless the very same
+	 * property values were the last ones applied to it, with the same inline
+	 * style. Restyling an unchanged element then does not call any property
+	 * handler.
+	 */
+	private void applyStyleDeclarationIfChanged(Object element, Element elt, CSSStyleDeclaration style) {
+		CSSElementContext context = getCSSElementContext(element);
+		if (context == null) {
+			applyStyleDeclaration(elt, style, null);
+			return;
+		}
+		String inlineStyle = elt instanceof CSSStylableElement ? ((CSSStylableElement) elt).getCSSStyle() : null;
+		Object applied = context.getData(APPLIED_STYLE_KEY);
+		if (applied instanceof AppliedStyle
+				&& ((AppliedStyle) applied).isSame(appliedStylesGeneration, style, inlineStyle)) {
+			return;
+		}
+		// forget the previous declaration in case applying this one fails
+		context.setData(APPLIED_STYLE_KEY, null);
+		applyStyleDeclaration(elt, style, null);
+		context.setData(APPLIED_STYLE_KEY, new AppliedStyle(appliedStylesGeneration, style, inlineStyle));
+	}
+
+	/**
+	 * Forgets which style declarations were applied to the elements, so that
+	 * the next {@link #applyStyles(Object, boolean)} applies every property
+	 * again even if its value did not change. Must be called when the
+	 * properties a value refers to changed, e.g. color and font definitions,
+	 * or when the widgets may have been modified outside of the engine.
+	 */
+	protected void invalidateAppliedStyles() {
+		appliedStylesGeneration++;
+	}
+
 	/**
 	 * Allow the CSS engine to skip particular elements if they are not visible.
 	 * Elements need to be restyled when they become visible.
@@ -1049,6 +1142,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public void reset() {
 		// Remove All Style Sheets
 		documentCSS.removeAllStyleSheets();
+		invalidateAppliedStyles();
 	}
 
 	/*--------------- Resources Registry -----------------*/
@@ -40,6 +40,7 @@ import org.eclipse.e4.ui.internal.workbench.swt.AbstractPartRenderer;
 import org.eclipse.e4.ui.internal.workbench.swt.CSSRenderingUtils;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
 import org.eclipse.e4.ui.model.application.ui.MElementContainer;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
 import org.eclipse.e4.ui.model.application.ui.SideValue;
@@ -268,7 +269,7 @@ public class ToolBarManagerRenderer extends SWTPartRenderer {
 	@Inject
 	@Optional
 	private void subscribeTopicDirtyChanged(@UIEventTopic(UIEvents.Dirtyable.TOPIC_DIRTY) Event eventData) {
-		getUpdater().updateContributionItems(ALL_SELECTOR);
+		getUpdater().scheduleUpdate(UIEvents.ALL_ELEMENT_ID);
 	}
 
 	@Inject
@@ -276,23 +277,40 @@ public class ToolBarManagerRenderer extends SWTPartRenderer {
 	private void subscribeTopicUpdateToolbarEnablement(
 			@UIEventTopic(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC) Event eventData) {
 		final Object v = eventData != null ? eventData.getProperty(IEventBroker.DATA) : UIEvents.ALL_ELEMENT_ID;
-		Selector s;
+		// explicit requests are expected to be applied when they return
 		if (v instanceof Selector) {
-			s = (Selector) v;
+			getUpdater().updateContributionItems((Selector) v);
 		} else {
-			if (v == null || UIEvents.ALL_ELEMENT_ID.equals(v)) {
-				s = ALL_SELECTOR;
-			} else {
-				s = new Selector() {
-					@Override
-					public boolean select(MApplicationElement element) {
-						return v.equals(element.getElementId());
-					}
-				};
-			}
+			getUpdater().updateContributionItems(v == null ? UIEvents.ALL_ELEMENT_ID : v.toString());
+		}
+	}
+
+	@Inject
+	@Optional
+	private void subscribeTopicElementIdChanged(@UIEventTopic(UIEvents.ApplicationElement.TOPIC_ELEMENTID) Event event) {
+		Object element = event.getProperty(UIEvents.EventTags.ELEMENT);
+		if (element instanceof MToolBarElement) {
+			itemIdsChanged((MToolBarElement) element);
+		} else if (element instanceof MCommand) {
+			// handled items are also indexed by the id of their command
+			getUpdater().itemsChanged();
 		}
+	}
+
+	@Inject
+	@Optional
+	private void subscribeTopicCommandChanged(@UIEventTopic(UIEvents.HandledItem.TOPIC_COMMAND) Event event) {
+		Object element = event.getProperty(UIEvents.EventTags.ELEMENT);
+		if (element instanceof MToolBarElement) {
+			itemIdsChanged((MToolBarElement) element);
+		}
+	}
 
-		getUpdater().updateContributionItems(s);
+	private void itemIdsChanged(MToolBarElement itemModel) {
+		IContributionItem ici = getContribution(itemModel);
+		if (ici instanceof AbstractContributionItem) {
+			getUpdater().itemChanged((AbstractContributionItem) ici);
+		}
 	}
 
 	@Inject
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2015 IBM Corporation and others.
+ * Copyright (c) 2014, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,35 +12,315 @@
 package org.eclipse.e4.ui.workbench.renderers.swt;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.internal.workbench.swt.Policy;
+import org.eclipse.e4.ui.internal.workbench.swt.WorkbenchSWTActivator;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.menu.MHandledItem;
 import org.eclipse.e4.ui.workbench.Selector;
+import org.eclipse.e4.ui.workbench.UIEvents;
+import org.eclipse.swt.widgets.Display;
 
+/**
+ * Updates the enablement of the tool items rendered by a
+ * {@link ToolBarManagerRenderer}.
+ * <p>
+ * Items are indexed by their element id and, for handled items, by the id of
+ * their command, so that updates requested for a single id only evaluate the
+ * matching items. The renderer re-indexes an item when its element id or
+ * command changes in the model. Updates requested through the
+ * <code>updateContributionItems</code> methods are applied immediately, while
+ * updates requested through the <code>scheduleUpdate</code> methods are
+ * coalesced and run once per UI tick.
+ * </p>
+ */
 public class ToolItemUpdater {
 
-	private List<AbstractContributionItem> itemsToCheck = new ArrayList<>();
-	private final List<AbstractContributionItem> orphanedToolItems = new ArrayList<>();
+	private final Set<AbstractContributionItem> itemsToCheck = new LinkedHashSet<>();
+
+	/** Items by element id and command id */
+	private final Map<String, Set<AbstractContributionItem>> itemsById = new HashMap<>();
+
+	/** The ids an item is currently indexed with */
+	private final Map<AbstractContributionItem, List<String>> itemIds = new HashMap<>();
+
+	private boolean updateScheduled;
+	private boolean pendingAll;
+	private final Set<String> pendingIds = new LinkedHashSet<>();
+	private final List<Selector> pendingSelectors = new ArrayList<>();
+
+	private final Runnable pendingUpdateRunner = new Runnable() {
+		@Override
+		public void run() {
+			runPendingUpdates();
+		}
+	};
+
+	private int updateCount;
+	private int lastEvaluatedCount;
+	private long totalEvaluatedCount;
 
 	void registerItem(AbstractContributionItem item) {
-		if (!itemsToCheck.contains(item)) {
-			itemsToCheck.add(item);
+		if (itemsToCheck.add(item)) {
+			index(item);
 		}
 	}
 
 	void removeItem(AbstractContributionItem item) {
-		itemsToCheck.remove(item);
+		if (itemsToCheck.remove(item)) {
+			unindex(item);
+		}
+	}
+
+	/**
+	 * Files the given item again under its current element id and command id,
+	 * after either of them changed in the model.
+	 *
+	 * @param item
+	 *            the item whose ids changed
+	 */
+	void itemChanged(AbstractContributionItem item) {
+		if (itemsToCheck.contains(item)) {
+			unindex(item);
+			index(item);
+		}
+	}
+
+	/**
+	 * Files all items again under their current ids, after the id of a
+	 * command they may refer to changed.
+	 */
+	void itemsChanged() {
+		itemsById.clear();
+		itemIds.clear();
+		for (AbstractContributionItem item : itemsToCheck) {
+			index(item);
+		}
+	}
+
+	private void index(AbstractContributionItem item) {
+		List<String> ids = getIds(item);
+		for (String id : ids) {
+			Set<AbstractContributionItem> items = itemsById.get(id);
+			if (items == null) {
+				items = new LinkedHashSet<>();
+				itemsById.put(id, items);
+			}
+			items.add(item);
+		}
+		itemIds.put(item, ids);
 	}
 
+	private void unindex(AbstractContributionItem item) {
+		List<String> ids = itemIds.remove(item);
+		if (ids != null) {
+			for (String id : ids) {
+				Set<AbstractContributionItem> items = itemsById.get(id);
+				if (items != null && items.remove(item) && items.isEmpty()) {
+					itemsById.remove(id);
+				}
+			}
+		}
+	}
+
+	private static List<String> getIds(AbstractContributionItem item) {
+		List<String> ids = new ArrayList<>(2);
+		MUIElement model = item.getModel();
+		if (model != null) {
+			if (model.getElementId() != null) {
+				ids.add(model.getElementId());
+			}
+			if (model instanceof MHandledItem) {
+				MCommand command = ((MHandledItem) model).getCommand();
+				if (command != null && command.getElementId() != null
+						&& !ids.contains(command.getElementId())) {
+					ids.add(command.getElementId());
+				}
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Updates the enablement of all items selected by the given selector.
+	 *
+	 * @param selector
+	 *            the selector to evaluate against the item models
+	 */
 	public void updateContributionItems(Selector selector) {
-		for (final AbstractContributionItem ci : itemsToCheck) {
-			if (ci.getModel() != null && ci.getModel().getParent() != null && selector.select(ci.getModel())) {
-				ci.updateItemEnablement();
-			} else {
-				orphanedToolItems.add(ci);
+		List<AbstractContributionItem> toUpdate = new ArrayList<>();
+		int evaluated = 0;
+		for (AbstractContributionItem ci : itemsToCheck) {
+			if (isOrphaned(ci)) {
+				toUpdate.add(ci);
+				continue;
+			}
+			evaluated++;
+			if (selector.select(ci.getModel())) {
+				toUpdate.add(ci);
+			}
+		}
+		update(toUpdate, evaluated);
+	}
+
+	/**
+	 * Updates the enablement of the items with the given element id or command
+	 * id.
+	 *
+	 * @param id
+	 *            the element or command id, or {@link UIEvents#ALL_ELEMENT_ID}
+	 *            to update all items
+	 */
+	public void updateContributionItems(String id) {
+		if (id == null || UIEvents.ALL_ELEMENT_ID.equals(id)) {
+			// the scheduled updates have nothing left to do
+			clearPendingUpdates();
+			update(new ArrayList<>(itemsToCheck), itemsToCheck.size());
+			return;
+		}
+		Set<AbstractContributionItem> items = itemsById.get(id);
+		if (items == null) {
+			update(new ArrayList<AbstractContributionItem>(), 0);
+		} else {
+			update(new ArrayList<>(items), items.size());
+		}
+	}
+
+	/**
+	 * Schedules an update of the items with the given element id or command
+	 * id. All updates scheduled before the UI thread next processes its
+	 * asynchronous runnables are applied in a single pass.
+	 *
+	 * @param id
+	 *            the element or command id, or {@link UIEvents#ALL_ELEMENT_ID}
+	 *            to update all items
+	 */
+	public void scheduleUpdate(String id) {
+		if (id == null || UIEvents.ALL_ELEMENT_ID.equals(id)) {
+			pendingAll = true;
+		} else {
+			pendingIds.add(id);
+		}
+		schedulePendingUpdates();
+	}
+
+	/**
+	 * Schedules an update of the items selected by the given selector. All
+	 * updates scheduled before the UI thread next processes its asynchronous
+	 * runnables are applied in a single pass.
+	 *
+	 * @param selector
+	 *            the selector to evaluate against the item models
+	 */
+	public void scheduleUpdate(Selector selector) {
+		pendingSelectors.add(selector);
+		schedulePendingUpdates();
+	}
+
+	private void schedulePendingUpdates() {
+		if (updateScheduled) {
+			return;
+		}
+		Display display = Display.getCurrent();
+		if (display == null) {
+			runPendingUpdates();
+			return;
+		}
+		updateScheduled = true;
+		display.asyncExec(pendingUpdateRunner);
+	}
+
+	private void runPendingUpdates() {
+		updateScheduled = false;
+		if (!pendingAll && pendingIds.isEmpty() && pendingSelectors.isEmpty()) {
+			return;
+		}
+		if (pendingAll) {
+			clearPendingUpdates();
+			updateContributionItems(UIEvents.ALL_ELEMENT_ID);
+			return;
+		}
+
+		Set<AbstractContributionItem> toUpdate = new LinkedHashSet<>();
+		int evaluated = 0;
+		for (String id : pendingIds) {
+			Collection<AbstractContributionItem> items = itemsById.get(id);
+			if (items != null) {
+				toUpdate.addAll(items);
+				evaluated += items.size();
 			}
 		}
-		if (!orphanedToolItems.isEmpty()) {
-			itemsToCheck.removeAll(orphanedToolItems);
-			orphanedToolItems.clear();
+		if (!pendingSelectors.isEmpty()) {
+			for (AbstractContributionItem ci : itemsToCheck) {
+				if (toUpdate.contains(ci)) {
+					continue;
+				}
+				if (isOrphaned(ci)) {
+					toUpdate.add(ci);
+					continue;
+				}
+				evaluated++;
+				for (Selector selector : pendingSelectors) {
+					if (selector.select(ci.getModel())) {
+						toUpdate.add(ci);
+						break;
+					}
+				}
+			}
 		}
+		clearPendingUpdates();
+		update(new ArrayList<>(toUpdate), evaluated);
+	}
+
+	private void clearPendingUpdates() {
+		pendingAll = false;
+		pendingIds.clear();
+		pendingSelectors.clear();
+	}
+
+	private static boolean isOrphaned(AbstractContributionItem ci) {
+		return ci.getModel() == null || ci.getModel().getParent() == null;
+	}
+
+	private void update(List<AbstractContributionItem> items, int evaluated) {
+		for (AbstractContributionItem ci : items) {
+			if (isOrphaned(ci)) {
+				removeItem(ci);
+			} else {
+				ci.updateItemEnablement();
+			}
+		}
+		updateCount++;
+		lastEvaluatedCount = evaluated;
+		totalEvaluatedCount += evaluated;
+		WorkbenchSWTActivator.trace(Policy.MENUS, "ToolItemUpdater: evaluated " + evaluated //$NON-NLS-1$
+				+ " of " + itemsToCheck.size() + " items", null); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * @return the number of update passes run so far
+	 */
+	public int getUpdateCount() {
+		return updateCount;
+	}
+
+	/**
+	 * @return the number of items evaluated by the last update pass
+	 */
+	public int getLastEvaluatedCount() {
+		return lastEvaluatedCount;
+	}
+
+	/**
+	 * @return the number of items evaluated by all update passes so far
+	 */
+	public long getTotalEvaluatedCount() {
+		return totalEvaluatedCount;
 	}
 }
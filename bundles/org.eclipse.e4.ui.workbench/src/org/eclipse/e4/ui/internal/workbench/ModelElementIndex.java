@@ -0,0 +1,521 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.commands.MBindingContext;
+import org.eclipse.e4.ui.model.application.commands.MBindingTable;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
+import org.eclipse.e4.ui.model.application.commands.MHandler;
+import org.eclipse.e4.ui.model.application.commands.MKeyBinding;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.MElementContainer;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartSashContainer;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindowElement;
+import org.eclipse.e4.ui.workbench.Selector;
+import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * An incrementally maintained index of the elements contained in an application model, keyed by
+ * element id, tag and implementation class.
+ * <p>
+ * The index is attached to the {@link MApplication} as an {@link EContentAdapter} and is kept
+ * current through the model's containment notifications and changes to the element id and tags
+ * of the adapted elements. {@link #findElements} answers a query from the index whenever the
+ * position of every candidate can be decided by walking up its containment chain. It returns
+ * <code>null</code> when it cannot, in which case callers have to fall back to searching the
+ * model.
+ * </p>
+ */
+final class ModelElementIndex extends EContentAdapter {
+
+	/*
+	 * The ranks of the edges followed by ModelServiceImpl#findElementsRecursive, in the order the
+	 * search visits them for a given parent. Sorting matches by (rank, index) paths reproduces the
+	 * order of the recursive search.
+	 */
+	private static final int RANK_APPLICATION_ELEMENTS = 1;
+	private static final int RANK_BINDINGS = 2;
+	private static final int RANK_CHILDREN = 3;
+	private static final int RANK_TRIM_BARS = 4;
+	private static final int RANK_DETACHED_WINDOWS = 5;
+	private static final int RANK_MAIN_MENU = 6;
+	private static final int RANK_WINDOW_HANDLERS = 7;
+	private static final int RANK_PERSPECTIVE_WINDOWS = 8;
+	private static final int RANK_PART_MENUS = 9;
+	private static final int RANK_PART_TOOLBAR = 10;
+	private static final int RANK_PART_HANDLERS = 11;
+
+	/** The edge is not followed by the search for the given flags. */
+	private static final long UNREACHABLE = -1;
+
+	/** The search would follow a path the index cannot decide, e.g. through a placeholder. */
+	private static final long UNKNOWN = -2;
+
+	/** The path of an element that is not reached by the search. */
+	private static final List<Long> NOT_REACHED = Collections.emptyList();
+
+	private final Map<String, Set<MApplicationElement>> elementsById = new HashMap<>();
+
+	private final Map<String, Set<MApplicationElement>> elementsByTag = new HashMap<>();
+
+	private final Map<Class<?>, Set<MApplicationElement>> elementsByClass = new HashMap<>();
+
+	/** Elements referenced by a placeholder, with the number of referencing placeholders. */
+	private final Map<MUIElement, Integer> placeholderRefs = new HashMap<>();
+
+	/**
+	 * Returns the index of the application model containing the given element, creating and
+	 * attaching it if necessary.
+	 *
+	 * @param element
+	 *            an element of the model
+	 * @return the index, or <code>null</code> if the element is not contained in an application
+	 */
+	static ModelElementIndex getIndex(MApplicationElement element) {
+		if (!(element instanceof EObject)) {
+			return null;
+		}
+		EObject root = EcoreUtil.getRootContainer((EObject) element);
+		if (!(root instanceof MApplication)) {
+			return null;
+		}
+		for (Adapter adapter : root.eAdapters()) {
+			if (adapter instanceof ModelElementIndex) {
+				return (ModelElementIndex) adapter;
+			}
+		}
+		ModelElementIndex index = new ModelElementIndex();
+		root.eAdapters().add(index);
+		return index;
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == ModelElementIndex.class;
+	}
+
+	@Override
+	protected void setTarget(EObject target) {
+		super.setTarget(target);
+		if (target instanceof MApplicationElement) {
+			index((MApplicationElement) target);
+		}
+	}
+
+	@Override
+	protected void unsetTarget(EObject target) {
+		super.unsetTarget(target);
+		if (target instanceof MApplicationElement) {
+			unindex((MApplicationElement) target);
+		}
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		// maintains the containment, which (un)indexes added and removed elements
+		super.notifyChanged(notification);
+
+		if (notification.isTouch() || !(notification.getNotifier() instanceof MApplicationElement)) {
+			return;
+		}
+		MApplicationElement element = (MApplicationElement) notification.getNotifier();
+		Object feature = notification.getFeature();
+		if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID) {
+			remove(elementsById, (String) notification.getOldValue(), element);
+			add(elementsById, (String) notification.getNewValue(), element);
+		} else if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__TAGS) {
+			tagsChanged(element, notification);
+		} else if (feature == AdvancedPackageImpl.Literals.PLACEHOLDER__REF) {
+			removeRef((MUIElement) notification.getOldValue());
+			addRef((MUIElement) notification.getNewValue());
+		}
+	}
+
+	private void tagsChanged(MApplicationElement element, Notification notification) {
+		switch (notification.getEventType()) {
+		case Notification.ADD:
+			add(elementsByTag, (String) notification.getNewValue(), element);
+			break;
+		case Notification.ADD_MANY:
+			for (Object tag : (Collection<?>) notification.getNewValue()) {
+				add(elementsByTag, (String) tag, element);
+			}
+			break;
+		case Notification.SET:
+			removeTag(element, (String) notification.getOldValue());
+			add(elementsByTag, (String) notification.getNewValue(), element);
+			break;
+		case Notification.REMOVE:
+			removeTag(element, (String) notification.getOldValue());
+			break;
+		case Notification.REMOVE_MANY:
+			for (Object tag : (Collection<?>) notification.getOldValue()) {
+				removeTag(element, (String) tag);
+			}
+			break;
+		case Notification.UNSET:
+			for (Set<MApplicationElement> elements : elementsByTag.values()) {
+				elements.remove(element);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void removeTag(MApplicationElement element, String tag) {
+		// tags may be duplicated, only drop the entry for the last occurrence
+		if (!element.getTags().contains(tag)) {
+			remove(elementsByTag, tag, element);
+		}
+	}
+
+	private void index(MApplicationElement element) {
+		add(elementsById, element.getElementId(), element);
+		for (String tag : element.getTags()) {
+			add(elementsByTag, tag, element);
+		}
+		add(elementsByClass, element.getClass(), element);
+		if (element instanceof MPlaceholder) {
+			addRef(((MPlaceholder) element).getRef());
+		}
+	}
+
+	private void unindex(MApplicationElement element) {
+		remove(elementsById, element.getElementId(), element);
+		for (String tag : element.getTags()) {
+			remove(elementsByTag, tag, element);
+		}
+		remove(elementsByClass, element.getClass(), element);
+		if (element instanceof MPlaceholder) {
+			removeRef(((MPlaceholder) element).getRef());
+		}
+	}
+
+	private void addRef(MUIElement ref) {
+		if (ref != null) {
+			Integer count = placeholderRefs.get(ref);
+			placeholderRefs.put(ref, count == null ? 1 : count + 1);
+		}
+	}
+
+	private void removeRef(MUIElement ref) {
+		Integer count = ref == null ? null : placeholderRefs.get(ref);
+		if (count != null) {
+			if (count == 1) {
+				placeholderRefs.remove(ref);
+			} else {
+				placeholderRefs.put(ref, count - 1);
+			}
+		}
+	}
+
+	private static <K> void add(Map<K, Set<MApplicationElement>> map, K key,
+			MApplicationElement element) {
+		if (key == null) {
+			return;
+		}
+		Set<MApplicationElement> elements = map.get(key);
+		if (elements == null) {
+			elements = new HashSet<>();
+			map.put(key, elements);
+		}
+		elements.add(element);
+	}
+
+	private static <K> void remove(Map<K, Set<MApplicationElement>> map, K key,
+			MApplicationElement element) {
+		if (key == null) {
+			return;
+		}
+		Set<MApplicationElement> elements = map.get(key);
+		if (elements != null && elements.remove(element) && elements.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	/**
+	 * Answers a query of {@link EModelService#findElements(MUIElement, String, Class, List, int)}
+	 * from the index.
+	 *
+	 * @param searchRoot
+	 *            the element to start the search from, must be contained in the indexed model
+	 * @param id
+	 *            the element id to look for, may be <code>null</code>
+	 * @param clazz
+	 *            the class of the elements to look for, may be <code>null</code>
+	 * @param tagsToMatch
+	 *            the tags the elements must have, may be <code>null</code>
+	 * @param searchFlags
+	 *            the search flags
+	 * @param matcher
+	 *            the selector built from id, class and tags
+	 * @return the matching elements in the order the model search would return them, or
+	 *         <code>null</code> if the query has to be answered by searching the model
+	 */
+	<T> List<T> findElements(MApplicationElement searchRoot, String id, Class<T> clazz,
+			List<String> tagsToMatch, int searchFlags, Selector matcher) {
+		if (searchFlags == 0) {
+			// leave the meaning of an empty search to the model search
+			return null;
+		}
+		Collection<MApplicationElement> candidates = getCandidates(id, clazz, tagsToMatch);
+		if (candidates == null) {
+			return null;
+		}
+
+		List<Match> matches = new ArrayList<>();
+		for (MApplicationElement candidate : candidates) {
+			if ((clazz != null && !clazz.isInstance(candidate)) || !matcher.select(candidate)) {
+				continue;
+			}
+			List<Long> path = getPath(searchRoot, candidate, clazz, searchFlags);
+			if (path == null) {
+				return null;
+			} else if (path != NOT_REACHED) {
+				matches.add(new Match(candidate, path));
+			}
+		}
+		if (matches.size() > 1) {
+			Collections.sort(matches);
+		}
+
+		List<T> elements = new ArrayList<>(matches.size());
+		for (Match match : matches) {
+			@SuppressWarnings("unchecked")
+			T element = (T) match.element;
+			elements.add(element);
+		}
+		return elements;
+	}
+
+	private Collection<MApplicationElement> getCandidates(String id, Class<?> clazz,
+			List<String> tagsToMatch) {
+		Collection<MApplicationElement> candidates = null;
+		if (id != null) {
+			candidates = get(elementsById, id);
+		}
+		if (tagsToMatch != null) {
+			for (String tag : tagsToMatch) {
+				Set<MApplicationElement> tagged = get(elementsByTag, tag);
+				if (candidates == null || tagged.size() < candidates.size()) {
+					candidates = tagged;
+				}
+			}
+		}
+		if (candidates == null && clazz != null && !MApplicationElement.class.equals(clazz)
+				&& !MUIElement.class.equals(clazz)) {
+			candidates = new ArrayList<>();
+			for (Map.Entry<Class<?>, Set<MApplicationElement>> entry : elementsByClass.entrySet()) {
+				if (clazz.isAssignableFrom(entry.getKey())) {
+					candidates.addAll(entry.getValue());
+				}
+			}
+		}
+		return candidates;
+	}
+
+	private static Set<MApplicationElement> get(Map<String, Set<MApplicationElement>> map,
+			String key) {
+		Set<MApplicationElement> elements = map.get(key);
+		return elements == null ? Collections.<MApplicationElement> emptySet() : elements;
+	}
+
+	/**
+	 * Computes the path the model search follows from the search root to the given element.
+	 *
+	 * @return the (rank, index) steps from the search root, {@link #NOT_REACHED} if the element is
+	 *         not reached by the search, or <code>null</code> if the index cannot decide
+	 */
+	private List<Long> getPath(MApplicationElement searchRoot, MApplicationElement element,
+			Class<?> clazz, int searchFlags) {
+		List<Long> path = new ArrayList<>();
+		EObject child = (EObject) element;
+		while (child != searchRoot) {
+			if (child instanceof MBindingContext || placeholderRefs.containsKey(child)) {
+				return null;
+			}
+			EObject parent = child.eContainer();
+			if (!(parent instanceof MApplicationElement)) {
+				return NOT_REACHED;
+			}
+			long step = getStep((MApplicationElement) parent, child, clazz, searchFlags);
+			if (step == UNKNOWN) {
+				return null;
+			} else if (step == UNREACHABLE) {
+				return NOT_REACHED;
+			}
+			path.add(0, step);
+			child = parent;
+		}
+		return path;
+	}
+
+	/**
+	 * Mirrors the edges followed by ModelServiceImpl#findElementsRecursive.
+	 */
+	private long getStep(MApplicationElement parent, Object child, Class<?> clazz,
+			int searchFlags) {
+		boolean anywhere = searchFlags == EModelService.ANYWHERE;
+		int index;
+		if (parent instanceof MApplication) {
+			MApplication app = (MApplication) parent;
+			if (child instanceof MHandler && (index = app.getHandlers().indexOf(child)) != -1) {
+				return anywhere && MHandler.class.equals(clazz)
+						? step(RANK_APPLICATION_ELEMENTS, index) : UNREACHABLE;
+			}
+			if (child instanceof MCommand && (index = app.getCommands().indexOf(child)) != -1) {
+				return anywhere && MCommand.class.equals(clazz)
+						? step(RANK_APPLICATION_ELEMENTS, index) : UNREACHABLE;
+			}
+			if (child instanceof MBindingTable
+					&& (index = app.getBindingTables().indexOf(child)) != -1) {
+				return anywhere && (MBindingTable.class.equals(clazz) || MKeyBinding.class.equals(clazz))
+						? step(RANK_APPLICATION_ELEMENTS, index) : UNREACHABLE;
+			}
+		}
+		if (parent instanceof MBindingTable) {
+			return step(RANK_BINDINGS, ((MBindingTable) parent).getBindings().indexOf(child));
+		}
+		if (parent instanceof MElementContainer<?>
+				&& (index = ((MElementContainer<?>) parent).getChildren().indexOf(child)) != -1) {
+			if (parent instanceof MWindow && (searchFlags & EModelService.OUTSIDE_PERSPECTIVE) == 0
+					&& hasPrimaryPerspectiveStack((MWindow) parent)) {
+				return UNKNOWN;
+			}
+			if (parent instanceof MPerspectiveStack) {
+				if ((searchFlags & EModelService.IN_ANY_PERSPECTIVE) != 0) {
+					// search all perspectives
+				} else if ((searchFlags & EModelService.IN_ACTIVE_PERSPECTIVE) != 0) {
+					if (((MPerspectiveStack) parent).getSelectedElement() != child) {
+						return UNREACHABLE;
+					}
+				} else if ((searchFlags & EModelService.IN_SHARED_AREA) != 0) {
+					return UNKNOWN;
+				} else {
+					return UNREACHABLE;
+				}
+			}
+			return step(RANK_CHILDREN, index);
+		}
+		if (parent instanceof MTrimmedWindow
+				&& (index = ((MTrimmedWindow) parent).getTrimBars().indexOf(child)) != -1) {
+			return (searchFlags & EModelService.IN_TRIM) != 0 ? step(RANK_TRIM_BARS, index)
+					: UNREACHABLE;
+		}
+		if (parent instanceof MWindow) {
+			MWindow window = (MWindow) parent;
+			if ((index = window.getWindows().indexOf(child)) != -1) {
+				return step(RANK_DETACHED_WINDOWS, index);
+			}
+			if (window.getMainMenu() == child) {
+				return (searchFlags & EModelService.IN_MAIN_MENU) != 0 ? step(RANK_MAIN_MENU, 0)
+						: UNREACHABLE;
+			}
+			if ((index = window.getHandlers().indexOf(child)) != -1) {
+				return anywhere && MHandler.class.equals(clazz) ? step(RANK_WINDOW_HANDLERS, index)
+						: UNREACHABLE;
+			}
+			if (window.getSharedElements().contains(child)) {
+				// only reached through placeholders
+				return UNKNOWN;
+			}
+		}
+		if (parent instanceof MPerspective
+				&& (index = ((MPerspective) parent).getWindows().indexOf(child)) != -1) {
+			return step(RANK_PERSPECTIVE_WINDOWS, index);
+		}
+		if (parent instanceof MPart && (searchFlags & EModelService.IN_PART) != 0) {
+			MPart part = (MPart) parent;
+			if ((index = part.getMenus().indexOf(child)) != -1) {
+				return step(RANK_PART_MENUS, index);
+			}
+			if (part.getToolbar() == child) {
+				return step(RANK_PART_TOOLBAR, 0);
+			}
+			if (MHandler.class.equals(clazz) && (index = part.getHandlers().indexOf(child)) != -1) {
+				return step(RANK_PART_HANDLERS, index);
+			}
+		}
+		return UNREACHABLE;
+	}
+
+	private static boolean hasPrimaryPerspectiveStack(MWindow window) {
+		List<MWindowElement> children = window.getChildren();
+		if (count(children, MPerspectiveStack.class) == 1) {
+			return true;
+		}
+		return children.size() == 1 && children.get(0) instanceof MPartSashContainer
+				&& count(((MPartSashContainer) children.get(0)).getChildren(),
+						MPerspectiveStack.class) == 1;
+	}
+
+	private static int count(List<?> elements, Class<?> clazz) {
+		int count = 0;
+		for (Object element : elements) {
+			if (clazz.isInstance(element)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static long step(int rank, int index) {
+		return ((long) rank << 32) | index;
+	}
+
+	private static final class Match implements Comparable<Match> {
+		final MApplicationElement element;
+		final List<Long> path;
+
+		Match(MApplicationElement element, List<Long> path) {
+			this.element = element;
+			this.path = path;
+		}
+
+		@Override
+		public int compareTo(Match other) {
+			int length = Math.min(path.size(), other.path.size());
+			for (int i = 0; i < length; i++) {
+				int result = path.get(i).compareTo(other.path.get(i));
+				if (result != 0) {
+					return result;
+				}
+			}
+			// an ancestor is visited before its descendants
+			return path.size() - other.path.size();
+		}
+	}
+}
@@ -376,14 +376,30 @@ public class ModelServiceImpl implements EModelService {
 	@Override
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch) {
-		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
-		return findElements(searchRoot, clazz, ANYWHERE, matcher);
+		return findIndexedElements(searchRoot, id, clazz, tagsToMatch, ANYWHERE);
 	}
 
 	@Override
 	public <T> List<T> findElements(MUIElement searchRoot, String id, Class<T> clazz,
 			List<String> tagsToMatch, int searchFlags) {
+		return findIndexedElements(searchRoot, id, clazz, tagsToMatch, searchFlags);
+	}
+
+	/**
+	 * Answers the query from the application's {@link ModelElementIndex} if possible and searches
+	 * the model otherwise.
+	 */
+	private <T> List<T> findIndexedElements(MUIElement searchRoot, String id, Class<T> clazz,
+			List<String> tagsToMatch, int searchFlags) {
 		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
+		ModelElementIndex index = ModelElementIndex.getIndex(searchRoot);
+		if (index != null) {
+			List<T> elements = index.findElements(searchRoot, id, clazz, tagsToMatch, searchFlags,
+					matcher);
+			if (elements != null) {
+				return elements;
+			}
+		}
 		return findElements(searchRoot, clazz, searchFlags, matcher);
 	}
 
@@ -398,10 +414,7 @@ public class ModelServiceImpl implements EModelService {
 	private <T> List<T> findPerspectiveElements(MUIElement searchRoot, String id,
 			Class<T> clazz,
 			List<String> tagsToMatch) {
-		List<T> elements = new ArrayList<>();
-		ElementMatcher matcher = new ElementMatcher(id, clazz, tagsToMatch);
-		findElementsRecursive(searchRoot, clazz, matcher, elements, PRESENTATION);
-		return elements;
+		return findIndexedElements(searchRoot, id, clazz, tagsToMatch, PRESENTATION);
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,17 @@
  *******************************************************************************/
 package org.eclipse.jface.resource;
 
+import java.net.URL;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
 
 /**
  * Manages SWT resources for a particular device.
@@ -24,15 +33,70 @@ import org.eclipse.swt.graphics.Image;
  * resources for a device other than a Display (such as a printer).
  * </p>
  *
+ * <p>
+ * Images are shared beyond the equality of their descriptors: descriptors
+ * created by <code>ImageDescriptor.createFromFile</code> for different classes
+ * that locate the same resource share one SWT image. Images composed by a
+ * <code>CompositeImageDescriptor</code> (such as decorated icons) that are no
+ * longer referenced are kept for reuse until the least recently released of
+ * them is evicted. See {@link #getImageCount()} and
+ * {@link #getImageByteCount()} for the images held by the manager.
+ * </p>
+ *
  * @see LocalResourceManager
  *
  * @since 3.1
  */
 public final class DeviceResourceManager extends AbstractResourceManager {
 
+    /**
+     * Maximum number of unreferenced composite images kept for reuse
+     */
+    private static final int MAX_CACHED_IMAGES = 256;
+
+    /**
+     * An image created by this manager. Images read from the same resource
+     * may be returned for several descriptors.
+     */
+    private static final class AllocatedImage {
+        final Image image;
+        final ImageDescriptor owner;
+        final String location;
+        final long bytes;
+        int refs = 1;
+
+        AllocatedImage(Image image, ImageDescriptor owner, String location, long bytes) {
+            this.image = image;
+            this.owner = owner;
+            this.location = location;
+            this.bytes = bytes;
+        }
+    }
+
     private Device device;
     private Image missingImage;
 
+    /**
+     * Images read from a resource, by the location of the resource. (null
+     * when empty)
+     */
+    private Map<String, AllocatedImage> imagesByLocation = null;
+
+    /**
+     * Images created by this manager, by image identity
+     */
+    private Map<Image, AllocatedImage> allocatedImages = new IdentityHashMap<>();
+
+    /**
+     * Unreferenced composite images kept for reuse, in the order of their
+     * release. (null when empty)
+     */
+    private LinkedHashMap<ImageDescriptor, Image> cachedImages = null;
+
+    private int imageCount;
+    private long imageBytes;
+    private boolean disposing;
+
     @Override
 	public Device getDevice() {
         return device;
@@ -49,14 +113,155 @@ public final class DeviceResourceManager extends AbstractResourceManager {
 
     @Override
 	protected Object allocate(DeviceResourceDescriptor descriptor) throws DeviceResourceException {
+        if (descriptor instanceof ImageDescriptor) {
+            return allocateImage((ImageDescriptor) descriptor);
+        }
         return descriptor.createResource(device);
     }
 
     @Override
 	protected void deallocate(Object resource, DeviceResourceDescriptor descriptor) {
+        if (descriptor instanceof ImageDescriptor) {
+            releaseImage((ImageDescriptor) descriptor, (Image) resource);
+            return;
+        }
         descriptor.destroyResource(resource);
     }
 
+    private Image allocateImage(ImageDescriptor descriptor) throws DeviceResourceException {
+        if (cachedImages != null) {
+            Image cached = cachedImages.remove(descriptor);
+            if (cached != null) {
+                if (cachedImages.isEmpty()) {
+                    cachedImages = null;
+                }
+                return cached;
+            }
+        }
+
+        String location = getLocation(descriptor);
+        if (location != null && imagesByLocation != null) {
+            AllocatedImage existing = imagesByLocation.get(location);
+            if (existing != null) {
+                existing.refs++;
+                return existing.image;
+            }
+        }
+
+        Image image = (Image) descriptor.createResource(device);
+        AllocatedImage allocated = allocatedImages.get(image);
+        if (allocated != null) {
+            // the descriptor returned an existing image
+            allocated.refs++;
+            return image;
+        }
+        // record the size now, the image may be disposed by someone else
+        allocated = new AllocatedImage(image, descriptor, location, getByteCount(image));
+        allocatedImages.put(image, allocated);
+        if (location != null) {
+            if (imagesByLocation == null) {
+                imagesByLocation = new HashMap<>();
+            }
+            imagesByLocation.put(location, allocated);
+        }
+        imageCount++;
+        imageBytes += allocated.bytes;
+        return image;
+    }
+
+    private void releaseImage(ImageDescriptor descriptor, Image image) {
+        if (descriptor instanceof CompositeImageDescriptor && !disposing) {
+            // keep the image until the descriptor is used again or evicted
+            if (cachedImages == null) {
+                cachedImages = new LinkedHashMap<>();
+            }
+            cachedImages.put(descriptor, image);
+            if (cachedImages.size() > MAX_CACHED_IMAGES) {
+                Iterator<Entry<ImageDescriptor, Image>> eldest = cachedImages.entrySet().iterator();
+                Entry<ImageDescriptor, Image> toEvict = eldest.next();
+                eldest.remove();
+                destroyImage(toEvict.getKey(), toEvict.getValue());
+            }
+            return;
+        }
+        destroyImage(descriptor, image);
+    }
+
+    private void destroyImage(ImageDescriptor descriptor, Image image) {
+        AllocatedImage allocated = allocatedImages.get(image);
+        if (allocated == null) {
+            descriptor.destroyResource(image);
+            return;
+        }
+        if (--allocated.refs > 0) {
+            return;
+        }
+        allocatedImages.remove(image);
+        if (allocated.location != null) {
+            imagesByLocation.remove(allocated.location);
+            if (imagesByLocation.isEmpty()) {
+                imagesByLocation = null;
+            }
+        }
+        imageCount--;
+        imageBytes -= allocated.bytes;
+        // the descriptor that created the image destroys it
+        allocated.owner.destroyResource(image);
+    }
+
+    /**
+     * Returns the location of the resource the images of the given descriptor
+     * are read from, or <code>null</code> if they must not be shared with
+     * other descriptors. Descriptors of the same class that read the same
+     * resource create the same images, at any zoom level.
+     */
+    private static String getLocation(ImageDescriptor descriptor) {
+        if (descriptor instanceof FileImageDescriptor) {
+            URL url = ((FileImageDescriptor) descriptor).getResourceURL();
+            return url == null ? null : url.toExternalForm();
+        }
+        return null;
+    }
+
+    private static long getByteCount(Image image) {
+        Rectangle bounds = image.getBounds();
+        return (long) bounds.width * bounds.height * 4;
+    }
+
+    /**
+     * Returns the number of SWT images held by this manager, including the
+     * unreferenced images kept for reuse. Images shared by several
+     * descriptors are counted once.
+     *
+     * @return the number of images
+     * @since 3.12
+     */
+    public int getImageCount() {
+        return imageCount;
+    }
+
+    /**
+     * Returns an estimate of the memory used by the images counted by
+     * {@link #getImageCount()}, assuming 32 bits per pixel.
+     *
+     * @return the estimated number of bytes
+     * @since 3.12
+     */
+    public long getImageByteCount() {
+        return imageBytes;
+    }
+
+    /**
+     * Returns the number of unreferenced composite images that are kept for
+     * reuse.
+     *
+     * @return the number of cached images
+     * @since 3.12
+     */
+    public int getCachedImageCount() {
+        return cachedImages == null ? 0 : cachedImages.size();
+    }
+
     @Override
 	protected Image getDefaultImage() {
         if (missingImage == null) {
@@ -67,7 +272,14 @@ public final class DeviceResourceManager extends AbstractResourceManager {
 
     @Override
 	public void dispose() {
+        disposing = true;
         super.dispose();
+        if (cachedImages != null) {
+            for (Entry<ImageDescriptor, Image> entry : cachedImages.entrySet()) {
+                destroyImage(entry.getKey(), entry.getValue());
+            }
+            cachedImages = null;
+        }
         if (missingImage != null) {
             missingImage.dispose();
             missingImage = null;
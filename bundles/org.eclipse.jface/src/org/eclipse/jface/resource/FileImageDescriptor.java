@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -187,6 +187,17 @@ class FileImageDescriptor extends ImageDescriptor {
 		return null;
 	}
 
+	/**
+	 * Returns the URL of the file if it is located in the resource directory
+	 * of a class.
+	 *
+	 * @return {@link URL} or <code>null</code> if the file name is absolute
+	 *         or the file cannot be found
+	 */
+	URL getResourceURL() {
+		return location == null ? null : location.getResource(name);
+	}
+
 	/**
 	 * Returns the filename for the ImageData.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -810,6 +810,63 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 		remove(new Object[] { element });
 	}
 
+	/**
+	 * The table viewer implementation of this method removes the removed and
+	 * moved elements at once, then inserts the added and moved elements. If
+	 * the viewer is sorted, the added elements are sorted and merged with the
+	 * items in a single pass rather than searching the position of every
+	 * element. Elements whose update affects the sorter or a filter are moved.
+	 */
+	@Override
+	void internalApplyDelta(ViewerDelta delta) {
+		List<Object> removed = new ArrayList<>(Arrays.asList(delta.getRemoved()));
+		List<Object> added = new ArrayList<>(Arrays.asList(delta.getAdded()));
+		CustomHashtable moved = null;
+		for (int i = 0; i < delta.getUpdateCount(); i++) {
+			Object element = delta.getUpdated(i);
+			if (needsRefilter(element, delta.getUpdateProperties(i))) {
+				if (moved == null) {
+					moved = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+				}
+				if (!moved.containsKey(element)) {
+					moved.put(element, element);
+					removed.add(element);
+					added.add(element);
+				}
+			}
+		}
+		if (!removed.isEmpty()) {
+			internalRemove(removed.toArray());
+			if (getInput() == null) {
+				// the input itself was removed
+				return;
+			}
+		}
+
+		Object[] filtered = filter(added.toArray());
+		ViewerComparator comparator = getComparator();
+		if (comparator == null || virtualManager != null) {
+			for (int i = 0; i < filtered.length; i++) {
+				createItem(filtered[i], indexForElement(filtered[i]));
+			}
+		} else {
+			comparator.sort(this, filtered);
+			int count = doGetItemCount();
+			int index = 0;
+			for (int i = 0; i < filtered.length; i++) {
+				Object element = filtered[i];
+				// like indexForElement, insert after the equal items
+				while (index < count && comparator.compare(this, doGetItem(index).getData(), element) <= 0) {
+					index++;
+				}
+				createItem(element, index);
+				index++;
+				count++;
+			}
+		}
+		internalApplyUpdates(delta);
+	}
+
 	@Override
 	public void reveal(Object element) {
 		Assert.isNotNull(element);
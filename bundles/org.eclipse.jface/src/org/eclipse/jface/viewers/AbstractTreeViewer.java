@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -2258,6 +2258,42 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		remove(new Object[] { elementsOrTreePaths });
 	}
 
+	/**
+	 * The tree viewer implementation of this method removes the removed and
+	 * moved elements at once, then adds the added and moved elements parent by
+	 * parent, so that the new children of a parent are sorted and merged with
+	 * its items once. If an update affects the sorter or a filter, the viewer
+	 * is refreshed instead, like {@link #update(Object, String[])} does.
+	 */
+	@Override
+	void internalApplyDelta(ViewerDelta delta) {
+		if (needsRefilter(delta)) {
+			// the positions of the other changes are refreshed as well
+			internalRefresh(getRoot());
+			return;
+		}
+		Object[] removed = delta.getRemoved();
+		if (removed.length > 0) {
+			internalRemove(removed);
+			if (getInput() == null) {
+				// the input itself was removed
+				return;
+			}
+		}
+		for (int i = 0; i < delta.getAddParentCount(); i++) {
+			Object parentElementOrTreePath = delta.getAddParent(i);
+			// parents that have not been realized yet are ignored, like in add
+			Widget[] widgets = internalFindItems(parentElementOrTreePath);
+			if (widgets.length > 0) {
+				Object[] childElements = delta.getAddChildren(i);
+				for (int j = 0; j < widgets.length; j++) {
+					internalAdd(widgets[j], parentElementOrTreePath, childElements);
+				}
+			}
+		}
+		internalApplyUpdates(delta);
+	}
+
 	/**
 	 * Removes all items from the given control.
 	 *
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.util.Policy;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A {@link BackgroundLazyTreeContentProvider} is an
+ * {@link ILazyTreeContentProvider} for tree viewers created with the
+ * SWT.VIRTUAL flag. It fetches child counts and ranges of children from an
+ * {@link IBackgroundTreeContentProvider} in the background, so that expanding
+ * an element with a very large number of children does not freeze the UI.
+ *
+ * <p>
+ * The child counts of the elements shown by the tree are computed in batches
+ * by an {@link Executor}. Until the count of a collapsed element is known, it
+ * is shown without an expand button. When the tree asks for the child at an
+ * index, the page of children around the index is fetched and only the items
+ * the tree asked for, that is the visible ones, are filled in when the page
+ * arrives.
+ * </p>
+ *
+ * <p>
+ * Child counts and children are cached until {@link #invalidate(Object)} is
+ * called or the input changes. To show changes of the model, invalidate the
+ * changed elements and refresh them in the viewer.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class BackgroundLazyTreeContentProvider implements ILazyTreeContentProvider {
+
+	/**
+	 * The number of children fetched by one task.
+	 */
+	private static final int PAGE_SIZE = 64;
+
+	/**
+	 * The number of elements counted by one task.
+	 */
+	private static final int BATCH_SIZE = 32;
+
+	/**
+	 * The children known for an element. Only accessed in the UI thread.
+	 */
+	private static final class Node {
+		// -1 until the count is known
+		int childCount = -1;
+
+		boolean counting;
+
+		// set when the viewer waits for the count
+		boolean answerPending;
+
+		// the child count of the widget when the viewer asked for the count
+		int widgetChildCount;
+
+		Object[][] pages;
+
+		boolean[] fetching;
+
+		// the indexes the viewer asked for while their page was fetched
+		BitSet wanted;
+
+		void setChildCount(int count) {
+			childCount = count;
+			int pageCount = (count + PAGE_SIZE - 1) / PAGE_SIZE;
+			pages = new Object[pageCount][];
+			fetching = new boolean[pageCount];
+			wanted = new BitSet();
+		}
+	}
+
+	private final IBackgroundTreeContentProvider provider;
+
+	private final Executor executor;
+
+	private TreeViewer viewer;
+
+	private Object input;
+
+	// element -> Node
+	private CustomHashtable nodes;
+
+	private List<Object> countQueue = new ArrayList<>();
+
+	private boolean dispatchScheduled;
+
+	/**
+	 * Creates a {@link BackgroundLazyTreeContentProvider} that reads the given
+	 * content provider in the common fork-join pool.
+	 *
+	 * @param provider
+	 *            the content provider that provides the child counts and the
+	 *            children
+	 */
+	public BackgroundLazyTreeContentProvider(IBackgroundTreeContentProvider provider) {
+		this(provider, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a {@link BackgroundLazyTreeContentProvider} that reads the given
+	 * content provider with the given executor.
+	 *
+	 * @param provider
+	 *            the content provider that provides the child counts and the
+	 *            children
+	 * @param executor
+	 *            the executor running the tasks that read the content provider
+	 */
+	public BackgroundLazyTreeContentProvider(IBackgroundTreeContentProvider provider, Executor executor) {
+		Assert.isNotNull(provider);
+		Assert.isNotNull(executor);
+		this.provider = provider;
+		this.executor = executor;
+	}
+
+	@Override
+	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		Assert.isTrue(viewer == null || viewer instanceof TreeViewer,
+				"BackgroundLazyTreeContentProvider must be used with a TreeViewer"); //$NON-NLS-1$
+		provider.inputChanged(viewer, oldInput, newInput);
+		this.viewer = (TreeViewer) viewer;
+		this.input = newInput;
+		// results of tasks still running are ignored, see isCurrent
+		nodes = this.viewer == null ? null : this.viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		countQueue = new ArrayList<>();
+	}
+
+	@Override
+	public void dispose() {
+		nodes = null;
+		countQueue = new ArrayList<>();
+		provider.dispose();
+	}
+
+	/**
+	 * Discards the cached child count and children of the given element. The
+	 * next time the viewer asks for them, they are read again. Refresh the
+	 * element in the viewer after calling this method.
+	 *
+	 * @param element
+	 *            the element, or the viewer's input
+	 */
+	public void invalidate(Object element) {
+		if (nodes != null) {
+			nodes.remove(element);
+		}
+	}
+
+	/**
+	 * Discards the cached child counts and children of all elements. Refresh
+	 * the viewer after calling this method.
+	 */
+	public void invalidateAll() {
+		if (nodes != null) {
+			nodes = viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		}
+	}
+
+	@Override
+	public Object getParent(Object element) {
+		return provider.getParent(element);
+	}
+
+	@Override
+	public void updateChildCount(Object element, int currentChildCount) {
+		if (nodes == null) {
+			return;
+		}
+		Node node = (Node) nodes.get(element);
+		if (node == null) {
+			node = new Node();
+			nodes.put(element, node);
+		}
+		node.widgetChildCount = currentChildCount;
+		if (node.childCount >= 0) {
+			node.answerPending = false;
+			applyChildCount(element, node);
+			return;
+		}
+		node.answerPending = true;
+		if (!node.counting) {
+			node.counting = true;
+			countQueue.add(element);
+			if (!dispatchScheduled) {
+				dispatchScheduled = true;
+				// collect the elements shown by the current event first
+				viewer.getControl().getDisplay().asyncExec(this::dispatchCounts);
+			}
+		}
+	}
+
+	/**
+	 * Tells the viewer about a known child count. The children of collapsed
+	 * elements that do not show any children yet are not created, they only
+	 * get an expand button.
+	 */
+	private void applyChildCount(Object element, Node node) {
+		if (element == input || node.widgetChildCount > 0 || viewer.getExpandedState(element)) {
+			viewer.setChildCount(element, node.childCount);
+		} else {
+			viewer.setHasChildren(element, node.childCount > 0);
+		}
+	}
+
+	@Override
+	public void updateElement(Object parent, int index) {
+		if (nodes == null) {
+			return;
+		}
+		Node node = (Node) nodes.get(parent);
+		if (node == null || index >= node.childCount) {
+			// the count is unknown or was invalidated, the viewer asks again
+			// when it is refreshed
+			return;
+		}
+		int page = index / PAGE_SIZE;
+		Object[] children = node.pages[page];
+		if (children != null) {
+			if (index % PAGE_SIZE < children.length) {
+				viewer.replace(parent, index, children[index % PAGE_SIZE]);
+			}
+			return;
+		}
+		node.wanted.set(index);
+		if (!node.fetching[page]) {
+			node.fetching[page] = true;
+			int offset = page * PAGE_SIZE;
+			fetchChildren(parent, node, page, offset, Math.min(PAGE_SIZE, node.childCount - offset));
+		}
+	}
+
+	private void dispatchCounts() {
+		dispatchScheduled = false;
+		if (!isViewerAlive()) {
+			return;
+		}
+		Display display = viewer.getControl().getDisplay();
+		List<Object> queue = countQueue;
+		countQueue = new ArrayList<>();
+		for (int start = 0; start < queue.size(); start += BATCH_SIZE) {
+			int end = Math.min(start + BATCH_SIZE, queue.size());
+			Object[] elements = queue.subList(start, end).toArray();
+			Node[] batchNodes = new Node[elements.length];
+			for (int i = 0; i < elements.length; i++) {
+				batchNodes[i] = (Node) nodes.get(elements[i]);
+			}
+			countChildren(elements, batchNodes, display);
+		}
+	}
+
+	private void countChildren(final Object[] elements, final Node[] batchNodes, final Display display) {
+		executor.execute(() -> {
+			final int[] counts = new int[elements.length];
+			for (int i = 0; i < elements.length; i++) {
+				try {
+					counts[i] = provider.getChildCount(elements[i]);
+				} catch (RuntimeException e) {
+					log("Could not count the children of " + elements[i], e); //$NON-NLS-1$
+				}
+			}
+			if (!display.isDisposed()) {
+				display.asyncExec(() -> {
+					for (int i = 0; i < elements.length; i++) {
+						Node node = batchNodes[i];
+						if (isCurrent(elements[i], node)) {
+							node.counting = false;
+							node.setChildCount(counts[i]);
+							if (node.answerPending) {
+								node.answerPending = false;
+								applyChildCount(elements[i], node);
+							}
+						}
+					}
+				});
+			}
+		});
+	}
+
+	private void fetchChildren(final Object parent, final Node node, final int page, final int offset,
+			final int length) {
+		final Display display = viewer.getControl().getDisplay();
+		executor.execute(() -> {
+			Object[] result;
+			try {
+				result = provider.getChildren(parent, offset, length);
+			} catch (RuntimeException e) {
+				log("Could not read the children of " + parent, e); //$NON-NLS-1$
+				result = new Object[0];
+			}
+			final Object[] children = result;
+			if (!display.isDisposed()) {
+				display.asyncExec(() -> {
+					if (!isCurrent(parent, node)) {
+						return;
+					}
+					node.fetching[page] = false;
+					node.pages[page] = children;
+					int end = offset + Math.min(length, children.length);
+					// fill in the items the viewer asked for, the other ones
+					// are filled in from the page when they become visible
+					for (int i = node.wanted.nextSetBit(offset); i >= 0 && i < end; i = node.wanted.nextSetBit(i + 1)) {
+						viewer.replace(parent, i, children[i - offset]);
+					}
+					node.wanted.clear(offset, offset + length);
+				});
+			}
+		});
+	}
+
+	/**
+	 * Returns whether the node is still the node of the element, that is the
+	 * input did not change and the element was not invalidated since the task
+	 * was started.
+	 */
+	private boolean isCurrent(Object element, Node node) {
+		return node != null && isViewerAlive() && nodes.get(element) == node;
+	}
+
+	private boolean isViewerAlive() {
+		if (viewer == null || nodes == null) {
+			return false;
+		}
+		Control control = viewer.getControl();
+		return control != null && !control.isDisposed();
+	}
+
+	private static void log(String message, RuntimeException e) {
+		Policy.getLog().log(new Status(IStatus.ERROR, Policy.JFACE, message, e));
+	}
+}
@@ -0,0 +1,390 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.util.Policy;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyleRange;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * A {@link BackgroundStyledCellLabelProvider} is a
+ * {@link DelegatingStyledCellLabelProvider} that computes the labels of its
+ * {@link DelegatingStyledCellLabelProvider.IStyledLabelProvider} in the
+ * background, for label providers that are too slow to be called while the
+ * viewer paints, for example when labels are read from files.
+ *
+ * <p>
+ * A cell whose label is not known yet shows a placeholder, see
+ * {@link #getPlaceholderText(Object)}, and its element is queued. The queued
+ * elements are split into batches that are labeled by an {@link Executor},
+ * and the labels of each batch are applied to the viewer in one update.
+ * </p>
+ *
+ * <p>
+ * Labels are cached per element until the wrapped label provider fires a
+ * {@link LabelProviderChangedEvent} for the element, or for all elements.
+ * Until the new label is known the cell keeps showing the old one. Updating
+ * or refreshing the viewer shows the cached labels. The label of an element is
+ * released when no item of the viewer shows the element anymore, because the
+ * items were disposed or now show other elements.
+ * </p>
+ *
+ * <p>
+ * The methods of the wrapped label provider that compute the styled text, the
+ * image, the colors and the font are called from the threads of the executor,
+ * possibly for several elements at the same time. They must be thread safe.
+ * The tooltip methods are still called in the UI thread.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class BackgroundStyledCellLabelProvider extends DelegatingStyledCellLabelProvider {
+
+	/**
+	 * The number of elements labeled by one task.
+	 */
+	private static final int BATCH_SIZE = 32;
+
+	/**
+	 * Marks an element that is queued but not yet handed to the executor.
+	 */
+	private static final Integer QUEUED = Integer.valueOf(0);
+
+	/**
+	 * The label computed for an element.
+	 */
+	private static final class Label {
+		final StyledString text;
+
+		final Image image;
+
+		final Font font;
+
+		final Color foreground;
+
+		final Color background;
+
+		// set when the label provider changed, the label is shown until the
+		// new one is known
+		boolean stale;
+
+		Label(StyledString text, Image image, Font font, Color foreground, Color background) {
+			this.text = text;
+			this.image = image;
+			this.font = font;
+			this.foreground = foreground;
+			this.background = background;
+		}
+	}
+
+	private final Executor executor;
+
+	private final ILabelProviderListener invalidationListener = this::labelProviderChanged;
+
+	private final Listener itemDisposeListener = event -> itemDisposed(event.widget);
+
+	// Only accessed in the UI thread
+	private CustomHashtable labels;
+
+	// item -> element last shown by the item
+	private Map<Widget, Object> itemElements = new HashMap<>();
+
+	// element -> number of items showing the element
+	private CustomHashtable itemCounts;
+
+	// element -> batch number, or QUEUED
+	private CustomHashtable pending;
+
+	private List<Object> queue = new ArrayList<>();
+
+	private boolean dispatchScheduled;
+
+	private int batchCount;
+
+	/**
+	 * Creates a {@link BackgroundStyledCellLabelProvider} that computes the
+	 * labels of the given label provider in the common fork-join pool.
+	 *
+	 * @param labelProvider
+	 *            the label provider that provides the styled labels and the
+	 *            images, must be thread safe
+	 */
+	public BackgroundStyledCellLabelProvider(IStyledLabelProvider labelProvider) {
+		this(labelProvider, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a {@link BackgroundStyledCellLabelProvider} that computes the
+	 * labels of the given label provider with the given executor.
+	 *
+	 * @param labelProvider
+	 *            the label provider that provides the styled labels and the
+	 *            images, must be thread safe
+	 * @param executor
+	 *            the executor running the labeling tasks
+	 */
+	public BackgroundStyledCellLabelProvider(IStyledLabelProvider labelProvider, Executor executor) {
+		super(labelProvider);
+		if (executor == null)
+			throw new IllegalArgumentException("Executor must not be null"); //$NON-NLS-1$
+		this.executor = executor;
+	}
+
+	@Override
+	public void initialize(ColumnViewer viewer, ViewerColumn column) {
+		super.initialize(viewer, column);
+		labels = viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		pending = viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		itemCounts = viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		// registered before the viewer's listener, so that the cache is
+		// updated when the viewer refreshes the labels
+		getStyledStringProvider().addListener(invalidationListener);
+	}
+
+	@Override
+	public void update(ViewerCell cell) {
+		Object element = cell.getElement();
+		if (labels != null) {
+			mapItem(cell.getItem(), element);
+		}
+		Label label = labels == null ? null : (Label) labels.get(element);
+		if (label == null || label.stale) {
+			request(element);
+		}
+		if (label == null) {
+			label = new Label(getPlaceholderText(element), null, null, null, null);
+		}
+
+		String newText = label.text.toString();
+
+		StyleRange[] oldStyleRanges = cell.getStyleRanges();
+		StyleRange[] newStyleRanges = isOwnerDrawEnabled() ? label.text.getStyleRanges() : null;
+
+		if (!Arrays.equals(oldStyleRanges, newStyleRanges)) {
+			cell.setStyleRanges(newStyleRanges);
+			if (cell.getText().equals(newText)) {
+				// make sure there will be a refresh from a change
+				cell.setText(""); //$NON-NLS-1$
+			}
+		}
+
+		cell.setText(newText);
+		cell.setImage(label.image);
+		cell.setFont(label.font);
+		cell.setForeground(label.foreground);
+		cell.setBackground(label.background);
+	}
+
+	/**
+	 * Returns the text shown for an element until its label is known. The
+	 * default implementation returns a localized "Pending..." string.
+	 * Subclasses may override, this method is called in the UI thread and
+	 * must be fast.
+	 *
+	 * @param element
+	 *            the element
+	 * @return the placeholder text
+	 */
+	protected StyledString getPlaceholderText(Object element) {
+		return new StyledString(JFaceResources.getString("BackgroundStyledCellLabelProvider.pending")); //$NON-NLS-1$
+	}
+
+	private void mapItem(Widget item, Object element) {
+		Object previous = itemElements.put(item, element);
+		if (previous == element) {
+			return;
+		}
+		retain(element);
+		if (previous == null) {
+			item.addListener(SWT.Dispose, itemDisposeListener);
+		} else {
+			release(previous);
+		}
+	}
+
+	private void itemDisposed(Widget item) {
+		Object element = itemElements.remove(item);
+		if (element != null && labels != null) {
+			release(element);
+		}
+	}
+
+	private void retain(Object element) {
+		Integer count = (Integer) itemCounts.get(element);
+		itemCounts.put(element, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+	}
+
+	/**
+	 * Forgets the label of an element that is no longer shown by any item.
+	 * A label that is still being computed is ignored when it is applied.
+	 */
+	private void release(Object element) {
+		Integer count = (Integer) itemCounts.get(element);
+		if (count == null) {
+			return;
+		}
+		if (count.intValue() > 1) {
+			itemCounts.put(element, Integer.valueOf(count.intValue() - 1));
+			return;
+		}
+		itemCounts.remove(element);
+		labels.remove(element);
+		pending.remove(element);
+	}
+
+	private void request(Object element) {
+		if (pending == null || pending.containsKey(element)) {
+			return;
+		}
+		pending.put(element, QUEUED);
+		queue.add(element);
+		if (!dispatchScheduled) {
+			dispatchScheduled = true;
+			// collect the rows painted by the current event first
+			getViewer().getControl().getDisplay().asyncExec(this::dispatch);
+		}
+	}
+
+	private void dispatch() {
+		dispatchScheduled = false;
+		ColumnViewer viewer = getViewer();
+		if (viewer == null || viewer.getControl().isDisposed()) {
+			return;
+		}
+		final Display display = viewer.getControl().getDisplay();
+		List<Object> batch = new ArrayList<>(BATCH_SIZE);
+		Integer batchNumber = null;
+		for (Object element : queue) {
+			if (pending.get(element) != QUEUED) {
+				// invalidated, or already part of a batch
+				continue;
+			}
+			if (batchNumber == null) {
+				batchNumber = Integer.valueOf(++batchCount);
+			}
+			pending.put(element, batchNumber);
+			batch.add(element);
+			if (batch.size() == BATCH_SIZE) {
+				submit(batch.toArray(), batchNumber, display);
+				batch.clear();
+				batchNumber = null;
+			}
+		}
+		if (!batch.isEmpty()) {
+			submit(batch.toArray(), batchNumber, display);
+		}
+		queue = new ArrayList<>();
+	}
+
+	private void submit(final Object[] elements, final Integer batchNumber, final Display display) {
+		executor.execute(() -> {
+			final Label[] results = new Label[elements.length];
+			for (int i = 0; i < elements.length; i++) {
+				results[i] = computeLabel(elements[i]);
+			}
+			if (!display.isDisposed()) {
+				display.asyncExec(() -> apply(elements, results, batchNumber));
+			}
+		});
+	}
+
+	private Label computeLabel(Object element) {
+		try {
+			return new Label(getStyledText(element), getImage(element), getFont(element), getForeground(element),
+					getBackground(element));
+		} catch (RuntimeException e) {
+			Policy.getLog().log(new Status(IStatus.ERROR, Policy.JFACE, "Could not compute the label of " //$NON-NLS-1$
+					+ element, e));
+			return new Label(new StyledString(), null, null, null, null);
+		}
+	}
+
+	private void apply(Object[] elements, Label[] results, Integer batchNumber) {
+		ColumnViewer viewer = getViewer();
+		if (viewer == null || labels == null) {
+			return;
+		}
+		Control control = viewer.getControl();
+		if (control.isDisposed()) {
+			return;
+		}
+		List<Object> updated = new ArrayList<>(elements.length);
+		for (int i = 0; i < elements.length; i++) {
+			Object element = elements[i];
+			// ignore the labels of elements that were invalidated since
+			if (batchNumber.equals(pending.get(element))) {
+				pending.remove(element);
+				labels.put(element, results[i]);
+				updated.add(element);
+			}
+		}
+		if (!updated.isEmpty()) {
+			viewer.update(updated.toArray(), null);
+		}
+	}
+
+	private void labelProviderChanged(LabelProviderChangedEvent event) {
+		if (labels == null) {
+			return;
+		}
+		Object[] elements = event.getElements();
+		if (elements == null) {
+			for (Enumeration e = labels.elements(); e.hasMoreElements();) {
+				((Label) e.nextElement()).stale = true;
+			}
+			pending = getViewer().newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+			queue = new ArrayList<>();
+		} else {
+			for (int i = 0; i < elements.length; i++) {
+				Label label = (Label) labels.get(elements[i]);
+				if (label != null) {
+					label.stale = true;
+				}
+				pending.remove(elements[i]);
+			}
+		}
+	}
+
+	@Override
+	public void dispose() {
+		getStyledStringProvider().removeListener(invalidationListener);
+		for (Widget item : itemElements.keySet()) {
+			if (!item.isDisposed()) {
+				item.removeListener(SWT.Dispose, itemDisposeListener);
+			}
+		}
+		itemElements = new HashMap<>();
+		labels = null;
+		pending = null;
+		itemCounts = null;
+		queue = new ArrayList<>();
+		super.dispose();
+	}
+}
@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * ElementWidgetMap maps the elements of a {@link StructuredViewer} to the
+ * widgets showing them. An element is mapped either to a single
+ * <code>Widget</code> or, when it is shown more than once, to a
+ * <code>Widget[]</code>.
+ * <p>
+ * The map uses open addressing with linear probing over parallel arrays of
+ * keys, values and hash codes, so that no entry object is allocated per
+ * element. The hash codes are kept so that the map grows and skips
+ * non-matching slots without calling the element comparer. Removals shift the
+ * following entries back instead of leaving deleted markers.
+ * </p>
+ * <p>
+ * Like {@link CustomHashtable}, the map uses an optional
+ * {@link IElementComparer} to compare elements and obtain their hash codes.
+ * </p>
+ */
+/* package */final class ElementWidgetMap {
+
+	/**
+	 * The default capacity used for an empty map.
+	 */
+	static final int DEFAULT_CAPACITY = 16;
+
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+	private final IElementComparer comparer;
+
+	private Object[] keys;
+
+	private Object[] values;
+
+	private int[] hashes;
+
+	private int size;
+
+	private int threshold;
+
+	private int shift;
+
+	/**
+	 * Creates a map that holds the given number of elements without growing.
+	 *
+	 * @param expectedSize
+	 *            the expected number of elements
+	 * @param comparer
+	 *            the element comparer to use to compare elements and obtain
+	 *            hash codes for elements, or <code>null</code> to use the
+	 *            normal <code>equals</code> and <code>hashCode</code> methods
+	 */
+	ElementWidgetMap(int expectedSize, IElementComparer comparer) {
+		this.comparer = comparer;
+		int capacity = DEFAULT_CAPACITY;
+		while (capacity < MAXIMUM_CAPACITY && maxSize(capacity) < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Creates a map with the entries of the given map, using another element
+	 * comparer.
+	 *
+	 * @param map
+	 *            the map to copy
+	 * @param comparer
+	 *            the element comparer to use, or <code>null</code>
+	 */
+	ElementWidgetMap(ElementWidgetMap map, IElementComparer comparer) {
+		this(map.size, comparer);
+		Object[] oldKeys = map.keys;
+		for (int i = 0; i < oldKeys.length; i++) {
+			Object key = oldKeys[i];
+			if (key != null) {
+				int index = indexOf(key, hashCode(key));
+				if (index < 0) {
+					insert(~index, key, map.values[i], hashCode(key));
+				} else {
+					// elements that are now equal share their widgets
+					values[index] = merge(values[index], map.values[i]);
+				}
+			}
+		}
+	}
+
+	private static int maxSize(int capacity) {
+		// a load factor of 0.75
+		return (capacity >> 1) + (capacity >> 2);
+	}
+
+	private void allocate(int capacity) {
+		keys = new Object[capacity];
+		values = new Object[capacity];
+		hashes = new int[capacity];
+		threshold = maxSize(capacity);
+		shift = Integer.numberOfLeadingZeros(capacity) + 1;
+	}
+
+	/**
+	 * @return the element comparer, or <code>null</code>
+	 */
+	IElementComparer getComparer() {
+		return comparer;
+	}
+
+	/**
+	 * @return the number of mapped elements
+	 */
+	int size() {
+		return size;
+	}
+
+	private int hashCode(Object key) {
+		return comparer == null ? key.hashCode() : comparer.hashCode(key);
+	}
+
+	private boolean keyEquals(Object a, Object b) {
+		return comparer == null ? a.equals(b) : comparer.equals(a, b);
+	}
+
+	private int slot(int hash) {
+		// Fibonacci hashing spreads the poor hash codes of some elements
+		return (hash * 0x9E3779B9) >>> shift;
+	}
+
+	/**
+	 * Returns the slot of the key, or the complement of the free slot where
+	 * it would be inserted.
+	 */
+	private int indexOf(Object key, int hash) {
+		int mask = keys.length - 1;
+		int index = slot(hash);
+		Object candidate;
+		while ((candidate = keys[index]) != null) {
+			if (hashes[index] == hash && (candidate == key || keyEquals(key, candidate))) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return ~index;
+	}
+
+	private void insert(int index, Object key, Object value, int hash) {
+		if (size >= threshold && keys.length < MAXIMUM_CAPACITY) {
+			grow();
+			index = ~indexOf(key, hash);
+		}
+		keys[index] = key;
+		values[index] = value;
+		hashes[index] = hash;
+		size++;
+	}
+
+	private void grow() {
+		Object[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldHashes = hashes;
+		allocate(oldKeys.length << 1);
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int index = slot(oldHashes[i]);
+				while (keys[index] != null) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+				hashes[index] = oldHashes[i];
+			}
+		}
+	}
+
+	/**
+	 * Returns the widget or widgets an element is mapped to.
+	 *
+	 * @param element
+	 *            the element
+	 * @return a <code>Widget</code>, a <code>Widget[]</code> or
+	 *         <code>null</code> if the element is not mapped
+	 */
+	Object get(Object element) {
+		int index = indexOf(element, hashCode(element));
+		return index < 0 ? null : values[index];
+	}
+
+	/**
+	 * Adds a widget to the widgets an element is mapped to. Does nothing if
+	 * the element is already mapped to the widget.
+	 *
+	 * @param element
+	 *            the element
+	 * @param item
+	 *            the widget
+	 */
+	void add(Object element, Widget item) {
+		int hash = hashCode(element);
+		int index = indexOf(element, hash);
+		if (index < 0) {
+			insert(~index, element, item, hash);
+			return;
+		}
+		Object widgetOrWidgets = values[index];
+		Object merged = merge(widgetOrWidgets, item);
+		if (merged != widgetOrWidgets) {
+			// important to avoid hanging onto keys that are equal but "old" -- see bug 30607
+			keys[index] = element;
+			values[index] = merged;
+		}
+	}
+
+	/**
+	 * Returns the widgets of both values, or the first value if it already
+	 * contains all widgets of the second one.
+	 */
+	private static Object merge(Object widgetOrWidgets, Object other) {
+		if (other instanceof Widget[]) {
+			Widget[] others = (Widget[]) other;
+			for (int i = 0; i < others.length; i++) {
+				widgetOrWidgets = merge(widgetOrWidgets, others[i]);
+			}
+			return widgetOrWidgets;
+		}
+		if (widgetOrWidgets instanceof Widget) {
+			if (widgetOrWidgets == other) {
+				return widgetOrWidgets;
+			}
+			return new Widget[] { (Widget) widgetOrWidgets, (Widget) other };
+		}
+		Widget[] widgets = (Widget[]) widgetOrWidgets;
+		for (int i = 0; i < widgets.length; i++) {
+			if (widgets[i] == other) {
+				return widgetOrWidgets;
+			}
+		}
+		Widget[] result = new Widget[widgets.length + 1];
+		System.arraycopy(widgets, 0, result, 0, widgets.length);
+		result[widgets.length] = (Widget) other;
+		return result;
+	}
+
+	/**
+	 * Removes an element and all its widgets.
+	 *
+	 * @param element
+	 *            the element
+	 */
+	void remove(Object element) {
+		int index = indexOf(element, hashCode(element));
+		if (index >= 0) {
+			removeAt(index);
+		}
+	}
+
+	/**
+	 * Removes a widget from the widgets an element is mapped to. The element
+	 * is removed when it is no longer mapped to any widget.
+	 *
+	 * @param element
+	 *            the element
+	 * @param item
+	 *            the widget
+	 */
+	void remove(Object element, Widget item) {
+		int index = indexOf(element, hashCode(element));
+		if (index < 0) {
+			return;
+		}
+		Object widgetOrWidgets = values[index];
+		if (widgetOrWidgets instanceof Widget) {
+			if (widgetOrWidgets == item) {
+				removeAt(index);
+			}
+			return;
+		}
+		Widget[] widgets = (Widget[]) widgetOrWidgets;
+		int length = widgets.length;
+		for (int i = 0; i < length; i++) {
+			if (widgets[i] == item) {
+				if (length == 1) {
+					removeAt(index);
+				} else {
+					Widget[] updatedWidgets = new Widget[length - 1];
+					System.arraycopy(widgets, 0, updatedWidgets, 0, i);
+					System.arraycopy(widgets, i + 1, updatedWidgets, i, length - i - 1);
+					keys[index] = element;
+					values[index] = updatedWidgets;
+				}
+				return;
+			}
+		}
+	}
+
+	private void removeAt(int index) {
+		int mask = keys.length - 1;
+		int next = index;
+		while (true) {
+			next = (next + 1) & mask;
+			if (keys[next] == null) {
+				break;
+			}
+			// move the entry back unless its home slot is between the
+			// freed slot and its current slot
+			int home = slot(hashes[next]);
+			if (index <= next ? (home <= index || home > next) : (home <= index && home > next)) {
+				keys[index] = keys[next];
+				values[index] = values[next];
+				hashes[index] = hashes[next];
+				index = next;
+			}
+		}
+		keys[index] = null;
+		values[index] = null;
+		hashes[index] = 0;
+		size--;
+	}
+
+	@Override
+	public String toString() {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append('{');
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null) {
+				if (buffer.length() > 1) {
+					buffer.append(", "); //$NON-NLS-1$
+				}
+				buffer.append(keys[i]);
+				buffer.append('=');
+				buffer.append(values[i]);
+			}
+		}
+		buffer.append('}');
+		return buffer.toString();
+	}
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+/**
+ * The IBackgroundTreeContentProvider is the content provider contract of a
+ * {@link BackgroundLazyTreeContentProvider}. It answers child counts and ranges
+ * of children, and is called from background threads so that the tree does
+ * not freeze while large folders are read.
+ *
+ * <p>
+ * {@link #getChildCount(Object)} and {@link #getChildren(Object, int, int)}
+ * are called from the threads of the executor of the
+ * {@link BackgroundLazyTreeContentProvider}, possibly for several parents at
+ * the same time, and must be thread safe. The other methods are called in the
+ * UI thread.
+ * </p>
+ *
+ * @see BackgroundLazyTreeContentProvider
+ * @since 3.12
+ */
+public interface IBackgroundTreeContentProvider extends IContentProvider {
+
+	/**
+	 * Returns the number of children of the given element. Called in a
+	 * background thread.
+	 *
+	 * @param element
+	 *            the element, or the viewer's input for the number of root
+	 *            elements
+	 * @return the number of children
+	 */
+	public int getChildCount(Object element);
+
+	/**
+	 * Returns a range of the children of the given element. Called in a
+	 * background thread, only for ranges that are within the last child count
+	 * returned for the element.
+	 *
+	 * @param element
+	 *            the element, or the viewer's input for the root elements
+	 * @param offset
+	 *            the index of the first child to return
+	 * @param length
+	 *            the number of children to return
+	 * @return an array of <code>length</code> children, the array must not be
+	 *         modified afterwards
+	 */
+	public Object[] getChildren(Object element, int offset, int length);
+
+	/**
+	 * Returns the parent for the given element, or <code>null</code>
+	 * indicating that the parent can't be computed. Called in the UI thread,
+	 * for example to reveal an element, and must be fast.
+	 *
+	 * @param element
+	 *            the element
+	 * @return the parent element, or <code>null</code> if it has none or if
+	 *         the parent cannot be computed
+	 */
+	public Object getParent(Object element);
+}
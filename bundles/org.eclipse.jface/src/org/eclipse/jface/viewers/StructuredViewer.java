@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -65,7 +65,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	 * <code>Object</code>, value type: <code>Widget</code>, or <code>Widget[]</code>).
 	 * <code>null</code> means that the element map is disabled.
 	 */
-	private CustomHashtable elementMap;
+	private ElementWidgetMap elementMap;
 
 	/**
 	 * The comparer to use for comparing elements, or <code>null</code> to use
@@ -1328,25 +1328,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	 */
 	protected void mapElement(Object element, Widget item) {
 		if (elementMap != null) {
-			Object widgetOrWidgets = elementMap.get(element);
-			if (widgetOrWidgets == null) {
-				elementMap.put(element, item);
-			} else if (widgetOrWidgets instanceof Widget) {
-				if (widgetOrWidgets != item) {
-					elementMap.put(element, new Widget[] {
-							(Widget) widgetOrWidgets, item });
-				}
-			} else {
-				Widget[] widgets = (Widget[]) widgetOrWidgets;
-				int indexOfItem = Arrays.asList(widgets).indexOf(item);
-				if (indexOfItem == -1) {
-					int length = widgets.length;
-					System.arraycopy(widgets, 0,
-							widgets = new Widget[length + 1], 0, length);
-					widgets[length] = item;
-					elementMap.put(element, widgets);
-				}
-			}
+			elementMap.add(element, item);
 		}
 	}
 
@@ -1827,7 +1809,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		Assert.isTrue(getInput() == null,
 				"Can only enable the hash look up before input has been set");//$NON-NLS-1$
 		if (enable) {
-			elementMap = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+			elementMap = new ElementWidgetMap(0, getComparer());
 		} else {
 			elementMap = null;
 		}
@@ -1845,7 +1827,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	public void setComparer(IElementComparer comparer) {
 		this.comparer = comparer;
 		if (elementMap != null) {
-			elementMap = new CustomHashtable(elementMap, comparer);
+			elementMap = new ElementWidgetMap(elementMap, comparer);
 		}
 	}
 
@@ -1914,7 +1896,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	 */
 	protected void unmapAllElements() {
 		if (elementMap != null) {
-			elementMap = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+			elementMap = new ElementWidgetMap(0, getComparer());
 		}
 	}
 
@@ -1954,36 +1936,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		// double-check that the element actually maps to the given item before
 		// unmapping it
 		if (elementMap != null) {
-			Object widgetOrWidgets = elementMap.get(element);
-			if (widgetOrWidgets == null) {
-				// item was not mapped, return
-				return;
-			} else if (widgetOrWidgets instanceof Widget) {
-				if (item == widgetOrWidgets) {
-					elementMap.remove(element);
-				}
-			} else {
-				Widget[] widgets = (Widget[]) widgetOrWidgets;
-				int indexOfItem = Arrays.asList(widgets).indexOf(item);
-				if (indexOfItem == -1) {
-					return;
-				}
-				int length = widgets.length;
-				if (indexOfItem == 0) {
-					if(length == 1) {
-						elementMap.remove(element);
-					} else {
-						Widget[] updatedWidgets = new Widget[length - 1];
-						System.arraycopy(widgets, 1, updatedWidgets, 0, length -1 );
-						elementMap.put(element, updatedWidgets);
-					}
-				} else {
-					Widget[] updatedWidgets = new Widget[length - 1];
-					System.arraycopy(widgets, 0, updatedWidgets, 0, indexOfItem);
-					System.arraycopy(widgets, indexOfItem + 1, updatedWidgets, indexOfItem, length - indexOfItem - 1);
-					elementMap.put(element, updatedWidgets);
-				}
-			}
+			elementMap.remove(element, item);
 		}
 	}
 
@@ -2119,16 +2072,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
      *            indicate unknown
      */
 	protected void internalUpdate(Widget widget, Object element, String[] properties) {
-		boolean needsRefilter = false;
-		if (properties != null) {
-			for (int i = 0; i < properties.length; ++i) {
-				needsRefilter = needsRefilter(element, properties[i]);
-				if (needsRefilter) {
-					break;
-				}
-			}
-		}
-		if (needsRefilter) {
+		if (needsRefilter(element, properties)) {
 			preservingSelection(() -> {
 				internalRefresh(getRoot());
 				refreshOccurred = true;
@@ -2136,21 +2080,125 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 			return;
 		}
 
-		boolean needsUpdate;
-		if (properties == null) {
-			needsUpdate = true;
-		} else {
-			needsUpdate = false;
-			IBaseLabelProvider labelProvider = getLabelProvider();
+		if (needsUpdate(element, properties)) {
+			updateItem(widget, element);
+		}
+	}
+
+	/**
+	 * Returns whether a change to one of the given properties affects the
+	 * sorter or a filter.
+	 */
+	boolean needsRefilter(Object element, String[] properties) {
+		if (properties != null) {
 			for (int i = 0; i < properties.length; ++i) {
-				needsUpdate = labelProvider.isLabelProperty(element, properties[i]);
-				if (needsUpdate) {
-					break;
+				if (needsRefilter(element, properties[i])) {
+					return true;
 				}
 			}
 		}
-		if (needsUpdate) {
-			updateItem(widget, element);
+		return false;
+	}
+
+	/**
+	 * Returns whether a change to one of the given properties affects the
+	 * label of the element.
+	 */
+	private boolean needsUpdate(Object element, String[] properties) {
+		if (properties == null) {
+			return true;
+		}
+		IBaseLabelProvider labelProvider = getLabelProvider();
+		for (int i = 0; i < properties.length; ++i) {
+			if (labelProvider.isLabelProperty(element, properties[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Applies a batch of structural changes and label updates to this viewer.
+	 * The whole batch is applied with redraw turned off and the selection is
+	 * preserved once for the batch, rather than once per <code>add</code>,
+	 * <code>remove</code> or <code>update</code> call. An element whose
+	 * change affects the sorter or a filter is sorted or filtered again once,
+	 * with the other changes of the batch.
+	 * <p>
+	 * This method should be called (by the content provider) when many
+	 * elements changed in the model at once, in order to cause the viewer to
+	 * accurately reflect the model. This method only affects the viewer, not
+	 * the model.
+	 * </p>
+	 *
+	 * @param delta
+	 *            the changes to apply
+	 * @since 3.12
+	 */
+	public void applyDelta(final ViewerDelta delta) {
+		Assert.isNotNull(delta);
+		if (checkBusy())
+			return;
+		if (delta.isEmpty()) {
+			return;
+		}
+		Control control = getControl();
+		control.setRedraw(false);
+		try {
+			preservingSelection(() -> internalApplyDelta(delta));
+		} finally {
+			control.setRedraw(true);
+		}
+	}
+
+	/**
+	 * Applies a batch of changes to this viewer, see
+	 * {@link #applyDelta(ViewerDelta)}. Called inside
+	 * {@link #preservingSelection(Runnable)}.
+	 * <p>
+	 * The default implementation refreshes the viewer if the delta adds or
+	 * removes elements, or if an update affects the sorter or a filter, and
+	 * otherwise updates the labels of the changed elements.
+	 * </p>
+	 *
+	 * @param delta
+	 *            the changes to apply
+	 */
+	void internalApplyDelta(ViewerDelta delta) {
+		if (delta.hasStructuralChanges() || needsRefilter(delta)) {
+			// refreshing updates the labels as well
+			internalRefresh(getRoot());
+			return;
+		}
+		internalApplyUpdates(delta);
+	}
+
+	/**
+	 * Returns whether an update of the delta affects the sorter or a filter.
+	 */
+	boolean needsRefilter(ViewerDelta delta) {
+		for (int i = 0; i < delta.getUpdateCount(); i++) {
+			if (needsRefilter(delta.getUpdated(i), delta.getUpdateProperties(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Updates the labels of the elements updated by the delta, except the
+	 * ones whose update affects the sorter or a filter.
+	 */
+	void internalApplyUpdates(ViewerDelta delta) {
+		for (int i = 0; i < delta.getUpdateCount(); i++) {
+			Object element = delta.getUpdated(i);
+			String[] properties = delta.getUpdateProperties(i);
+			if (!needsRefilter(element, properties) && needsUpdate(element, properties)) {
+				Widget[] items = findItems(element);
+				for (int j = 0; j < items.length; j++) {
+					updateItem(items[j], element);
+				}
+			}
 		}
 	}
 
@@ -2332,7 +2380,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		comparer = null;
 		if (filters != null)
 			filters.clear();
-		elementMap = newHashtable(1);
+		elementMap = new ElementWidgetMap(0, getComparer());
 		openListeners.clear();
 		doubleClickListeners.clear();
 		colorAndFontCollector.clear();
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.runtime.Assert;
+
+/**
+ * A ViewerDelta is a batch of structural changes and label updates that is
+ * applied to a {@link StructuredViewer} at once, see
+ * {@link StructuredViewer#applyDelta(ViewerDelta)}.
+ * <p>
+ * Like the <code>add</code>, <code>remove</code> and <code>update</code>
+ * methods of the viewers, a delta only affects the viewer, not the model. The
+ * removals of a delta are applied first, then the additions, then the label
+ * updates. An element should therefore not be both added and removed by the
+ * same delta, except by {@link #move(Object, Object)}.
+ * </p>
+ * <p>
+ * Table and list viewers ignore the parent of added elements, the elements
+ * are added to the viewer's input.
+ * </p>
+ *
+ * @since 3.12
+ */
+public final class ViewerDelta {
+
+	private final List<Object> removed = new ArrayList<>();
+
+	private final List<Object> addParents = new ArrayList<>();
+
+	private final List<List<Object>> addChildren = new ArrayList<>();
+
+	private int addCount;
+
+	private final List<Object> updated = new ArrayList<>();
+
+	private final List<String[]> updateProperties = new ArrayList<>();
+
+	/**
+	 * Records the addition of the given child elements to the given parent
+	 * element.
+	 *
+	 * @param parentElementOrTreePath
+	 *            the parent element or tree path, or the viewer's input
+	 * @param childElements
+	 *            the child elements to add
+	 * @return this delta
+	 */
+	public ViewerDelta add(Object parentElementOrTreePath, Object[] childElements) {
+		Assert.isNotNull(parentElementOrTreePath);
+		Assert.isNotNull(childElements);
+		List<Object> children;
+		int last = addParents.size() - 1;
+		if (last >= 0 && addParents.get(last) == parentElementOrTreePath) {
+			// additions to the same parent are applied at once
+			children = addChildren.get(last);
+		} else {
+			children = new ArrayList<>(childElements.length);
+			addParents.add(parentElementOrTreePath);
+			addChildren.add(children);
+		}
+		for (int i = 0; i < childElements.length; i++) {
+			Assert.isNotNull(childElements[i]);
+			children.add(childElements[i]);
+		}
+		addCount += childElements.length;
+		return this;
+	}
+
+	/**
+	 * Records the addition of the given child element to the given parent
+	 * element.
+	 *
+	 * @param parentElementOrTreePath
+	 *            the parent element or tree path, or the viewer's input
+	 * @param childElement
+	 *            the child element to add
+	 * @return this delta
+	 */
+	public ViewerDelta add(Object parentElementOrTreePath, Object childElement) {
+		return add(parentElementOrTreePath, new Object[] { childElement });
+	}
+
+	/**
+	 * Records the removal of the given elements.
+	 *
+	 * @param elementsOrTreePaths
+	 *            the elements or tree paths to remove
+	 * @return this delta
+	 */
+	public ViewerDelta remove(Object[] elementsOrTreePaths) {
+		Assert.isNotNull(elementsOrTreePaths);
+		for (int i = 0; i < elementsOrTreePaths.length; i++) {
+			Assert.isNotNull(elementsOrTreePaths[i]);
+		}
+		Collections.addAll(removed, elementsOrTreePaths);
+		return this;
+	}
+
+	/**
+	 * Records the removal of the given element.
+	 *
+	 * @param elementOrTreePath
+	 *            the element or tree path to remove
+	 * @return this delta
+	 */
+	public ViewerDelta remove(Object elementOrTreePath) {
+		return remove(new Object[] { elementOrTreePath });
+	}
+
+	/**
+	 * Records that the given element moved to another parent, or to another
+	 * position in a sorted viewer. This is the same as removing the element
+	 * and adding it to the new parent.
+	 *
+	 * @param element
+	 *            the element
+	 * @param newParentElementOrTreePath
+	 *            the new parent element or tree path, or the viewer's input
+	 * @return this delta
+	 */
+	public ViewerDelta move(Object element, Object newParentElementOrTreePath) {
+		remove(element);
+		return add(newParentElementOrTreePath, element);
+	}
+
+	/**
+	 * Records that properties of the given element changed, see
+	 * {@link StructuredViewer#update(Object, String[])}.
+	 *
+	 * @param element
+	 *            the element
+	 * @param properties
+	 *            the properties that have changed, or <code>null</code> to
+	 *            indicate unknown
+	 * @return this delta
+	 */
+	public ViewerDelta update(Object element, String[] properties) {
+		Assert.isNotNull(element);
+		updated.add(element);
+		updateProperties.add(properties);
+		return this;
+	}
+
+	/**
+	 * Returns whether this delta has no changes.
+	 *
+	 * @return <code>true</code> if nothing was recorded
+	 */
+	public boolean isEmpty() {
+		return removed.isEmpty() && addCount == 0 && updated.isEmpty();
+	}
+
+	/**
+	 * Returns whether this delta adds or removes elements.
+	 *
+	 * @return <code>true</code> if elements are added or removed
+	 */
+	public boolean hasStructuralChanges() {
+		return !removed.isEmpty() || addCount > 0;
+	}
+
+	Object[] getRemoved() {
+		return removed.toArray();
+	}
+
+	int getAddParentCount() {
+		return addParents.size();
+	}
+
+	Object getAddParent(int index) {
+		return addParents.get(index);
+	}
+
+	Object[] getAddChildren(int index) {
+		return addChildren.get(index).toArray();
+	}
+
+	/**
+	 * @return the added elements of all parents
+	 */
+	Object[] getAdded() {
+		Object[] result = new Object[addCount];
+		int count = 0;
+		for (List<Object> children : addChildren) {
+			for (Object child : children) {
+				result[count++] = child;
+			}
+		}
+		return result;
+	}
+
+	int getUpdateCount() {
+		return updated.size();
+	}
+
+	Object getUpdated(int index) {
+		return updated.get(index);
+	}
+
+	String[] getUpdateProperties(int index) {
+		return updateProperties.get(index);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -48,7 +48,17 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
  * allows the content provider to locate and sort the visible range without fully sorting
  * all elements in the table. It also supports fast cancellation, allowing the visible range
  * to change in the middle of a sort without discarding partially-sorted information from
- * the previous range.
+ * the previous range. The collection is kept between sorts, and only the
+ * elements of the visible range are sent to the table. Rows outside of the
+ * visible range are sorted and sent when they become visible.
+ * </p>
+ *
+ * <p>
+ * Models that send elements faster than they can be sorted are not blocked.
+ * The queued changes are merged and processed in bulk before the next sort,
+ * and once too many are queued they are coalesced per element, so the queue
+ * is bounded by the number of distinct elements changed rather than by the
+ * rate of the model. See <code>ChangeQueue</code>.
  * </p>
  *
  * @since 3.1
@@ -125,6 +135,17 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 
 	private volatile Range range = new Range(0,0);
 
+	/**
+	 * Sorted and filtered elements of the model. Only accessed by the sort
+	 * thread.
+	 */
+	private LazySortedCollection collection;
+
+	/**
+	 * Filter applied to the elements of collection
+	 */
+	private IFilter collectionFilter;
+
     /**
      * Creates a new background content provider
      *
@@ -179,22 +200,16 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 
        	mon.beginTask(SORTING, 100);
 
-        // Create a LazySortedCollection
-        Comparator order = sortOrder;
-        IFilter f = filter;
-        LazySortedCollection collection = new LazySortedCollection(order);
-
-        // Fill it in with all existing known objects
-        Object[] knownObjects = updator.getKnownObjects();
-        for (int i = 0; i < knownObjects.length; i++) {
-			Object object = knownObjects[i];
-			if (object != null) {
-				collection.add(object);
-			}
-		}
+        // The collection keeps the partially-sorted elements of previous sorts
+        if (collection == null) {
+        	collection = new LazySortedCollection(sortOrder);
+        	collectionFilter = filter;
+        }
+        Comparator order = collection.getComparator();
+        IFilter f = collectionFilter;
 
         boolean dirty = false;
-        int prevSize = knownObjects.length;
+        int prevSize = updator.getKnownObjects().length;
         updator.setTotalItems(prevSize);
 
 		// Start processing changes
@@ -226,6 +241,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
         	if (f != filter) {
         		dirty = true;
         		f = filter;
+        		collectionFilter = f;
 
         		Object[] items = collection.getItems(false);
 
@@ -240,7 +256,7 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
         		continue;
         	}
 
-        	// If there are pending changes, process one of them
+        	// If there are pending changes, process the next batch of them
         	if (!changeQueue.isEmpty()) {
         		dirty = true;
 	        	ChangeQueue.Change next = changeQueue.dequeue();
@@ -302,9 +318,13 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 		        dirty = true;
             }
 
-            // Terminate loop
+            // Terminate loop, unless rows have been scrolled into view since
+            // the last sort
             if (!dirty) {
-            	break;
+            	Range visibleRange = updator.getVisibleRange();
+            	if (visibleRange.start == range.start && visibleRange.length == range.length) {
+            		break;
+            	}
             }
 
             try {
@@ -331,15 +351,9 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 					updator.replace(object, sortStart + i);
 				}
 
-			    objectsOfInterest = new Object[collection.size()];
-
-			    collection.getFirst(objectsOfInterest, true, sortMon);
-
-		        // Send the new elements to the table
-		        for (int i = 0; i < totalElements; i++) {
-					Object object = objectsOfInterest[i];
-					updator.replace(object, i);
-				}
+		        // The other rows may have moved. They are sent again when they
+		        // become visible.
+		        updator.retainRange(sortStart, sortLength);
 
             } catch (InterruptedException e) {
             	continue;
@@ -426,9 +440,10 @@ import org.eclipse.jface.viewers.deferred.ConcurrentTableUpdator.Range;
 		ConcurrentTableUpdator.Range newRange = updator.getVisibleRange();
 		ConcurrentTableUpdator.Range oldRange = range;
 
-		// If we're in the middle of processing an invalid range, cancel the sort
+		// If we're in the middle of processing an invalid range, cancel the sort.
+		// Sort the new range otherwise.
 		if (newRange.start != oldRange.start || newRange.length != oldRange.length) {
-			sortMon.cancel();
+			makeDirty();
 		}
     }
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,23 @@
  *******************************************************************************/
 package org.eclipse.jface.viewers.deferred;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Holds a queue of additions, removals, updates, and SET calls for a
- * BackgroundContentProvider
+ * BackgroundContentProvider. When the consumer falls behind, consecutive
+ * changes of the same type are dequeued together, see {@link #dequeue()}.
+ * <p>
+ * The queue never blocks its producer. Instead, once the queued changes hold
+ * more than {@link #HIGH_WATER_MARK} elements, the changes are coalesced per
+ * element so that the queue holds at most one removal, addition or update of
+ * each element between SET calls, whatever the rate of the producer.
+ * </p>
  */
 final class ChangeQueue {
 	/**
@@ -81,8 +92,36 @@ final class ChangeQueue {
 		}
 	}
 
+	/**
+	 * Maximum number of elements of the changes merged by {@link #dequeue()}
+	 */
+	static final int MAX_BATCH_ELEMENTS = 1 << 16;
+
+	/**
+	 * Number of queued elements above which the queued changes are coalesced
+	 * per element
+	 */
+	static final int HIGH_WATER_MARK = 4 * MAX_BATCH_ELEMENTS;
+
+	// Pending state of an element while coalescing
+	private static final int REMOVED = 1;
+	private static final int ADDED = 2;
+	private static final int UPDATED = 4;
+
 	private LinkedList queue = new LinkedList();
 
+	/**
+	 * Number of elements of the queued changes
+	 */
+	private int queuedElements;
+
+	/**
+	 * Number of queued elements above which the changes are coalesced. Raised
+	 * above the size of the coalesced queue so that coalescing a queue of many
+	 * distinct elements is not repeated for each change.
+	 */
+	private int coalesceThreshold = HIGH_WATER_MARK;
+
 	/**
 	 * Create a change of the given type and elements and enqueue it.
 	 *
@@ -106,6 +145,7 @@ final class ChangeQueue {
 				Change next = (Change) iter.next();
 
 				if (next.getType() == ADD || next.getType() == REMOVE || next.getType() == SET) {
+					queuedElements -= next.getElements().length;
 					continue;
 				}
 
@@ -115,15 +155,156 @@ final class ChangeQueue {
 		}
 
 		queue.add(toQueue);
+		queuedElements += toQueue.getElements().length;
+		if (queuedElements > coalesceThreshold) {
+			coalesce();
+			coalesceThreshold = Math.max(HIGH_WATER_MARK, 2 * queuedElements);
+		}
+	}
+
+	/**
+	 * Replace each run of ADD, REMOVE and UPDATE changes between SET changes
+	 * by at most one change of each type, holding the net change of each
+	 * element. The removals are queued before the additions so that an
+	 * element removed and added again is re-sorted.
+	 */
+	private void coalesce() {
+		LinkedList newQueue = new LinkedList();
+		Map<Object, Integer> pending = new LinkedHashMap<>();
+		for (Iterator iter = queue.iterator(); iter.hasNext();) {
+			Change next = (Change) iter.next();
+			if (next.getType() == SET) {
+				flushPending(pending, newQueue);
+				newQueue.add(next);
+				continue;
+			}
+			Object[] elements = next.getElements();
+			for (int i = 0; i < elements.length; i++) {
+				Integer previous = pending.get(elements[i]);
+				int state = merge(previous == null ? 0 : previous.intValue(), next.getType());
+				if (state == 0) {
+					pending.remove(elements[i]);
+				} else {
+					pending.put(elements[i], Integer.valueOf(state));
+				}
+			}
+		}
+		flushPending(pending, newQueue);
+		queue = newQueue;
+
+		queuedElements = 0;
+		for (Iterator iter = queue.iterator(); iter.hasNext();) {
+			queuedElements += ((Change) iter.next()).getElements().length;
+		}
+	}
+
+	/**
+	 * Return the pending state of an element after a change of the given type.
+	 */
+	private static int merge(int state, int type) {
+		switch (type) {
+		case ADD:
+			return (state & REMOVED) | ADDED;
+		case REMOVE:
+			if ((state & ADDED) != 0) {
+				// The addition is cancelled, a removal queued before it stays
+				return state & REMOVED;
+			}
+			return REMOVED;
+		default:
+			// An added element is sorted anyway, a removed one is not updated
+			if ((state & (ADDED | REMOVED)) != 0) {
+				return state;
+			}
+			return UPDATED;
+		}
+	}
+
+	private static void flushPending(Map<Object, Integer> pending, List newQueue) {
+		List<Object> removed = new ArrayList<>();
+		List<Object> added = new ArrayList<>();
+		List<Object> updated = new ArrayList<>();
+		for (Map.Entry<Object, Integer> entry : pending.entrySet()) {
+			int state = entry.getValue().intValue();
+			if ((state & REMOVED) != 0) {
+				removed.add(entry.getKey());
+			}
+			if ((state & ADDED) != 0) {
+				added.add(entry.getKey());
+			}
+			if ((state & UPDATED) != 0) {
+				updated.add(entry.getKey());
+			}
+		}
+		pending.clear();
+		addChanges(newQueue, REMOVE, removed);
+		addChanges(newQueue, ADD, added);
+		addChanges(newQueue, UPDATE, updated);
+	}
+
+	/**
+	 * Add changes of the given type for the elements to the queue, in batches
+	 * of at most {@link #MAX_BATCH_ELEMENTS} elements.
+	 */
+	private static void addChanges(List newQueue, int type, List<Object> elements) {
+		for (int start = 0; start < elements.size(); start += MAX_BATCH_ELEMENTS) {
+			int end = Math.min(start + MAX_BATCH_ELEMENTS, elements.size());
+			newQueue.add(new Change(type, elements.subList(start, end).toArray()));
+		}
 	}
 
 	/**
-	 * Remove the first change from the queue.
+	 * Remove the first change from the queue. The ADD, REMOVE or UPDATE changes
+	 * queued directly after it are merged into it, up to
+	 * {@link #MAX_BATCH_ELEMENTS} elements, so that a consumer that fell behind
+	 * catches up on the queued changes in a few bulk operations.
+	 *
 	 * @return the first change
 	 */
 	public synchronized Change dequeue() {
 		Change result = (Change)queue.removeFirst();
-		return result;
+		queuedElements -= result.getElements().length;
+		int type = result.getType();
+		if (type == SET) {
+			resetThreshold();
+			return result;
+		}
+
+		int size = result.getElements().length;
+		int count = 0;
+		for (Iterator iter = queue.iterator(); iter.hasNext();) {
+			Change next = (Change) iter.next();
+			if (next.getType() != type || size + next.getElements().length > MAX_BATCH_ELEMENTS) {
+				break;
+			}
+			size += next.getElements().length;
+			count++;
+		}
+		queuedElements -= size - result.getElements().length;
+		resetThreshold();
+		if (count == 0) {
+			return result;
+		}
+
+		Object[] elements = new Object[size];
+		Object[] first = result.getElements();
+		System.arraycopy(first, 0, elements, 0, first.length);
+		int offset = first.length;
+		for (int i = 0; i < count; i++) {
+			Object[] next = ((Change) queue.removeFirst()).getElements();
+			System.arraycopy(next, 0, elements, offset, next.length);
+			offset += next.length;
+		}
+		return new Change(type, elements);
+	}
+
+	/**
+	 * Lower the coalescing threshold again once the consumer caught up
+	 */
+	private void resetThreshold() {
+		if (queuedElements == 0) {
+			coalesceThreshold = HIGH_WATER_MARK;
+		}
 	}
 
 	/**
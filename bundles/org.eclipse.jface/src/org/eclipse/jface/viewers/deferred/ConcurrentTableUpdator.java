@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -45,6 +45,13 @@ package org.eclipse.jface.viewers.deferred;
      */
     private Object[] knownObjects = new Object[0];
 
+    /**
+     * Bounds of the indices of knownObjects that may be non-null. Limits the
+     * rows visited by retainRange.
+     */
+    private int knownLow = 0;
+    private int knownHigh = 0;
+
     // Minimum length for the pendingFlushes stack
     private static final int MIN_FLUSHLENGTH = 64;
 
@@ -212,7 +219,7 @@ package org.eclipse.jface.viewers.deferred;
         sentObjects[toClear] = null;
 
         if (lastClear >= pendingClears.length) {
-            int newCapacity = Math.min(MIN_FLUSHLENGTH, lastClear * 2);
+            int newCapacity = Math.max(MIN_FLUSHLENGTH, lastClear * 2);
             int[] newPendingClears = new int[newCapacity];
             System.arraycopy(pendingClears, 0, newPendingClears, 0, lastClear);
             pendingClears = newPendingClears;
@@ -242,6 +249,14 @@ package org.eclipse.jface.viewers.deferred;
                 knownObjects[idx] = value;
 
             	if (value != null) {
+            		if (knownLow >= knownHigh) {
+            			knownLow = idx;
+            			knownHigh = idx + 1;
+            		} else {
+            			knownLow = Math.min(knownLow, idx);
+            			knownHigh = Math.max(knownHigh, idx + 1);
+            		}
+
 	        		int oldIndex = knownIndices.get(value, -1);
 	        		if (oldIndex != -1) {
 	        			knownObjects[oldIndex] = null;
@@ -258,6 +273,44 @@ package org.eclipse.jface.viewers.deferred;
         }
     }
 
+    /**
+     * Forgets the objects known for the rows outside of the given range, and
+     * clears the rows that were sent to the table. Called from a background
+     * thread after the rows of the range have been replaced, when the rows
+     * outside of the range may have changed their position. They will be
+     * computed again when they become visible.
+     *
+     * @param start first row of the range
+     * @param length number of rows in the range
+     */
+    public void retainRange(int start, int length) {
+        synchronized(this) {
+            int end = Math.min(start + length, knownObjects.length);
+            int high = Math.min(knownHigh, knownObjects.length);
+            for (int i = knownLow; i < high; i++) {
+                if (i >= start && i < end) {
+                    i = end - 1;
+                    continue;
+                }
+                Object toForget = knownObjects[i];
+                if (toForget != null) {
+                    knownObjects[i] = null;
+                    knownIndices.remove(toForget);
+                    pushClear(i);
+                }
+            }
+            if (start < end) {
+                knownLow = start;
+                knownHigh = end;
+            } else {
+                knownLow = knownHigh = 0;
+            }
+            if (lastClear > 0) {
+                scheduleUIUpdate();
+            }
+        }
+    }
+
     /**
      * Schedules a UI update. Has no effect if an update has already been
      * scheduled.
@@ -301,7 +354,7 @@ package org.eclipse.jface.viewers.deferred;
         	// Resize the table if necessary
 	        if (sentObjects.length != knownObjects.length) {
 	        	Object[] newSentObjects = new Object[knownObjects.length];
-	        	System.arraycopy(newSentObjects, 0, sentObjects, 0,
+	        	System.arraycopy(sentObjects, 0, newSentObjects, 0,
 	        			Math.min(newSentObjects.length, sentObjects.length));
 	        	sentObjects = newSentObjects;
 	            table.setItemCount(newSentObjects.length);
@@ -359,9 +412,9 @@ package org.eclipse.jface.viewers.deferred;
 	        	int row = idx + start;
 
 	        	Object obj = knownObjects[row];
-	        	if (obj != null && obj != sentObjects[idx]) {
+	        	if (obj != null && obj != sentObjects[row]) {
 	        		table.replace(obj, row);
-	        		sentObjects[idx] = obj;
+	        		sentObjects[row] = obj;
 	        	}
 	        }
 
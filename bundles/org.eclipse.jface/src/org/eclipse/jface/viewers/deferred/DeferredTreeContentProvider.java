@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers.deferred;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.jface.viewers.AcceptAllFilter;
+import org.eclipse.jface.viewers.BackgroundLazyTreeContentProvider;
+import org.eclipse.jface.viewers.IBackgroundTreeContentProvider;
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.jface.viewers.IFilter;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+
+/**
+ * Content provider that performs sorting and filtering of the children of a
+ * tree in the background. Requires a <code>TreeViewer</code> created with the
+ * <code>SWT.VIRTUAL</code> flag.
+ * <p>
+ * The sorter and filter must be set directly on the content provider. Any
+ * sorter or filter on the TreeViewer will be ignored.
+ * </p>
+ *
+ * <p>
+ * The children of an element are read from an <code>ITreeContentProvider</code>
+ * in the background the first time the tree asks for them. They are kept in a
+ * <code>LazySortedCollection</code>, so that only the ranges of children the
+ * tree shows get sorted. Call {@link #invalidate(Object)} and refresh the
+ * element in the viewer when its children change.
+ * </p>
+ *
+ * @see BackgroundLazyTreeContentProvider
+ * @since 3.12
+ */
+public class DeferredTreeContentProvider extends BackgroundLazyTreeContentProvider {
+
+	/**
+	 * Key of the children map, comparing the parents with the comparer of the
+	 * viewer.
+	 */
+	private static final class ParentKey {
+
+		private final Object parent;
+
+		private final IElementComparer comparer;
+
+		ParentKey(Object parent, IElementComparer comparer) {
+			this.parent = parent;
+			this.comparer = comparer;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ParentKey)) {
+				return false;
+			}
+			Object other = ((ParentKey) obj).parent;
+			return comparer == null ? parent.equals(other) : comparer.equals(parent, other);
+		}
+
+		@Override
+		public int hashCode() {
+			return comparer == null ? parent.hashCode() : comparer.hashCode(parent);
+		}
+	}
+
+	/**
+	 * Reads, filters and sorts the children in the background. The sorted
+	 * children are cached per parent; each collection is accessed while
+	 * synchronized on it.
+	 */
+	private static final class SortedChildren implements IBackgroundTreeContentProvider {
+
+		private final ITreeContentProvider provider;
+
+		private volatile Comparator sortOrder;
+
+		private volatile IFilter filter = AcceptAllFilter.getInstance();
+
+		private volatile Object input;
+
+		/**
+		 * Comparer of the viewer, or <code>null</code> to compare the parents
+		 * with their equals method
+		 */
+		private volatile IElementComparer comparer;
+
+		/**
+		 * ParentKey -> LazySortedCollection. Must synchronize on this when
+		 * accessing.
+		 */
+		private Map children = new HashMap();
+
+		/**
+		 * Incremented whenever the cached collections become stale, so that
+		 * collections computed concurrently are not cached.
+		 */
+		private int generation;
+
+		SortedChildren(ITreeContentProvider provider, Comparator sortOrder) {
+			this.provider = provider;
+			this.sortOrder = sortOrder;
+		}
+
+		private LazySortedCollection getSortedChildren(Object parent) {
+			ParentKey key = new ParentKey(parent, comparer);
+			int computedGeneration;
+			synchronized (this) {
+				LazySortedCollection result = (LazySortedCollection) children.get(key);
+				if (result != null) {
+					return result;
+				}
+				computedGeneration = generation;
+			}
+
+			Object[] elements = parent == input ? provider.getElements(parent) : provider.getChildren(parent);
+			IFilter f = filter;
+			LazySortedCollection result = new LazySortedCollection(sortOrder);
+			if (f == AcceptAllFilter.getInstance()) {
+				result.addAll(elements);
+			} else {
+				for (int i = 0; i < elements.length; i++) {
+					if (f.select(elements[i])) {
+						result.add(elements[i]);
+					}
+				}
+			}
+
+			synchronized (this) {
+				if (computedGeneration == generation) {
+					LazySortedCollection existing = (LazySortedCollection) children.get(key);
+					if (existing != null) {
+						return existing;
+					}
+					children.put(key, result);
+				}
+			}
+			return result;
+		}
+
+		synchronized void forget(Object parent) {
+			children.remove(new ParentKey(parent, comparer));
+			generation++;
+		}
+
+		synchronized void forgetAll() {
+			children = new HashMap();
+			generation++;
+		}
+
+		@Override
+		public int getChildCount(Object element) {
+			LazySortedCollection collection = getSortedChildren(element);
+			synchronized (collection) {
+				return collection.size();
+			}
+		}
+
+		@Override
+		public Object[] getChildren(Object element, int offset, int length) {
+			LazySortedCollection collection = getSortedChildren(element);
+			synchronized (collection) {
+				Object[] result = new Object[Math.max(0, Math.min(length, collection.size() - offset))];
+				collection.getRange(result, offset, true);
+				return result;
+			}
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return provider.getParent(element);
+		}
+
+		@Override
+		public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+			provider.inputChanged(viewer, oldInput, newInput);
+			input = newInput;
+			comparer = viewer instanceof StructuredViewer ? ((StructuredViewer) viewer).getComparer() : null;
+			forgetAll();
+		}
+
+		@Override
+		public void dispose() {
+			forgetAll();
+			provider.dispose();
+		}
+	}
+
+	private final SortedChildren sortedChildren;
+
+	private TreeViewer viewer;
+
+	/**
+	 * Creates a content provider that sorts the children of the given content
+	 * provider in the common fork-join pool.
+	 *
+	 * @param provider
+	 *            the content provider that provides the unsorted children
+	 * @param sortOrder
+	 *            the initial sort order
+	 */
+	public DeferredTreeContentProvider(ITreeContentProvider provider, Comparator sortOrder) {
+		this(provider, sortOrder, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a content provider that sorts the children of the given content
+	 * provider with the given executor.
+	 *
+	 * @param provider
+	 *            the content provider that provides the unsorted children
+	 * @param sortOrder
+	 *            the initial sort order
+	 * @param executor
+	 *            the executor running the tasks that read and sort the
+	 *            children
+	 */
+	public DeferredTreeContentProvider(ITreeContentProvider provider, Comparator sortOrder, Executor executor) {
+		this(new SortedChildren(checkNotNull(provider), checkNotNull(sortOrder)), executor);
+	}
+
+	private DeferredTreeContentProvider(SortedChildren sortedChildren, Executor executor) {
+		super(sortedChildren, executor);
+		this.sortedChildren = sortedChildren;
+	}
+
+	private static <T> T checkNotNull(T object) {
+		Assert.isNotNull(object);
+		return object;
+	}
+
+	@Override
+	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		super.inputChanged(viewer, oldInput, newInput);
+		this.viewer = (TreeViewer) viewer;
+	}
+
+	@Override
+	public void dispose() {
+		super.dispose();
+		viewer = null;
+	}
+
+	@Override
+	public void invalidate(Object element) {
+		sortedChildren.forget(element);
+		super.invalidate(element);
+	}
+
+	@Override
+	public void invalidateAll() {
+		sortedChildren.forgetAll();
+		super.invalidateAll();
+	}
+
+	/**
+	 * Sets the sort order of the children and refreshes the viewer.
+	 *
+	 * @param sortOrder
+	 *            the new sort order
+	 */
+	public void setSortOrder(Comparator sortOrder) {
+		Assert.isNotNull(sortOrder);
+		sortedChildren.sortOrder = sortOrder;
+		refreshAll();
+	}
+
+	/**
+	 * Sets the filter of the children and refreshes the viewer.
+	 *
+	 * @param filter
+	 *            the new filter
+	 */
+	public void setFilter(IFilter filter) {
+		Assert.isNotNull(filter);
+		sortedChildren.filter = filter;
+		refreshAll();
+	}
+
+	private void refreshAll() {
+		invalidateAll();
+		if (viewer != null && !viewer.getControl().isDisposed()) {
+			viewer.refresh();
+		}
+	}
+}
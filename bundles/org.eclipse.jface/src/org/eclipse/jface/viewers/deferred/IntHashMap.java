@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,39 +10,128 @@
  *******************************************************************************/
 package org.eclipse.jface.viewers.deferred;
 
-import java.util.HashMap;
-
 /**
- * Represents a map of objects onto ints. This is intended for future optimization:
- * using int primitives would allow for an implementation that doesn't require
- * additional object allocations for Integers. However, the current implementation
- * simply delegates to the Java HashMap class.
+ * Represents a map of objects onto ints. The map uses open addressing with
+ * linear probing over parallel arrays of keys, values and hash codes, so that
+ * neither entries nor Integers are allocated. Keys are compared with
+ * <code>equals</code>.
  *
  * @since 3.1
  */
 /* package */ class IntHashMap {
-    private HashMap map;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final float loadFactor;
+
+    private Object[] keys;
+
+    private int[] values;
+
+    private int[] hashes;
+
+    private int size;
+
+    private int threshold;
 
     /**
      * @param size
      * @param loadFactor
      */
     public IntHashMap(int size, float loadFactor) {
-        map = new HashMap(size, loadFactor);
+    	// keep at least one free slot, the probing loops rely on it
+        this.loadFactor = Math.max(0.25f, Math.min(loadFactor, 0.9f));
+        int capacity = 16;
+        while (capacity < MAXIMUM_CAPACITY && capacity * this.loadFactor < size) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
     }
 
     /**
      *
      */
     public IntHashMap() {
-        map = new HashMap();
+        this(16, 0.75f);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new int[capacity];
+        hashes = new int[capacity];
+        threshold = (int) (capacity * loadFactor);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        // spread the poor hash codes of some keys
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot of the key, or the complement of the free slot where
+     * it would be inserted.
+     */
+    private int indexOf(Object key, int hash) {
+        int mask = keys.length - 1;
+        int index = hash & mask;
+        Object candidate;
+        while ((candidate = keys[index]) != null) {
+            if (hashes[index] == hash && (candidate == key || candidate.equals(key))) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return ~index;
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(oldKeys.length << 1);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = oldHashes[i] & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
     }
 
     /**
      * @param key
      */
     public void remove(Object key) {
-        map.remove(key);
+        int index = indexOf(key, hash(key));
+        if (index < 0) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int next = index;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == null) {
+                break;
+            }
+            // move the entry back unless its home slot is between the
+            // freed slot and its current slot
+            int home = hashes[next] & mask;
+            if (index <= next ? (home <= index || home > next) : (home <= index && home > next)) {
+                keys[index] = keys[next];
+                values[index] = values[next];
+                hashes[index] = hashes[next];
+                index = next;
+            }
+        }
+        keys[index] = null;
+        values[index] = 0;
+        hashes[index] = 0;
+        size--;
     }
 
     /**
@@ -50,7 +139,21 @@ import java.util.HashMap;
      * @param value
      */
     public void put(Object key, int value) {
-		map.put(key, Integer.valueOf(value));
+        int hash = hash(key);
+        int index = indexOf(key, hash);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        if (size >= threshold && keys.length < MAXIMUM_CAPACITY) {
+            grow();
+            index = indexOf(key, hash);
+        }
+        index = ~index;
+        keys[index] = key;
+        values[index] = value;
+        hashes[index] = hash;
+        size++;
     }
 
     /**
@@ -67,13 +170,8 @@ import java.util.HashMap;
      * @return the int value at the given key, or the default value if this map does not contain the given key
      */
     public int get(Object key, int defaultValue) {
-        Integer result = (Integer)map.get(key);
-
-        if (result != null) {
-            return result.intValue();
-        }
-
-        return defaultValue;
+        int index = indexOf(key, hash(key));
+        return index < 0 ? defaultValue : values[index];
     }
 
     /**
@@ -81,13 +179,13 @@ import java.util.HashMap;
      * @return <code>true</code> if this map contains the given key, <code>false</code> otherwise
      */
     public boolean containsKey(Object key) {
-        return map.containsKey(key);
+        return indexOf(key, hash(key)) >= 0;
     }
 
     /**
      * @return the number of key/value pairs
      */
     public int size() {
-    	return map.size();
+    	return size;
     }
 }
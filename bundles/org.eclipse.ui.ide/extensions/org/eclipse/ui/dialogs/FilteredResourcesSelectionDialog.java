@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -459,6 +459,17 @@ public class FilteredResourcesSelectionDialog extends
 		};
 	}
 
+	/**
+	 * The order of the resources only depends on the search container, not
+	 * on the filter, unless a subclass changes the comparator.
+	 *
+	 * @see org.eclipse.ui.dialogs.FilteredItemsSelectionDialog#isItemsOrderFilterIndependent()
+	 */
+	@Override
+	protected boolean isItemsOrderFilterIndependent() {
+		return getClass() == FilteredResourcesSelectionDialog.class;
+	}
+
 	/**
 	 * Return the "distance" of the item from the root of the relative search
 	 * container. Distances can be compared (smaller numbers are better).
@@ -962,6 +973,17 @@ public class FilteredResourcesSelectionDialog extends
 					&& (this.showDerived || !resource.isDerived());
 		}
 
+		/**
+		 * Matching only reads the patterns of the filter and the resources,
+		 * so it is thread safe unless a subclass changes it.
+		 *
+		 * @see org.eclipse.ui.dialogs.FilteredItemsSelectionDialog.ItemsFilter#isThreadSafe()
+		 */
+		@Override
+		public boolean isThreadSafe() {
+			return getClass() == ResourceFilter.class;
+		}
+
 		private boolean matchName(IResource resource) {
 			String name = resource.getName();
 			if (nameMatches(name)) {
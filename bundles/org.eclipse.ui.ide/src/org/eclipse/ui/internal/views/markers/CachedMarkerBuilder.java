@@ -11,8 +11,13 @@
 package org.eclipse.ui.internal.views.markers;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Set;
 
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.jobs.Job;
@@ -128,10 +133,8 @@ public class CachedMarkerBuilder {
 			PlatformUI.getWorkbench().getWorkingSetManager().removePropertyChangeListener(getWorkingSetListener());
 		}
 
-		if (isIncremental()) {
-			if (incrementJob != null) {
-				incrementJob.clearEntries();
-			}
+		synchronized (incrementalUpdates) {
+			incrementalUpdates.clear();
 		}
 	}
 
@@ -298,6 +301,7 @@ public class CachedMarkerBuilder {
 	 */
 	void scheduleUpdate() {
 		if (active) {
+			requestFullUpdate();
 			scheduler.scheduleUpdate(MarkerUpdateScheduler.SHORT_DELAY,true);
 		}
 	}
@@ -308,6 +312,7 @@ public class CachedMarkerBuilder {
 	 */
 	void scheduleUpdate(long delay) {
 		if (active) {
+			requestFullUpdate();
 			scheduler.scheduleUpdate(delay,true);
 		}
 	}
@@ -451,10 +456,6 @@ public class CachedMarkerBuilder {
 				// ensure cancellation before calling the method
 				// updateJob.cancel();
 			} else {
-				/*
-				 * updateJob = isIncremental() ? new IncrementUpdateJob(this):
-				 * new MarkerUpdateJob(this);
-				 */
 				updateJob = new MarkerUpdateJob(this);
 				updateJob.setPriority(Job.LONG);
 				updateJob.setSystem(true);
@@ -592,25 +593,91 @@ public class CachedMarkerBuilder {
 		 if(markers.isInChange()){
 			 return null;
 		 }
-		markersClone =markers.getClone();
+		markersClone =markers.getViewerClone();
 		return markersClone;
 	}
 
 ///////	<Incremental update code>///////
-		private IncrementUpdateJob incrementJob;
+	private final LinkedList<MarkerUpdate> incrementalUpdates = new LinkedList<>();
+
+	// full updates requested and completed, a full update is pending while
+	// they differ
+	private int fullUpdatesRequested = 1;
+	private int fullUpdatesCompleted;
+
 	/**
-	 * Checks whether the builder should perform incrementally Note : Incremental
-	 * updating method is NOT used and tested yet but left out for further
-	 * investigation(*).
+	 * Checks whether the builder should perform incrementally. Marker changes
+	 * are applied to the markers gathered by the last full update, unless a
+	 * full update has been requested since.
 	 *
 	 * @return Returns true if we should collect markers incrementally.
 	 */
 	boolean isIncremental() {
-		/*
-		 * We do not update incrementally. We have
-		 * code for further investigation(*) for this anyway.
-		 */
-		return false;
+		return true;
+	}
+
+	/**
+	 * Request that the next update gathers all markers again rather than
+	 * applying the marker changes.
+	 */
+	synchronized void requestFullUpdate() {
+		fullUpdatesRequested++;
+	}
+
+	/**
+	 * @return Returns true if a full update has been requested and not
+	 *         completed.
+	 */
+	synchronized boolean isFullUpdatePending() {
+		return fullUpdatesRequested != fullUpdatesCompleted;
+	}
+
+	/**
+	 * Starts a full update. The marker changes received so far are discarded,
+	 * as the update gathers the markers again.
+	 *
+	 * @return a token to pass to {@link #fullUpdateDone(int)}
+	 */
+	synchronized int startFullUpdate() {
+		synchronized (incrementalUpdates) {
+			incrementalUpdates.clear();
+		}
+		return fullUpdatesRequested;
+	}
+
+	/**
+	 * Records the completion of a full update.
+	 *
+	 * @param token
+	 *            the value returned by {@link #startFullUpdate()}
+	 */
+	synchronized void fullUpdateDone(int token) {
+		fullUpdatesCompleted = token;
+	}
+
+	/**
+	 * Removes the marker changes received so far.
+	 *
+	 * @return the markers that were added, removed or changed, in the order
+	 *         they were first reported
+	 */
+	Collection<IMarker> takeIncrementalChanges() {
+		Set<IMarker> changedMarkers = new LinkedHashSet<>();
+		synchronized (incrementalUpdates) {
+			for (MarkerUpdate update : incrementalUpdates) {
+				addMarkers(update.removed, changedMarkers);
+				addMarkers(update.added, changedMarkers);
+				addMarkers(update.changed, changedMarkers);
+			}
+			incrementalUpdates.clear();
+		}
+		return changedMarkers;
+	}
+
+	private static void addMarkers(Collection<MarkerEntry> entries, Set<IMarker> changedMarkers) {
+		for (MarkerEntry entry : entries) {
+			changedMarkers.add(entry.getMarker());
+		}
 	}
 
 	/**
@@ -635,17 +702,13 @@ public class CachedMarkerBuilder {
 	}
 
 	/**
-	 * Handles an incremental update
+	 * Queues an incremental update, to be applied by the next update job.
+	 *
 	 * @param update
 	 */
 	void incrementalUpdate(MarkerUpdate update) {
-		synchronized (getUpdateScheduler().getSchedulingLock()) {
-			if (incrementJob == null) {
-				scheduleUpdateJob(MarkerUpdateScheduler.SHORT_DELAY, true);
-			}
-		}
-		if (incrementJob != null) {
-			incrementJob.addUpdate(update);
+		synchronized (incrementalUpdates) {
+			incrementalUpdates.add(update);
 		}
 	}
 ///////	</Incremental update code>///////
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,7 +13,7 @@ package org.eclipse.ui.internal.views.markers;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.osgi.util.NLS;
-import org.eclipse.ui.views.markers.MarkerItem;
+import org.eclipse.ui.views.markers.internal.MarkerGroupingEntry;
 import org.eclipse.ui.views.markers.internal.MarkerMessages;
 
 class MarkerCategory extends MarkerSupportItem {
@@ -24,6 +24,14 @@ class MarkerCategory extends MarkerSupportItem {
 
 	int end;
 
+	/**
+	 * The entries of this category, in the order they are shown.
+	 */
+	private final MarkerEntry[] entries;
+
+	/**
+	 * The entries of this category once they refer to it as their parent.
+	 */
 	MarkerEntry[] children;
 
 	private String name;
@@ -33,17 +41,31 @@ class MarkerCategory extends MarkerSupportItem {
 	private Markers markers;
 
 	/**
-	 * Create a new instance of the receiver that has the markers between
-	 * startIndex and endIndex showing.
+	 * The grouping entry the markers of this category belong to.
+	 */
+	MarkerGroupingEntry groupingEntry;
+
+	/**
+	 * The number of leading markers of this category that are sorted and not
+	 * greater than the markers following them.
+	 */
+	int sortedCount;
+
+	/**
+	 * Create a new instance of the receiver that has the given entries
+	 * showing, found between startIndex and endIndex of the marker entries.
 	 *
 	 * @param markers
+	 * @param entries
+	 *            the entries of the category, not shared with the marker
+	 *            entries of markers
 	 * @param startIndex
 	 * @param endIndex
-	 *            the builder used to generate the children lazily.
 	 */
-	MarkerCategory(Markers markers, int startIndex,
+	MarkerCategory(Markers markers, MarkerEntry[] entries, int startIndex,
 			int endIndex, String categoryName) {
 		this.markers = markers;
+		this.entries = entries;
 		start = startIndex;
 		end = endIndex;
 		refreshing=false;
@@ -53,20 +75,26 @@ class MarkerCategory extends MarkerSupportItem {
 	@Override
 	MarkerSupportItem[] getChildren() {
 		if (children == null) {
-			MarkerItem[] allMarkers = markers.getMarkerEntryArray();
-			int totalSize = getChildrenCount();
-			children = new MarkerEntry[totalSize];
-			System.arraycopy(allMarkers, start, children, 0, totalSize);
-			for (int i = 0; i < children.length; i++) {
-				children[i].setCategory(this);
+			for (int i = 0; i < entries.length; i++) {
+				entries[i].setCategory(this);
 			}
+			children = entries;
 		}
 		return children;
 	}
 
+	/**
+	 * Return the entries of the receiver, without making them refer to it.
+	 *
+	 * @return MarkerEntry[]
+	 */
+	MarkerEntry[] getEntries() {
+		return entries;
+	}
+
 	@Override
 	int getChildrenCount() {
-		return end - start + 1;
+		return entries.length;
 	}
 
 	@Override
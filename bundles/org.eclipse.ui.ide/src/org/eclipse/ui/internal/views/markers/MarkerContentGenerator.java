@@ -23,6 +23,8 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
@@ -99,6 +101,11 @@ public class MarkerContentGenerator {
 
 	private IPropertyChangeListener filterPreferenceListener;
 
+	/**
+	 * The type ids and paths shared by the entries of the generator
+	 */
+	private final Map<String, String> sharedStrings = new ConcurrentHashMap<>();
+
 	/**
 	 * Create a new MarkerContentGenerator
 	 *
@@ -141,6 +148,17 @@ public class MarkerContentGenerator {
 		}
 	}
 
+	/**
+	 * Create the entry for marker. Entries created by the generator share
+	 * their type id and path strings.
+	 *
+	 * @param marker
+	 * @return {@link MarkerEntry}
+	 */
+	MarkerEntry createEntry(IMarker marker) {
+		return new MarkerEntry(marker, sharedStrings);
+	}
+
 	/**
 	 * Return whether or not all of {@link MarkerTypesModel} arein the
 	 * selectedTypes.
@@ -1100,7 +1118,7 @@ public class MarkerContentGenerator {
 			MarkerEntry entry = null;
 			int lenght = markers.length;
 			for (int i = 0; i < lenght; i++) {
-				entry = new MarkerEntry(markers[i]);
+				entry = createEntry(markers[i]);
 				if (select(entry, selected, enabled, filtersAreANDed)) {
 					result.add(entry);
 				}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,12 @@ import com.ibm.icu.text.Collator;
 /**
  * The MarkerEntry is the class that wrappers an {@link IMarker} for display in
  * an {@link ExtendedMarkersView}.
+ * <p>
+ * Views may hold hundreds of thousands of entries, so the attributes used for
+ * sorting, filtering and grouping are cached in primitive fields rather than
+ * in the attribute cache, and the type and path strings are shared between
+ * the entries of a {@link MarkerContentGenerator}.
+ * </p>
  *
  * @since 3.4
  *
@@ -57,11 +63,29 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 		}, MarkerEntry.class);
 	}
 
-	// The key for the string we built for display
-	private static final String LOCATION_STRING = "LOCATION_STRING"; //$NON-NLS-1$
+	// The bits of the attributes cached in the primitive fields
+	private static final int SEVERITY = 1;
+	private static final int PRIORITY = 1 << 1;
+	private static final int LINE_NUMBER = 1 << 2;
+	private static final int CREATION_TIME = 1 << 3;
+
 	private MarkerCategory category;
 	private Map<String, Object> cache;
 
+	// The bits of the attributes read from the marker, and of those the
+	// marker has a value for
+	private byte cachedBits;
+	private byte presentBits;
+	private int severity;
+	private int priority;
+	private int lineNumber;
+	private long creationTime;
+
+	// The shared type id, path and the string we built for display
+	private String typeId;
+	private String path;
+	private String location;
+
 	/**
 	 * Set the MarkerEntry to be stale, if discovered at any point of time
 	 * of its use.This will greatly speed up a lot of parts of the view.
@@ -75,13 +99,32 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 	 */
 	private IMarker marker;
 
+	/**
+	 * The strings shared by the entries of a generator, or <code>null</code>
+	 */
+	private final Map<String, String> sharedStrings;
+
 	/**
 	 * Create a new instance of the receiver.
 	 *
 	 * @param marker
 	 */
 	public MarkerEntry(IMarker marker) {
+		this(marker, null);
+	}
+
+	/**
+	 * Create a new instance of the receiver that shares its type id and path
+	 * strings with the other entries using sharedStrings.
+	 *
+	 * @param marker
+	 * @param sharedStrings
+	 *            the map of shared strings, or <code>null</code>
+	 * @see MarkerContentGenerator#createEntry(IMarker)
+	 */
+	MarkerEntry(IMarker marker, Map<String, String> sharedStrings) {
 		this.marker = marker;
+		this.sharedStrings = sharedStrings;
 		stale = false;
 	}
 
@@ -104,7 +147,11 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	public int getAttributeValue(String attribute, int defaultValue) {
-		Object value = getAttributeValue(attribute);
+		int bit = getIntAttributeBit(attribute);
+		if (bit != 0 && cacheIntAttribute(bit, attribute)) {
+			return (presentBits & bit) != 0 ? getIntAttribute(bit) : defaultValue;
+		}
+		Object value = getCachedAttributeValue(attribute);
 		if (value == null) {
 			return defaultValue;
 		}
@@ -119,6 +166,96 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 	 * @return Object or <code>null</code>
 	 */
 	Object getAttributeValue(String attribute) {
+		int bit = getIntAttributeBit(attribute);
+		if (bit != 0 && cacheIntAttribute(bit, attribute)) {
+			return (presentBits & bit) != 0 ? Integer.valueOf(getIntAttribute(bit)) : null;
+		}
+		return getCachedAttributeValue(attribute);
+	}
+
+	/**
+	 * Return the bit of the integer attribute cached in a primitive field, or
+	 * 0 if the attribute is cached in the attribute cache.
+	 *
+	 * @param attribute
+	 * @return int
+	 */
+	private static int getIntAttributeBit(String attribute) {
+		if (IMarker.SEVERITY.equals(attribute)) {
+			return SEVERITY;
+		}
+		if (IMarker.LINE_NUMBER.equals(attribute)) {
+			return LINE_NUMBER;
+		}
+		if (IMarker.PRIORITY.equals(attribute)) {
+			return PRIORITY;
+		}
+		return 0;
+	}
+
+	private int getIntAttribute(int bit) {
+		switch (bit) {
+		case SEVERITY:
+			return severity;
+		case PRIORITY:
+			return priority;
+		default:
+			return lineNumber;
+		}
+	}
+
+	/**
+	 * Read the integer attribute into its primitive field if not done yet.
+	 *
+	 * @param bit
+	 * @param attribute
+	 * @return <code>false</code> if the value cannot be cached in the field,
+	 *         because the marker is stale or the value is not an
+	 *         {@link Integer}
+	 */
+	private boolean cacheIntAttribute(int bit, String attribute) {
+		if ((cachedBits & bit) != 0) {
+			return true;
+		}
+		if (stale) {
+			return false;
+		}
+		Object value;
+		try {
+			value = marker.getAttribute(attribute);
+		} catch (CoreException e) {
+			checkIfMarkerStale();
+			return false;
+		}
+		if (value instanceof Integer) {
+			int intValue = ((Integer) value).intValue();
+			switch (bit) {
+			case SEVERITY:
+				severity = intValue;
+				break;
+			case PRIORITY:
+				priority = intValue;
+				break;
+			default:
+				lineNumber = intValue;
+				break;
+			}
+			presentBits |= bit;
+		} else if (value != null) {
+			return false;
+		}
+		cachedBits |= bit;
+		return true;
+	}
+
+	/**
+	 * Return the marker value for attribute from the attribute cache, reading
+	 * it from the marker if necessary.
+	 *
+	 * @param attribute
+	 * @return Object or <code>null</code>
+	 */
+	private Object getCachedAttributeValue(String attribute) {
 		Object value = getCache().get(attribute);
 		if(value == null) {
 			if(stale){
@@ -199,11 +336,16 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	long getCreationTime() {
+		if ((cachedBits & CREATION_TIME) != 0) {
+			return creationTime;
+		}
 		if(stale){
 			return -1;
 		}
 		try {
-			return marker.getCreationTime();
+			creationTime = marker.getCreationTime();
+			cachedBits |= CREATION_TIME;
+			return creationTime;
 		} catch (CoreException e) {
 			checkIfMarkerStale();
 			Policy.handle(e);
@@ -226,19 +368,15 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 		if(stale||checkIfMarkerStale()){
 			return MarkerSupportInternalUtilities.UNKNOWN_ATRRIBTE_VALUE_STRING;
 		}
-		if (getCache().containsKey(LOCATION_STRING)) {
-			Object value = getCache().get(LOCATION_STRING);
-			if (value instanceof CollationKey) {
-				return ((CollationKey) value).getSourceString();
-			}
-			return (String) value;
+		if (location != null) {
+			return location;
 		}
 
 
 		// Is the location override set?
 		String locationString = getAttributeValue(IMarker.LOCATION, MarkerSupportInternalUtilities.EMPTY_STRING);
 		if (locationString.length() > 0) {
-			getCache().put(LOCATION_STRING, locationString);
+			location = locationString;
 			return locationString;
 		}
 
@@ -251,7 +389,7 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 			lineNumberString = NLS.bind(MarkerMessages.label_lineNumber, Integer.toString(lineNumber));
 		}
 
-		getCache().put(LOCATION_STRING, lineNumberString);
+		location = lineNumberString;
 		return lineNumberString;
 
 	}
@@ -267,7 +405,7 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 			return NLS.bind(MarkerMessages.FieldMessage_WrongType, marker.toString());
 		}
 		try {
-			return MarkerTypesModel.getInstance().getType(marker.getType()).getLabel();
+			return MarkerTypesModel.getInstance().getType(getType()).getLabel();
 		} catch (CoreException e) {
 			checkIfMarkerStale() ;
 			Policy.handle(e);
@@ -280,7 +418,7 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 			return NLS.bind(MarkerMessages.FieldMessage_WrongType, marker.toString());
 		}
 		try {
-			return marker.getType();
+			return getType();
 		} catch (CoreException e) {
 			checkIfMarkerStale();
 			Policy.handle(e);
@@ -288,6 +426,20 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 		}
 	}
 
+	/**
+	 * Return the shared type id of the marker.
+	 *
+	 * @return String
+	 * @throws CoreException
+	 *             if the marker does not exist
+	 */
+	private String getType() throws CoreException {
+		if (typeId == null) {
+			typeId = share(marker.getType());
+		}
+		return typeId;
+	}
+
 	@Override
 	MarkerSupportItem getParent() {
 		return category;
@@ -295,6 +447,9 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 
 	@Override
 	public String getPath() {
+		if (path != null) {
+			return path;
+		}
 		String folder = getAttributeValue(MarkerViewUtil.PATH_ATTRIBUTE, null);
 		if (folder != null) {
 			return folder;
@@ -302,15 +457,30 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 		if (stale||checkIfMarkerStale()) {
 			return MarkerSupportInternalUtilities.UNKNOWN_ATRRIBTE_VALUE_STRING;
 		}
-		IPath path = marker.getResource().getFullPath();
-		int n = path.segmentCount() - 1; // n is the number of segments
+		IPath fullPath = marker.getResource().getFullPath();
+		int n = fullPath.segmentCount() - 1; // n is the number of segments
 		// in container, not path
 		if (n <= 0) {
 			return super.getPath();
 		}
-		folder = path.removeLastSegments(1).removeTrailingSeparator().toString();
-		getCache().put(MarkerViewUtil.PATH_ATTRIBUTE, folder);
-		return folder;
+		// entries of the same folder share the string
+		path = share(fullPath.removeLastSegments(1).removeTrailingSeparator().toString());
+		return path;
+	}
+
+	/**
+	 * Return the string equal to string shared by the entries of the
+	 * generator.
+	 *
+	 * @param string
+	 * @return String
+	 */
+	private String share(String string) {
+		if (sharedStrings == null) {
+			return string;
+		}
+		String shared = sharedStrings.putIfAbsent(string, string);
+		return shared == null ? string : shared;
 	}
 
 	@Override
@@ -337,6 +507,8 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 		this.marker = marker;
 		// reset stale
 		stale = false;
+		typeId = null;
+		path = null;
 		clearCache();
 	}
 
@@ -353,11 +525,16 @@ class MarkerEntry extends MarkerSupportItem implements IAdaptable {
 	}
 
 	/**
-	 * Clear the cached values for performance reasons.
+	 * Clear the cached values for performance reasons, and so that changed
+	 * attributes are read again. The type id and path are kept, as they do not
+	 * change for a marker.
 	 */
 	@Override
 	void clearCache() {
 		cache = null;
+		location = null;
+		cachedBits = 0;
+		presentBits = 0;
 	}
 
 	/**
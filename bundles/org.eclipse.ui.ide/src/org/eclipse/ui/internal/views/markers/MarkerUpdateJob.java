@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.ui.internal.views.markers;
 import java.util.Collection;
 import java.util.LinkedList;
 
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -66,6 +67,14 @@ class MarkerUpdateJob extends Job {
 		// builder.getUpdateScheduler().indicateStatus(
 		// MarkerMessages.MarkerView_searching_for_markers, false);
 
+		if (builder.isIncremental() && !builder.isFullUpdatePending()) {
+			if (updateIncrementally(monitor)) {
+				return;
+			}
+			builder.requestFullUpdate();
+		}
+		int fullUpdate = builder.startFullUpdate();
+
 		Collection<MarkerEntry> markerEntries = new LinkedList<>();
 		//this is not incremental clean every time
 		clean = !clean(markerEntries, monitor);
@@ -82,6 +91,7 @@ class MarkerUpdateJob extends Job {
 		if (monitor.isCanceled()) {
 			return;
 		}
+		builder.fullUpdateDone(fullUpdate);
 		builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
 		if (monitor.isCanceled()) {
 			return;
@@ -90,6 +100,27 @@ class MarkerUpdateJob extends Job {
 		updateDone();
 	}
 
+	/**
+	 * Apply the marker changes received since the last update to the markers
+	 * gathered before.
+	 *
+	 * @param monitor
+	 * @return <code>false</code> if the markers must be gathered again
+	 */
+	private boolean updateIncrementally(IProgressMonitor monitor) {
+		Collection<IMarker> changedMarkers = builder.takeIncrementalChanges();
+		if (!changedMarkers.isEmpty()) {
+			monitor.setTaskName(MarkerMessages.MarkerView_processUpdates);
+			if (!builder.getMarkers().updateIncrementally(changedMarkers, monitor)) {
+				return false;
+			}
+			builder.getUpdateScheduler().scheduleUIUpdate(MarkerUpdateScheduler.SHORT_DELAY);
+		}
+		builder.setBuilding(false);
+		updateDone();
+		return true;
+	}
+
 	/**
 	 * Capture the current time into as lastupdate time
 	 */
@@ -13,18 +13,22 @@
 package org.eclipse.ui.internal.views.markers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.ui.views.markers.MarkerItem;
 import org.eclipse.ui.views.markers.internal.MarkerGroup;
 import org.eclipse.ui.views.markers.internal.MarkerGroupingEntry;
@@ -56,6 +60,20 @@ class Markers {
 	private Map<IMarker, MarkerEntry> markerToEntryMap;
 	private Integer[] markerCounts;
 
+	// the number of leading entries of markerEntryArray that are sorted when
+	// not showing a hierarchy, see MarkerCategory#sortedCount
+	private int sortedCount;
+
+	// the names of the categories changed by incremental updates since the
+	// last clone for the viewer, see getViewerClone()
+	private final Set<String> changedCategories = new HashSet<>();
+	// true if the entries may have changed in other ways since the last
+	// clone for the viewer
+	private boolean changedAll = true;
+	// changedCategories of a clone, null if the viewer needs a full refresh
+	private Set<String> cloneChangedCategories;
+	private final Object changesLock = new Object();
+
 	Markers(CachedMarkerBuilder builder) {
 		this.builder = builder;
 		inChange = false;
@@ -80,6 +98,7 @@ class Markers {
 				markerToEntryMap = null;
 			}
 			markerCounts = null;
+			sortedCount = 0;
 			if (markerEntries.size() == 0) {
 				categories = EMPTY_CATEGORY_ARRAY;
 				markerEntryArray = EMPTY_ENTRY_ARRAY;
@@ -104,6 +123,7 @@ class Markers {
 			}
 			return true;
 		} finally {
+			recordChangedAll();
 			inChange = initialVal;
 		}
 	}
@@ -146,20 +166,39 @@ class Markers {
 		boolean initialVal = inChange;
 		try {
 			inChange = true;
+			sortedCount = 0;
+			for (int i = 0; i < categories.length; i++) {
+				categories[i].sortedCount = 0;
+			}
 			if (builder.isShowingHierarchy()) {
 				Comparator<MarkerItem> comparator = builder.getComparator().getFieldsComparator();
+				// the categories shown keep their entries, sort copies
+				MarkerEntry[] entries = markerEntryArray.clone();
+				MarkerCategory[] sortedCategories = new MarkerCategory[categories.length];
 				for (int i = 0; i < categories.length; i++) {
 					if (monitor.isCanceled()) {
 						return false;
 					}
 					// sort various categories
 					MarkerCategory category = categories[i];
-					category.children = null; // reset cached children
 					int avaliable = category.end - category.start + 1;
 					int effLimit = getShowingLimit(avaliable);
-					MarkerSortUtil.sortStartingKElement(markerEntryArray,
+					MarkerSortUtil.sortStartingKElement(entries,
 							comparator, category.start, category.end, effLimit,
 							monitor);
+					if (monitor.isCanceled()) {
+						return false;
+					}
+					MarkerCategory sortedCategory = new MarkerCategory(this,
+							Arrays.copyOfRange(entries, category.start, category.end + 1),
+							category.start, category.end, category.getName());
+					sortedCategory.groupingEntry = category.groupingEntry;
+					sortedCategory.sortedCount = effLimit;
+					sortedCategories[i] = sortedCategory;
+				}
+				synchronized (changesLock) {
+					markerEntryArray = entries;
+					categories = sortedCategories;
 				}
 			} else {
 				if (monitor.isCanceled()) {
@@ -169,6 +208,9 @@ class Markers {
 				int effLimit = getShowingLimit(avaialble);
 				MarkerSortUtil.sortStartingKElement(markerEntryArray,
 						builder.getComparator(), effLimit, monitor);
+				if (!monitor.isCanceled()) {
+					sortedCount = effLimit;
+				}
 			}
 			if (monitor.isCanceled()) {
 				return false;
@@ -176,6 +218,7 @@ class Markers {
 			monitor.worked(50);
 			return true;
 		} finally {
+			recordChangedAll();
 			inChange = initialVal;
 		}
 	}
@@ -215,9 +258,12 @@ class Markers {
 		int end = 0;
 		for (Entry<MarkerGroupingEntry, Integer> entry : boundaryInfoMap.entrySet()) {
 			end = entry.getValue();
-			markerCategories[i++] = new MarkerCategory(this, start, end,
+			MarkerCategory category = new MarkerCategory(this,
+					Arrays.copyOfRange(newMarkers, start, end + 1), start, end,
 					builder.getCategoryGroup().getMarkerField()
 							.getValue(newMarkers[start]));
+			category.groupingEntry = entry.getKey();
+			markerCategories[i++] = category;
 			start = end + 1;
 		}
 		return markerCategories;
@@ -327,19 +373,21 @@ class Markers {
 	 * @return {@link MarkerItem}
 	 */
 	public MarkerItem getMarkerItem(IMarker marker) {
+		return getMarkerToEntryMap().get(marker);
+	}
+
+	private Map<IMarker, MarkerEntry> getMarkerToEntryMap() {
 		if (markerToEntryMap == null) {
-			markerToEntryMap = new HashMap<>();
+			Map<IMarker, MarkerEntry> map = new HashMap<>();
 			for (int i = 0; i < markerEntryArray.length; i++) {
 				IMarker nextMarker = markerEntryArray[i].getMarker();
 				if (nextMarker != null) {
-					markerToEntryMap.put(nextMarker, markerEntryArray[i]);
+					map.put(nextMarker, markerEntryArray[i]);
 				}
 			}
+			markerToEntryMap = map;
 		}
-		if (markerToEntryMap.containsKey(marker)) {
-			return markerToEntryMap.get(marker);
-		}
-		return null;
+		return markerToEntryMap;
 	}
 
 	/**
@@ -379,12 +427,323 @@ class Markers {
 	Markers getClone() {
 		Markers markers = new Markers(builder);
 		if (!inChange) {
-			markers.markerEntryArray = markerEntryArray;
-			markers.categories = categories;
+			synchronized (changesLock) {
+				markers.markerEntryArray = markerEntryArray;
+				markers.categories = categories;
+			}
 		}
 		return markers;
 	}
 
+	/**
+	 * Returns a clone to be shown by the viewer, along with the categories
+	 * changed since the previous clone returned by this method. The method is
+	 * non-blocking.
+	 *
+	 * @see #getChangedCategories()
+	 */
+	Markers getViewerClone() {
+		Markers markers = new Markers(builder);
+		if (!inChange) {
+			synchronized (changesLock) {
+				markers.markerEntryArray = markerEntryArray;
+				markers.categories = categories;
+				markers.cloneChangedCategories = changedAll ? null : new HashSet<>(changedCategories);
+				changedCategories.clear();
+				changedAll = false;
+			}
+		}
+		return markers;
+	}
+
+	/**
+	 * Returns the names of the categories that changed since the previous
+	 * viewer clone, for a clone returned by {@link #getViewerClone()}.
+	 *
+	 * @return the names of the changed categories, or <code>null</code> if the
+	 *         viewer must be refreshed entirely
+	 */
+	Set<String> getChangedCategories() {
+		return cloneChangedCategories;
+	}
+
+	private void recordChangedAll() {
+		synchronized (changesLock) {
+			changedAll = true;
+		}
+	}
+
+	/**
+	 * Updates the entries for the given changed markers, without gathering the
+	 * markers again. An entry is kept for each of the markers that still exists
+	 * and is selected by the filters of the generator, in the sorted and
+	 * grouped position it would have after a full update. Only the categories
+	 * containing changed markers are sorted again, and only up to the number of
+	 * entries that are shown.
+	 *
+	 * @param changedMarkers
+	 *            the markers that were added, removed or changed
+	 * @param monitor
+	 * @return <code>false</code> if the changes cannot be applied
+	 *         incrementally, in which case a full update is required
+	 */
+	synchronized boolean updateIncrementally(Collection<IMarker> changedMarkers,
+			IProgressMonitor monitor) {
+		MarkerContentGenerator generator = builder.getGenerator();
+		if (generator == null || monitor.isCanceled()) {
+			return false;
+		}
+		// With this many changes gathering all the markers is not slower
+		if (changedMarkers.size() > markerEntryArray.length) {
+			return false;
+		}
+		boolean hierarchy = builder.isShowingHierarchy();
+		if (hierarchy && categories.length == 0 && markerEntryArray.length > 0) {
+			return false;
+		}
+		MarkerGroup group = builder.getCategoryGroup();
+		for (int i = 0; i < categories.length; i++) {
+			if (categories[i].groupingEntry == null) {
+				return false;
+			}
+		}
+
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			Map<IMarker, MarkerEntry> index = getMarkerToEntryMap();
+			Set<MarkerEntry> removed = new HashSet<>();
+			List<MarkerEntry> added = new ArrayList<>();
+			for (IMarker marker : changedMarkers) {
+				MarkerEntry oldEntry = index.remove(marker);
+				if (oldEntry != null) {
+					removed.add(oldEntry);
+				}
+				if (marker.exists()) {
+					MarkerEntry entry = generator.createEntry(marker);
+					if (generator.select(entry)) {
+						added.add(entry);
+						index.put(marker, entry);
+					}
+				}
+			}
+			if (removed.isEmpty() && added.isEmpty()) {
+				return true;
+			}
+			markerCounts = null;
+			if (hierarchy) {
+				updateCategories(group, removed, added, index);
+			} else {
+				MarkerEntry[][] segment = new MarkerEntry[1][];
+				int count = updateSegment(markerEntryArray, 0, markerEntryArray.length, sortedCount,
+						removed, added, builder.getComparator(), segment);
+				synchronized (changesLock) {
+					markerEntryArray = segment[0];
+					sortedCount = count;
+					changedAll = true;
+				}
+			}
+			return true;
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
+	/**
+	 * Applies the removed and added entries to the categories they belong to.
+	 */
+	private void updateCategories(MarkerGroup group, Set<MarkerEntry> removed,
+			List<MarkerEntry> added, Map<IMarker, MarkerEntry> index) {
+		TreeMap<MarkerGroupingEntry, MarkerCategory> oldCategories = new TreeMap<>(
+				group.getEntriesComparator());
+		for (int i = 0; i < categories.length; i++) {
+			oldCategories.put(categories[i].groupingEntry, categories[i]);
+		}
+		TreeMap<MarkerGroupingEntry, List<MarkerEntry>> addedByGroup = new TreeMap<>(
+				group.getEntriesComparator());
+		for (MarkerEntry entry : added) {
+			IMarker marker = entry.getMarker();
+			try {
+				MarkerGroupingEntry groupingEntry = group.findGroupValue(marker.getType(), marker);
+				List<MarkerEntry> list = addedByGroup.get(groupingEntry);
+				if (list == null) {
+					list = new ArrayList<>();
+					addedByGroup.put(groupingEntry, list);
+				}
+				list.add(entry);
+			} catch (CoreException e) {
+				entry.checkIfMarkerStale();
+				index.remove(marker);
+			}
+		}
+		TreeMap<MarkerGroupingEntry, Object> allGroups = new TreeMap<>(group.getEntriesComparator());
+		allGroups.putAll(oldCategories);
+		allGroups.putAll(addedByGroup);
+
+		Comparator<MarkerItem> comparator = builder.getComparator().getFieldsComparator();
+		List<MarkerCategory> newCategories = new ArrayList<>(allGroups.size());
+		List<MarkerEntry[]> segments = new ArrayList<>(allGroups.size());
+		Set<String> changed = new HashSet<>();
+		int size = 0;
+		MarkerEntry[][] segment = new MarkerEntry[1][];
+		for (MarkerGroupingEntry groupingEntry : allGroups.keySet()) {
+			MarkerCategory oldCategory = oldCategories.get(groupingEntry);
+			List<MarkerEntry> addedToGroup = addedByGroup.get(groupingEntry);
+			if (addedToGroup == null) {
+				addedToGroup = Collections.emptyList();
+			}
+			MarkerEntry[] oldEntries = EMPTY_ENTRY_ARRAY;
+			int oldSortedCount = 0;
+			if (oldCategory != null) {
+				oldEntries = oldCategory.getEntries();
+				oldSortedCount = oldCategory.sortedCount;
+			}
+			int count = updateSegment(oldEntries, 0, oldEntries.length, oldSortedCount, removed,
+					addedToGroup, comparator, segment);
+			if (segment[0].length == 0) {
+				// the category is gone
+				continue;
+			}
+			String name = oldCategory != null ? oldCategory.getName()
+					: group.getMarkerField().getValue(segment[0][0]);
+			if (count < 0) {
+				// unchanged
+				count = oldSortedCount;
+			} else {
+				changed.add(name);
+			}
+			MarkerCategory category = new MarkerCategory(this, segment[0], size,
+					size + segment[0].length - 1, name);
+			category.groupingEntry = groupingEntry;
+			category.sortedCount = count;
+			newCategories.add(category);
+			segments.add(segment[0]);
+			size += segment[0].length;
+		}
+
+		MarkerEntry[] entries = new MarkerEntry[size];
+		int position = 0;
+		for (MarkerEntry[] entriesOfCategory : segments) {
+			System.arraycopy(entriesOfCategory, 0, entries, position, entriesOfCategory.length);
+			position += entriesOfCategory.length;
+		}
+		synchronized (changesLock) {
+			markerEntryArray = entries;
+			categories = newCategories.toArray(new MarkerCategory[newCategories.size()]);
+			changedCategories.addAll(changed);
+		}
+	}
+
+	/**
+	 * Computes the entries of a category, or of all the entries when there is
+	 * no hierarchy, after removing and adding entries. The entries between
+	 * <code>from</code> and <code>from + sortedCount</code> are sorted and
+	 * not greater than any of the entries following them. The new entries keep
+	 * this property for at least as many entries as are shown.
+	 *
+	 * @param array
+	 *            the current entries
+	 * @param from
+	 *            the index of the first entry of the segment
+	 * @param to
+	 *            the index after the last entry of the segment
+	 * @param sortedCount
+	 *            the number of sorted entries at the beginning of the segment
+	 * @param removed
+	 *            the entries to remove
+	 * @param added
+	 *            the entries to add
+	 * @param comparator
+	 * @param result
+	 *            receives the new entries of the segment
+	 * @return the number of sorted entries at the beginning of the new
+	 *         segment, or -1 if the segment did not change
+	 */
+	private int updateSegment(MarkerEntry[] array, int from, int to, int sortedCount,
+			Set<MarkerEntry> removed, List<MarkerEntry> added,
+			Comparator<MarkerItem> comparator, MarkerEntry[][] result) {
+		int sortedEnd = from + Math.min(sortedCount, to - from);
+		List<MarkerEntry> sorted = new ArrayList<>(sortedEnd - from + added.size());
+		List<MarkerEntry> unsorted = new ArrayList<>(to - sortedEnd);
+		int removedCount = 0;
+		for (int i = from; i < to; i++) {
+			MarkerEntry entry = array[i];
+			if (!removed.isEmpty() && removed.contains(entry)) {
+				removedCount++;
+			} else if (i < sortedEnd) {
+				sorted.add(entry);
+			} else {
+				unsorted.add(entry);
+			}
+		}
+		if (removedCount == 0 && added.isEmpty()) {
+			result[0] = Arrays.copyOfRange(array, from, to);
+			return -1;
+		}
+
+		if (!added.isEmpty()) {
+			List<MarkerEntry> toMerge = new ArrayList<>(added);
+			Collections.sort(toMerge, comparator);
+			if (sortedEnd < to) {
+				// Only the entries not greater than the last sorted entry can
+				// be merged, the others may be greater than unsorted entries
+				MarkerEntry last = sortedEnd > from ? array[sortedEnd - 1] : null;
+				int mergeable = 0;
+				while (mergeable < toMerge.size() && last != null
+						&& comparator.compare(toMerge.get(mergeable), last) <= 0) {
+					mergeable++;
+				}
+				unsorted.addAll(toMerge.subList(mergeable, toMerge.size()));
+				toMerge = toMerge.subList(0, mergeable);
+			}
+			sorted = merge(sorted, toMerge, comparator);
+		}
+
+		MarkerEntry[] entries = new MarkerEntry[sorted.size() + unsorted.size()];
+		int newSortedCount = sorted.size();
+		for (int i = 0; i < newSortedCount; i++) {
+			entries[i] = sorted.get(i);
+		}
+		for (int i = 0; i < unsorted.size(); i++) {
+			entries[newSortedCount + i] = unsorted.get(i);
+		}
+		int limit = getShowingLimit(entries.length);
+		if (newSortedCount < limit && !unsorted.isEmpty()) {
+			// Entries were removed from the part that is shown, sort the
+			// entries that take their place
+			int k = Math.min(limit - newSortedCount, unsorted.size());
+			MarkerSortUtil.sortStartingKElement(entries, comparator, newSortedCount,
+					entries.length - 1, k, new NullProgressMonitor());
+			newSortedCount += k;
+		}
+		result[0] = entries;
+		return newSortedCount;
+	}
+
+	/**
+	 * Merges two sorted lists, the entries of the first list come first among
+	 * equal entries.
+	 */
+	private static List<MarkerEntry> merge(List<MarkerEntry> first, List<MarkerEntry> second,
+			Comparator<MarkerItem> comparator) {
+		if (second.isEmpty()) {
+			return first;
+		}
+		List<MarkerEntry> merged = new ArrayList<>(first.size() + second.size());
+		int i = 0;
+		int j = 0;
+		while (i < first.size() && j < second.size()) {
+			if (comparator.compare(second.get(j), first.get(i)) < 0) {
+				merged.add(second.get(j++));
+			} else {
+				merged.add(first.get(i++));
+			}
+		}
+		merged.addAll(first.subList(i, first.size()));
+		merged.addAll(second.subList(j, second.size()));
+		return merged;
+	}
+
 	/**
 	 * @return Returns true if markers are changing.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -178,10 +178,8 @@ class MarkersChangeListener implements IResourceChangeListener {
 	 * of the markers that were gathered initially, and keeps them synched at
 	 * any point with the markers of interest in Workspace. Unfortunately marker
 	 * operations cannot be locked so locking between gathering of markers and
-	 * marker deltas is not possible.
-	 *
-	 * Note : this method of updating is NOT used and tested yet and has holes
-	 * but left out SOLELY for further investigation(*).
+	 * marker deltas is not possible, the changes are therefore queued and
+	 * applied again after a full update.
 	 *
 	 * @param event
 	 */
@@ -199,7 +197,7 @@ class MarkersChangeListener implements IResourceChangeListener {
 					continue;
 				}
 				IMarker marker = markerDeltas[i].getMarker();
-				MarkerEntry markerEntry = new MarkerEntry(marker);
+				MarkerEntry markerEntry = builder.getGenerator().createEntry(marker);
 				switch (markerDeltas[i].getKind()) {
 				case IResourceDelta.REMOVED: {
 					removed.add(markerEntry);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,10 +11,13 @@
 
 package org.eclipse.ui.internal.views.markers;
 
+import java.util.Set;
+
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Item;
 import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
 
 /**
  * The MarkersTreeViewer is a viewer that optimizes the expandToLevel method.
@@ -62,6 +65,44 @@ public class MarkersTreeViewer extends TreeViewer {
 		unmapAllElements();
 	}
 
+	/**
+	 * Show the given categories, refreshing only the changed ones. The items
+	 * of the other categories are kept along with their children.
+	 *
+	 * @param categories
+	 *            the new categories, in the order they are shown
+	 * @param changedCategories
+	 *            the names of the categories whose markers changed
+	 * @return <code>false</code> if the tree does not show categories with the
+	 *         same names in the same order, in which case nothing is done and
+	 *         a full refresh is required
+	 */
+	boolean refreshCategories(MarkerCategory[] categories, Set<String> changedCategories) {
+		TreeItem[] items = getTree().getItems();
+		if (items.length != categories.length) {
+			return false;
+		}
+		for (int i = 0; i < items.length; i++) {
+			Object data = items[i].getData();
+			if (!(data instanceof MarkerCategory)
+					|| !((MarkerCategory) data).getName().equals(categories[i].getName())) {
+				return false;
+			}
+		}
+		for (int i = 0; i < items.length; i++) {
+			MarkerCategory oldCategory = (MarkerCategory) items[i].getData();
+			associate(categories[i], items[i]);
+			if (changedCategories.contains(categories[i].getName())) {
+				refresh(categories[i], true);
+			} else if (oldCategory.children != null) {
+				// the kept child items show the same entries, point them at
+				// their new parent
+				categories[i].getChildren();
+			}
+		}
+		return true;
+	}
+
 	@Override
 	protected void doUpdateItem(Item item, Object element) {
 		super.doUpdateItem(item, element);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,8 @@
 
 package org.eclipse.ui.internal.views.markers;
 
+import java.util.Set;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -36,6 +38,9 @@ class UIUpdateJob extends WorkbenchJob {
 
 	private long lastUpdateTime=-1;
 
+	// true if the viewer missed changes while the view was not visible
+	private boolean viewerStale;
+
 	/**
 	 * @param view
 	 *            the markers view base class
@@ -102,7 +107,10 @@ class UIUpdateJob extends WorkbenchJob {
 				contentProvider.inputChanged(viewer, view.getViewerInput(), clone);
 
 				viewer.getTree().setRedraw(false);
-				viewer.refresh(true);
+				if (!refreshChangedCategories(viewer, clone)) {
+					viewer.refresh(true);
+				}
+				viewerStale = false;
 				if (!monitor.isCanceled()) {
 					//do not expand if canceled
 					view.reexpandCategories();
@@ -110,6 +118,8 @@ class UIUpdateJob extends WorkbenchJob {
 				if (view.getBuilder().readChangeFlags()[0]) {
 					// indicate changes
 				}
+			} else {
+				viewerStale = true;
 			}
 
 			// show new counts
@@ -128,6 +138,23 @@ class UIUpdateJob extends WorkbenchJob {
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Refresh only the categories changed by incremental updates, if the
+	 * viewer shows the same categories as the clone.
+	 *
+	 * @param viewer
+	 * @param clone
+	 * @return <code>false</code> if a full refresh is required
+	 */
+	private boolean refreshChangedCategories(TreeViewer viewer, Markers clone) {
+		Set<String> changedCategories = clone.getChangedCategories();
+		if (viewerStale || changedCategories == null || !view.getBuilder().isShowingHierarchy()
+				|| !(viewer instanceof MarkersTreeViewer)) {
+			return false;
+		}
+		return ((MarkersTreeViewer) viewer).refreshCategories(clone.getCategories(), changedCategories);
+	}
+
 	/**
 	 * @return Returns true if updating.
 	 */
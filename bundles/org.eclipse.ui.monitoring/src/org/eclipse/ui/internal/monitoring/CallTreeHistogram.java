@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (C) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregates stack samples of a thread into a call tree with a sample count per node. The number
+ * of nodes is bounded, so the memory used by the histogram does not grow with the number of
+ * samples. When the limit is reached, the frames of a sample that would need new nodes are
+ * attributed to the deepest existing node on their path.
+ * <p>
+ * The histogram can be written out in the collapsed stack format understood by flame graph tools:
+ * one line per distinct stack, with the frames listed from the outermost to the innermost,
+ * separated by semicolons and followed by a space and the number of samples.
+ * <p>
+ * Not thread safe.
+ */
+public class CallTreeHistogram {
+	private static final String TRUNCATED_FRAME = "[truncated]"; //$NON-NLS-1$
+
+	private static class Node {
+		final Node parent;
+		final String className;
+		final String methodName;
+		/** Number of samples in which this node was the innermost recorded frame. */
+		int selfCount;
+		List<Node> children;
+
+		Node(Node parent, String className, String methodName) {
+			this.parent = parent;
+			this.className = className;
+			this.methodName = methodName;
+		}
+
+		Node findChild(StackTraceElement frame) {
+			if (children != null) {
+				// Class and method names of stack trace elements are usually interned, so the
+				// equals calls are identity checks most of the time.
+				for (int i = 0; i < children.size(); i++) {
+					Node child = children.get(i);
+					if (child.methodName.equals(frame.getMethodName())
+							&& child.className.equals(frame.getClassName())) {
+						return child;
+					}
+				}
+			}
+			return null;
+		}
+
+		Node addChild(String className, String methodName) {
+			if (children == null) {
+				children = new ArrayList<>(2);
+			}
+			Node child = new Node(this, className, methodName);
+			children.add(child);
+			return child;
+		}
+	}
+
+	private final int maxNodes;
+	private final Node root = new Node(null, "", ""); //$NON-NLS-1$ //$NON-NLS-2$
+	private int nodeCount;
+	private int sampleCount;
+	private int truncatedSampleCount;
+
+	/**
+	 * Creates an empty histogram.
+	 *
+	 * @param maxNodes the maximum number of call tree nodes the histogram may hold
+	 */
+	public CallTreeHistogram(int maxNodes) {
+		this.maxNodes = Math.max(maxNodes, 1);
+	}
+
+	/**
+	 * Adds a stack sample to the histogram.
+	 *
+	 * @param stack the stack trace with the innermost frame first, as returned by
+	 *     {@link java.lang.management.ThreadInfo#getStackTrace()}
+	 */
+	public void addSample(StackTraceElement[] stack) {
+		Node node = root;
+		for (int i = stack.length; --i >= 0;) {
+			StackTraceElement frame = stack[i];
+			Node child = node.findChild(frame);
+			if (child == null) {
+				if (nodeCount >= maxNodes) {
+					truncatedSampleCount++;
+					break;
+				}
+				child = node.addChild(frame.getClassName(), frame.getMethodName());
+				nodeCount++;
+			}
+			node = child;
+		}
+		node.selfCount++;
+		sampleCount++;
+	}
+
+	/**
+	 * Returns the number of samples added since the histogram was created or last cleared.
+	 */
+	public int getSampleCount() {
+		return sampleCount;
+	}
+
+	/**
+	 * Returns the number of samples that were not recorded in full because the node limit was
+	 * reached.
+	 */
+	public int getTruncatedSampleCount() {
+		return truncatedSampleCount;
+	}
+
+	/**
+	 * Returns the number of call tree nodes, not counting the root.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Removes all samples from the histogram.
+	 */
+	public void clear() {
+		root.children = null;
+		root.selfCount = 0;
+		nodeCount = 0;
+		sampleCount = 0;
+		truncatedSampleCount = 0;
+	}
+
+	/**
+	 * Returns the contents of the histogram in the collapsed stack format. Samples that were
+	 * truncated at the root are reported under a single {@code [truncated]} frame.
+	 */
+	public String toCollapsedStacks() {
+		StringBuilder buf = new StringBuilder();
+		if (root.selfCount != 0) {
+			buf.append(TRUNCATED_FRAME).append(' ').append(root.selfCount).append('\n');
+		}
+		if (root.children != null) {
+			StringBuilder path = new StringBuilder();
+			for (Node child : root.children) {
+				appendCollapsedStacks(child, path, buf);
+			}
+		}
+		return buf.toString();
+	}
+
+	private static void appendCollapsedStacks(Node node, StringBuilder path, StringBuilder buf) {
+		int pathLength = path.length();
+		if (pathLength != 0) {
+			path.append(';');
+		}
+		path.append(node.className).append('.').append(node.methodName);
+		if (node.selfCount != 0) {
+			buf.append(path).append(' ').append(node.selfCount).append('\n');
+		}
+		if (node.children != null) {
+			for (Node child : node.children) {
+				appendCollapsedStacks(child, path, buf);
+			}
+		}
+		path.setLength(pathLength);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2015 Google Inc and others.
+ * Copyright (C) 2014, 2016 Google Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -35,18 +35,22 @@ import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.monitoring.IUiFreezeEventLogger;
+import org.eclipse.ui.monitoring.IUiThreadProfileLogger;
 import org.eclipse.ui.monitoring.PreferenceConstants;
 import org.eclipse.ui.monitoring.StackSample;
 import org.eclipse.ui.monitoring.UiFreezeEvent;
+import org.eclipse.ui.monitoring.UiThreadProfile;
 
 /**
  * Event loop monitoring thread. Detects events that take long time to process, collects stack
  * traces of the UI thread during processing of those events, and logs the long events to the error
- * log.
+ * log. Optionally, samples the stack of the UI thread whenever it is busy and periodically passes
+ * the aggregated samples to the UI thread profile loggers.
  */
 public class EventLoopMonitorThread extends Thread {
 	private static final int EVENT_HISTORY_SIZE = 100;
 	private static final String EXTENSION_ID = "org.eclipse.ui.monitoring.logger"; //$NON-NLS-1$
+	private static final String PROFILE_LOGGER_ELEMENT = "profileLogger"; //$NON-NLS-1$
 	private static final String NEW_LINE_AND_BULLET = "\n* "; //$NON-NLS-1$
 	private static final String TRACE_EVENT_MONITOR = "/debug/event_monitor"; //$NON-NLS-1$
 	private static final String TRACE_PREFIX = "Event Loop Monitor"; //$NON-NLS-1$
@@ -77,6 +81,14 @@ public class EventLoopMonitorThread extends Thread {
 		public String uiThreadFilter;
 		/** @see org.eclipse.ui.monitoring.PreferenceConstants#NONINTERESTING_THREAD_FILTER */
 		public String noninterestingThreadFilter;
+		/** If true, sample the stack of the UI thread whenever it is busy. */
+		public boolean profilerEnabled;
+		/** Interval between two consecutive stack samples taken by the UI thread profiler. */
+		public int profilerSampleInterval;
+		/** Interval at which the UI thread profile is passed to the profile loggers. */
+		public int profilerReportInterval;
+		/** Maximum number of call tree nodes kept by the UI thread profiler between reports. */
+		public int profilerMaxNodes;
 
 		/**
 		 * Checks if the values of parameters for UI responsiveness monitoring are valid.
@@ -104,6 +116,17 @@ public class EventLoopMonitorThread extends Thread {
 						NLS.bind(Messages.EventLoopMonitorThread_deadlock_threshold_too_low_error_2,
 								deadlockThreshold, longEventErrorThreshold));
 			}
+			if (profilerEnabled) {
+				if (profilerSampleInterval <= 0) {
+					problems.append(NEW_LINE_AND_BULLET +
+							NLS.bind(Messages.EventLoopMonitorThread_profiler_sample_interval_error_1,
+									profilerSampleInterval));
+				} else if (profilerReportInterval <= profilerSampleInterval) {
+					problems.append(NEW_LINE_AND_BULLET +
+							NLS.bind(Messages.EventLoopMonitorThread_profiler_report_interval_error_2,
+									profilerReportInterval, profilerSampleInterval));
+				}
+			}
 
 			if (problems.length() != 0) {
 				throw new IllegalArgumentException(
@@ -342,6 +365,8 @@ public class EventLoopMonitorThread extends Thread {
 	// Accessed only by the monitoring thread.
 	private final List<IUiFreezeEventLogger> externalLoggers =
 			new ArrayList<IUiFreezeEventLogger>();
+	private final List<IUiThreadProfileLogger> profileLoggers =
+			new ArrayList<IUiThreadProfileLogger>();
 	private DefaultUiFreezeEventLogger defaultLogger;
 	private final Display display;
 	private final FilterHandler uiThreadFilter;
@@ -355,6 +380,9 @@ public class EventLoopMonitorThread extends Thread {
 	private final long uiThreadId;
 	private final Object sleepMonitor;
 	private final boolean logToErrorLog;
+	private final CallTreeHistogram profile; // null when the profiler is disabled.
+	private final long profilerSampleInterval;
+	private final long profilerReportInterval;
 	private EventHistory eventHistory;
 	private ThreadMXBean threadMXBean;
 	private boolean dumpLockedMonitors;
@@ -392,6 +420,9 @@ public class EventLoopMonitorThread extends Thread {
 		logToErrorLog = args.logToErrorLog;
 		uiThreadFilter = new FilterHandler(args.uiThreadFilter);
 		noninterestingThreadFilter = new FilterHandler(args.noninterestingThreadFilter);
+		profile = args.profilerEnabled ? new CallTreeHistogram(args.profilerMaxNodes) : null;
+		profilerSampleInterval = args.profilerSampleInterval;
+		profilerReportInterval = args.profilerReportInterval;
 		sleepMonitor = new Object();
 	}
 
@@ -454,6 +485,10 @@ public class EventLoopMonitorThread extends Thread {
 		if (!logToErrorLog && externalLoggers.isEmpty()) {
 			MonitoringPlugin.logWarning(Messages.EventLoopMonitorThread_logging_disabled_error);
 		}
+		if (profile != null && profileLoggers.isEmpty()) {
+			MonitoringPlugin.logWarning(
+					Messages.EventLoopMonitorThread_profile_logging_disabled_error);
+		}
 
 		monitoringThreadId = Thread.currentThread().getId();
 		threadMXBean = ManagementFactory.getThreadMXBean();
@@ -490,6 +525,9 @@ public class EventLoopMonitorThread extends Thread {
 
 		long currTime = getTimestamp();
 
+		long profileStartTime = currTime;
+		long grabProfileSampleAt = currTime + profilerSampleInterval;
+
 		while (!cancelled.get()) {
 			long sleepFor;
 			if (resetStalledEventState) {
@@ -517,6 +555,9 @@ public class EventLoopMonitorThread extends Thread {
 			} else {
 				sleepFor = Math.min(pollingNyquistDelay, Math.max(1, grabStackSampleAt - currTime));
 			}
+			if (profile != null) {
+				sleepFor = Math.min(sleepFor, Math.max(1, grabProfileSampleAt - currTime));
+			}
 
 			// Allow the discarded stack samples to be garbage collected.
 			for (int i = numSamples; i < stackSamples.length && stackSamples[i] != null; i++) {
@@ -608,6 +649,24 @@ public class EventLoopMonitorThread extends Thread {
 				}
 			}
 
+			if (profile != null) {
+				// Sample the UI thread only while it is busy, the time spent sleeping or waiting
+				// in an external event loop is not interesting.
+				if (currTime >= grabProfileSampleAt) {
+					if (currEventStartOrResumeTime != 0) {
+						ThreadInfo threadInfo = threadMXBean.getThreadInfo(uiThreadId, Integer.MAX_VALUE);
+						if (threadInfo != null) {
+							profile.addSample(threadInfo.getStackTrace());
+						}
+					}
+					grabProfileSampleAt = currTime + profilerSampleInterval;
+				}
+				if (currTime >= profileStartTime + profilerReportInterval) {
+					logProfile(profileStartTime, currTime);
+					profileStartTime = currTime;
+				}
+			}
+
 			// If a stalled event has finished, publish it and mark that the information should
 			// be reset.
 			LongEventInfo eventSnapshot = eventToPublish.getAndSet(null);
@@ -640,6 +699,10 @@ public class EventLoopMonitorThread extends Thread {
 
 			lastEventStartOrResumeTime = currEventStartOrResumeTime;
 		}
+
+		if (profile != null) {
+			logProfile(profileStartTime, getTimestamp());
+		}
 	}
 
 	private ThreadInfo[] captureThreadStacks(boolean dumpAllThreads) {
@@ -723,6 +786,13 @@ public class EventLoopMonitorThread extends Thread {
 
 		for (IConfigurationElement element : configElements) {
 			try {
+				if (PROFILE_LOGGER_ELEMENT.equals(element.getName())) {
+					// Don't activate the contributing plug-ins unless the profiler is enabled.
+					if (profile != null) {
+						loadProfileLogger(element);
+					}
+					continue;
+				}
 				Object object = element.createExecutableExtension("class"); //$NON-NLS-1$
 				if (object instanceof IUiFreezeEventLogger) {
 					externalLoggers.add((IUiFreezeEventLogger) object);
@@ -739,6 +809,19 @@ public class EventLoopMonitorThread extends Thread {
 		}
 	}
 
+	private void loadProfileLogger(IConfigurationElement element) throws CoreException {
+		Object object = element.createExecutableExtension("class"); //$NON-NLS-1$
+		if (object instanceof IUiThreadProfileLogger) {
+			profileLoggers.add((IUiThreadProfileLogger) object);
+		} else {
+			MonitoringPlugin.logWarning(NLS.bind(
+					Messages.EventLoopMonitorThread_invalid_logger_type_error_4,
+					new Object[] { object.getClass().getName(),
+							IUiThreadProfileLogger.class.getSimpleName(),
+							EXTENSION_ID, element.getContributor().getName() }));
+		}
+	}
+
 	private void registerDisplayListeners() {
 		display.addListener(SWT.PreEvent, eventLoopState);
 		display.addListener(SWT.PostEvent, eventLoopState);
@@ -793,4 +876,35 @@ public class EventLoopMonitorThread extends Thread {
 			}
 		}
 	}
+
+	/**
+	 * Passes the UI thread samples collected since {@code startTime} to the profile loggers and
+	 * starts a new profile.
+	 */
+	private void logProfile(long startTime, long endTime) {
+		if (profile.getSampleCount() == 0) {
+			return;
+		}
+		UiThreadProfile snapshot = new UiThreadProfile(startTime, endTime - startTime,
+				profilerSampleInterval, profile.getSampleCount(), profile.getTruncatedSampleCount(),
+				profile.toCollapsedStacks());
+		profile.clear();
+
+		if (tracer != null) {
+			tracer.trace("Logging " + snapshot); //$NON-NLS-1$
+		}
+
+		for (int i = 0; i < profileLoggers.size(); i++) {
+			IUiThreadProfileLogger currentLogger = profileLoggers.get(i);
+			try {
+				currentLogger.log(snapshot);
+			} catch (Throwable t) {
+				profileLoggers.remove(i);
+				i--;
+				MonitoringPlugin.logError(NLS.bind(
+						Messages.EventLoopMonitorThread_external_exception_error_1,
+						currentLogger.getClass().getName()), t);
+			}
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2015 Google Inc and others.
+ * Copyright (C) 2014, 2016 Google Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -79,6 +79,12 @@ public class MonitoringStartup implements IStartup {
 		args.noninterestingThreadFilter =
 				preferences.getString(PreferenceConstants.NONINTERESTING_THREAD_FILTER);
 		args.logToErrorLog = preferences.getBoolean(PreferenceConstants.LOG_TO_ERROR_LOG);
+		args.profilerEnabled = preferences.getBoolean(PreferenceConstants.PROFILER_ENABLED);
+		args.profilerSampleInterval =
+				preferences.getInt(PreferenceConstants.PROFILER_SAMPLE_INTERVAL_MILLIS);
+		args.profilerReportInterval =
+				preferences.getInt(PreferenceConstants.PROFILER_REPORT_INTERVAL_MILLIS);
+		args.profilerMaxNodes = preferences.getInt(PreferenceConstants.PROFILER_MAX_NODES);
 
 		return args;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014 Google Inc and others.
+ * Copyright (C) 2014, 2016 Google Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -42,5 +42,10 @@ public class MonitoringPreferenceInitializer extends AbstractPreferenceInitializ
 				+ ",org.eclipse.osgi.framework.eventmgr.EventManager$EventThread.run" //$NON-NLS-1$
 				+ ",org.eclipse.equinox.internal.util.impl.tpt.timer.TimerImpl.run" //$NON-NLS-1$
 				+ ",org.eclipse.equinox.internal.util.impl.tpt.threadpool.Executor.run"); //$NON-NLS-1$
+		store.setDefault(PreferenceConstants.PROFILER_ENABLED, false);
+		store.setDefault(PreferenceConstants.PROFILER_SAMPLE_INTERVAL_MILLIS, 20);
+		store.setDefault(PreferenceConstants.PROFILER_REPORT_INTERVAL_MILLIS,
+				10 * 60 * 1000); // 10 min
+		store.setDefault(PreferenceConstants.PROFILER_MAX_NODES, 20000);
 	}
 }
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (C) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.monitoring;
+
+import org.eclipse.ui.internal.monitoring.EventLoopMonitorThread;
+
+/**
+ * All classes receiving {@link UiThreadProfile}s have to implement this interface. Profile
+ * loggers are contributed through the {@code profileLogger} element of the
+ * {@code org.eclipse.ui.monitoring.logger} extension point.
+ *
+ * @since 1.1
+ */
+public interface IUiThreadProfileLogger {
+	/**
+	 * Invoked from the {@link EventLoopMonitorThread} at the end of every profiling period when
+	 * the UI thread profiler is enabled. Implementations of this function must end quickly or
+	 * else it will impact system performance. All time-consuming tasks should be executed
+	 * asynchronously.
+	 */
+	void log(UiThreadProfile profile);
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014 Google Inc and others.
+ * Copyright (C) 2014, 2016 Google Inc and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -55,6 +55,34 @@ public class PreferenceConstants {
 	 * message if all stack frames of the thread match the filter.
 	 */
 	public static final String NONINTERESTING_THREAD_FILTER = "noninteresting_thread_filter"; //$NON-NLS-1$
+	/**
+	 * If true, the monitoring thread continuously samples the stack of the UI thread while it is
+	 * busy and periodically passes the aggregated samples to the contributed
+	 * {@link IUiThreadProfileLogger}s.
+	 *
+	 * @since 1.1
+	 */
+	public static final String PROFILER_ENABLED = "profiler_enabled"; //$NON-NLS-1$
+	/**
+	 * Interval in milliseconds between two consecutive stack samples taken by the UI thread
+	 * profiler.
+	 *
+	 * @since 1.1
+	 */
+	public static final String PROFILER_SAMPLE_INTERVAL_MILLIS = "profiler_sample_interval"; //$NON-NLS-1$
+	/**
+	 * Interval in milliseconds at which the UI thread profile is passed to the profile loggers
+	 * and reset.
+	 *
+	 * @since 1.1
+	 */
+	public static final String PROFILER_REPORT_INTERVAL_MILLIS = "profiler_report_interval"; //$NON-NLS-1$
+	/**
+	 * Maximum number of call tree nodes kept by the UI thread profiler between two reports.
+	 *
+	 * @since 1.1
+	 */
+	public static final String PROFILER_MAX_NODES = "profiler_max_nodes"; //$NON-NLS-1$
 
 	private PreferenceConstants() {}
 }
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (C) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.monitoring;
+
+/**
+ * Stack samples of the UI thread aggregated over a period of time by the UI thread profiler.
+ * Samples are only taken while the UI thread is busy dispatching events, so the profile shows
+ * where the UI thread spends its time, including the time taken by events that are too short to
+ * be reported as UI freezes.
+ *
+ * @see PreferenceConstants#PROFILER_ENABLED
+ * @noextend This class is not intended to be subclassed by clients.
+ * @since 1.1
+ */
+public class UiThreadProfile {
+	private final long startTimestamp;
+	private final long duration;
+	private final long sampleInterval;
+	private final int sampleCount;
+	private final int truncatedSampleCount;
+	private final String collapsedStacks;
+
+	/**
+	 * Creates a UiThreadProfile.
+	 *
+	 * @param startTime the beginning of the profiled period in milliseconds since January 1,
+	 *     1970 UTC
+	 * @param duration duration of the profiled period in milliseconds
+	 * @param sampleInterval the interval between two consecutive samples in milliseconds
+	 * @param sampleCount the number of samples taken during the period
+	 * @param truncatedSampleCount the number of samples that were not recorded in full because
+	 *     of the limit on the size of the profile
+	 * @param collapsedStacks the samples in the collapsed stack format
+	 */
+	public UiThreadProfile(long startTime, long duration, long sampleInterval, int sampleCount,
+			int truncatedSampleCount, String collapsedStacks) {
+		this.startTimestamp = startTime;
+		this.duration = duration;
+		this.sampleInterval = sampleInterval;
+		this.sampleCount = sampleCount;
+		this.truncatedSampleCount = truncatedSampleCount;
+		this.collapsedStacks = collapsedStacks;
+	}
+
+	/**
+	 * Returns the beginning of the profiled period, in milliseconds since January 1, 1970 UTC.
+	 */
+	public final long getStartTimestamp() {
+		return startTimestamp;
+	}
+
+	/**
+	 * Returns the duration of the profiled period in milliseconds.
+	 */
+	public final long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Returns the interval between two consecutive samples in milliseconds. Multiplied by
+	 * a sample count, it gives an estimate of the time the UI thread spent in a stack.
+	 */
+	public final long getSampleInterval() {
+		return sampleInterval;
+	}
+
+	/**
+	 * Returns the number of samples taken while the UI thread was busy.
+	 */
+	public final int getSampleCount() {
+		return sampleCount;
+	}
+
+	/**
+	 * Returns the number of samples whose innermost frames were dropped because the profile
+	 * reached its size limit.
+	 */
+	public final int getTruncatedSampleCount() {
+		return truncatedSampleCount;
+	}
+
+	/**
+	 * Returns the samples in the collapsed stack format used by flame graph tools. Each line
+	 * holds the frames of a stack from the outermost to the innermost, separated by semicolons,
+	 * followed by a space and the number of samples of that stack.
+	 */
+	public final String getCollapsedStacks() {
+		return collapsedStacks;
+	}
+
+	/** For debugging only. */
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder();
+		buf.append("UI thread profile of "); //$NON-NLS-1$
+		buf.append(sampleCount);
+		buf.append(" samples from "); //$NON-NLS-1$
+		buf.append(startTimestamp);
+		buf.append(" for "); //$NON-NLS-1$
+		buf.append(duration);
+		buf.append("ms:\n"); //$NON-NLS-1$
+		buf.append(collapsedStacks);
+		return buf.toString();
+	}
+}
@@ -28,8 +28,12 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.IHandler;
@@ -212,9 +216,27 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	private ItemsFilter filter;
 
-	private List lastCompletedResult;
+	/**
+	 * The results of the last completed filterings, each filter being a
+	 * sub-filter of the one before it. Guarded by itself.
+	 */
+	private final LinkedList<CompletedFilter> completedFilters = new LinkedList<>();
+
+	/**
+	 * The maximum number of completed filterings remembered. The first one,
+	 * which is usually the result of a full search, is always kept.
+	 */
+	private static final int MAX_COMPLETED_FILTERS = 4;
 
-	private ItemsFilter lastCompletedFilter;
+	/**
+	 * The number of items matched by each parallel matching task.
+	 */
+	private static final int MATCH_CHUNK_SIZE = 4096;
+
+	/**
+	 * The number of best ranked items shown before the whole result is sorted.
+	 */
+	private static final int RANKED_PAGE_SIZE = 500;
 
 	private String initialPatternText;
 
@@ -1192,6 +1214,22 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 	 */
 	protected abstract Comparator getItemsComparator();
 
+	/**
+	 * Returns whether the order given by {@link #getItemsComparator()} does
+	 * not depend on the current filter. The sorted result of a filtering is
+	 * then refined by the following filterings without being sorted again.
+	 * The default implementation returns <code>false</code>. Subclasses whose
+	 * comparator only compares the items should override it to return
+	 * <code>true</code>.
+	 *
+	 * @return <code>true</code> if the order of the items does not depend on
+	 *         the filter
+	 * @since 3.108
+	 */
+	protected boolean isItemsOrderFilterIndependent() {
+		return false;
+	}
+
 	/**
 	 * Fills the content provider with matching items.
 	 *
@@ -1493,6 +1531,10 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 			if (FilteredItemsSelectionDialog.this != null) {
 				GranualProgressMonitor wrappedMonitor = new GranualProgressMonitor(
 						monitor);
+				if (contentProvider != null
+						&& contentProvider.reloadFirstPage(wrappedMonitor)) {
+					refreshJob.schedule();
+				}
 				FilteredItemsSelectionDialog.this.reloadCache(true,
 						wrappedMonitor);
 			}
@@ -1962,8 +2004,7 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 			contentProvider.addHistoryItems(itemsFilter);
 
-			if (!(lastCompletedFilter != null && lastCompletedFilter
-					.isSubFilter(this.itemsFilter)))
+			if (findCompletedFilter(this.itemsFilter) == null)
 				contentProvider.refresh();
 
 			filterJob.schedule();
@@ -2066,37 +2107,38 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		protected void filterContent(GranualProgressMonitor monitor)
 				throws CoreException {
 
-			if (lastCompletedFilter != null
-					&& lastCompletedFilter.isSubFilter(this.itemsFilter)) {
+			CompletedFilter completed = findCompletedFilter(this.itemsFilter);
+			if (completed != null) {
 
-				int length = lastCompletedResult.size() / 500;
+				// Only the result of the last filtering needs to be matched,
+				// it is sorted so the matching items are sorted as well when
+				// the order does not depend on the filter
+				Object[] result = completed.result;
 				monitor
 						.beginTask(
 								WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName,
-								length);
+								result.length / MATCH_CHUNK_SIZE + 1);
 
-				for (int pos = 0; pos < lastCompletedResult.size(); pos++) {
-
-					Object item = lastCompletedResult.get(pos);
-					if (monitor.isCanceled())
-						break;
-					contentProvider.add(item, itemsFilter);
+				List matched = contentProvider.matchSorted(result, itemsFilter,
+						monitor);
 
-					if ((pos % 500) == 0) {
-						monitor.worked(1);
-					}
+				if (!monitor.isCanceled()) {
+					contentProvider.addSorted(matched, itemsFilter);
+					contentProvider.rememberResult(itemsFilter);
 				}
 
 			} else {
 
-				lastCompletedFilter = null;
-				lastCompletedResult = null;
+				synchronized (completedFilters) {
+					completedFilters.clear();
+				}
 
 				SubMonitor subMonitor = SubMonitor.convert(monitor,
 									WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName,
 									100);
 
 				fillContentProvider(contentProvider, itemsFilter, subMonitor.split(95));
+				contentProvider.flushMatches(itemsFilter);
 
 				if (monitor != null && !monitor.isCanceled()) {
 					subMonitor.worked(2);
@@ -2109,6 +2151,44 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	}
 
+	/**
+	 * The sorted result of a completed filtering.
+	 */
+	private static class CompletedFilter {
+
+		final ItemsFilter filter;
+
+		final Object[] result;
+
+		CompletedFilter(ItemsFilter filter, Object[] result) {
+			this.filter = filter;
+			this.result = result;
+		}
+	}
+
+	/**
+	 * Returns the most recent completed filtering of which the given filter
+	 * is a sub-filter. The filterings that come after it are forgotten, as
+	 * the following filters are sub-filters of the given one.
+	 *
+	 * @param itemsFilter
+	 *            the filter about to be run
+	 * @return the completed filtering or <code>null</code> if a full search
+	 *         is required
+	 */
+	private CompletedFilter findCompletedFilter(ItemsFilter itemsFilter) {
+		synchronized (completedFilters) {
+			while (!completedFilters.isEmpty()) {
+				CompletedFilter completed = completedFilters.getLast();
+				if (completed.filter.isSubFilter(itemsFilter)) {
+					return completed;
+				}
+				completedFilters.removeLast();
+			}
+			return null;
+		}
+	}
+
 	/**
 	 * History stores a list of key, object pairs. The list is bounded at a
 	 * certain size. If the list exceeds this size the oldest element is removed
@@ -2452,6 +2532,20 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 */
 		public abstract boolean isConsistentItem(Object item);
 
+		/**
+		 * Returns whether {@link #matchItem(Object)} may be called by several
+		 * threads at the same time. Large numbers of items are then matched in
+		 * parallel. The default implementation returns <code>false</code>.
+		 * Subclasses whose <code>matchItem</code> only reads the filter and
+		 * the items should override it to return <code>true</code>.
+		 *
+		 * @return <code>true</code> if items can be matched concurrently
+		 * @since 3.108
+		 */
+		public boolean isThreadSafe() {
+			return false;
+		}
+
 	}
 
 	/**
@@ -2539,6 +2633,17 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 */
 		private boolean reset;
 
+		/**
+		 * Items added by <code>fillContentProvider</code> that are waiting
+		 * to be matched in parallel. Guarded by <code>matchTasks</code>.
+		 */
+		private List<Object> pendingItems = new ArrayList<>();
+
+		/**
+		 * The running parallel matching tasks.
+		 */
+		private final List<ForkJoinTask<?>> matchTasks = new ArrayList<>();
+
 		/**
 		 * Creates new instance of <code>ContentProvider</code>.
 		 */
@@ -2572,6 +2677,10 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 */
 		public void reset() {
 			reset = true;
+			synchronized (matchTasks) {
+				pendingItems = new ArrayList<>();
+				matchTasks.clear();
+			}
 			this.items.clear();
 			this.duplicates.clear();
 			this.lastSortedItems.clear();
@@ -2594,7 +2703,15 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		public void add(Object item, ItemsFilter itemsFilter) {
 			if (itemsFilter == filter) {
 				if (itemsFilter != null) {
-					if (itemsFilter.matchItem(item)) {
+					if (itemsFilter.isThreadSafe()) {
+						synchronized (matchTasks) {
+							pendingItems.add(item);
+							if (pendingItems.size() >= MATCH_CHUNK_SIZE) {
+								submitMatch(pendingItems.toArray(), itemsFilter);
+								pendingItems = new ArrayList<>();
+							}
+						}
+					} else if (itemsFilter.matchItem(item)) {
 						this.items.add(item);
 					}
 				} else {
@@ -2603,6 +2720,129 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 			}
 		}
 
+		/**
+		 * Matches a chunk of items in the common fork-join pool and adds the
+		 * matching ones. Must be called while holding the lock of
+		 * <code>matchTasks</code>.
+		 */
+		private void submitMatch(final Object[] chunk,
+				final ItemsFilter itemsFilter) {
+			matchTasks.add(ForkJoinPool.commonPool().submit(() -> {
+				List<Object> matched = match(chunk, 0, chunk.length,
+						itemsFilter);
+				if (itemsFilter == filter) {
+					items.addAll(matched);
+				}
+			}));
+		}
+
+		/**
+		 * Matches the items of a range, stopping early when the filter is no
+		 * longer the current one.
+		 */
+		private List<Object> match(Object[] elements, int from, int to,
+				ItemsFilter itemsFilter) {
+			List<Object> matched = new ArrayList<>();
+			for (int i = from; i < to; i++) {
+				if ((i & 0xff) == 0 && itemsFilter != filter) {
+					break;
+				}
+				if (itemsFilter.matchItem(elements[i])) {
+					matched.add(elements[i]);
+				}
+			}
+			return matched;
+		}
+
+		/**
+		 * Matches the items still waiting after <code>fillContentProvider</code>
+		 * and waits for all parallel matching tasks to finish.
+		 *
+		 * @param itemsFilter
+		 *            the filter used by the search
+		 */
+		public void flushMatches(ItemsFilter itemsFilter) {
+			ForkJoinTask<?>[] tasks;
+			synchronized (matchTasks) {
+				if (!pendingItems.isEmpty() && itemsFilter == filter) {
+					submitMatch(pendingItems.toArray(), itemsFilter);
+				}
+				pendingItems = new ArrayList<>();
+				tasks = matchTasks.toArray(new ForkJoinTask<?>[matchTasks
+						.size()]);
+				matchTasks.clear();
+			}
+			for (int i = 0; i < tasks.length; i++) {
+				tasks[i].join();
+			}
+		}
+
+		/**
+		 * Matches sorted items, in parallel chunks if the filter allows it.
+		 *
+		 * @param sortedItems
+		 *            the items to match
+		 * @param itemsFilter
+		 *            the filter
+		 * @param monitor
+		 *            progress monitor, one unit of work is reported per chunk
+		 * @return the matching items, in the same order
+		 */
+		public List matchSorted(final Object[] sortedItems,
+				final ItemsFilter itemsFilter, IProgressMonitor monitor) {
+			int chunks = (sortedItems.length + MATCH_CHUNK_SIZE - 1)
+					/ MATCH_CHUNK_SIZE;
+			List<Object> matched = new ArrayList<>();
+			if (chunks < 2 || !itemsFilter.isThreadSafe()) {
+				for (int from = 0; from < sortedItems.length; from += MATCH_CHUNK_SIZE) {
+					if (monitor.isCanceled()) {
+						break;
+					}
+					matched.addAll(match(sortedItems, from,
+							Math.min(from + MATCH_CHUNK_SIZE, sortedItems.length),
+							itemsFilter));
+					monitor.worked(1);
+				}
+				return matched;
+			}
+			List<ForkJoinTask<List<Object>>> tasks = new ArrayList<>(chunks);
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				final int from = chunk * MATCH_CHUNK_SIZE;
+				final int to = Math.min(from + MATCH_CHUNK_SIZE,
+						sortedItems.length);
+				tasks.add(ForkJoinPool.commonPool().submit(
+						() -> match(sortedItems, from, to, itemsFilter)));
+			}
+			for (ForkJoinTask<List<Object>> task : tasks) {
+				matched.addAll(task.join());
+				monitor.worked(1);
+			}
+			return matched;
+		}
+
+		/**
+		 * Adds items that match the filter and are already sorted. When they
+		 * are the only items and the order of the items does not depend on
+		 * the filter, the sorting is skipped.
+		 *
+		 * @param sortedItems
+		 *            the items in sorted order
+		 * @param itemsFilter
+		 *            the filter the items match
+		 */
+		public void addSorted(List sortedItems, ItemsFilter itemsFilter) {
+			if (itemsFilter != filter) {
+				return;
+			}
+			this.items.addAll(sortedItems);
+			if (this.items.size() == sortedItems.size() && isItemsOrderFilterIndependent()) {
+				synchronized (lastSortedItems) {
+					lastSortedItems.clear();
+					lastSortedItems.addAll(sortedItems);
+				}
+			}
+		}
+
 		/**
 		 * Add all history items to <code>contentProvider</code>.
 		 *
@@ -2762,12 +3002,16 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 * @param itemsFilter
 		 */
 		public void rememberResult(ItemsFilter itemsFilter) {
-			List itemsList = Collections.synchronizedList(Arrays
-					.asList(getSortedItems()));
+			Object[] result = getSortedItems();
 			// synchronization
 			if (itemsFilter == filter) {
-				lastCompletedFilter = itemsFilter;
-				lastCompletedResult = itemsList;
+				synchronized (completedFilters) {
+					if (completedFilters.size() >= MAX_COMPLETED_FILTERS) {
+						completedFilters.remove(1);
+					}
+					completedFilters.add(new CompletedFilter(itemsFilter,
+							result));
+				}
 			}
 
 		}
@@ -2833,6 +3077,45 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 			}
 		}
 
+		/**
+		 * Shows the best ranked items before the whole result is sorted. Does
+		 * nothing when the result is small or already sorted.
+		 *
+		 * @param monitor
+		 *            progress monitor
+		 * @return <code>true</code> if the first page should be shown
+		 */
+		boolean reloadFirstPage(IProgressMonitor monitor) {
+			if (items.size() < 2 * RANKED_PAGE_SIZE
+					|| lastSortedItems.size() == items.size()) {
+				return false;
+			}
+			reset = false;
+			Comparator comparator = getHistoryComparator();
+			// The worst of the best ranked items is at the head
+			PriorityQueue top = new PriorityQueue(RANKED_PAGE_SIZE + 1,
+					Collections.reverseOrder(comparator));
+			Object[] all = items.toArray();
+			for (int i = 0; i < all.length; i++) {
+				if ((i & 0xfff) == 0 && (reset || monitor.isCanceled())) {
+					return false;
+				}
+				top.add(all[i]);
+				if (top.size() > RANKED_PAGE_SIZE) {
+					top.poll();
+				}
+			}
+			Object[] page = top.toArray();
+			Arrays.sort(page, comparator);
+			Object[] filteredPage = getFilteredItems(list.getInput(), page,
+					null);
+			if (reset || monitor.isCanceled()) {
+				return false;
+			}
+			lastFilteredItems = Arrays.asList(filteredPage);
+			return true;
+		}
+
 		private void checkDuplicates(IProgressMonitor monitor) {
 			synchronized (lastFilteredItems) {
 				SubMonitor subMonitor = SubMonitor.convert(monitor,
@@ -2892,6 +3175,36 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 			monitor.worked(ticks);
 
+			return getFilteredItems(parent, filteredElements, monitor, ticks);
+		}
+
+		/**
+		 * Returns the given sorted items filtered using the provided
+		 * <code>ViewerFilter</code>s with a separator added.
+		 *
+		 * @param parent
+		 *            the parent
+		 * @param sortedElements
+		 *            the items to filter, in sorted order
+		 * @param monitor
+		 *            progress monitor, can be <code>null</code>
+		 * @return an array of filtered items
+		 */
+		private Object[] getFilteredItems(Object parent,
+				Object[] sortedElements, IProgressMonitor monitor) {
+			if (monitor == null) {
+				monitor = new NullProgressMonitor();
+			}
+			monitor.beginTask(
+					WorkbenchMessages.FilteredItemsSelectionDialog_cacheRefreshJob_getFilteredElements,
+					100);
+			int ticks = filters != null ? 100 / (filters.size() + 2) : 50;
+			return getFilteredItems(parent, sortedElements, monitor, ticks);
+		}
+
+		private Object[] getFilteredItems(Object parent,
+				Object[] filteredElements, IProgressMonitor monitor, int ticks) {
+
 			// filter the elements using provided ViewerFilters
 			if (filters != null && filteredElements != null) {
 				for (Iterator iter = filters.iterator(); iter.hasNext();) {
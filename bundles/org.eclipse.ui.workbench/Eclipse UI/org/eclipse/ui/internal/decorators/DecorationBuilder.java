@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -42,6 +42,13 @@ public class DecorationBuilder implements IDecoration {
 
 	private Font font;
 
+	// Flags set if the colors or font have been set, possibly to null
+	private boolean foregroundColorSet;
+
+	private boolean backgroundColorSet;
+
+	private boolean fontSet;
+
 	LightweightDecoratorDefinition currentDefinition;
 
 	// A flag set if a value has been added
@@ -189,22 +196,58 @@ public class DecorationBuilder implements IDecoration {
 		valueSet = true;
 	}
 
+	/**
+	 * Add the values of a builder that decorated the same element with a
+	 * decorator that comes after the ones of the receiver. Prefixes and
+	 * suffixes are appended, overlays only fill the free quadrants and colors
+	 * and font that have been set replace the current ones, even with
+	 * <code>null</code>, as if the decorators had been run one after the
+	 * other on the receiver.
+	 *
+	 * @param partial
+	 */
+	void merge(DecorationBuilder partial) {
+		if (!partial.valueSet) {
+			return;
+		}
+		prefixes.addAll(partial.prefixes);
+		suffixes.addAll(partial.suffixes);
+		for (int i = 0; i < descriptors.length; i++) {
+			if (descriptors[i] == null) {
+				descriptors[i] = partial.descriptors[i];
+			}
+		}
+		if (partial.foregroundColorSet) {
+			setForegroundColor(partial.foregroundColor);
+		}
+		if (partial.backgroundColorSet) {
+			setBackgroundColor(partial.backgroundColor);
+		}
+		if (partial.fontSet) {
+			setFont(partial.font);
+		}
+		valueSet = true;
+	}
+
 
 	@Override
 	public void setBackgroundColor(Color bgColor) {
 		this.backgroundColor = bgColor;
+		backgroundColorSet = true;
 		valueSet = true;
 	}
 
 	@Override
 	public void setFont(Font newFont) {
 		this.font = newFont;
+		fontSet = true;
 		valueSet = true;
 	}
 
 	@Override
 	public void setForegroundColor(Color fgColor) {
 		this.foregroundColor = fgColor;
+		foregroundColorSet = true;
 		valueSet = true;
 	}
 
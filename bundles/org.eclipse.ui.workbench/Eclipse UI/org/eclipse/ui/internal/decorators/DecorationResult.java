@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,6 +39,31 @@ public class DecorationResult {
 
 	private Font font;
 
+	/**
+	 * An overlay image created with a resource manager for a base image. The
+	 * result holds one reference to the image until it is disposed.
+	 */
+	private static class OverlayImage {
+		final ResourceManager manager;
+
+		final Image base;
+
+		ImageDescriptor descriptor;
+
+		Image image;
+
+		OverlayImage(ResourceManager manager, Image base) {
+			this.manager = manager;
+			this.base = base;
+		}
+	}
+
+	// The overlay images created for each resource manager and base image,
+	// only accessed in the UI thread
+	private OverlayImage[] overlayImages;
+
+	private int weight;
+
 	DecorationResult(List prefixList, List suffixList,
 			ImageDescriptor[] imageDescriptors, Color resultForegroundColor,
 			Color resultBackgroundColor, Font resultFont) {
@@ -70,7 +95,10 @@ public class DecorationResult {
 	}
 
 	/**
-	 * Decorate the Image supplied with the overlays.
+	 * Decorate the Image supplied with the overlays. The decorated image is
+	 * created once per image and resource manager, and released when the
+	 * receiver is disposed. Viewers showing the same element with different
+	 * images each keep their decorated image.
 	 *
 	 * @param image
 	 * @param manager
@@ -83,10 +111,91 @@ public class DecorationResult {
 			return image;
 		}
 
+		OverlayImage overlay = getOverlayImage(manager, image);
+		if (overlay.image != null && !overlay.image.isDisposed()) {
+			return overlay.image;
+		}
+
 		Rectangle bounds = image.getBounds();
 		Point size = new Point(bounds.width, bounds.height);
 		DecorationOverlayIcon icon = new DecorationOverlayIcon(image, descriptors, size);
-		return manager.createImage(icon);
+		Image result = manager.createImage(icon);
+		// Release the previous image only once the new one is referenced, as
+		// they may be the same
+		if (overlay.descriptor != null) {
+			manager.destroyImage(overlay.descriptor);
+		}
+		overlay.descriptor = icon;
+		overlay.image = result;
+		return result;
+	}
+
+	private OverlayImage getOverlayImage(ResourceManager manager, Image base) {
+		if (overlayImages == null) {
+			overlayImages = new OverlayImage[] { new OverlayImage(manager, base) };
+			return overlayImages[0];
+		}
+		for (int i = 0; i < overlayImages.length; i++) {
+			if (overlayImages[i].manager == manager && overlayImages[i].base == base) {
+				return overlayImages[i];
+			}
+		}
+		OverlayImage[] newImages = new OverlayImage[overlayImages.length + 1];
+		System.arraycopy(overlayImages, 0, newImages, 0, overlayImages.length);
+		newImages[overlayImages.length] = new OverlayImage(manager, base);
+		overlayImages = newImages;
+		return newImages[newImages.length - 1];
+	}
+
+	/**
+	 * Release the overlay images created by the receiver. Must be called in
+	 * the UI thread, once the labels that showed the images have been
+	 * updated.
+	 */
+	void dispose() {
+		if (overlayImages == null) {
+			return;
+		}
+		for (int i = 0; i < overlayImages.length; i++) {
+			OverlayImage overlay = overlayImages[i];
+			if (overlay.descriptor != null) {
+				overlay.manager.destroyImage(overlay.descriptor);
+			}
+		}
+		overlayImages = null;
+	}
+
+	/**
+	 * Return the weight of the receiver in a {@link DecorationResultCache}: 1
+	 * for the result itself, plus 1 for every 32 characters of prefixes and
+	 * suffixes and 4 for every overlay.
+	 *
+	 * @return int
+	 */
+	int getWeight() {
+		if (weight == 0) {
+			weight = computeWeight();
+		}
+		return weight;
+	}
+
+	private int computeWeight() {
+		int characters = 0;
+		for (int i = 0; i < prefixes.size(); i++) {
+			characters += String.valueOf(prefixes.get(i)).length();
+		}
+		for (int i = 0; i < suffixes.size(); i++) {
+			characters += String.valueOf(suffixes.get(i)).length();
+		}
+		int overlays = 0;
+		if (descriptors != null) {
+			for (int i = 0; i < descriptors.length; i++) {
+				if (descriptors[i] != null) {
+					overlays++;
+				}
+			}
+		}
+		return 1 + characters / 32 + 4 * overlays;
 	}
 
 	/**
@@ -150,29 +259,35 @@ public class DecorationResult {
 	}
 
 	/**
-	 * Return the background Color for the result.
+	 * Return the background Color for the result. This method is public for use by the
+	 * test suites and is not intended to be referenced by other workbench
+	 * internals.
 	 *
 	 * @return Color
 	 */
-	Color getBackgroundColor() {
+	public Color getBackgroundColor() {
 		return backgroundColor;
 	}
 
 	/**
-	 * Return the font for the result.
+	 * Return the font for the result. This method is public for use by the
+	 * test suites and is not intended to be referenced by other workbench
+	 * internals.
 	 *
 	 * @return Font
 	 */
-	Font getFont() {
+	public Font getFont() {
 		return font;
 	}
 
 	/**
-	 * Return the foreground color for the result.
+	 * Return the foreground color for the result. This method is public for use by the
+	 * test suites and is not intended to be referenced by other workbench
+	 * internals.
 	 *
 	 * @return Color
 	 */
-	Color getForegroundColor() {
+	public Color getForegroundColor() {
 		return foregroundColor;
 	}
 }
@@ -0,0 +1,331 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jface.viewers.IDecorationContext;
+
+/**
+ * The DecorationResultCache holds the decoration results computed by the
+ * {@link DecorationScheduler}, keyed by element and decoration context. The
+ * cache is bounded by the total weight of its results, see
+ * {@link DecorationResult#getWeight()}. When the bound is exceeded the least
+ * recently used elements are evicted.
+ * <p>
+ * Results that are replaced, invalidated, evicted or cleared are retired
+ * rather than disposed, as their overlay images are shown until the labels of
+ * their elements are updated. The scheduler updates the labels of the elements
+ * that lost their results and disposes the retired results in the UI thread
+ * once the labels have been updated.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public class DecorationResultCache {
+
+	/**
+	 * The default maximum weight, enough for the labels of a tree with 100k
+	 * elements with a few decorations each.
+	 */
+	public static final int DEFAULT_MAX_WEIGHT = 200000;
+
+	/**
+	 * The results of an element in each of its decoration contexts.
+	 */
+	private static class Entry {
+		IDecorationContext[] contexts;
+
+		DecorationResult[] results;
+
+		int weight;
+
+		Entry(IDecorationContext context, DecorationResult result) {
+			contexts = new IDecorationContext[] { context };
+			results = new DecorationResult[] { result };
+			weight = result.getWeight();
+		}
+
+		int indexOf(IDecorationContext context) {
+			for (int i = 0; i < contexts.length; i++) {
+				if (contexts[i].equals(context)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	// Elements in access order
+	private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(
+			16, 0.75f, true);
+
+	private final List<DecorationResult> retired = new ArrayList<>();
+
+	// The elements whose results were retired without being replaced
+	private final List<Object> dropped = new ArrayList<>();
+
+	private int maxWeight;
+
+	private int weight;
+
+	private long hitCount;
+
+	private long missCount;
+
+	private long evictionCount;
+
+	/**
+	 * Create a new instance of the receiver bounded by the
+	 * {@link #DEFAULT_MAX_WEIGHT}.
+	 */
+	public DecorationResultCache() {
+		this(DEFAULT_MAX_WEIGHT);
+	}
+
+	/**
+	 * Create a new instance of the receiver.
+	 *
+	 * @param maxWeight
+	 *            the maximum total weight of the cached results
+	 */
+	public DecorationResultCache(int maxWeight) {
+		this.maxWeight = Math.max(maxWeight, 1);
+	}
+
+	/**
+	 * Return the result cached for element in context, and mark the element as
+	 * the most recently used.
+	 *
+	 * @param element
+	 * @param context
+	 * @return DecorationResult or <code>null</code>
+	 */
+	public synchronized DecorationResult get(Object element,
+			IDecorationContext context) {
+		Entry entry = entries.get(element);
+		if (entry != null) {
+			int index = entry.indexOf(context);
+			if (index >= 0) {
+				hitCount++;
+				return entry.results[index];
+			}
+		}
+		missCount++;
+		return null;
+	}
+
+	/**
+	 * Return whether there is a result cached for element in context. Unlike
+	 * {@link #get(Object, IDecorationContext)} this does not count as a hit or
+	 * miss.
+	 *
+	 * @param element
+	 * @param context
+	 * @return boolean
+	 */
+	public synchronized boolean contains(Object element,
+			IDecorationContext context) {
+		Entry entry = entries.get(element);
+		return entry != null && entry.indexOf(context) >= 0;
+	}
+
+	/**
+	 * Cache the result for element in context, replacing any previous result.
+	 * The least recently used elements are evicted if the maximum weight is
+	 * exceeded.
+	 *
+	 * @param element
+	 * @param context
+	 * @param result
+	 */
+	public synchronized void put(Object element, IDecorationContext context,
+			DecorationResult result) {
+		Entry entry = entries.get(element);
+		if (entry == null) {
+			entry = new Entry(context, result);
+			entries.put(element, entry);
+		} else {
+			int index = entry.indexOf(context);
+			if (index >= 0) {
+				DecorationResult old = entry.results[index];
+				entry.weight -= old.getWeight();
+				weight -= old.getWeight();
+				retired.add(old);
+				entry.results[index] = result;
+			} else {
+				int length = entry.contexts.length;
+				IDecorationContext[] contexts = new IDecorationContext[length + 1];
+				DecorationResult[] results = new DecorationResult[length + 1];
+				System.arraycopy(entry.contexts, 0, contexts, 0, length);
+				System.arraycopy(entry.results, 0, results, 0, length);
+				contexts[length] = context;
+				results[length] = result;
+				entry.contexts = contexts;
+				entry.results = results;
+			}
+			entry.weight += result.getWeight();
+		}
+		weight += result.getWeight();
+		evict();
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<Object, Entry>> iterator = entries.entrySet()
+				.iterator();
+		// Always keep the most recently used element
+		while (weight > maxWeight && entries.size() > 1) {
+			Map.Entry<Object, Entry> eldest = iterator.next();
+			iterator.remove();
+			retire(eldest.getKey(), eldest.getValue());
+			evictionCount++;
+		}
+	}
+
+	private void retire(Object element, Entry entry) {
+		weight -= entry.weight;
+		for (int i = 0; i < entry.results.length; i++) {
+			retired.add(entry.results[i]);
+		}
+		dropped.add(element);
+	}
+
+	/**
+	 * Remove the results of element so that it is decorated again. The results
+	 * are retired until the label of element has been updated.
+	 *
+	 * @param element
+	 */
+	public synchronized void invalidate(Object element) {
+		Entry entry = entries.remove(element);
+		if (entry != null) {
+			retire(element, entry);
+		}
+	}
+
+	/**
+	 * Remove the results of all elements. The results are retired until the
+	 * labels of their elements have been updated.
+	 */
+	public synchronized void clear() {
+		for (Map.Entry<Object, Entry> entry : entries.entrySet()) {
+			retire(entry.getKey(), entry.getValue());
+		}
+		entries.clear();
+	}
+
+	/**
+	 * Return whether there are retired results that have not been taken yet.
+	 *
+	 * @return boolean
+	 */
+	public synchronized boolean hasRetiredResults() {
+		return !retired.isEmpty();
+	}
+
+	/**
+	 * Return the results retired since the last call and forget about them.
+	 * The elements that lost their results without a replacement are added to
+	 * elementsToUpdate. The caller is responsible for updating the labels of
+	 * those elements and of the elements whose results were replaced, and for
+	 * disposing the retired results in the UI thread once those labels have
+	 * been updated.
+	 *
+	 * @param elementsToUpdate
+	 *            the collection to add the elements that lost their results to
+	 * @return the retired results, possibly empty
+	 */
+	public synchronized DecorationResult[] takeRetiredResults(
+			Collection<Object> elementsToUpdate) {
+		DecorationResult[] results = retired
+				.toArray(new DecorationResult[retired.size()]);
+		retired.clear();
+		elementsToUpdate.addAll(dropped);
+		dropped.clear();
+		return results;
+	}
+
+	/**
+	 * Set the maximum total weight of the cached results, evicting elements if
+	 * required.
+	 *
+	 * @param maxWeight
+	 */
+	public synchronized void setMaxWeight(int maxWeight) {
+		this.maxWeight = Math.max(maxWeight, 1);
+		evict();
+	}
+
+	/**
+	 * @return the maximum total weight of the cached results
+	 */
+	public synchronized int getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * @return the total weight of the cached results
+	 */
+	public synchronized int getWeight() {
+		return weight;
+	}
+
+	/**
+	 * @return the number of elements with cached results
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the number of lookups that found a result
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of lookups that did not find a result
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of elements evicted to respect the maximum weight
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Reset the hit, miss and eviction counts.
+	 */
+	public synchronized void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+		evictionCount = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "DecorationResultCache [size=" + entries.size() + ", weight=" //$NON-NLS-1$ //$NON-NLS-2$
+				+ weight + '/' + maxWeight + ", hits=" + hitCount //$NON-NLS-1$
+				+ ", misses=" + missCount + ", evictions=" + evictionCount //$NON-NLS-1$ //$NON-NLS-2$
+				+ ']';
+	}
+}
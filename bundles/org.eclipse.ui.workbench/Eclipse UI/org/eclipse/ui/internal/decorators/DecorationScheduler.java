@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -47,9 +47,12 @@ public class DecorationScheduler {
 
 	static final ILabelProviderListener[] EMPTY_LISTENER_LIST = new ILabelProviderListener[0];
 
+	static final DecorationResult[] EMPTY_RESULTS = new DecorationResult[0];
+
 	// When decorations are computed they are added to this cache via
-	// decorated() method
-	Map resultCache = new HashMap();
+	// decorated() method. The cache is bounded, the results it retires are
+	// disposed once the labels of their elements have been updated.
+	final DecorationResultCache resultCache = new DecorationResultCache();
 
 	// Objects that need an icon and text computed for display to the user
 	List awaitingDecoration = new ArrayList();
@@ -81,6 +84,12 @@ public class DecorationScheduler {
 	/** Amount of time to delay the update notification when max reached. */
 	static final int UPDATE_DELAY = 100;
 
+	/**
+	 * The maximum number of elements decorated together, see
+	 * {@link LightweightDecoratorManager#getDecorations(Object[], DecorationBuilder[])}.
+	 */
+	static final int BATCH_SIZE = 32;
+
 	/**
 	 * Return a new instance of the receiver configured for the supplied
 	 * DecoratorManager.
@@ -219,21 +228,33 @@ public class DecorationScheduler {
 
 	private DecorationResult internalGetResult(Object element,
 			IDecorationContext context) {
-		Map results = (Map) resultCache.get(context);
-		if (results != null) {
-			return (DecorationResult) results.get(element);
-		}
-		return null;
+		return resultCache.get(element, context);
 	}
 
 	protected void internalPutResult(Object element,
 			IDecorationContext context, DecorationResult result) {
-		Map results = (Map) resultCache.get(context);
-		if (results == null) {
-			results = new HashMap();
-			resultCache.put(context, results);
+		resultCache.put(element, context, result);
+	}
+
+	/**
+	 * Return the cache of decoration results.
+	 *
+	 * @return DecorationResultCache
+	 */
+	public DecorationResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Dispose the given results. Must be called in the UI thread once the
+	 * labels no longer use them.
+	 *
+	 * @param results
+	 */
+	static void disposeResults(DecorationResult[] results) {
+		for (int i = 0; i < results.length; i++) {
+			results[i].dispose();
 		}
-		results.put(element, result);
 	}
 
 	/**
@@ -263,18 +284,25 @@ public class DecorationScheduler {
 	}
 
 	/**
-	 * Get the next resource to be decorated.
+	 * Move the next resources to be decorated to batch, up to
+	 * {@link #BATCH_SIZE} of them.
 	 *
-	 * @return IResource
+	 * @param batch
+	 *            the list to add the references to
+	 * @return whether any reference was added
 	 */
-	synchronized DecorationReference nextElement() {
-
-		if (shutdown || awaitingDecoration.isEmpty()) {
-			return null;
+	synchronized boolean nextElements(List<DecorationReference> batch) {
+		if (shutdown) {
+			return false;
 		}
-		Object element = awaitingDecoration.remove(0);
-
-		return (DecorationReference) awaitingDecorationValues.remove(element);
+		List head = awaitingDecoration.subList(0,
+				Math.min(awaitingDecoration.size(), BATCH_SIZE));
+		for (int i = 0; i < head.size(); i++) {
+			batch.add((DecorationReference) awaitingDecorationValues
+					.remove(head.get(i)));
+		}
+		head.clear();
+		return !batch.isEmpty();
 	}
 
 	/**
@@ -307,10 +335,10 @@ public class DecorationScheduler {
 						WorkbenchMessages.DecorationScheduler_CalculatingTask,
 						100);
 				// will block if there are no resources to be decorated
-				DecorationReference reference;
+				List<DecorationReference> batch = new ArrayList<>(BATCH_SIZE);
 				monitor.worked(5);
 				int workCount = 5;
-				while ((reference = nextElement()) != null) {
+				while (nextElements(batch)) {
 
 					// Count up to 90 to give the appearance of updating
 					if (workCount < 90) {
@@ -318,14 +346,9 @@ public class DecorationScheduler {
 						workCount++;
 					}
 
-					monitor.subTask(reference.getSubTask());
-					Object element = reference.getElement();
-					boolean force = reference.shouldForceUpdate();
-					IDecorationContext[] contexts = reference.getContexts();
-					for (int i = 0; i < contexts.length; i++) {
-						IDecorationContext context = contexts[i];
-						ensureResultCached(element, force, context);
-					}
+					monitor.subTask(batch.get(0).getSubTask());
+					ensureResultsCached(batch);
+					batch.clear();
 
 					// Only notify listeners when we have exhausted the
 					// queue of decoration requests.
@@ -341,56 +364,64 @@ public class DecorationScheduler {
 			}
 
 			/**
-			 * Ensure that a result is cached for the given element and context
+			 * Ensure that a result is cached for each element and context of
+			 * the given references. The elements that are not cached yet are
+			 * decorated together so that their decorators can run in
+			 * parallel.
 			 *
-			 * @param element
-			 *            the elements
-			 * @param force
-			 *            whether an update should be forced
-			 * @param context
-			 *            the decoration context
+			 * @param references
+			 *            the references to the elements
 			 */
-			private void ensureResultCached(Object element, boolean force,
-					IDecorationContext context) {
-				boolean elementIsCached = internalGetResult(element, context) != null;
-				if (elementIsCached) {
-					synchronized (pendingKey) {
-						pendingUpdate.add(element);
+			private void ensureResultsCached(List<DecorationReference> references) {
+				List<Object> elements = new ArrayList<>();
+				List<DecorationBuilder> builders = new ArrayList<>();
+				List<Boolean> forces = new ArrayList<>();
+				for (DecorationReference reference : references) {
+					Object element = reference.getElement();
+					IDecorationContext[] contexts = reference.getContexts();
+					for (int i = 0; i < contexts.length; i++) {
+						if (resultCache.contains(element, contexts[i])) {
+							synchronized (pendingKey) {
+								pendingUpdate.add(element);
+							}
+						} else {
+							elements.add(element);
+							builders.add(new DecorationBuilder(contexts[i]));
+							forces.add(Boolean.valueOf(reference
+									.shouldForceUpdate()));
+						}
 					}
-
+				}
+				if (elements.isEmpty()) {
+					return;
 				}
 
-				if (!elementIsCached) {
-					DecorationBuilder cacheResult = new DecorationBuilder(
-							context);
-					// Calculate the decoration
-					decoratorManager.getLightweightManager().getDecorations(
-							element, cacheResult);
+				// Calculate the decorations
+				DecorationBuilder[] results = builders
+						.toArray(new DecorationBuilder[builders.size()]);
+				decoratorManager.getLightweightManager().getDecorations(
+						elements.toArray(), results);
 
+				for (int i = 0; i < results.length; i++) {
 					// If we should update regardless then put a result
 					// anyways
-					if (cacheResult.hasValue() || force) {
-
-						// Synchronize on the result lock as we want to
-						// be sure that we do not try and decorate during
-						// label update servicing.
-						// Note: resultCache and pendingUpdate modifications
-						// must be done atomically.
-
-						// Add the decoration even if it's empty in
-						// order to indicate that the decoration is
-						// ready
-						internalPutResult(element, context, cacheResult
-								.createResult());
+					if (results[i].hasValue() || forces.get(i).booleanValue()) {
+						Object element = elements.get(i);
 
 						// Add an update for only the original element
 						// to
 						// prevent multiple updates and clear the cache.
+						// The replaced result is retired together with the
+						// update so that it is disposed after the update.
 						synchronized (pendingKey) {
+							// Add the decoration even if it's empty in
+							// order to indicate that the decoration is
+							// ready
+							internalPutResult(element,
+									results[i].getDecorationContext(),
+									results[i].createResult());
 							pendingUpdate.add(element);
 						}
-
-
 					}
 				}
 			}
@@ -426,6 +457,18 @@ public class DecorationScheduler {
 		return false;
 	}
 
+	/**
+	 * The decorations of elements have changed. Invalidate their results so
+	 * that they are decorated again, the results of other elements are kept.
+	 *
+	 * @param elements
+	 */
+	void clearResults(Object[] elements) {
+		for (int i = 0; i < elements.length; i++) {
+			resultCache.invalidate(elements[i]);
+		}
+	}
+
 	/**
 	 * An external update request has been made. Clear the results as they are
 	 * likely obsolete now.
@@ -444,6 +487,9 @@ public class DecorationScheduler {
 			@Override
 			protected IStatus run(IProgressMonitor monitor) {
 				resultCache.clear();
+				// Update the labels of the cleared elements so that their
+				// results can be disposed
+				decorated();
 				return Status.OK_STATUS;
 			}
 
@@ -473,6 +519,9 @@ public class DecorationScheduler {
 
 			ILabelProviderListener[] listeners;
 
+			// The results replaced by the decorations of the updated elements
+			DecorationResult[] retiredResults = EMPTY_RESULTS;
+
 			@Override
 			public IStatus runInUIThread(IProgressMonitor monitor) {
 
@@ -541,12 +590,10 @@ public class DecorationScheduler {
             private void resetState() {
                 currentIndex = NEEDS_INIT;// Reset
                 removedListeners.clear();
-                // Other decoration requests may have occurred due to
-                // updates or we may have timed out updating listeners.
-                // Only clear the results if there are none pending.
-                if (awaitingDecoration.isEmpty()) {
-                    resultCache.clear();
-                }
+                // The labels of the updated elements no longer use the results
+                // that were retired
+                disposeResults(retiredResults);
+                retiredResults = EMPTY_RESULTS;
             }
 
 			private void setUpUpdates() {
@@ -555,6 +602,8 @@ public class DecorationScheduler {
 				removedListeners.clear();
 				currentIndex = 0;
 				synchronized (pendingKey) {
+					retiredResults = resultCache
+							.takeRetiredResults(pendingUpdate);
 					Object[] elements = pendingUpdate
 							.toArray(new Object[pendingUpdate.size()]);
 					pendingUpdate.clear();
@@ -588,7 +637,7 @@ public class DecorationScheduler {
 	 * @return boolean true if the element is ready.
 	 */
 	public boolean isDecorationReady(Object element, IDecorationContext context) {
-		return internalGetResult(element, context) != null;
+		return resultCache.contains(element, context);
 	}
 
 	/**
@@ -683,7 +732,7 @@ public class DecorationScheduler {
 	 */
 	boolean hasPendingUpdates() {
 		synchronized (pendingKey) {
-			return pendingUpdate.isEmpty();
+			return pendingUpdate.isEmpty() && !resultCache.hasRetiredResults();
 		}
 
 	}
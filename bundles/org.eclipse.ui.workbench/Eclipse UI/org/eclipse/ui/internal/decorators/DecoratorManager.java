@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -733,11 +733,13 @@ public class DecoratorManager implements ILabelProviderListener,
 	@Override
 	public void labelProviderChanged(LabelProviderChangedEvent event) {
 		Object[] elements = event.getElements();
-		scheduler.clearResults();
 		// If the elements are not specified send out a general update
 		if (elements == null) {
+			scheduler.clearResults();
 			fireListeners(event);
 		} else {
+			// Only the results of the changed elements are obsolete
+			scheduler.clearResults(elements);
 			// Assume that someone is going to care about the
 			// decoration result and just start it right away
 			for (int i = 0; i < elements.length; i++) {
@@ -870,6 +872,16 @@ public class DecoratorManager implements ILabelProviderListener,
 		return new ManagedWorkbenchLabelDecorator(this);
 	}
 
+	/**
+	 * Returns the cache of the results of the lightweight decorators, to
+	 * monitor or size it.
+	 *
+	 * @return the decoration result cache
+	 */
+	public DecorationResultCache getDecorationResultCache() {
+		return scheduler.getResultCache();
+	}
+
 	/**
 	 * Returns the resource manager used to created images for the light weight
 	 * decorator.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,17 +12,25 @@ package org.eclipse.ui.internal.decorators;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.eclipse.core.commands.util.Tracing;
 import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.dynamichelpers.IExtensionTracker;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.ui.internal.ObjectContributorManager;
 import org.eclipse.ui.internal.WorkbenchMessages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.misc.Policy;
 import org.eclipse.ui.internal.misc.StatusUtil;
 import org.eclipse.ui.internal.util.Util;
 
@@ -96,6 +104,61 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		}
 	}
 
+	/**
+	 * The job that runs one decorator on all of the elements of a batch it
+	 * applies to. Each decoration is built in its own partial builder so that
+	 * the jobs of the other decorators can run at the same time.
+	 */
+	private class DecoratorJob extends Job {
+		private final LightweightDecoratorDefinition decorator;
+
+		private final List<Object> elements = new ArrayList<>();
+
+		private final List<DecorationBuilder> decorations = new ArrayList<>();
+
+		private final LightweightRunnable jobRunnable = new LightweightRunnable();
+
+		long time;
+
+		DecoratorJob(LightweightDecoratorDefinition decorator) {
+			super(decorator.getName() == null ? decorator.getId() : decorator
+					.getName());
+			this.decorator = decorator;
+			setSystem(true);
+		}
+
+		void add(Object element, DecorationBuilder decoration) {
+			elements.add(element);
+			decorations.add(decoration);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			long start = System.nanoTime();
+			for (int i = 0; i < elements.size(); i++) {
+				if (monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				decorate(jobRunnable, elements.get(i), decorations.get(i),
+						decorator);
+			}
+			time = System.nanoTime() - start;
+			return Status.OK_STATUS;
+		}
+	}
+
+	/**
+	 * The component name to print when displaying tracing information.
+	 */
+	private static final String TRACING_COMPONENT = "DECORATORS"; //$NON-NLS-1$
+
+	/**
+	 * The maximum number of decorators run at the same time for a batch of
+	 * elements.
+	 */
+	private static final int MAX_PARALLEL_DECORATORS = Math.min(Runtime
+			.getRuntime().availableProcessors(), 4);
+
 	private LightweightRunnable runnable = new LightweightRunnable();
 
 	// The lightweight definitions read from the registry
@@ -346,13 +409,110 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 			// only applying the adaptable decorations
 			LightweightDecoratorDefinition dd = decorators[i];
 			decoration.setCurrentDefinition(dd);
-			decorate(element, decoration, dd);
+			if (Policy.DEBUG_DECORATORS_PERFORMANCE) {
+				long start = System.nanoTime();
+				decorate(runnable, element, decoration, dd);
+				traceTime(dd, 1, System.nanoTime() - start);
+			} else {
+				decorate(runnable, element, decoration, dd);
+			}
+		}
+	}
+
+	/**
+	 * Fill the decorations of a batch of elements with the results of their
+	 * decorators. The decorators are run in parallel, each one in a single job
+	 * that decorates all of the elements of the batch it applies to, so that a
+	 * decorator is never called from two threads at the same time. The
+	 * results of an element are merged in the order of its decorators, so
+	 * they are the same as the ones of
+	 * {@link #getDecorations(Object, DecorationBuilder)}.
+	 *
+	 * @param elements
+	 *            The source elements, an element is listed once per
+	 *            decoration context.
+	 * @param decorations
+	 *            The builders of the elements, in the same order.
+	 */
+	void getDecorations(Object[] elements, DecorationBuilder[] decorations) {
+		LightweightDecoratorDefinition[][] decorators = new LightweightDecoratorDefinition[elements.length][];
+		Map<LightweightDecoratorDefinition, DecoratorJob> jobs = new LinkedHashMap<>();
+		for (int i = 0; i < elements.length; i++) {
+			decorators[i] = getDecoratorsFor(elements[i]);
+			for (int j = 0; j < decorators[i].length; j++) {
+				if (!jobs.containsKey(decorators[i][j])) {
+					jobs.put(decorators[i][j], new DecoratorJob(decorators[i][j]));
+				}
+			}
+		}
+
+		if (jobs.size() < 2 || MAX_PARALLEL_DECORATORS < 2) {
+			for (int i = 0; i < elements.length; i++) {
+				getDecorations(elements[i], decorations[i]);
+			}
+			return;
+		}
+
+		DecorationBuilder[][] partials = new DecorationBuilder[elements.length][];
+		for (int i = 0; i < elements.length; i++) {
+			partials[i] = new DecorationBuilder[decorators[i].length];
+			for (int j = 0; j < decorators[i].length; j++) {
+				DecorationBuilder partial = new DecorationBuilder(
+						decorations[i].getDecorationContext());
+				partial.setCurrentDefinition(decorators[i][j]);
+				partials[i][j] = partial;
+				jobs.get(decorators[i][j]).add(elements[i], partial);
+			}
+		}
+
+		JobGroup group = new JobGroup(
+				WorkbenchMessages.DecorationScheduler_CalculationJobName,
+				MAX_PARALLEL_DECORATORS, jobs.size());
+		for (DecoratorJob job : jobs.values()) {
+			job.setJobGroup(group);
+			job.schedule();
+		}
+		boolean interrupted = false;
+		while (true) {
+			try {
+				group.join(0, null);
+				break;
+			} catch (InterruptedException e) {
+				// The partial results are still referenced by the jobs
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		for (int i = 0; i < elements.length; i++) {
+			for (int j = 0; j < partials[i].length; j++) {
+				decorations[i].merge(partials[i][j]);
+			}
 		}
+
+		if (Policy.DEBUG_DECORATORS_PERFORMANCE) {
+			for (DecoratorJob job : jobs.values()) {
+				traceTime(job.decorator, job.elements.size(), job.time);
+			}
+		}
+	}
+
+	/**
+	 * Print the time spent by a decorator on a number of elements.
+	 */
+	private static void traceTime(LightweightDecoratorDefinition decorator,
+			int elementCount, long nanos) {
+		Tracing.printTrace(TRACING_COMPONENT, decorator.getId() + " decorated " //$NON-NLS-1$
+				+ elementCount + " elements in " + nanos / 1000 + "us"); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
 	/**
 	 * Decorate the element receiver in a SafeRunnable.
 	 *
+	 * @param safeRunnable
+	 *            The runnable of the calling thread.
 	 * @param element
 	 *            The Object to be decorated
 	 * @param decoration
@@ -360,11 +520,12 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	 * @param decorator
 	 *            The decorator being applied.
 	 */
-	private void decorate(Object element, DecorationBuilder decoration,
+	private void decorate(LightweightRunnable safeRunnable, Object element,
+			DecorationBuilder decoration,
 			LightweightDecoratorDefinition decorator) {
 
-		runnable.setValues(element, decoration, decorator);
-		SafeRunner.run(runnable);
+		safeRunnable.setValues(element, decoration, decorator);
+		SafeRunner.run(safeRunnable);
 	}
 
 
@@ -382,6 +543,27 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 
 	}
 
+	/**
+	 * Method for use by test cases
+	 *
+	 * @param objects
+	 *            the objects to be decorated together, see
+	 *            {@link #getDecorations(Object[], DecorationBuilder[])}
+	 * @return the decoration results, in the same order
+	 */
+	public DecorationResult[] getDecorationResults(Object[] objects) {
+		DecorationBuilder[] builders = new DecorationBuilder[objects.length];
+		for (int i = 0; i < objects.length; i++) {
+			builders[i] = new DecorationBuilder();
+		}
+		getDecorations(objects, builders);
+		DecorationResult[] results = new DecorationResult[objects.length];
+		for (int i = 0; i < objects.length; i++) {
+			results[i] = builders[i].createResult();
+		}
+		return results;
+	}
+
 	@Override
 	public void addExtension(IExtensionTracker tracker, IExtension extension) {
 		// Do nothing as this is handled by the DecoratorManager
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -159,6 +159,16 @@ public class Policy {
      */
     public static boolean DEBUG_WORKING_SETS = DEFAULT;
 
+    /**
+     * Whether to print the time spent in each lightweight decorator.
+     */
+    public static boolean DEBUG_DECORATORS_PERFORMANCE = DEFAULT;
+
+    /**
+     * Whether to print the UI thread time used by the progress view updates.
+     */
+    public static boolean DEBUG_PROGRESS_UPDATES = DEFAULT;
+
     static {
         if (getDebugOption("/debug")) { //$NON-NLS-1$
             DEBUG_SWT_GRAPHICS = getDebugOption("/trace/graphics"); //$NON-NLS-1$
@@ -191,6 +201,8 @@ public class Policy {
             EXPERIMENTAL_MENU = getDebugOption("/experimental/menus"); //$NON-NLS-1$
             DEBUG_MPE = getDebugOption("/trace/multipageeditor"); //$NON-NLS-1$
             DEBUG_WORKING_SETS = getDebugOption("/debug/workingSets"); //$NON-NLS-1$
+            DEBUG_DECORATORS_PERFORMANCE = getDebugOption("/trace/decorators.performance"); //$NON-NLS-1$
+            DEBUG_PROGRESS_UPDATES = getDebugOption("/trace/progress.updates"); //$NON-NLS-1$
 
             if(DEBUG_SWT_DEBUG_GLOBAL)
             	Device.DEBUG = true;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,11 +33,12 @@ public class JobInfo extends JobTreeElement {
     private volatile boolean canceled = false;
     private List children = Collections.synchronizedList(new ArrayList());
 
-    private Job job;
+    private final Job job;
 
     private GroupInfo parent;
 
-    private TaskInfo taskInfo;
+    // Set by the worker thread of the job, read by the UI
+    private volatile TaskInfo taskInfo;
 
     //Default to no progress
     private int ticks = -1;
@@ -66,13 +67,14 @@ public class JobInfo extends JobTreeElement {
      * @param workIncrement
      */
     void addWork(double workIncrement) {
-        if (taskInfo == null) {
+        TaskInfo info = taskInfo;
+        if (info == null) {
 			return;
 		}
         if (parent == null || ticks < 1) {
-			taskInfo.addWork(workIncrement);
+			info.addWork(workIncrement);
 		} else {
-			taskInfo.addWork(workIncrement, parent, ticks);
+			info.addWork(workIncrement, parent, ticks);
 		}
     }
 
@@ -24,12 +24,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IProgressMonitorWithBlocking;
 import org.eclipse.core.runtime.IStatus;
@@ -94,10 +94,17 @@ public class ProgressManager extends ProgressProvider implements
 
 	private static ProgressManager singleton;
 
-	final private Map<Job, JobInfo> jobs = Collections.synchronizedMap(new HashMap<>());
+	// The job change listener reads and updates these maps from every worker
+	// thread, so they must not be guarded by a single lock.
+	final private Map<Job, JobInfo> jobs = new ConcurrentHashMap<>();
 
-	final private Map familyListeners = Collections
-			.synchronizedMap(new HashMap());
+	// The listener collections are never modified once they are in the map,
+	// they are replaced while holding the lock of the map.
+	final private Map<Object, Collection<IJobBusyListener>> familyListeners = new ConcurrentHashMap<>();
+
+	// The key of the listeners to the null family, which the map does not
+	// accept as a key
+	private static final Object NULL_FAMILY = new Object();
 
 	//	list of IJobProgressManagerListener
 	private ListenerList listeners = new ListenerList();
@@ -129,7 +136,7 @@ public class ProgressManager extends ProgressProvider implements
 	 */
 	public static final String BLOCKED_JOB_KEY = "LOCKED_JOB"; //$NON-NLS-1$
 
-	final Map runnableMonitors = Collections.synchronizedMap(new HashMap());
+	final Map<Job, JobMonitor> runnableMonitors = new ConcurrentHashMap<>();
 
 	// A table that maps families to keys in the Jface image
 	// table
@@ -378,11 +385,7 @@ public class ProgressManager extends ProgressProvider implements
 			public void aboutToRun(IJobChangeEvent event) {
 				JobInfo info = getJobInfo(event.getJob());
 				refreshJobInfo(info);
-				Iterator startListeners = busyListenersForJob(event.getJob())
-						.iterator();
-				while (startListeners.hasNext()) {
-					IJobBusyListener next = (IJobBusyListener) startListeners
-							.next();
+				for (IJobBusyListener next : busyListenersForJob(event.getJob())) {
 					next.incrementBusy(event.getJob());
 				}
 			}
@@ -392,11 +395,7 @@ public class ProgressManager extends ProgressProvider implements
 				if (!PlatformUI.isWorkbenchRunning()) {
 					return;
 				}
-				Iterator startListeners = busyListenersForJob(event.getJob())
-						.iterator();
-				while (startListeners.hasNext()) {
-					IJobBusyListener next = (IJobBusyListener) startListeners
-							.next();
+				for (IJobBusyListener next : busyListenersForJob(event.getJob())) {
 					next.decrementBusy(event.getJob());
 				}
 
@@ -470,8 +469,9 @@ public class ProgressManager extends ProgressProvider implements
 				if (isInfrastructureJob(event.getJob())) {
 					return;
 				}
-				if (jobs.containsKey(event.getJob())) {
-					refreshJobInfo(getJobInfo(event.getJob()));
+				JobInfo info = jobs.get(event.getJob());
+				if (info != null) {
+					refreshJobInfo(info);
 				} else {
 					addJobInfo(new JobInfo(event.getJob()));
 				}
@@ -485,8 +485,9 @@ public class ProgressManager extends ProgressProvider implements
 			@Override
 			public void sleeping(IJobChangeEvent event) {
 
-				if (jobs.containsKey(event.getJob()))// Are we showing this?
-					sleepJobInfo(getJobInfo(event.getJob()));
+				JobInfo info = jobs.get(event.getJob());
+				if (info != null)// Are we showing this?
+					sleepJobInfo(info);
 			}
 		};
 	}
@@ -583,15 +584,7 @@ public class ProgressManager extends ProgressProvider implements
 	 */
 	public JobMonitor progressFor(Job job) {
 
-		synchronized (runnableMonitors) {
-			JobMonitor monitor = (JobMonitor) runnableMonitors.get(job);
-			if (monitor == null) {
-				monitor = new JobMonitor(job);
-				runnableMonitors.put(job, monitor);
-			}
-
-			return monitor;
-		}
+		return runnableMonitors.computeIfAbsent(job, JobMonitor::new);
 
 	}
 
@@ -621,12 +614,7 @@ public class ProgressManager extends ProgressProvider implements
 	 * @return JobInfo
 	 */
 	JobInfo getJobInfo(Job job) {
-		JobInfo info = internalGetJobInfo(job);
-		if (info == null) {
-			info = new JobInfo(job);
-			jobs.put(job, info);
-		}
-		return info;
+		return jobs.computeIfAbsent(job, JobInfo::new);
 	}
 
 	/**
@@ -792,17 +780,15 @@ public class ProgressManager extends ProgressProvider implements
 	 * @return JobInfo[]
 	 */
 	public JobInfo[] getJobInfos(boolean debug) {
-		synchronized (jobs) {
-			Collection<JobInfo> result = new ArrayList<>();
-			for (Entry<Job, JobInfo> entry : jobs.entrySet()) {
-				if (!isCurrentDisplaying(entry.getKey(), debug)) {
-					result.add(entry.getValue());
-				}
+		Collection<JobInfo> result = new ArrayList<>();
+		for (Entry<Job, JobInfo> entry : jobs.entrySet()) {
+			if (!isCurrentDisplaying(entry.getKey(), debug)) {
+				result.add(entry.getValue());
 			}
-			JobInfo[] infos = new JobInfo[result.size()];
-			result.toArray(infos);
-			return infos;
 		}
+		JobInfo[] infos = new JobInfo[result.size()];
+		result.toArray(infos);
+		return infos;
 	}
 
 	/**
@@ -812,23 +798,21 @@ public class ProgressManager extends ProgressProvider implements
 	 * @return JobTreeElement[]
 	 */
 	public JobTreeElement[] getRootElements(boolean debug) {
-		synchronized (jobs) {
-			Collection<JobTreeElement> result = new HashSet<>();
-			for (Entry<Job, JobInfo> entry : jobs.entrySet()) {
-				if (!isCurrentDisplaying(entry.getKey(), debug)) {
-					JobInfo jobInfo = entry.getValue();
-					GroupInfo group = jobInfo.getGroupInfo();
-					if (group == null) {
-						result.add(jobInfo);
-					} else {
-						result.add(group);
-					}
+		Collection<JobTreeElement> result = new HashSet<>();
+		for (Entry<Job, JobInfo> entry : jobs.entrySet()) {
+			if (!isCurrentDisplaying(entry.getKey(), debug)) {
+				JobInfo jobInfo = entry.getValue();
+				GroupInfo group = jobInfo.getGroupInfo();
+				if (group == null) {
+					result.add(jobInfo);
+				} else {
+					result.add(group);
 				}
 			}
-			JobTreeElement[] infos = new JobTreeElement[result.size()];
-			result.toArray(infos);
-			return infos;
 		}
+		JobTreeElement[] infos = new JobTreeElement[result.size()];
+		result.toArray(infos);
+		return infos;
 	}
 
 	/**
@@ -837,9 +821,7 @@ public class ProgressManager extends ProgressProvider implements
 	 * @return boolean
 	 */
 	public boolean hasJobInfos() {
-		synchronized (jobs) {
-			return !jobs.isEmpty();
-		}
+		return !jobs.isEmpty();
 	}
 
 	/**
@@ -991,12 +973,12 @@ public class ProgressManager extends ProgressProvider implements
 	 */
 	void addListenerToFamily(Object family, IJobBusyListener listener) {
 		synchronized (familyListeners) {
-			Collection currentListeners = (Collection) familyListeners.get(family);
-			if (currentListeners == null) {
-				currentListeners = new HashSet();
-				familyListeners.put(family, currentListeners);
-			}
-			currentListeners.add(listener);
+			Object key = family == null ? NULL_FAMILY : family;
+			Collection<IJobBusyListener> currentListeners = familyListeners.get(key);
+			Collection<IJobBusyListener> newListeners = currentListeners == null ? new HashSet<>()
+					: new HashSet<>(currentListeners);
+			newListeners.add(listener);
+			familyListeners.put(key, newListeners);
 		}
 	}
 
@@ -1007,16 +989,20 @@ public class ProgressManager extends ProgressProvider implements
 	 */
 	void removeListener(IJobBusyListener listener) {
 		synchronized (familyListeners) {
-			Iterator families = familyListeners.keySet().iterator();
+			Iterator<Entry<Object, Collection<IJobBusyListener>>> families = familyListeners.entrySet().iterator();
 			while (families.hasNext()) {
-				Object next = families.next();
-				Collection currentListeners = (Collection) familyListeners
-						.get(next);
-				currentListeners.remove(listener);
+				Entry<Object, Collection<IJobBusyListener>> next = families.next();
+				if (!next.getValue().contains(listener)) {
+					continue;
+				}
+				Collection<IJobBusyListener> newListeners = new HashSet<>(next.getValue());
+				newListeners.remove(listener);
 
 				// Remove any empty listeners
-				if (currentListeners.isEmpty()) {
+				if (newListeners.isEmpty()) {
 					families.remove();
+				} else {
+					next.setValue(newListeners);
 				}
 			}
 		}
@@ -1028,28 +1014,22 @@ public class ProgressManager extends ProgressProvider implements
 	 * @param job
 	 * @return Collection of IJobBusyListener
 	 */
-	private Collection busyListenersForJob(Job job) {
-		if (job.isSystem()) {
-			return Collections.EMPTY_LIST;
+	private Collection<IJobBusyListener> busyListenersForJob(Job job) {
+		if (job.isSystem() || familyListeners.isEmpty()) {
+			return Collections.emptyList();
 		}
-		synchronized (familyListeners) {
-
-			if (familyListeners.isEmpty()) {
-				return Collections.EMPTY_LIST;
-			}
 
-			Iterator families = familyListeners.keySet().iterator();
-			Collection returnValue = new HashSet();
-			while (families.hasNext()) {
-				Object next = families.next();
-				if (job.belongsTo(next)) {
-					Collection currentListeners = (Collection) familyListeners
-							.get(next);
-					returnValue.addAll(currentListeners);
+		Collection<IJobBusyListener> returnValue = null;
+		for (Entry<Object, Collection<IJobBusyListener>> entry : familyListeners.entrySet()) {
+			Object family = entry.getKey() == NULL_FAMILY ? null : entry.getKey();
+			if (job.belongsTo(family)) {
+				if (returnValue == null) {
+					returnValue = new HashSet<>();
 				}
+				returnValue.addAll(entry.getValue());
 			}
-			return returnValue;
 		}
+		return returnValue == null ? Collections.<IJobBusyListener> emptyList() : returnValue;
 	}
 
 	@Override
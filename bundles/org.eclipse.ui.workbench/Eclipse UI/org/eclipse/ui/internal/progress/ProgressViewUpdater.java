@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,15 +10,21 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.progress;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.core.commands.util.Tracing;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.ui.IWorkbenchPreferenceConstants;
 import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.internal.misc.Policy;
 import org.eclipse.ui.internal.util.PrefUtil;
 import org.eclipse.ui.progress.WorkbenchJob;
 
@@ -43,112 +49,203 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 
 	/*
 	 * True when update job is scheduled or running. This is used to limit the
-	 * update job to no more than once every 100 ms. See bug 258352 and 395645.
+	 * update job to no more than once every updateDelay ms. See bug 258352 and
+	 * 395645.
 	 */
 	MutableBoolean updateScheduled = new MutableBoolean();
 
     boolean debug;
 
 
-    /**
-     * The UpdatesInfo is a private class for keeping track of the updates
-     * required.
-     */
-    class UpdatesInfo {
+	/**
+	 * The maximum time in milliseconds an update may take in the UI thread.
+	 * The changes that could not be applied in time are applied by the next
+	 * update.
+	 */
+	static final long FRAME_BUDGET = 20;
 
-        Collection additions = new HashSet();
+	/**
+	 * The delay in milliseconds between updates when the previous update was
+	 * within budget.
+	 */
+	static final long UPDATE_DELAY = 100;
 
-        Collection deletions = new HashSet();
+	/**
+	 * The maximum delay in milliseconds between updates. Updates that take
+	 * long are followed by a longer delay, so that the updater does not use
+	 * more than a fifth of the UI thread.
+	 */
+	static final long MAX_UPDATE_DELAY = 500;
 
-        Collection refreshes = new HashSet();
+	/**
+	 * The number of elements passed to the collectors at once. The budget is
+	 * checked between chunks.
+	 */
+	static final int CHUNK_SIZE = 50;
 
-        boolean updateAll = false;
+	/*
+	 * The delay used to schedule the next update, adapted to the time the last
+	 * update took. Written in the UI thread, read by the threads of the jobs
+	 * scheduling updates.
+	 */
+	volatile long updateDelay = UPDATE_DELAY;
 
-        private UpdatesInfo() {
-            //Create a new instance of the info
-        }
+	/*
+	 * Statistics of the time spent in the UI thread, accessed in the UI
+	 * thread only.
+	 */
+	private long windowStart = System.currentTimeMillis();
 
-        /**
-         * Add an add update
-         *
-         * @param addition
-         */
-        void add(JobTreeElement addition) {
-            additions.add(addition);
-        }
+	private long windowTime;
 
-        /**
-         * Add a remove update
-         *
-         * @param removal
-         */
-        void remove(JobTreeElement removal) {
-            deletions.add(removal);
-        }
+	private long uiMillisPerSecond;
 
-        /**
-         * Add a refresh update
-         *
-         * @param refresh
-         */
-        void refresh(JobTreeElement refresh) {
-            refreshes.add(refresh);
-        }
+	private long rolledOverCount;
 
-        /**
-         * Reset the caches after completion of an update.
-         */
-        void reset() {
-            additions.clear();
-            deletions.clear();
-            refreshes.clear();
-            updateAll = false;
-        }
+	/**
+	 * The UpdatesInfo is a private class for keeping track of the updates
+	 * required. It holds the net change of each element: an addition or a
+	 * removal replaces any earlier change of the element, a refresh does not
+	 * replace an addition or a removal.
+	 */
+	class UpdatesInfo {
 
-        void processForUpdate() {
-            HashSet staleAdditions = new HashSet();
+		static final int REFRESH = 0;
 
-            Iterator additionsIterator = additions.iterator();
-            while (additionsIterator.hasNext()) {
-                JobTreeElement treeElement = (JobTreeElement) additionsIterator
-                        .next();
-                if (!treeElement.isActive()) {
-                    if (deletions.contains(treeElement)) {
-						staleAdditions.add(treeElement);
-					}
-                }
-            }
+		static final int ADD = 1;
+
+		static final int REMOVE = 2;
+
+		private static final int KINDS = 3;
+
+		Map<JobTreeElement, Integer> changes = new LinkedHashMap<>();
 
-            additions.removeAll(staleAdditions);
+		boolean updateAll = false;
 
-            HashSet obsoleteRefresh = new HashSet();
-            Iterator refreshIterator = refreshes.iterator();
-            while (refreshIterator.hasNext()) {
-                JobTreeElement treeElement = (JobTreeElement) refreshIterator
-                        .next();
-                if (deletions.contains(treeElement)
-                        || additions.contains(treeElement)) {
-					obsoleteRefresh.add(treeElement);
+		private UpdatesInfo() {
+			// Create a new instance of the info
+		}
+
+		/**
+		 * Record a change of the element after the changes recorded so far.
+		 *
+		 * @param element
+		 * @param kind
+		 *            one of {@link #REFRESH}, {@link #ADD} or {@link #REMOVE}
+		 */
+		private void change(JobTreeElement element, int kind) {
+			if (kind == REFRESH) {
+				changes.putIfAbsent(element, Integer.valueOf(REFRESH));
+			} else {
+				changes.put(element, Integer.valueOf(kind));
+			}
+		}
+
+		/**
+		 * Add an add update
+		 *
+		 * @param addition
+		 */
+		void add(JobTreeElement addition) {
+			change(addition, ADD);
+		}
+
+		/**
+		 * Add a remove update
+		 *
+		 * @param removal
+		 */
+		void remove(JobTreeElement removal) {
+			change(removal, REMOVE);
+		}
+
+		/**
+		 * Add a refresh update
+		 *
+		 * @param refresh
+		 */
+		void refresh(JobTreeElement refresh) {
+			change(refresh, REFRESH);
+		}
+
+		/**
+		 * Record changes that were taken for an update but not applied. They
+		 * happened before the changes recorded since, so they do not replace
+		 * them.
+		 *
+		 * @param elements
+		 * @param from
+		 *            the index of the first element that was not applied
+		 * @param kind
+		 */
+		void rollOver(Object[] elements, int from, int kind) {
+			for (int i = from; i < elements.length; i++) {
+				JobTreeElement element = (JobTreeElement) elements[i];
+				Integer newer = changes.get(element);
+				if (newer == null || newer.intValue() == REFRESH) {
+					changes.put(element, Integer.valueOf(kind));
 				}
+			}
+		}
 
-                //Also check for groups that are being added
-               Object parent = treeElement.getParent();
-               if(parent != null && (deletions.contains(parent)
-                       || additions.contains(parent))){
-            	   obsoleteRefresh.add(treeElement);
-               }
-
-                if (!treeElement.isActive()) {
-                    //If it is done then delete it
-                    obsoleteRefresh.add(treeElement);
-                    deletions.add(treeElement);
-                }
-            }
+		/**
+		 * Reset the caches after completion of an update.
+		 */
+		void reset() {
+			changes.clear();
+			updateAll = false;
+		}
 
-            refreshes.removeAll(obsoleteRefresh);
+		/**
+		 * Remove the refreshes of elements that are added or removed
+		 * together with their parent, and turn the refreshes of elements
+		 * that are done into removals.
+		 */
+		void processForUpdate() {
+			Iterator<Map.Entry<JobTreeElement, Integer>> iterator = changes
+					.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<JobTreeElement, Integer> entry = iterator.next();
+				if (entry.getValue().intValue() != REFRESH) {
+					continue;
+				}
+				JobTreeElement treeElement = entry.getKey();
+				if (!treeElement.isActive()) {
+					// If it is done then delete it
+					entry.setValue(Integer.valueOf(REMOVE));
+					continue;
+				}
 
-        }
-    }
+				// Also check for groups that are being added
+				Integer parentChange = changes.get(treeElement.getParent());
+				if (parentChange != null
+						&& parentChange.intValue() != REFRESH) {
+					iterator.remove();
+				}
+			}
+		}
+
+		/**
+		 * Take the changes, grouped by kind, and reset the receiver.
+		 *
+		 * @return the elements to refresh, add and remove, indexed by kind
+		 */
+		Object[][] takeChanges() {
+			List<List<JobTreeElement>> elements = new ArrayList<>(KINDS);
+			for (int kind = 0; kind < KINDS; kind++) {
+				elements.add(new ArrayList<JobTreeElement>());
+			}
+			for (Map.Entry<JobTreeElement, Integer> entry : changes.entrySet()) {
+				elements.get(entry.getValue().intValue()).add(entry.getKey());
+			}
+			reset();
+			Object[][] result = new Object[KINDS][];
+			for (int kind = 0; kind < KINDS; kind++) {
+				result[kind] = elements.get(kind).toArray();
+			}
+			return result;
+		}
+	}
 
     /**
      * Return a new instance of the receiver.
@@ -239,7 +336,7 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 				}
         	}
 			if (scheduleUpdate)
-				updateJob.schedule(100);
+				updateJob.schedule(updateDelay);
         }
     }
 
@@ -260,6 +357,8 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 					return Status.CANCEL_STATUS;
 				}
 
+				long start = System.currentTimeMillis();
+				boolean rolledOver = false;
 				if (currentInfo.updateAll) {
 					synchronized (updateLock) {
 						currentInfo.reset();
@@ -270,34 +369,24 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 
 				} else {
 					// Lock while getting local copies of the caches.
-					Object[] updateItems;
-					Object[] additionItems;
-					Object[] deletionItems;
+					Object[][] changes;
 					synchronized (updateLock) {
 						currentInfo.processForUpdate();
-
-						updateItems = currentInfo.refreshes.toArray();
-						additionItems = currentInfo.additions.toArray();
-						deletionItems = currentInfo.deletions.toArray();
-
-						currentInfo.reset();
-					}
-
-					for (int v = 0; v < collectors.length; v++) {
-						IProgressUpdateCollector collector = collectors[v];
-
-						if (updateItems.length > 0) {
-							collector.refresh(updateItems);
-						}
-						if (additionItems.length > 0) {
-							collector.add(additionItems);
-						}
-						if (deletionItems.length > 0) {
-							collector.remove(deletionItems);
-						}
+						changes = currentInfo.takeChanges();
 					}
+					rolledOver = applyChanges(changes, start + FRAME_BUDGET);
 				}
 
+				long elapsed = System.currentTimeMillis() - start;
+				recordFrame(start, elapsed);
+				// Keep the share of the UI thread bounded when updates are
+				// expensive
+				updateDelay = Math.min(MAX_UPDATE_DELAY,
+						Math.max(UPDATE_DELAY, elapsed * 4));
+				if (rolledOver) {
+					rolledOverCount++;
+					scheduleUpdate();
+				}
 				return Status.OK_STATUS;
 			}
 
@@ -314,6 +403,100 @@ class ProgressViewUpdater implements IJobProgressManagerListener {
 
     }
 
+	/**
+	 * Pass the changes to the collectors in chunks, refreshes first, then
+	 * additions and removals. The changes that are not applied by the
+	 * deadline are rolled over to the next update.
+	 *
+	 * @param changes
+	 *            the elements indexed by change kind
+	 * @param deadline
+	 *            the time by which the update should be done
+	 * @return <code>true</code> if some changes were rolled over
+	 */
+	boolean applyChanges(Object[][] changes, long deadline) {
+		boolean first = true;
+		for (int kind = 0; kind < changes.length; kind++) {
+			Object[] elements = changes[kind];
+			for (int from = 0; from < elements.length; from += CHUNK_SIZE) {
+				// Always apply a chunk so that the updates make progress
+				if (!first && System.currentTimeMillis() > deadline) {
+					synchronized (updateLock) {
+						currentInfo.rollOver(elements, from, kind);
+						for (int next = kind + 1; next < changes.length; next++) {
+							currentInfo.rollOver(changes[next], 0, next);
+						}
+					}
+					return true;
+				}
+				first = false;
+				Object[] chunk = elements;
+				if (elements.length > CHUNK_SIZE) {
+					chunk = Arrays.copyOfRange(elements, from,
+							Math.min(from + CHUNK_SIZE, elements.length));
+				}
+				for (int v = 0; v < collectors.length; v++) {
+					IProgressUpdateCollector collector = collectors[v];
+					switch (kind) {
+					case UpdatesInfo.REFRESH:
+						collector.refresh(chunk);
+						break;
+					case UpdatesInfo.ADD:
+						collector.add(chunk);
+						break;
+					default:
+						collector.remove(chunk);
+						break;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Add the time of an update to the UI thread statistics.
+	 *
+	 * @param start
+	 *            the time the update started
+	 * @param elapsed
+	 *            the time it took in milliseconds
+	 */
+	private void recordFrame(long start, long elapsed) {
+		windowTime += elapsed;
+		long window = start + elapsed - windowStart;
+		if (window >= 1000) {
+			uiMillisPerSecond = windowTime * 1000 / window;
+			windowStart = start + elapsed;
+			windowTime = 0;
+			if (Policy.DEBUG_PROGRESS_UPDATES) {
+				Tracing.printTrace("PROGRESS", "Updates took " + uiMillisPerSecond //$NON-NLS-1$ //$NON-NLS-2$
+						+ "ms/s of the UI thread, " + rolledOverCount //$NON-NLS-1$
+						+ " updates rolled over"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Return the number of milliseconds per second the updates took in the UI
+	 * thread, measured over the last second in which updates ran.
+	 *
+	 * @return long
+	 */
+	long getUIMillisPerSecond() {
+		return uiMillisPerSecond;
+	}
+
+	/**
+	 * Return the number of updates that did not apply all changes within the
+	 * {@link #FRAME_BUDGET}.
+	 *
+	 * @return long
+	 */
+	long getRolledOverCount() {
+		return rolledOverCount;
+	}
+
     /**
      * Get the updates info that we are using in the receiver.
      *
@@ -316,6 +316,8 @@ public abstract class QuickAccessContents {
 
 		int maxCount = computeNumberOfItems();
 		int[] indexPerProvider = new int[providers.length];
+		// positions of the elements that may match, per provider
+		int[][] candidatesPerProvider = new int[providers.length][];
 		int countPerProvider = Math.min(maxCount / 4, INITIAL_COUNT_PER_PROVIDER);
 		int prevPick = 0;
 		int countTotal = 0;
@@ -352,31 +354,33 @@ public abstract class QuickAccessContents {
 					continue;
 				}
 				if (filter.length() > 0 || provider.isAlwaysPresent() || showAllMatches) {
-					QuickAccessElement[] sortedElements = provider.getElementsSorted();
+					QuickAccessIndex index = provider.getIndex();
 
 					// count number or previous picks
 					if ((provider instanceof PreviousPicksProvider)) {
-						prevPick = sortedElements.length;
+						prevPick = index.size();
 					}
 
+					if (filter.length() > 0 && candidatesPerProvider[i] == null) {
+						candidatesPerProvider[i] = index.getCandidates(filter);
+					}
+					int[] candidates = candidatesPerProvider[i];
+					int size = candidates != null ? candidates.length : index.size();
+
 					int j = indexPerProvider[i];
-					while (j < sortedElements.length
+					while (j < size
 							&& (showAllMatches || (count < countPerProvider && countTotal < maxCount))) {
-						QuickAccessElement element = sortedElements[j];
+						int position = candidates != null ? candidates[j] : j;
 						QuickAccessEntry entry = null;
 						if (filter.length() == 0) {
 							if (i == 0 || showAllMatches) {
-								entry = new QuickAccessEntry(element, provider, new int[0][0],
+								entry = new QuickAccessEntry(index.getElement(position), provider, new int[0][0],
 										new int[0][0], QuickAccessEntry.MATCH_PERFECT);
 							} else {
 								entry = null;
 							}
 						} else {
-							QuickAccessEntry possibleMatch = element.match(filter, provider);
-							if (possibleMatch != null) {
-								entry = possibleMatch;
-							}
-
+							entry = index.match(position, filter, provider);
 						}
 						if (entryEnabled(provider, entry)) {
 							entries[i].add(entry);
@@ -393,7 +397,7 @@ public abstract class QuickAccessContents {
 
 					indexPerProvider[i] = j;
 
-					if (j < sortedElements.length) {
+					if (j < size) {
 						done = false;
 					}
 				}
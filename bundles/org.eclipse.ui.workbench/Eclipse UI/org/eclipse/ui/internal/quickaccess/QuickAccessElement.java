@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,7 +22,6 @@ public abstract class QuickAccessElement {
 
 	static final String separator = " - "; //$NON-NLS-1$
 
-	private static final int[][] EMPTY_INDICES = new int[0][0];
 	private QuickAccessProvider provider;
 
 	/**
@@ -89,62 +88,8 @@ public abstract class QuickAccessElement {
 	 */
 	public QuickAccessEntry match(String filter,
 			QuickAccessProvider providerForMatching) {
-		String sortLabel = getLabel();
-		int index = sortLabel.toLowerCase().indexOf(filter);
-		if (index != -1) {
-			int quality = sortLabel.toLowerCase().equals(filter) ? QuickAccessEntry.MATCH_PERFECT
-					: (sortLabel.toLowerCase().startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
-							: QuickAccessEntry.MATCH_GOOD);
-			return new QuickAccessEntry(this, providerForMatching,
-					new int[][] { { index, index + filter.length() - 1 } },
- EMPTY_INDICES, quality);
-		}
-		String combinedLabel = (providerForMatching.getName() + " " + getLabel()); //$NON-NLS-1$
-		index = combinedLabel.toLowerCase().indexOf(filter);
-		if (index != -1) {
-			int lengthOfElementMatch = index + filter.length()
-					- providerForMatching.getName().length() - 1;
-			if (lengthOfElementMatch > 0) {
-				return new QuickAccessEntry(this, providerForMatching,
-						new int[][] { { 0, lengthOfElementMatch - 1 } },
- new int[][] { { index,
-						index + filter.length() - 1 } }, QuickAccessEntry.MATCH_GOOD);
-			}
-			return new QuickAccessEntry(this, providerForMatching,
-					EMPTY_INDICES, new int[][] { { index,
- index + filter.length() - 1 } }, QuickAccessEntry.MATCH_GOOD);
-		}
-		String camelCase = CamelUtil.getCamelCase(sortLabel);
-		index = camelCase.indexOf(filter);
-		if (index != -1) {
-			int[][] indices = CamelUtil.getCamelCaseIndices(sortLabel, index, filter
-					.length());
-			return new QuickAccessEntry(this, providerForMatching, indices,
- EMPTY_INDICES,
-					QuickAccessEntry.MATCH_GOOD);
-		}
-		String combinedCamelCase = CamelUtil.getCamelCase(combinedLabel);
-		index = combinedCamelCase.indexOf(filter);
-		if (index != -1) {
-			String providerCamelCase = CamelUtil.getCamelCase(providerForMatching
-					.getName());
-			int lengthOfElementMatch = index + filter.length()
-					- providerCamelCase.length();
-			if (lengthOfElementMatch > 0) {
-				return new QuickAccessEntry(
-						this,
-						providerForMatching,
-						CamelUtil.getCamelCaseIndices(sortLabel, 0, lengthOfElementMatch),
-						CamelUtil.getCamelCaseIndices(providerForMatching.getName(),
- index,
-								filter.length() - lengthOfElementMatch),
-						QuickAccessEntry.MATCH_GOOD);
-			}
-			return new QuickAccessEntry(this, providerForMatching,
-					EMPTY_INDICES, CamelUtil.getCamelCaseIndices(providerForMatching
-.getName(), index,
-							filter.length()), QuickAccessEntry.MATCH_GOOD);
-		}
-		return null;
+		String providerName = providerForMatching.getName();
+		return new QuickAccessIndex.Tokens(getLabel(), providerName, CamelUtil.getCamelCase(providerName))
+				.match(this, filter, providerForMatching);
 	}
 }
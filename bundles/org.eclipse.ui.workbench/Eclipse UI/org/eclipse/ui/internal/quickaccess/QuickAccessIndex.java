@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.quickaccess;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.dynamichelpers.IExtensionChangeHandler;
+import org.eclipse.core.runtime.dynamichelpers.IExtensionTracker;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.PlatformUI;
+
+/**
+ * A pre-tokenized index over the sorted elements of a
+ * {@link QuickAccessProvider}. The lower case labels and camel case initials
+ * used for matching are computed once, and the positions of the elements are
+ * indexed by the trigrams of these strings. A filter is then only matched
+ * against the elements containing all of its trigrams, in sort order.
+ * <p>
+ * Indexes are immutable. The elements of providers based only on the
+ * extension registry are kept across dialog openings, they are rebuilt when the
+ * {@link #getGeneration() generation} changes after extensions or enabled
+ * activities changed.
+ * </p>
+ *
+ * @since 3.108
+ */
+public class QuickAccessIndex {
+
+	private static final int GRAM_LENGTH = 3;
+
+	private static final int[] NO_POSITIONS = new int[0];
+
+	private static final int[][] EMPTY_INDICES = new int[0][0];
+
+	private static final AtomicInteger generation = new AtomicInteger();
+
+	/**
+	 * The tracker of the workbench whose changes are listened to, replaced
+	 * when a new workbench is running.
+	 */
+	private static ChangeTracker tracker;
+
+	/**
+	 * The strings matched against a filter for one element.
+	 */
+	static final class Tokens {
+
+		final String label;
+
+		final String lowerLabel;
+
+		final String lowerCombinedLabel;
+
+		final String camelCase;
+
+		final String combinedCamelCase;
+
+		private final String providerName;
+
+		private final String providerCamelCase;
+
+		Tokens(String label, String providerName, String providerCamelCase) {
+			this.label = label;
+			this.providerName = providerName;
+			this.providerCamelCase = providerCamelCase;
+			String combinedLabel = providerName + " " + label; //$NON-NLS-1$
+			lowerLabel = label.toLowerCase();
+			lowerCombinedLabel = combinedLabel.toLowerCase();
+			camelCase = CamelUtil.getCamelCase(label);
+			combinedCamelCase = CamelUtil.getCamelCase(combinedLabel);
+		}
+
+		/**
+		 * Matches the filter against the label of the element, then against
+		 * the label prefixed by the provider name, then against their camel
+		 * case initials.
+		 *
+		 * @param element
+		 *            the element of these tokens
+		 * @param filter
+		 *            the lower case filter
+		 * @param provider
+		 *            the provider that will own the entry
+		 * @return a quick access entry or <code>null</code>
+		 */
+		QuickAccessEntry match(QuickAccessElement element, String filter,
+				QuickAccessProvider provider) {
+			int index = lowerLabel.indexOf(filter);
+			if (index != -1) {
+				int quality = lowerLabel.equals(filter) ? QuickAccessEntry.MATCH_PERFECT
+						: (lowerLabel.startsWith(filter) ? QuickAccessEntry.MATCH_EXCELLENT
+								: QuickAccessEntry.MATCH_GOOD);
+				return new QuickAccessEntry(element, provider,
+						new int[][] { { index, index + filter.length() - 1 } }, EMPTY_INDICES, quality);
+			}
+			index = lowerCombinedLabel.indexOf(filter);
+			if (index != -1) {
+				int lengthOfElementMatch = index + filter.length() - providerName.length() - 1;
+				if (lengthOfElementMatch > 0) {
+					return new QuickAccessEntry(element, provider,
+							new int[][] { { 0, lengthOfElementMatch - 1 } },
+							new int[][] { { index, index + filter.length() - 1 } }, QuickAccessEntry.MATCH_GOOD);
+				}
+				return new QuickAccessEntry(element, provider, EMPTY_INDICES,
+						new int[][] { { index, index + filter.length() - 1 } }, QuickAccessEntry.MATCH_GOOD);
+			}
+			index = camelCase.indexOf(filter);
+			if (index != -1) {
+				int[][] indices = CamelUtil.getCamelCaseIndices(label, index, filter.length());
+				return new QuickAccessEntry(element, provider, indices, EMPTY_INDICES,
+						QuickAccessEntry.MATCH_GOOD);
+			}
+			index = combinedCamelCase.indexOf(filter);
+			if (index != -1) {
+				int lengthOfElementMatch = index + filter.length() - providerCamelCase.length();
+				if (lengthOfElementMatch > 0) {
+					return new QuickAccessEntry(element, provider,
+							CamelUtil.getCamelCaseIndices(label, 0, lengthOfElementMatch),
+							CamelUtil.getCamelCaseIndices(providerName, index,
+									filter.length() - lengthOfElementMatch),
+							QuickAccessEntry.MATCH_GOOD);
+				}
+				return new QuickAccessEntry(element, provider, EMPTY_INDICES,
+						CamelUtil.getCamelCaseIndices(providerName, index, filter.length()),
+						QuickAccessEntry.MATCH_GOOD);
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * A growable list of increasing element positions.
+	 */
+	private static final class Postings {
+
+		int[] positions = new int[4];
+
+		int size;
+
+		void add(int position) {
+			if (size > 0 && positions[size - 1] == position) {
+				return;
+			}
+			if (size == positions.length) {
+				positions = Arrays.copyOf(positions, size * 2);
+			}
+			positions[size++] = position;
+		}
+	}
+
+	private final QuickAccessElement[] elements;
+
+	private final Tokens[] tokens;
+
+	private final Map<Long, int[]> textGrams;
+
+	private final Map<Long, int[]> camelCaseGrams;
+
+	/**
+	 * Creates the index of the given elements.
+	 *
+	 * @param providerName
+	 *            the name of the provider the elements are matched with
+	 * @param sortedElements
+	 *            the elements in the order matches are returned
+	 */
+	public QuickAccessIndex(String providerName, QuickAccessElement[] sortedElements) {
+		this.elements = sortedElements;
+		this.tokens = new Tokens[sortedElements.length];
+		String providerCamelCase = CamelUtil.getCamelCase(providerName);
+		Map<Long, Postings> text = new HashMap<>();
+		Map<Long, Postings> camel = new HashMap<>();
+		for (int i = 0; i < sortedElements.length; i++) {
+			Tokens t = new Tokens(sortedElements[i].getLabel(), providerName, providerCamelCase);
+			tokens[i] = t;
+			addGrams(text, t.lowerLabel, i);
+			addGrams(text, t.lowerCombinedLabel, i);
+			addGrams(camel, t.camelCase, i);
+			addGrams(camel, t.combinedCamelCase, i);
+		}
+		textGrams = toArrays(text);
+		camelCaseGrams = toArrays(camel);
+	}
+
+	private static void addGrams(Map<Long, Postings> grams, String s, int position) {
+		for (int i = 0; i + GRAM_LENGTH <= s.length(); i++) {
+			Long gram = Long.valueOf(gram(s, i));
+			Postings postings = grams.get(gram);
+			if (postings == null) {
+				postings = new Postings();
+				grams.put(gram, postings);
+			}
+			postings.add(position);
+		}
+	}
+
+	private static Map<Long, int[]> toArrays(Map<Long, Postings> grams) {
+		Map<Long, int[]> result = new HashMap<>(grams.size() * 4 / 3 + 1);
+		for (Map.Entry<Long, Postings> entry : grams.entrySet()) {
+			Postings postings = entry.getValue();
+			result.put(entry.getKey(), Arrays.copyOf(postings.positions, postings.size));
+		}
+		return result;
+	}
+
+	private static long gram(String s, int start) {
+		return ((long) s.charAt(start) << 32) | ((long) s.charAt(start + 1) << 16) | s.charAt(start + 2);
+	}
+
+	/**
+	 * Returns the positions of the elements that may match the filter, in
+	 * increasing order, or <code>null</code> if the filter is too short to be
+	 * looked up and all elements have to be matched.
+	 *
+	 * @param filter
+	 *            the lower case filter
+	 * @return the candidate positions or <code>null</code>
+	 */
+	public int[] getCandidates(String filter) {
+		if (filter.length() < GRAM_LENGTH) {
+			return null;
+		}
+		return union(intersect(textGrams, filter), intersect(camelCaseGrams, filter));
+	}
+
+	private static int[] intersect(Map<Long, int[]> grams, String filter) {
+		int count = filter.length() - GRAM_LENGTH + 1;
+		int[][] postings = new int[count][];
+		for (int i = 0; i < count; i++) {
+			postings[i] = grams.get(Long.valueOf(gram(filter, i)));
+			if (postings[i] == null) {
+				return NO_POSITIONS;
+			}
+		}
+		// start with the rarest trigram
+		Arrays.sort(postings, new Comparator<int[]>() {
+			@Override
+			public int compare(int[] p1, int[] p2) {
+				return p1.length - p2.length;
+			}
+		});
+		int[] result = postings[0];
+		for (int i = 1; i < count && result.length > 0; i++) {
+			int[] other = postings[i];
+			int[] intersection = new int[result.length];
+			int size = 0;
+			int k = 0;
+			for (int j = 0; j < result.length && k < other.length; j++) {
+				int position = result[j];
+				while (k < other.length && other[k] < position) {
+					k++;
+				}
+				if (k < other.length && other[k] == position) {
+					intersection[size++] = position;
+				}
+			}
+			result = Arrays.copyOf(intersection, size);
+		}
+		return result;
+	}
+
+	private static int[] union(int[] a, int[] b) {
+		if (b.length == 0) {
+			return a;
+		}
+		if (a.length == 0) {
+			return b;
+		}
+		int[] result = new int[a.length + b.length];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length || j < b.length) {
+			int next;
+			if (j == b.length || (i < a.length && a[i] < b[j])) {
+				next = a[i++];
+			} else if (i == a.length || b[j] < a[i]) {
+				next = b[j++];
+			} else {
+				next = a[i++];
+				j++;
+			}
+			result[size++] = next;
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	/**
+	 * Returns the number of indexed elements.
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return elements.length;
+	}
+
+	/**
+	 * Returns the element at the given position.
+	 *
+	 * @param position
+	 *            the position in sort order
+	 * @return the element
+	 */
+	public QuickAccessElement getElement(int position) {
+		return elements[position];
+	}
+
+	/**
+	 * Matches the element at the given position against the filter, as
+	 * {@link QuickAccessElement#match(String, QuickAccessProvider)} does.
+	 *
+	 * @param position
+	 *            the position in sort order
+	 * @param filter
+	 *            the lower case filter
+	 * @param provider
+	 *            the provider that will own the entry
+	 * @return a quick access entry or <code>null</code>
+	 */
+	public QuickAccessEntry match(int position, String filter, QuickAccessProvider provider) {
+		return tokens[position].match(elements[position], filter, provider);
+	}
+
+	/**
+	 * Returns the current generation of the indexes of providers based on the
+	 * extension registry. It changes whenever extensions are added or removed
+	 * or the enabled activities change.
+	 *
+	 * @return the generation
+	 */
+	public static int getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * Makes the indexes of providers based on the extension registry out of
+	 * date, they are rebuilt the next time they are used.
+	 */
+	public static void invalidateAll() {
+		generation.incrementAndGet();
+	}
+
+	/**
+	 * Starts tracking the changes that make indexes out of date, if not done
+	 * yet for the running workbench.
+	 */
+	static synchronized void hookListeners() {
+		IWorkbench workbench = PlatformUI.getWorkbench();
+		if (tracker == null || tracker.workbench != workbench) {
+			tracker = new ChangeTracker(workbench);
+			tracker.hookListeners();
+		}
+	}
+
+	/**
+	 * Invalidates all indexes when extensions are added or removed or the
+	 * enabled activities of a workbench change.
+	 */
+	private static final class ChangeTracker {
+
+		final IWorkbench workbench;
+
+		private boolean listening;
+
+		ChangeTracker(IWorkbench workbench) {
+			this.workbench = workbench;
+		}
+
+		void hookListeners() {
+			if (listening) {
+				return;
+			}
+			listening = true;
+			workbench.getExtensionTracker().registerHandler(new IExtensionChangeHandler() {
+				@Override
+				public void addExtension(IExtensionTracker extensionTracker, IExtension extension) {
+					invalidateAll();
+				}
+
+				@Override
+				public void removeExtension(IExtension extension, Object[] objects) {
+					invalidateAll();
+				}
+			}, null);
+			workbench.getActivitySupport().getActivityManager().addActivityManagerListener(event -> {
+				if (event.haveEnabledActivityIdsChanged()) {
+					invalidateAll();
+				}
+			});
+		}
+	}
+}
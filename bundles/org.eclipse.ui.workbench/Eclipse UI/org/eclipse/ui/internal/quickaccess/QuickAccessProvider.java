@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,10 @@ public abstract class QuickAccessProvider {
 
 	private QuickAccessElement[] sortedElements;
 
+	private QuickAccessIndex index;
+
+	private int generation;
+
 	/**
 	 * Returns the unique ID of this provider.
 	 *
@@ -52,7 +56,18 @@ public abstract class QuickAccessProvider {
 	public abstract QuickAccessElement[] getElements();
 
 	public QuickAccessElement[] getElementsSorted() {
+		if (sortedElements != null && isRegistryBased()
+				&& generation != QuickAccessIndex.getGeneration()) {
+			sortedElements = null;
+			index = null;
+			doReset();
+		}
 		if (sortedElements == null) {
+			if (isRegistryBased()) {
+				QuickAccessIndex.hookListeners();
+			}
+			generation = QuickAccessIndex.getGeneration();
+			index = null;
 			sortedElements = getElements();
 			Arrays.sort(sortedElements, new Comparator<QuickAccessElement>() {
 				@Override
@@ -64,6 +79,19 @@ public abstract class QuickAccessProvider {
 		return sortedElements;
 	}
 
+	/**
+	 * Returns the index used to match the sorted elements against a filter.
+	 *
+	 * @return the index of the sorted elements
+	 */
+	public QuickAccessIndex getIndex() {
+		QuickAccessElement[] elements = getElementsSorted();
+		if (index == null) {
+			index = new QuickAccessIndex(getName(), elements);
+		}
+		return index;
+	}
+
 	/**
 	 * Returns the element for the given ID if available, or null if no matching
 	 * element is available.
@@ -78,8 +106,25 @@ public abstract class QuickAccessProvider {
 		return false;
 	}
 
+	/**
+	 * Returns whether the elements of this provider only depend on the
+	 * extension registry and the enabled activities. Such providers keep their
+	 * elements and index when reset, until the registry or the activities
+	 * change.
+	 *
+	 * @return <code>true</code> if the elements can be kept across resets
+	 */
+	protected boolean isRegistryBased() {
+		return false;
+	}
+
 	public void reset() {
+		if (isRegistryBased() && sortedElements != null && sortedElements.length > 0
+				&& generation == QuickAccessIndex.getGeneration()) {
+			return;
+		}
 		sortedElements = null;
+		index = null;
 		doReset();
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -85,6 +85,11 @@ public class WizardProvider extends QuickAccessProvider {
 		return QuickAccessMessages.QuickAccess_New;
 	}
 
+	@Override
+	protected boolean isRegistryBased() {
+		return true;
+	}
+
 	@Override
 	protected void doReset() {
 		cachedElements = null;
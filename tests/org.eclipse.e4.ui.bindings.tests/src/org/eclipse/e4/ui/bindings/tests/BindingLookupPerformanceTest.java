@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.bindings.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.eclipse.core.commands.Category;
+import org.eclipse.core.commands.Command;
+import org.eclipse.core.commands.CommandManager;
+import org.eclipse.core.commands.ParameterizedCommand;
+import org.eclipse.core.commands.contexts.Context;
+import org.eclipse.core.commands.contexts.ContextManager;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.bindings.internal.BindingTable;
+import org.eclipse.e4.ui.bindings.internal.BindingTableManager;
+import org.eclipse.e4.ui.bindings.internal.ContextSet;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.keys.KeyBinding;
+import org.eclipse.jface.bindings.keys.KeySequence;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Resolves key sequences the way the key binding dispatcher does, against 40
+ * contexts holding 6000 bindings, with context activations between the
+ * keystrokes. The lookups of {@link BindingTableManager} are first checked
+ * against looking the sequence up in each table of the active contexts. Not
+ * part of {@link BindingTestSuite}, run it manually.
+ */
+public class BindingLookupPerformanceTest {
+
+	private static final String SCHEME_ID = "org.eclipse.ui.defaultAcceleratorConfiguration";
+
+	private static final String[] MODIFIERS = { "CTRL+", "ALT+", "CTRL+SHIFT+", "ALT+SHIFT+", "CTRL+ALT+" };
+
+	private static final String KEYS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+	private static final int CONTEXTS = 40;
+
+	private static final int BINDINGS_PER_CONTEXT = 150;
+
+	private static final int ITERATIONS = 20;
+
+	private IEclipseContext workbenchContext;
+
+	private BindingTableManager manager;
+
+	private ContextSet activeSet;
+
+	private ContextSet otherSet;
+
+	private List<KeySequence> keystrokes;
+
+	@Before
+	public void setUp() throws Exception {
+		workbenchContext = Activator.getDefault().getGlobalContext().createChild("performanceContext");
+		ContextManager contextManager = new ContextManager();
+		ContextSet.setComparator(new ContextSet.CComp(contextManager));
+		CommandManager commandManager = new CommandManager();
+		Category category = commandManager.getCategory("perf");
+		category.define("Performance", null);
+
+		manager = ContextInjectionFactory.make(BindingTableManager.class, workbenchContext);
+		List<Context> all = new ArrayList<>();
+		List<Context> other = new ArrayList<>();
+		keystrokes = new ArrayList<>();
+		String parentId = null;
+		for (int c = 0; c < CONTEXTS; c++) {
+			Context context = contextManager.getContext("perf.context" + c);
+			context.define("Context " + c, null, parentId);
+			// a chain of 8 contexts, then siblings of its deepest context
+			if (c < 8) {
+				parentId = context.getId();
+			}
+			BindingTable table = new BindingTable(context);
+			for (int b = 0; b < BINDINGS_PER_CONTEXT; b++) {
+				Command cmd = commandManager.getCommand("perf.command" + c + "." + b);
+				cmd.define("Command " + b, null, category);
+				int n = c * BINDINGS_PER_CONTEXT + b;
+				String first = MODIFIERS[n % MODIFIERS.length] + KEYS.charAt((n / MODIFIERS.length) % KEYS.length());
+				KeySequence sequence = KeySequence.getInstance(
+						b % 10 == 0 ? first : first + " " + KEYS.charAt((n / 7) % KEYS.length()));
+				table.addBinding(new KeyBinding(sequence, new ParameterizedCommand(cmd, null), SCHEME_ID,
+						context.getId(), null, null, null, Binding.SYSTEM));
+				if (c % 2 == 0) {
+					keystrokes.add(KeySequence.getInstance(first));
+					keystrokes.add(sequence);
+				}
+			}
+			manager.addTable(table);
+			all.add(context);
+			if (c % 3 != 0) {
+				other.add(context);
+			}
+		}
+		activeSet = manager.createContextSet(all);
+		otherSet = manager.createContextSet(other);
+	}
+
+	@After
+	public void tearDown() {
+		workbenchContext.dispose();
+	}
+
+	@Test
+	public void testDispatchLatency() {
+		// both lookups agree
+		for (KeySequence sequence : keystrokes) {
+			assertEquals(isPartialMatchPerTable(activeSet, sequence), manager.isPartialMatch(activeSet, sequence));
+			assertEquals(getPerfectMatchPerTable(activeSet, sequence), manager.getPerfectMatch(activeSet, sequence));
+		}
+
+		Performance performance = Performance.getDefault();
+		PerformanceMeter meter = performance
+				.createPerformanceMeter(getClass().getName() + "#testDispatchLatency()");
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				meter.start();
+				for (KeySequence sequence : keystrokes) {
+					if (!manager.isPartialMatch(activeSet, sequence)) {
+						manager.getPerfectMatch(activeSet, sequence);
+					}
+				}
+				// a context activation between keystrokes
+				for (int k = 0; k < keystrokes.size(); k++) {
+					ContextSet set = k % 2 == 0 ? activeSet : otherSet;
+					manager.isPartialMatch(set, keystrokes.get(k));
+				}
+				meter.stop();
+			}
+			meter.commit();
+			performance.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	private boolean isPartialMatchPerTable(ContextSet set, KeySequence sequence) {
+		List<Context> contexts = set.getContexts();
+		ListIterator<Context> it = contexts.listIterator(contexts.size());
+		while (it.hasPrevious()) {
+			BindingTable table = manager.getTable(it.previous().getId());
+			if (table != null && table.isPartialMatch(sequence)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Binding getPerfectMatchPerTable(ContextSet set, KeySequence sequence) {
+		List<Context> contexts = set.getContexts();
+		ListIterator<Context> it = contexts.listIterator(contexts.size());
+		while (it.hasPrevious()) {
+			BindingTable table = manager.getTable(it.previous().getId());
+			if (table != null) {
+				Binding binding = table.getPerfectMatch(sequence);
+				if (binding != null) {
+					return binding;
+				}
+			}
+		}
+		return null;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 IBM Corporation and others.
+ * Copyright (c) 2013, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@
 package org.eclipse.e4.ui.bindings.tests;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
@@ -190,6 +191,58 @@ public class BindingTableTests {
 		assertFalse(table.isPartialMatch(ctrl8));
 	}
 
+	@Test
+	public void testPartialMatchAfterRemoval() throws Exception {
+		BindingTable table = loadTable(ID_DIALOG_AND_WINDOW);
+		Binding about = getTestBinding(ABOUT_ID);
+		KeySequence ctrl5 = KeySequence.getInstance("CTRL+5");
+		assertTrue(table.isPartialMatch(ctrl5));
+		assertFalse(table.isPartialMatch(about.getTriggerSequence()));
+		assertFalse(table.isPartialMatch(KeySequence.getInstance()));
+
+		table.removeBinding(about);
+		assertNull(table.getPerfectMatch(about.getTriggerSequence()));
+		assertFalse(table.isPartialMatch(ctrl5));
+		assertNull(table.getPartialMatches(ctrl5));
+
+		table.addBinding(about);
+		assertEquals(about, table.getPerfectMatch(about.getTriggerSequence()));
+		assertTrue(table.isPartialMatch(ctrl5));
+	}
+
+	@Test
+	public void testManagerFollowsTableChanges() throws Exception {
+		BindingTableManager manager = createManager();
+		Binding about = getTestBinding(ABOUT_ID);
+		Binding paste = getTestBinding(PASTE_ID);
+		ContextSet javaSet = createJavaSet(manager);
+		KeySequence ctrl5 = KeySequence.getInstance("CTRL+5");
+		KeySequence ctrl5V = KeySequence.getInstance("CTRL+5 V");
+		assertEquals(about, manager.getPerfectMatch(javaSet, about.getTriggerSequence()));
+		assertEquals(2, manager.getPartialMatches(javaSet, ctrl5).size());
+
+		BindingTable dawTable = manager.getTable(ID_DIALOG_AND_WINDOW);
+		dawTable.removeBinding(about);
+		try {
+			assertNull(manager.getPerfectMatch(javaSet, about.getTriggerSequence()));
+			assertTrue(manager.isPartialMatch(javaSet, ctrl5));
+			assertEquals(1, manager.getPartialMatches(javaSet, ctrl5).size());
+			assertEquals(paste.getParameterizedCommand(),
+					manager.getPerfectMatch(javaSet, ctrl5V).getParameterizedCommand());
+
+			// a set without the text context no longer binds CTRL+5
+			ArrayList<Context> window = new ArrayList<>();
+			window.add(contextManager.getContext(ID_WINDOW));
+			window.add(contextManager.getContext(ID_DIALOG_AND_WINDOW));
+			ContextSet windowSet = manager.createContextSet(window);
+			assertFalse(manager.isPartialMatch(windowSet, ctrl5));
+			assertNull(manager.getPerfectMatch(windowSet, ctrl5V));
+		} finally {
+			dawTable.addBinding(about);
+		}
+		assertEquals(about, manager.getPerfectMatch(javaSet, about.getTriggerSequence()));
+	}
+
 	@Test
 	public void testContextSet() {
 		BindingTableManager manager = ContextInjectionFactory
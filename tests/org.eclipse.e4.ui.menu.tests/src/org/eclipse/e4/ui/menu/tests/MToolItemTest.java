@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 IBM Corporation and others.
+ * Copyright (c) 2014, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,8 @@ import static org.junit.Assert.assertTrue;
 import org.eclipse.e4.core.commands.CommandServiceAddon;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.di.annotations.CanExecute;
+import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.bindings.BindingServiceAddon;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
@@ -33,12 +35,14 @@ import org.eclipse.e4.ui.model.application.ui.basic.MTrimElement;
 import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
 import org.eclipse.e4.ui.model.application.ui.basic.impl.BasicFactoryImpl;
 import org.eclipse.e4.ui.model.application.ui.menu.ItemType;
+import org.eclipse.e4.ui.model.application.ui.menu.MDirectToolItem;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolBarSeparator;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolItem;
 import org.eclipse.e4.ui.model.application.ui.menu.impl.MenuFactoryImpl;
 import org.eclipse.e4.ui.services.ContextServiceAddon;
 import org.eclipse.e4.ui.services.EContextService;
+import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.e4.ui.workbench.renderers.swt.DirectContributionItem;
 import org.eclipse.e4.ui.workbench.renderers.swt.ToolBarManagerRenderer;
 import org.eclipse.jface.action.IContributionItem;
@@ -47,6 +51,7 @@ import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.ToolBar;
@@ -628,4 +633,136 @@ public class MToolItemTest {
 		assertEquals("org.eclipse.e4.ui.menu.tests.p2.tb4", tbItems[5].getId());
 		assertEquals("org.eclipse.e4.ui.menu.tests.p2.tb5", tbItems[6].getId());
 	}
+
+	@Test
+	public void testMToolItem_EnablementUpdatesApplied() {
+		CountingHandler handlerA = new CountingHandler();
+		CountingHandler handlerB = new CountingHandler();
+		createEnablementWindow(createCountingItem("a", handlerA),
+				createCountingItem("b", handlerB));
+
+		IEventBroker eventBroker = appContext.get(IEventBroker.class);
+		// explicit requests are applied when they return, once per request,
+		// to the items with the requested id only
+		eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, "a");
+		assertEquals(1, handlerA.count);
+		assertEquals(0, handlerB.count);
+		eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, "a");
+		eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, "a");
+		assertEquals(3, handlerA.count);
+		assertEquals(0, handlerB.count);
+
+		eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC,
+				UIEvents.ALL_ELEMENT_ID);
+		assertEquals(4, handlerA.count);
+		assertEquals(1, handlerB.count);
+
+		// nothing is left to run later
+		processEvents();
+		assertEquals(4, handlerA.count);
+		assertEquals(1, handlerB.count);
+	}
+
+	@Test
+	public void testMToolItem_ScheduledEnablementUpdatesCoalesced() {
+		CountingHandler handlerA = new CountingHandler();
+		CountingHandler handlerB = new CountingHandler();
+		createEnablementWindow(createCountingItem("a", handlerA),
+				createCountingItem("b", handlerB));
+
+		// changes of the dirty state schedule an update of all items
+		IEventBroker eventBroker = appContext.get(IEventBroker.class);
+		eventBroker.send(UIEvents.Dirtyable.TOPIC_DIRTY, "dirty");
+		eventBroker.send(UIEvents.Dirtyable.TOPIC_DIRTY, "dirty");
+		eventBroker.send(UIEvents.Dirtyable.TOPIC_DIRTY, "dirty");
+		// nothing is evaluated before the UI thread runs the update
+		assertEquals(0, handlerA.count);
+		assertEquals(0, handlerB.count);
+		processEvents();
+
+		assertEquals(1, handlerA.count);
+		assertEquals(1, handlerB.count);
+	}
+
+	@Test
+	public void testMToolItem_EnablementUpdateAfterIdChange() {
+		CountingHandler handlerA = new CountingHandler();
+		CountingHandler handlerB = new CountingHandler();
+		MDirectToolItem toolItemA = createCountingItem("a", handlerA);
+		createEnablementWindow(toolItemA, createCountingItem("b", handlerB));
+
+		toolItemA.setElementId("renamed");
+		processEvents();
+		handlerA.count = 0;
+
+		IEventBroker eventBroker = appContext.get(IEventBroker.class);
+		eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, "renamed");
+		processEvents();
+		assertEquals(1, handlerA.count);
+		assertEquals(0, handlerB.count);
+
+		// the item is no longer found under its old id
+		eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, "a");
+		processEvents();
+		assertEquals(1, handlerA.count);
+		assertEquals(0, handlerB.count);
+	}
+
+	private MDirectToolItem createCountingItem(String id,
+			CountingHandler handler) {
+		MDirectToolItem toolItem = MenuFactoryImpl.eINSTANCE
+				.createDirectToolItem();
+		toolItem.setElementId(id);
+		toolItem.setLabel(id);
+		toolItem.setObject(handler);
+		return toolItem;
+	}
+
+	private void createEnablementWindow(MToolItem... toolItems) {
+		MTrimmedWindow window = BasicFactoryImpl.eINSTANCE
+				.createTrimmedWindow();
+		MTrimBar trimBar = BasicFactoryImpl.eINSTANCE.createTrimBar();
+		MToolBar toolBar = MenuFactoryImpl.eINSTANCE.createToolBar();
+
+		window.getTrimBars().add(trimBar);
+		trimBar.getChildren().add(toolBar);
+		for (MToolItem toolItem : toolItems) {
+			toolBar.getChildren().add(toolItem);
+		}
+
+		MApplication application = ApplicationFactoryImpl.eINSTANCE
+				.createApplication();
+		application.getChildren().add(window);
+		application.setContext(appContext);
+		appContext.set(MApplication.class.getName(), application);
+
+		wb = new E4Workbench(window, appContext);
+		wb.createAndRunUI(window);
+
+		for (MToolItem toolItem : toolItems) {
+			assertTrue(toolItem.getWidget() instanceof ToolItem);
+		}
+		// run the updates scheduled while rendering, then start counting
+		processEvents();
+		for (MToolItem toolItem : toolItems) {
+			((CountingHandler) ((MDirectToolItem) toolItem).getObject()).count = 0;
+		}
+	}
+
+	private static void processEvents() {
+		Display display = Display.getCurrent();
+		while (display.readAndDispatch()) {
+			// spin
+		}
+	}
+
+	public static class CountingHandler {
+		int count;
+
+		@CanExecute
+		public boolean canExecute() {
+			count++;
+			return true;
+		}
+	}
 }
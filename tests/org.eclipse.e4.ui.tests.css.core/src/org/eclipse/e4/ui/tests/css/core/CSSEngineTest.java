@@ -13,17 +13,25 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.tests.css.core;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 
+import org.eclipse.e4.ui.css.core.dom.properties.ICSSPropertyHandler;
+import org.eclipse.e4.ui.css.core.dom.properties.ICSSPropertyHandlerProvider;
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
 import org.eclipse.e4.ui.css.core.impl.engine.CSSEngineImpl;
 import org.eclipse.e4.ui.tests.css.core.util.TestElement;
 import org.junit.Test;
 import org.w3c.css.sac.Selector;
 import org.w3c.css.sac.SelectorList;
 import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSStyleDeclaration;
 
 public class CSSEngineTest {
 
@@ -33,6 +41,64 @@ public class CSSEngineTest {
 		}
 	}
 
+	private static class CountingPropertyHandlerProvider implements ICSSPropertyHandlerProvider {
+		int applied;
+
+		private final ICSSPropertyHandler handler = (element, property, value, pseudo, engine) -> {
+			applied++;
+			return true;
+		};
+
+		@Override
+		public Collection<ICSSPropertyHandler> getCSSPropertyHandlers(String property) {
+			return Collections.singletonList(handler);
+		}
+
+		@Override
+		public CSSStyleDeclaration getDefaultCSSStyleDeclaration(CSSEngine engine, Object element,
+				CSSStyleDeclaration newStyle, String pseudoE) {
+			return null;
+		}
+
+		@Override
+		public Collection<ICSSPropertyHandler> getCSSPropertyHandlers(Object element, String property) {
+			return Collections.singletonList(handler);
+		}
+
+		@Override
+		public Collection<String> getCSSProperties(Object element) {
+			return Collections.emptyList();
+		}
+	}
+
+	@Test
+	public void testApplyStylesSkipsUnchangedStyle() throws Exception {
+		TestCSSEngine engine = new TestCSSEngine();
+		CountingPropertyHandlerProvider provider = new CountingPropertyHandlerProvider();
+		engine.registerCSSPropertyHandlerProvider(provider);
+		engine.setElementProvider((element, engine1) -> new TestElement("Button", engine1));
+		String css = "Button { color: red; background-color: blue; }\n.primary { color: green; }";
+		engine.parseStyleSheet(new StringReader(css));
+
+		Object widget = new Object();
+		engine.applyStyles(widget, false);
+		assertEquals(2, provider.applied);
+		engine.applyStyles(widget, false);
+		assertEquals(2, provider.applied);
+
+		((TestElement) engine.getElement(widget)).setClass("primary");
+		engine.applyStyles(widget, false);
+		assertEquals(4, provider.applied);
+		engine.applyStyles(widget, false);
+		assertEquals(4, provider.applied);
+
+		// a new theme applies every property again
+		engine.reset();
+		engine.parseStyleSheet(new StringReader(css));
+		engine.applyStyles(widget, false);
+		assertEquals(6, provider.applied);
+	}
+
 	@Test
 	public void testSelectorMatch() throws Exception {
 		TestCSSEngine engine = new TestCSSEngine();
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.dom.DocumentCSSImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.ViewCSSImpl;
+import org.eclipse.e4.ui.tests.css.core.util.ParserTestUtil;
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Computes the styles of a synthetic widget tree of 20000 elements through
+ * the rule index of {@link ViewCSSImpl}, after checking that they are the same
+ * as when evaluating every rule. Not part of {@link CssCoreTestSuite}, run it
+ * manually.
+ */
+public class ViewCSSPerformanceTest {
+
+	private static final String[] TYPES = { "Button", "Label", "Text", "Composite", "ToolBar" };
+
+	private static final int COMPOSITES = 200;
+
+	private static final int CHILDREN_PER_COMPOSITE = 99;
+
+	private static final int ITERATIONS = 5;
+
+	private ViewCSSImpl viewCSS;
+
+	private List<CSSRule> rules;
+
+	private List<TestElement> elements;
+
+	@Before
+	public void setUp() throws Exception {
+		CSSEngine engine = ParserTestUtil.createEngine();
+
+		StringBuilder css = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			css.append(".class").append(i).append(" { color: #0000").append(i % 10).append("0; }\n");
+			css.append("#id").append(i).append(" { font-weight: bold; }\n");
+			css.append(TYPES[i % TYPES.length]).append(".kind").append(i)
+					.append(" { background-color: white; }\n");
+			css.append("Composite > ").append(TYPES[i % TYPES.length]).append(".nested").append(i)
+					.append(" { color: red; }\n");
+		}
+		for (String type : TYPES) {
+			css.append(type).append(" { font-size: 9; }\n");
+		}
+		css.append("* { font-style: normal; }\n");
+
+		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css.toString());
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(styleSheet);
+		viewCSS = new ViewCSSImpl(docCss);
+
+		rules = new ArrayList<CSSRule>();
+		CSSRuleList ruleList = styleSheet.getCssRules();
+		for (int i = 0; i < ruleList.getLength(); i++) {
+			rules.add(ruleList.item(i));
+		}
+
+		elements = new ArrayList<TestElement>();
+		TestElement shell = new TestElement("Shell", engine);
+		elements.add(shell);
+		for (int i = 0; i < COMPOSITES; i++) {
+			TestElement composite = new TestElement("Composite", shell, engine);
+			composite.setClass("class" + (i % 100));
+			elements.add(composite);
+			for (int j = 0; j < CHILDREN_PER_COMPOSITE; j++) {
+				TestElement child = new TestElement(TYPES[j % TYPES.length], composite, engine);
+				child.setClass("kind" + (j % 100) + " nested" + (i % 100));
+				if (j % 10 == 0) {
+					child.setId("id" + (j % 100));
+				}
+				elements.add(child);
+			}
+		}
+	}
+
+	@Test
+	public void testComputedStyles() {
+		// results of both paths are identical
+		for (TestElement element : elements) {
+			assertEquals(getCssText(viewCSS.getComputedStyle(rules, element, null)),
+					getCssText(viewCSS.getComputedStyle(element, null)));
+		}
+
+		Performance performance = Performance.getDefault();
+		PerformanceMeter meter = performance
+				.createPerformanceMeter(getClass().getName() + "#testComputedStyles()");
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				meter.start();
+				for (TestElement element : elements) {
+					viewCSS.getComputedStyle(element, null);
+				}
+				meter.stop();
+			}
+			meter.commit();
+			performance.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	private static String getCssText(CSSStyleDeclaration style) {
+		return style == null ? null : style.getCssText();
+	}
+}
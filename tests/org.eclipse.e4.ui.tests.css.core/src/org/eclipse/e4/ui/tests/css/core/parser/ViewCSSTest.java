@@ -108,6 +108,80 @@ public class ViewCSSTest {
 		assertEquals("color: blue;", buttonStyle.getCssText());
 	}
 
+	@Test
+	public void testIdAndClassSelectors() throws Exception {
+		String css = "Button { color: black; }\n" + ".primary { color: blue; }\n" + "#ok { color: green; }\n"
+				+ "Shell .secondary { color: red; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		final TestElement shell = new TestElement("Shell", engine);
+		final TestElement button = new TestElement("Button", shell, engine);
+
+		assertEquals("color: black;", viewCSS.getComputedStyle(button, null).getCssText());
+
+		button.setClass("other primary");
+		assertEquals("color: blue;", viewCSS.getComputedStyle(button, null).getCssText());
+
+		button.setId("ok");
+		assertEquals("color: green;", viewCSS.getComputedStyle(button, null).getCssText());
+
+		final TestElement label = new TestElement("Label", shell, engine);
+		label.setClass("secondary");
+		assertEquals("color: red;", viewCSS.getComputedStyle(label, null).getCssText());
+		label.setClass("secondaryX");
+		assertNull(viewCSS.getComputedStyle(label, null));
+	}
+
+	@Test
+	public void testStyleSheetAdded() throws Exception {
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: blue; }"));
+		ViewCSS viewCSS = new ViewCSSImpl(docCss);
+
+		final TestElement button = new TestElement("Button", engine);
+		assertEquals("color: blue;", viewCSS.getComputedStyle(button, null).getCssText());
+
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: red; }"));
+		assertEquals("color: red;", viewCSS.getComputedStyle(button, null).getCssText());
+
+		docCss.removeAllStyleSheets();
+		assertNull(viewCSS.getComputedStyle(button, null));
+	}
+
+	@Test
+	public void testStructuralMatchesAreShared() throws Exception {
+		String css = "Shell Button { color: black; }\n" + "Composite > Button { color: blue; }\n"
+				+ "Button[a='x'] { color: green; }\n";
+		ViewCSSImpl viewCSS = (ViewCSSImpl) createViewCss(css);
+
+		final TestElement shell = new TestElement("Shell", engine);
+		final TestElement button1 = new TestElement("Button", shell, engine);
+		final TestElement button2 = new TestElement("Button", shell, engine);
+		final TestElement composite = new TestElement("Composite", shell, engine);
+		final TestElement button3 = new TestElement("Button", composite, engine);
+
+		assertEquals("color: black;", viewCSS.getComputedStyle(button1, null).getCssText());
+		assertEquals(0, viewCSS.getStyleCacheHits());
+		assertEquals("color: black;", viewCSS.getComputedStyle(button2, null).getCssText());
+		assertEquals(1, viewCSS.getStyleCacheHits());
+
+		// same type, different ancestry
+		assertEquals("color: blue;", viewCSS.getComputedStyle(button3, null).getCssText());
+		assertEquals(1, viewCSS.getStyleCacheHits());
+
+		// attribute conditions are still matched for each element
+		button2.setAttribute("a", "x");
+		assertEquals("color: black;", viewCSS.getComputedStyle(button1, null).getCssText());
+		assertEquals("color: green;", viewCSS.getComputedStyle(button2, null).getCssText());
+		assertEquals(3, viewCSS.getStyleCacheHits());
+
+		// a class change changes the fingerprint of the element and its
+		// descendants
+		composite.setClass("other");
+		assertEquals("color: blue;", viewCSS.getComputedStyle(button3, null).getCssText());
+		assertEquals(3, viewCSS.getStyleCacheHits());
+	}
+
 	private static ViewCSS createViewCss(String css) throws IOException {
 		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(css);
 		DocumentCSSImpl docCss = new DocumentCSSImpl();
@@ -15,6 +15,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
@@ -417,4 +418,104 @@ public class EModelServiceFindTest {
 		assertEquals(1, elements.size());
 		assertEquals(part, elements.get(0));
 	}
+
+	@Test
+	public void testFindElementsAfterModelChanges() {
+		MApplication application = createApplication();
+
+		EModelService modelService = application.getContext().get(EModelService.class);
+		assertNotNull(modelService);
+
+		List<MPart> parts = modelService.findElements(application, "twoValidIds", MPart.class, null);
+		assertEquals(1, parts.size());
+		MPart part = parts.get(0);
+
+		part.setElementId("changedId");
+		assertEquals(0, modelService.findElements(application, "twoValidIds", MPart.class, null).size());
+		assertEquals(part, modelService.find("changedId", application));
+
+		part.getTags().add("newTag");
+		List<String> tags = new ArrayList<String>();
+		tags.add("newTag");
+		assertEquals(1, modelService.findElements(application, null, null, tags).size());
+
+		part.getTags().remove("newTag");
+		assertEquals(0, modelService.findElements(application, null, null, tags).size());
+
+		part.getParent().getChildren().remove(part);
+		assertNull(modelService.find("changedId", application));
+		assertEquals(2, modelService.findElements(application, null, MPart.class, null).size());
+
+		MPartStack stack = modelService.findElements(application, null, MPartStack.class, null).get(0);
+		stack.getChildren().add(0, part);
+		assertEquals(part, modelService.find("changedId", application));
+	}
+
+	@Test
+	public void testFindElementsMatchesSearchOrder() {
+		MApplication application = createApplication();
+
+		EModelService modelService = application.getContext().get(EModelService.class);
+		assertNotNull(modelService);
+
+		Selector anyElement = new Selector() {
+			@Override
+			public boolean select(MApplicationElement element) {
+				return true;
+			}
+		};
+
+		int flags = EModelService.ANYWHERE | EModelService.IN_MAIN_MENU | EModelService.IN_PART;
+		List<MMenu> searchedMenus = modelService.findElements(application, MMenu.class, flags, anyElement);
+		List<MMenu> indexedMenus = modelService.findElements(application, null, MMenu.class, null, flags);
+		assertEquals(5, indexedMenus.size());
+		assertEquals(searchedMenus, indexedMenus);
+
+		List<MPart> searchedParts = modelService.findElements(application, MPart.class, EModelService.ANYWHERE,
+				anyElement);
+		List<MPart> indexedParts = modelService.findElements(application, null, MPart.class, null);
+		assertEquals(3, indexedParts.size());
+		assertEquals(searchedParts, indexedParts);
+
+		List<MUIElement> elements = modelService.findElements(application, "twoValidIds", null, null);
+		assertEquals(2, elements.size());
+		assertTrue(elements.get(0) instanceof MPartSashContainer);
+		assertTrue(elements.get(1) instanceof MPart);
+	}
+
+	@Test
+	public void testFindElementsWithoutSearchFlags() {
+		MApplication application = createApplication();
+
+		EModelService modelService = application.getContext().get(EModelService.class);
+		assertNotNull(modelService);
+
+		Selector anyElement = new Selector() {
+			@Override
+			public boolean select(MApplicationElement element) {
+				return true;
+			}
+		};
+
+		MWindow window = application.getChildren().get(0);
+		List<MUIElement> searched = modelService.findElements(window, MUIElement.class, 0, anyElement);
+		List<MUIElement> indexed = modelService.findElements(window, null, MUIElement.class, null, 0);
+		assertEquals(searched, indexed);
+
+		List<MPart> searchedParts = modelService.findElements(application, MPart.class, 0, anyElement);
+		List<MPart> indexedParts = modelService.findElements(application, null, MPart.class, null, 0);
+		assertEquals(searchedParts, indexedParts);
+
+		Selector validIds = new Selector() {
+			@Override
+			public boolean select(MApplicationElement element) {
+				return "twoValidIds".equals(element.getElementId());
+			}
+		};
+		List<MApplicationElement> searchedIds = modelService.findElements(application,
+				MApplicationElement.class, 0, validIds);
+		List<MApplicationElement> indexedIds = modelService.findElements(application, "twoValidIds",
+				MApplicationElement.class, null, 0);
+		assertEquals(searchedIds, indexedIds);
+	}
 }
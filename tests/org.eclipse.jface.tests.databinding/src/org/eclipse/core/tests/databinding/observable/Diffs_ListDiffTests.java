@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,7 +14,10 @@ package org.eclipse.core.tests.databinding.observable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
@@ -253,7 +256,77 @@ public class Diffs_ListDiffTests extends TestCase {
 				Arrays.asList(new Object[] { "c", "a", "b" }));
 	}
 
-	private static void checkComputedListDiff(List<Object> oldList, List<Object> newList) {
+	public void testComputeListDiff_Duplicates() {
+		checkComputedListDiff(Arrays.asList(new Object[] { "a", "b", "a", null, "b" }),
+				Arrays.asList(new Object[] { "b", null, "a", "a", "c", "b" }));
+	}
+
+	public void testComputeListDiff_LinkedList() {
+		checkComputedListDiff(new LinkedList<Object>(Arrays.asList(new Object[] { "a", "b", "c", "d" })),
+				new LinkedList<Object>(Arrays.asList(new Object[] { "d", "b", "e", "a" })));
+	}
+
+	public void testComputeListDiff_RandomLists() {
+		Random random = new Random(0);
+		for (int i = 0; i < 1000; i++) {
+			List<Object> oldList = new ArrayList<Object>();
+			List<Object> newList = new ArrayList<Object>();
+			int range = 1 + random.nextInt(10);
+			for (int j = random.nextInt(15); j > 0; j--) {
+				oldList.add(Integer.valueOf(random.nextInt(range)));
+			}
+			for (int j = random.nextInt(15); j > 0; j--) {
+				newList.add(Integer.valueOf(random.nextInt(range)));
+			}
+			checkComputedListDiff(oldList, newList);
+		}
+	}
+
+	private static final int LARGE_SIZE = 50000;
+
+	private static List<Object> createLargeList(int size) {
+		List<Object> list = new ArrayList<Object>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(Integer.valueOf(i));
+		}
+		return list;
+	}
+
+	public void testComputeListDiff_LargeShuffle() {
+		List<Object> oldList = createLargeList(LARGE_SIZE / 2);
+		List<Object> newList = new ArrayList<Object>(oldList);
+		Collections.shuffle(newList, new Random(0));
+		checkComputedListDiff(oldList, newList);
+	}
+
+	public void testComputeListDiff_LargeAppend() {
+		List<Object> oldList = createLargeList(LARGE_SIZE);
+		List<Object> newList = new ArrayList<Object>(oldList);
+		for (int i = 0; i < 1000; i++) {
+			newList.add(Integer.valueOf(LARGE_SIZE + i));
+		}
+		assertEquals(1000, checkComputedListDiff(oldList, newList).getDifferences().length);
+	}
+
+	public void testComputeListDiff_LargeRemoval() {
+		List<Object> oldList = createLargeList(LARGE_SIZE);
+		List<Object> newList = new ArrayList<Object>();
+		for (int i = 0; i < LARGE_SIZE; i += 2) {
+			newList.add(oldList.get(i));
+		}
+		assertEquals(LARGE_SIZE / 2, checkComputedListDiff(oldList, newList).getDifferences().length);
+	}
+
+	public void testComputeListDiff_LargeMove() {
+		List<Object> oldList = createLargeList(LARGE_SIZE);
+		List<Object> newList = new ArrayList<Object>(oldList);
+		newList.add(newList.remove(0));
+		ListDiff diff = checkComputedListDiff(oldList, newList);
+		// a single move is a removal followed by an addition
+		assertEquals(2, diff.getDifferences().length);
+	}
+
+	private static ListDiff checkComputedListDiff(List<Object> oldList, List<Object> newList) {
 		ListDiff diff = Diffs.computeListDiff(oldList, newList);
 
 		final List<Object> list = new ArrayList<Object>(oldList);
@@ -275,5 +348,6 @@ public class Diffs_ListDiffTests extends TestCase {
 		});
 
 		assertEquals("Applying diff to old list should make it equal to new list", newList, list);
+		return diff;
 	}
 }
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.tests.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.WritableList;
+import org.eclipse.core.databinding.observable.map.WritableMap;
+import org.eclipse.core.databinding.observable.masterdetail.MasterDetailObservables;
+import org.eclipse.core.databinding.observable.set.WritableSet;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.databinding.observable.value.WritableValue;
+import org.eclipse.jface.databinding.conformance.util.ChangeEventTracker;
+import org.eclipse.jface.databinding.conformance.util.ListChangeEventTracker;
+import org.eclipse.jface.databinding.conformance.util.MapChangeEventTracker;
+import org.eclipse.jface.databinding.conformance.util.SetChangeEventTracker;
+import org.eclipse.jface.databinding.conformance.util.StaleEventTracker;
+import org.eclipse.jface.databinding.conformance.util.ValueChangeEventTracker;
+import org.eclipse.jface.tests.databinding.AbstractDefaultRealmTestCase;
+
+/**
+ * Tests for {@link Realm#runInTransaction(Runnable)}.
+ */
+public class RealmTransactionTest extends AbstractDefaultRealmTestCase {
+	private Realm realm;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		realm = Realm.getDefault();
+	}
+
+	public void testListChangesMerged() {
+		final WritableList<String> list = new WritableList<>(new ArrayList<>(Arrays.asList("a", "b", "c")), null);
+		ChangeEventTracker changes = ChangeEventTracker.observe(list);
+		ListChangeEventTracker listChanges = ListChangeEventTracker.observe(list);
+
+		realm.runInTransaction(() -> {
+			for (int i = 0; i < 100; i++) {
+				list.add("x" + i);
+			}
+			list.remove("b");
+			list.add(0, "d");
+			assertEquals(0, listChanges.count);
+		});
+
+		assertEquals(1, changes.count);
+		assertEquals(1, listChanges.count);
+		List<String> simulated = new ArrayList<>(Arrays.asList("a", "b", "c"));
+		listChanges.event.diff.applyTo(simulated);
+		assertEquals(list, simulated);
+	}
+
+	public void testEmptyNetDiffNotFired() {
+		final WritableList<String> list = new WritableList<>(new ArrayList<>(Arrays.asList("a", "b")), null);
+		final WritableSet<String> set = new WritableSet<>(Collections.singleton("a"), null);
+		final WritableValue<String> value = new WritableValue<>("a", null);
+		ChangeEventTracker listChanges = ChangeEventTracker.observe(list);
+		ChangeEventTracker setChanges = ChangeEventTracker.observe(set);
+		ValueChangeEventTracker valueChanges = ValueChangeEventTracker.observe(value);
+
+		realm.runInTransaction(() -> {
+			list.add("c");
+			list.remove("c");
+			set.remove("a");
+			set.add("a");
+			value.setValue("b");
+			value.setValue("a");
+		});
+
+		assertEquals(0, listChanges.count);
+		assertEquals(0, setChanges.count);
+		assertEquals(0, valueChanges.count);
+	}
+
+	public void testSetChangesMerged() {
+		final WritableSet<String> set = new WritableSet<>(Arrays.asList("a", "b"), null);
+		SetChangeEventTracker tracker = SetChangeEventTracker.observe(set);
+
+		realm.runInTransaction(() -> {
+			set.add("c");
+			set.remove("a");
+			set.add("d");
+			set.remove("d");
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals(Collections.singleton("c"), tracker.event.diff.getAdditions());
+		assertEquals(Collections.singleton("a"), tracker.event.diff.getRemovals());
+	}
+
+	public void testMapChangesMerged() {
+		final WritableMap<String, String> map = new WritableMap<>();
+		map.put("a", "1");
+		map.put("b", "2");
+		MapChangeEventTracker tracker = MapChangeEventTracker.observe(map);
+
+		realm.runInTransaction(() -> {
+			map.put("a", "3");
+			map.put("a", "4");
+			map.remove("b");
+			map.put("c", "5");
+			map.put("b", "2");
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals(Collections.singleton("c"), tracker.event.diff.getAddedKeys());
+		assertEquals(Collections.emptySet(), tracker.event.diff.getRemovedKeys());
+		assertEquals(Collections.singleton("a"), tracker.event.diff.getChangedKeys());
+		assertEquals("1", tracker.event.diff.getOldValue("a"));
+		assertEquals("4", tracker.event.diff.getNewValue("a"));
+	}
+
+	public void testValueChangesMerged() {
+		final WritableValue<String> value = new WritableValue<>("a", null);
+		ValueChangeEventTracker tracker = ValueChangeEventTracker.observe(value);
+
+		realm.runInTransaction(() -> {
+			value.setValue("b");
+			value.setValue("c");
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals("a", tracker.event.diff.getOldValue());
+		assertEquals("c", tracker.event.diff.getNewValue());
+	}
+
+	public void testNestedTransactions() {
+		final WritableValue<String> value = new WritableValue<>("a", null);
+		ValueChangeEventTracker tracker = ValueChangeEventTracker.observe(value);
+
+		realm.runInTransaction(() -> {
+			realm.runInTransaction(() -> value.setValue("b"));
+			assertEquals(0, tracker.count);
+			value.setValue("c");
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals("c", tracker.event.diff.getNewValue());
+	}
+
+	public void testEventsFiredWhenRunnableThrows() {
+		final WritableValue<String> value = new WritableValue<>("a", null);
+		ValueChangeEventTracker tracker = ValueChangeEventTracker.observe(value);
+
+		try {
+			realm.runInTransaction(() -> {
+				value.setValue("b");
+				throw new IllegalStateException();
+			});
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		assertEquals(1, tracker.count);
+		assertEquals("b", tracker.event.diff.getNewValue());
+	}
+
+	public void testListenerChangesOutsideTransaction() {
+		final WritableValue<String> source = new WritableValue<>("a", null);
+		final WritableValue<String> target = new WritableValue<>("a", null);
+		source.addValueChangeListener(event -> target.setValue(event.diff.getNewValue()));
+		ValueChangeEventTracker tracker = ValueChangeEventTracker.observe(target);
+
+		realm.runInTransaction(() -> source.setValue("b"));
+
+		assertEquals("b", target.getValue());
+		assertEquals(1, tracker.count);
+	}
+
+	public void testComputedValueUpToDateInTransaction() {
+		final WritableValue<Integer> value = new WritableValue<>(1, null);
+		final IObservableValue<Integer> computed = ComputedValue.create(() -> value.getValue() * 2);
+		final ValueChangeEventTracker tracker = ValueChangeEventTracker.observe(computed);
+		assertEquals(2, computed.getValue().intValue());
+
+		realm.runInTransaction(() -> {
+			value.setValue(2);
+			assertEquals(4, computed.getValue().intValue());
+			value.setValue(3);
+			assertEquals(6, computed.getValue().intValue());
+			assertEquals(0, tracker.count);
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals(6, computed.getValue().intValue());
+	}
+
+	public void testDetailValueUpToDateInTransaction() {
+		final WritableValue<String> a = new WritableValue<>("a", null);
+		final WritableValue<String> b = new WritableValue<>("b", null);
+		final WritableValue<WritableValue<String>> master = new WritableValue<>(a, null);
+		final IObservableValue<String> detail = MasterDetailObservables.detailValue(master,
+				target -> new WritableValue<>(target.getValue(), null), null);
+		ValueChangeEventTracker tracker = ValueChangeEventTracker.observe(detail);
+
+		realm.runInTransaction(() -> {
+			master.setValue(b);
+			assertEquals("b", detail.getValue());
+			assertEquals(0, tracker.count);
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals("a", tracker.event.diff.getOldValue());
+		assertEquals("b", tracker.event.diff.getNewValue());
+	}
+
+	public void testStaleEventNotFiredWhenNoLongerStale() {
+		final WritableList<String> list = new WritableList<>();
+		StaleEventTracker tracker = StaleEventTracker.observe(list);
+
+		realm.runInTransaction(() -> {
+			list.setStale(true);
+			list.setStale(false);
+		});
+
+		assertEquals(0, tracker.count);
+
+		realm.runInTransaction(() -> list.setStale(true));
+
+		assertEquals(1, tracker.count);
+	}
+}
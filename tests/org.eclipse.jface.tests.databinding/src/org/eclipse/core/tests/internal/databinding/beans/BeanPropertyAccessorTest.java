@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.tests.internal.databinding.beans;
+
+import java.beans.PropertyDescriptor;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.internal.databinding.beans.BeanPropertyAccessor;
+
+/**
+ * Tests for {@link BeanPropertyAccessor}.
+ */
+public class BeanPropertyAccessorTest extends TestCase {
+	public void testReadWrite() throws Exception {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				new PropertyDescriptor("value", Bean.class));
+		Bean bean = new Bean("a");
+		assertEquals("a", accessor.read(bean));
+
+		accessor.write(bean, "b");
+		assertEquals("b", bean.getValue());
+
+		accessor.write(bean, null);
+		assertNull(accessor.read(bean));
+	}
+
+	public void testReadWrite_InterfaceProperty() throws Exception {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				new PropertyDescriptor("value", IBean.class));
+		Bean bean = new Bean("a");
+		accessor.write(bean, "b");
+		assertEquals("b", accessor.read(bean));
+	}
+
+	public void testReadWrite_NonPublicClass() throws Exception {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				new PropertyDescriptor("count", Counter.class));
+		Counter counter = new Counter();
+		accessor.write(counter, Integer.valueOf(3));
+		assertEquals(Integer.valueOf(3), accessor.read(counter));
+	}
+
+	public void testWrite_PrimitiveNull() throws Exception {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				new PropertyDescriptor("count", Counter.class));
+		Counter counter = new Counter();
+		counter.setCount(3);
+		// logged and ignored, like reflection does
+		accessor.write(counter, null);
+		assertEquals(3, counter.getCount());
+	}
+
+	public void testWrite_WideningConversion() throws Exception {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				new PropertyDescriptor("total", Counter.class));
+		Counter counter = new Counter();
+		accessor.write(counter, Integer.valueOf(3));
+		assertEquals(3L, counter.getTotal());
+	}
+
+	public void testRead_WrongSourceType() throws Exception {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				new PropertyDescriptor("value", Bean.class));
+		// logged, like reflection does
+		assertNull(accessor.read(new Counter()));
+	}
+
+	public void testWrite_ExceptionWrapped() throws Exception {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				new PropertyDescriptor("count", Counter.class));
+		try {
+			accessor.write(new Counter(), Integer.valueOf(-1));
+			fail("Expected RuntimeException");
+		} catch (RuntimeException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	private static class Counter {
+		private int count;
+
+		private long total;
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			if (count < 0) {
+				throw new IllegalArgumentException();
+			}
+			this.count = count;
+		}
+
+		public long getTotal() {
+			return total;
+		}
+
+		public void setTotal(long total) {
+			this.total = total;
+		}
+	}
+}
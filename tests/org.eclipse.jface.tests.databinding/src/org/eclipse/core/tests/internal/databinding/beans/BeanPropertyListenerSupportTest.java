@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2009 IBM Corporation and others.
+ * Copyright (c) 2007, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -142,6 +142,76 @@ public class BeanPropertyListenerSupportTest extends
 		assertEquals(IStatus.WARNING, log.status.getSeverity());
 	}
 
+	public void testAddListenerSharesOneListener() throws Exception {
+		GenericListenerBean bean = new GenericListenerBean();
+		PropertyChangeListenerStub otherListener = new PropertyChangeListenerStub();
+		PropertyChangeListenerStub secondListener = new PropertyChangeListenerStub();
+
+		PropertyChangeListener multiplexer = BeanPropertyListenerSupport
+				.addListener(bean, propertyName, listener);
+		assertSame(multiplexer, BeanPropertyListenerSupport.addListener(bean,
+				propertyName, secondListener));
+		assertSame(multiplexer, BeanPropertyListenerSupport.addListener(bean,
+				"other", otherListener));
+		// the listeners keep the multiplexer if the bean holds it weakly
+		assertEquals(1, bean.changeSupport.getPropertyChangeListeners().length);
+		assertSame(multiplexer,
+				bean.changeSupport.getPropertyChangeListeners()[0]);
+
+		bean.setValue("new");
+		assertEquals(1, listener.count);
+		assertEquals(1, secondListener.count);
+		assertEquals(0, otherListener.count);
+		assertEquals("new", listener.event.getNewValue());
+
+		bean.setOther("new");
+		assertEquals(1, listener.count);
+		assertEquals(1, otherListener.count);
+
+		BeanPropertyListenerSupport.removeListener(bean, propertyName,
+				listener);
+		BeanPropertyListenerSupport.removeListener(bean, "other",
+				otherListener);
+		assertEquals(1, bean.changeSupport.getPropertyChangeListeners().length);
+		bean.setValue("newer");
+		assertEquals(1, listener.count);
+		assertEquals(2, secondListener.count);
+
+		BeanPropertyListenerSupport.removeListener(bean, propertyName,
+				secondListener);
+		assertEquals(0, bean.changeSupport.getPropertyChangeListeners().length);
+	}
+
+	public void testAddListenerNotifiesUnspecifiedChangeOnce()
+			throws Exception {
+		GenericListenerBean bean = new GenericListenerBean();
+		BeanPropertyListenerSupport.addListener(bean, propertyName, listener);
+		BeanPropertyListenerSupport.addListener(bean, "other", listener);
+
+		bean.changeSupport.firePropertyChange(new PropertyChangeEvent(bean,
+				null, null, null));
+		assertEquals(1, listener.count);
+
+		BeanPropertyListenerSupport.removeListener(bean, propertyName,
+				listener);
+		BeanPropertyListenerSupport.removeListener(bean, "other", listener);
+		assertEquals(0, bean.changeSupport.getPropertyChangeListeners().length);
+	}
+
+	public void testAddListenerWithoutUnnamedMethod() throws Exception {
+		SpecificListenerBean bean = new SpecificListenerBean();
+
+		assertSame(listener, BeanPropertyListenerSupport.addListener(bean,
+				propertyName, listener));
+		assertTrue("has listeners",
+				bean.changeSupport.hasListeners(propertyName));
+
+		BeanPropertyListenerSupport.removeListener(bean, propertyName,
+				listener);
+		assertFalse("has listeners",
+				bean.changeSupport.hasListeners(propertyName));
+	}
+
 	static class GenericListenerBean {
 		private String other;
 		PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.tests.internal.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.databinding.observable.list.ComputedList;
+import org.eclipse.core.databinding.observable.list.IObservableList;
+import org.eclipse.core.databinding.observable.sideeffect.ISideEffect;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.databinding.observable.value.WritableValue;
+import org.eclipse.core.internal.databinding.observable.Propagation;
+import org.eclipse.jface.tests.databinding.AbstractDefaultRealmTestCase;
+
+/**
+ * Tests for the propagation of changes through computed observables and
+ * side-effects, see {@link Propagation}.
+ */
+public class PropagationTest extends AbstractDefaultRealmTestCase {
+	private WritableValue<Integer> source;
+
+	private int computations;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		source = new WritableValue<>(Integer.valueOf(1), null);
+	}
+
+	private IObservableValue<Integer> compute(final IObservableValue<Integer> a, final IObservableValue<Integer> b) {
+		return ComputedValue.create(() -> {
+			computations++;
+			return Integer.valueOf(a.getValue().intValue() + b.getValue().intValue());
+		});
+	}
+
+	public void testDiamondRecomputedOnceAfterFirstChange() {
+		IObservableValue<Integer> left = compute(source, source);
+		IObservableValue<Integer> right = compute(source, new WritableValue<>(Integer.valueOf(0), null));
+		IObservableValue<Integer> bottom = compute(left, right);
+		final List<Integer> seen = new ArrayList<>();
+		bottom.addValueChangeListener(event -> seen.add(event.diff.getNewValue()));
+		assertEquals(Integer.valueOf(3), bottom.getValue());
+		computations = 0;
+
+		source.setValue(Integer.valueOf(2));
+		// the listener never sees the sum of an outdated and a new value
+		assertEquals(Arrays.asList(Integer.valueOf(6)), seen);
+		assertEquals(3, computations);
+
+		seen.clear();
+		computations = 0;
+		source.setValue(Integer.valueOf(3));
+
+		assertEquals(Arrays.asList(Integer.valueOf(9)), seen);
+		assertEquals(3, computations);
+		assertEquals(3, Propagation.getLastWaveRecomputations());
+	}
+
+	public void testUnevenPathsRecomputedOnceAfterFirstChange() {
+		IObservableValue<Integer> middle = compute(source, source);
+		IObservableValue<Integer> bottom = compute(source, middle);
+		final List<Integer> seen = new ArrayList<>();
+		bottom.addValueChangeListener(event -> seen.add(event.diff.getNewValue()));
+		bottom.getValue();
+		computations = 0;
+
+		// bottom reads source before middle, so it is notified of the change
+		// first, but ranked after middle
+		source.setValue(Integer.valueOf(2));
+		assertEquals(Arrays.asList(Integer.valueOf(6)), seen);
+		assertEquals(2, computations);
+
+		seen.clear();
+		computations = 0;
+		source.setValue(Integer.valueOf(3));
+
+		assertEquals(Arrays.asList(Integer.valueOf(9)), seen);
+		assertEquals(2, computations);
+		assertEquals(2, Propagation.getLastWaveRecomputations());
+	}
+
+	public void testComputedListNotifiedAfterDependencies() {
+		final IObservableValue<Integer> doubled = compute(source, source);
+		IObservableList<Integer> list = new ComputedList<Integer>() {
+			@Override
+			protected List<Integer> calculate() {
+				computations++;
+				return Arrays.asList(source.getValue(), doubled.getValue());
+			}
+		};
+		final List<List<Integer>> seen = new ArrayList<>();
+		list.addListChangeListener(event -> seen.add(new ArrayList<>(event.getObservableList())));
+		list.size();
+
+		source.setValue(Integer.valueOf(5));
+		computations = 0;
+		seen.clear();
+		source.setValue(Integer.valueOf(2));
+
+		assertEquals(Arrays.asList(Arrays.asList(Integer.valueOf(2), Integer.valueOf(4))), seen);
+		// the list and the doubled value
+		assertEquals(2, computations);
+	}
+
+	public void testListenerFailureKeptWhenNodeFails() {
+		IObservableValue<Integer> doubled = compute(source, source);
+		doubled.addValueChangeListener(event -> {
+			throw new IllegalStateException("node");
+		});
+		doubled.getValue();
+		// added after the dependency listener of the computed value
+		source.addValueChangeListener(event -> {
+			throw new IllegalArgumentException("listener");
+		});
+
+		try {
+			source.setValue(Integer.valueOf(2));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("listener", e.getMessage());
+			assertEquals(1, e.getSuppressed().length);
+			assertEquals("node", e.getSuppressed()[0].getMessage());
+		}
+	}
+
+	public void testSideEffectsRunInDependencyOrder() {
+		final WritableValue<Integer> copy = new WritableValue<>(source.getValue(), null);
+		final List<String> seen = new ArrayList<>();
+		// created first, so that it is scheduled before the side-effect it
+		// depends on
+		ISideEffect reader = ISideEffect.create(() -> seen.add(source.getValue() + "=" + copy.getValue()));
+		ISideEffect writer = ISideEffect.create(() -> copy.setValue(source.getValue()));
+
+		source.setValue(Integer.valueOf(2));
+		runAsync();
+		assertEquals("2=2", seen.get(seen.size() - 1));
+
+		seen.clear();
+		source.setValue(Integer.valueOf(3));
+		runAsync();
+
+		assertEquals(Arrays.asList("3=3"), seen);
+		assertEquals(2, Propagation.getLastWaveRecomputations());
+
+		reader.dispose();
+		writer.dispose();
+	}
+}
@@ -50,6 +50,7 @@ import org.eclipse.core.tests.databinding.observable.Diffs_ListDiffTests;
 import org.eclipse.core.tests.databinding.observable.ObservableTrackerTest;
 import org.eclipse.core.tests.databinding.observable.ObservablesTest;
 import org.eclipse.core.tests.databinding.observable.RealmTest;
+import org.eclipse.core.tests.databinding.observable.RealmTransactionTest;
 import org.eclipse.core.tests.databinding.observable.list.AbstractObservableListTest;
 import org.eclipse.core.tests.databinding.observable.list.ComputedListTest;
 import org.eclipse.core.tests.databinding.observable.list.DecoratingObservableListTest;
@@ -91,6 +92,7 @@ import org.eclipse.core.tests.internal.databinding.QueueTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanObservableListDecoratorTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanObservableSetDecoratorTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanObservableValueDecoratorTest;
+import org.eclipse.core.tests.internal.databinding.beans.BeanPropertyAccessorTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanPropertyHelperTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanPropertyListenerSupportTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanPropertyListenerTest;
@@ -132,6 +134,7 @@ import org.eclipse.core.tests.internal.databinding.observable.EmptyObservableLis
 import org.eclipse.core.tests.internal.databinding.observable.EmptyObservableSetTest;
 import org.eclipse.core.tests.internal.databinding.observable.IdentityObservableSetTest;
 import org.eclipse.core.tests.internal.databinding.observable.MapEntryObservableValueTest;
+import org.eclipse.core.tests.internal.databinding.observable.PropagationTest;
 import org.eclipse.core.tests.internal.databinding.observable.StalenessObservableValueTest;
 import org.eclipse.core.tests.internal.databinding.observable.UnmodifiableObservableListTest;
 import org.eclipse.core.tests.internal.databinding.observable.UnmodifiableObservableSetTest;
@@ -280,6 +283,7 @@ public class BindingTestSuiteJunit3 extends TestSuite {
 		addTestSuite(ObservablesTest.class);
 		addTestSuite(ObservableTrackerTest.class);
 		addTestSuite(RealmTest.class);
+		addTestSuite(RealmTransactionTest.class);
 
 		// org.eclipse.core.tests.databinding.observable.list
 		addTest(AbstractObservableListTest.suite());
@@ -369,6 +373,7 @@ public class BindingTestSuiteJunit3 extends TestSuite {
 		addTest(JavaBeanObservableSetTest.suite());
 		addTest(JavaBeanObservableValueTest.suite());
 		addTestSuite(JavaBeanPropertyObservableMapTest.class);
+		addTestSuite(BeanPropertyAccessorTest.class);
 		addTestSuite(BeanPropertyHelperTest.class);
 		addTestSuite(BeanPropertyListenerSupportTest.class);
 		addTestSuite(BeanPropertyListenerTest.class);
@@ -380,6 +385,7 @@ public class BindingTestSuiteJunit3 extends TestSuite {
 		addTest(EmptyObservableSetTest.suite());
 		addTest(IdentityObservableSetTest.suite());
 		addTest(MapEntryObservableValueTest.suite());
+		addTestSuite(PropagationTest.class);
 		addTest(StalenessObservableValueTest.suite());
 		addTest(UnmodifiableObservableValueTest.suite());
 		addTest(UnmodifiableObservableListTest.suite());
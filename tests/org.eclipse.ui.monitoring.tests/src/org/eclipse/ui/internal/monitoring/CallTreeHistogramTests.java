@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (C) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link CallTreeHistogram} class.
+ */
+public class CallTreeHistogramTests {
+	/**
+	 * Creates a stack trace with the innermost frame first from "Class.method" frame names
+	 * listed from the outermost to the innermost.
+	 */
+	private static StackTraceElement[] stack(String... frames) {
+		StackTraceElement[] stack = new StackTraceElement[frames.length];
+		for (int i = 0; i < frames.length; i++) {
+			String frame = frames[i];
+			int dot = frame.lastIndexOf('.');
+			stack[frames.length - 1 - i] = new StackTraceElement(frame.substring(0, dot),
+					frame.substring(dot + 1), "Test.java", i + 1);
+		}
+		return stack;
+	}
+
+	@Test
+	public void testCollapsedStacks() {
+		CallTreeHistogram histogram = new CallTreeHistogram(100);
+		histogram.addSample(stack("a.Main.run", "a.Display.dispatch", "b.View.paint"));
+		histogram.addSample(stack("a.Main.run", "a.Display.dispatch", "b.View.paint"));
+		histogram.addSample(stack("a.Main.run", "a.Display.dispatch", "c.Job.done"));
+		histogram.addSample(stack("a.Main.run", "a.Display.dispatch"));
+
+		assertEquals(4, histogram.getSampleCount());
+		assertEquals(4, histogram.getNodeCount());
+		assertEquals(
+				"a.Main.run;a.Display.dispatch 1\n"
+				+ "a.Main.run;a.Display.dispatch;b.View.paint 2\n"
+				+ "a.Main.run;a.Display.dispatch;c.Job.done 1\n",
+				histogram.toCollapsedStacks());
+	}
+
+	@Test
+	public void testFramesDifferingOnlyInLineNumbersAreMerged() {
+		CallTreeHistogram histogram = new CallTreeHistogram(100);
+		StackTraceElement[] first = stack("a.Main.run", "b.View.paint");
+		StackTraceElement[] second = new StackTraceElement[] {
+				new StackTraceElement("b.View", "paint", "View.java", 42),
+				new StackTraceElement("a.Main", "run", "Main.java", 7) };
+		histogram.addSample(first);
+		histogram.addSample(second);
+
+		assertEquals(2, histogram.getNodeCount());
+		assertEquals("a.Main.run;b.View.paint 2\n", histogram.toCollapsedStacks());
+	}
+
+	@Test
+	public void testNodeLimit() {
+		CallTreeHistogram histogram = new CallTreeHistogram(3);
+		histogram.addSample(stack("a.Main.run", "a.Display.dispatch", "b.View.paint"));
+		// No room for c.Job.done, the sample is attributed to its caller.
+		histogram.addSample(stack("a.Main.run", "a.Display.dispatch", "c.Job.done"));
+		// No room for a different root.
+		histogram.addSample(stack("d.Other.run"));
+
+		assertEquals(3, histogram.getNodeCount());
+		assertEquals(3, histogram.getSampleCount());
+		assertEquals(2, histogram.getTruncatedSampleCount());
+		assertEquals(
+				"[truncated] 1\n"
+				+ "a.Main.run;a.Display.dispatch 1\n"
+				+ "a.Main.run;a.Display.dispatch;b.View.paint 1\n",
+				histogram.toCollapsedStacks());
+	}
+
+	@Test
+	public void testClear() {
+		CallTreeHistogram histogram = new CallTreeHistogram(2);
+		histogram.addSample(stack("a.Main.run", "b.View.paint"));
+		histogram.clear();
+		assertEquals(0, histogram.getSampleCount());
+		assertEquals(0, histogram.getNodeCount());
+		assertEquals("", histogram.toCollapsedStacks());
+
+		histogram.addSample(stack("c.Job.run", "c.Job.done"));
+		assertEquals("c.Job.run;c.Job.done 1\n", histogram.toCollapsedStacks());
+	}
+}
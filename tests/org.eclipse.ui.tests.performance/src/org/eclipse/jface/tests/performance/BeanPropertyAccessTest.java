@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.performance;
+
+import java.beans.PropertyDescriptor;
+
+import org.eclipse.core.internal.databinding.beans.BeanPropertyAccessor;
+import org.eclipse.core.internal.databinding.beans.BeanPropertyHelper;
+import org.eclipse.ui.tests.performance.BasicPerformanceTest;
+
+/**
+ * Compares reading and writing bean properties through reflection with the
+ * method handles used by the bean and POJO properties of data binding.
+ *
+ * @since 3.12
+ */
+public class BeanPropertyAccessTest extends BasicPerformanceTest {
+
+	private static final int ITERATIONS = 1000000;
+
+	private PropertyDescriptor name;
+
+	private PropertyDescriptor count;
+
+	public BeanPropertyAccessTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		name = new PropertyDescriptor("name", TestBean.class);
+		count = new PropertyDescriptor("count", TestBean.class);
+	}
+
+	/**
+	 * Test reading and writing through {@link BeanPropertyHelper}.
+	 */
+	public void testReflectiveAccess() {
+		TestBean bean = new TestBean();
+		for (int i = 0; i < 15; i++) {
+			startMeasuring();
+			for (int j = 0; j < ITERATIONS; j++) {
+				BeanPropertyHelper.writeProperty(bean, name, "name");
+				BeanPropertyHelper.readProperty(bean, name);
+				BeanPropertyHelper.writeProperty(bean, count, Integer.valueOf(j));
+				BeanPropertyHelper.readProperty(bean, count);
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Test reading and writing through {@link BeanPropertyAccessor}.
+	 */
+	public void testMethodHandleAccess() {
+		TestBean bean = new TestBean();
+		BeanPropertyAccessor nameAccessor = new BeanPropertyAccessor(name);
+		BeanPropertyAccessor countAccessor = new BeanPropertyAccessor(count);
+		for (int i = 0; i < 15; i++) {
+			startMeasuring();
+			for (int j = 0; j < ITERATIONS; j++) {
+				nameAccessor.write(bean, "name");
+				nameAccessor.read(bean);
+				countAccessor.write(bean, Integer.valueOf(j));
+				countAccessor.read(bean);
+			}
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public static class TestBean {
+		private String name;
+
+		private int count;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+	}
+}
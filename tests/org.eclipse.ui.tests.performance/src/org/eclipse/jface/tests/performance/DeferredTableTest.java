@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.performance;
+
+import java.util.Comparator;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.deferred.DeferredContentProvider;
+import org.eclipse.jface.viewers.deferred.SetModel;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.ui.tests.performance.TestRunnable;
+
+/**
+ * Measures how long a virtual table using a {@link DeferredContentProvider}
+ * takes to show the first sorted rows of a model of one million elements, when
+ * the elements are streamed from a background thread and when the sort order
+ * changes.
+ *
+ * @since 3.12
+ */
+public class DeferredTableTest extends ViewerTest {
+
+	static final int ELEMENT_COUNT = 1000000;
+
+	static final Comparator<TestElement> ASCENDING = (a, b) -> a.getText().compareTo(b.getText());
+
+	static final Comparator<TestElement> DESCENDING = ASCENDING.reversed();
+
+	TableViewer viewer;
+
+	DeferredContentProvider contentProvider;
+
+	private SetModel model;
+
+	private TestElement[] elements;
+
+	private TestElement smallest;
+
+	private TestElement largest;
+
+	public DeferredTableTest(String testName, int tagging) {
+		super(testName, tagging);
+	}
+
+	public DeferredTableTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Shell shell) {
+		viewer = new TableViewer(shell, SWT.VIRTUAL);
+		viewer.setLabelProvider(getLabelProvider());
+		contentProvider = new DeferredContentProvider(ASCENDING);
+		viewer.setContentProvider(contentProvider);
+		return viewer;
+	}
+
+	@Override
+	protected Object getInitialInput() {
+		elements = new TestElement[ELEMENT_COUNT];
+		for (int i = 0; i < ELEMENT_COUNT; i++) {
+			elements[i] = new TestElement(i);
+			if (smallest == null || ASCENDING.compare(elements[i], smallest) < 0) {
+				smallest = elements[i];
+			}
+			if (largest == null || ASCENDING.compare(elements[i], largest) > 0) {
+				largest = elements[i];
+			}
+		}
+		model = new SetModel();
+		return model;
+	}
+
+	/**
+	 * Test streaming the elements into the model in batches from a background
+	 * thread, until the first row shows the smallest element.
+	 */
+	public void testPopulate() throws CoreException {
+		openBrowser();
+		processEvents();
+
+		exercise(new TestRunnable() {
+			@Override
+			public void run() {
+				Thread producer = new Thread(() -> {
+					int batch = 10000;
+					for (int i = 0; i < ELEMENT_COUNT; i += batch) {
+						Object[] toAdd = new Object[Math.min(batch, ELEMENT_COUNT - i)];
+						System.arraycopy(elements, i, toAdd, 0, toAdd.length);
+						model.addAll(toAdd);
+					}
+				});
+
+				startMeasuring();
+				producer.start();
+				waitForFirstRow(smallest);
+				stopMeasuring();
+
+				try {
+					producer.join();
+				} catch (InterruptedException e) {
+					fail(e.getMessage());
+				}
+				model.clear();
+				waitForItemCount(0);
+			}
+		}, 3, 10, JFacePerformanceSuite.MAX_TIME);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Test reversing the sort order of the full model, until the first row
+	 * shows the largest element.
+	 */
+	public void testChangeSortOrder() throws CoreException {
+		openBrowser();
+		model.addAll(elements);
+		waitForFirstRow(smallest);
+
+		exercise(new TestRunnable() {
+			@Override
+			public void run() {
+				startMeasuring();
+				contentProvider.setSortOrder(DESCENDING);
+				waitForFirstRow(largest);
+				stopMeasuring();
+
+				contentProvider.setSortOrder(ASCENDING);
+				waitForFirstRow(smallest);
+			}
+		}, 3, 10, JFacePerformanceSuite.MAX_TIME);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void waitForFirstRow(TestElement expected) {
+		Table table = viewer.getTable();
+		Display display = table.getDisplay();
+		long deadline = System.currentTimeMillis() + 60000;
+		while (table.getItemCount() != ELEMENT_COUNT || table.getItem(0).getData() != expected) {
+			assertTrue("Timed out waiting for the first row", System.currentTimeMillis() < deadline);
+			if (!display.readAndDispatch()) {
+				Thread.yield();
+			}
+		}
+	}
+
+	private void waitForItemCount(int count) {
+		Table table = viewer.getTable();
+		Display display = table.getDisplay();
+		long deadline = System.currentTimeMillis() + 60000;
+		while (table.getItemCount() != count) {
+			assertTrue("Timed out waiting for the item count", System.currentTimeMillis() < deadline);
+			if (!display.readAndDispatch()) {
+				Thread.yield();
+			}
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.performance;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.swt.widgets.Widget;
+import org.eclipse.ui.tests.performance.TestRunnable;
+
+/**
+ * Measures the lookups in the element map of a tree viewer holding 20000
+ * mapped items.
+ *
+ * @since 3.12
+ */
+public class ElementMapTest extends TreeTest {
+
+	static int TEST_COUNT = 20000;
+
+	public ElementMapTest(String testName, int tagging) {
+		super(testName, tagging);
+	}
+
+	public ElementMapTest(String testName) {
+		super(testName);
+	}
+
+	/**
+	 * Test looking up every element using the equals and hashCode methods of
+	 * the elements.
+	 */
+	public void testFindItems() throws CoreException {
+		doTestFindItems(false);
+	}
+
+	/**
+	 * Test looking up every element using an element comparer.
+	 */
+	public void testFindItemsWithComparer() throws CoreException {
+		doTestFindItems(true);
+	}
+
+	private void doTestFindItems(boolean useComparer) throws CoreException {
+		openBrowser();
+		if (useComparer) {
+			viewer.setComparer(new IElementComparer() {
+				@Override
+				public boolean equals(Object a, Object b) {
+					return ((TestElement) a).getText().equals(((TestElement) b).getText());
+				}
+
+				@Override
+				public int hashCode(Object element) {
+					return ((TestElement) element).getText().hashCode();
+				}
+			});
+		}
+
+		final TestTreeElement input = new TestTreeElement(0, null);
+		input.createChildren(TEST_COUNT);
+		viewer.setInput(input);
+		processEvents();
+
+		exercise(new TestRunnable() {
+			@Override
+			public void run() {
+				startMeasuring();
+				for (int i = 0; i < input.children.length; i++) {
+					Widget[] items = viewer.testFindItems(input.children[i]);
+					assertEquals(1, items.length);
+				}
+				stopMeasuring();
+			}
+		}, MIN_ITERATIONS, ITERATIONS, JFacePerformanceSuite.MAX_TIME);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+}
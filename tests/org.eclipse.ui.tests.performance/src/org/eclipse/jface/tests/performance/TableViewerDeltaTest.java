@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.performance;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.jface.viewers.ViewerDelta;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.tests.performance.TestRunnable;
+
+/**
+ * Measures applying 10000 changes to a sorted table of 10000 elements, either
+ * with one <code>add</code>, <code>remove</code> or <code>update</code> call
+ * per change or with a single {@link ViewerDelta}.
+ *
+ * @since 3.12
+ */
+public class TableViewerDeltaTest extends ViewerTest {
+
+	static final int ELEMENT_COUNT = 10000;
+
+	/**
+	 * The number of elements removed, and of elements added, by each change.
+	 */
+	static final int STRUCTURE_COUNT = 4000;
+
+	static final int UPDATE_COUNT = 2000;
+
+	TableViewer viewer;
+
+	private TestElement[] elements;
+
+	private TestElement[] added;
+
+	private boolean addedShown;
+
+	public TableViewerDeltaTest(String testName, int tagging) {
+		super(testName, tagging);
+	}
+
+	public TableViewerDeltaTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Shell shell) {
+		viewer = new TableViewer(shell);
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		viewer.setLabelProvider(getLabelProvider());
+		viewer.setComparator(new ViewerComparator());
+		return viewer;
+	}
+
+	@Override
+	protected Object getInitialInput() {
+		elements = new TestElement[ELEMENT_COUNT];
+		for (int i = 0; i < ELEMENT_COUNT; i++) {
+			elements[i] = new TestElement(i);
+		}
+		added = new TestElement[STRUCTURE_COUNT];
+		for (int i = 0; i < STRUCTURE_COUNT; i++) {
+			added[i] = new TestElement(ELEMENT_COUNT + i);
+		}
+		return elements;
+	}
+
+	/**
+	 * Test applying the changes with one call per change.
+	 */
+	public void testIndividualCalls() throws CoreException {
+		doTestChanges(false);
+	}
+
+	/**
+	 * Test applying the changes with one delta.
+	 */
+	public void testApplyDelta() throws CoreException {
+		doTestChanges(true);
+	}
+
+	private void doTestChanges(final boolean useDelta) throws CoreException {
+		openBrowser();
+		processEvents();
+
+		exercise(new TestRunnable() {
+			@Override
+			public void run() {
+				// swap the added elements with the first elements, so that
+				// every iteration starts from a table of the same size
+				Object[] toRemove = new Object[STRUCTURE_COUNT];
+				Object[] toAdd = new Object[STRUCTURE_COUNT];
+				for (int i = 0; i < STRUCTURE_COUNT; i++) {
+					toRemove[i] = addedShown ? added[i] : elements[i];
+					toAdd[i] = addedShown ? elements[i] : added[i];
+				}
+				addedShown = !addedShown;
+
+				startMeasuring();
+				if (useDelta) {
+					ViewerDelta delta = new ViewerDelta();
+					delta.remove(toRemove);
+					delta.add(viewer.getInput(), toAdd);
+					for (int i = 0; i < UPDATE_COUNT; i++) {
+						delta.update(elements[STRUCTURE_COUNT + i], null);
+					}
+					viewer.applyDelta(delta);
+				} else {
+					for (int i = 0; i < STRUCTURE_COUNT; i++) {
+						viewer.remove(toRemove[i]);
+					}
+					for (int i = 0; i < STRUCTURE_COUNT; i++) {
+						viewer.add(toAdd[i]);
+					}
+					for (int i = 0; i < UPDATE_COUNT; i++) {
+						viewer.update(elements[STRUCTURE_COUNT + i], null);
+					}
+				}
+				processEvents();
+				stopMeasuring();
+
+				assertEquals(ELEMENT_COUNT, viewer.getTable().getItemCount());
+			}
+		}, MIN_ITERATIONS, slowGTKIterations(), JFacePerformanceSuite.MAX_TIME);
+
+		commitMeasurements();
+		assertPerformance();
+	}
+}
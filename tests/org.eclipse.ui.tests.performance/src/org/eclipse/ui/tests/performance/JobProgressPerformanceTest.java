@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+
+/**
+ * Measures the throughput of job change events through the workbench progress
+ * manager. Short jobs reporting progress are run by {@link #THREADS} worker
+ * threads at the same time, each job producing scheduled, about to run,
+ * running and done events and a few progress monitor calls.
+ *
+ * @since 3.12
+ */
+public class JobProgressPerformanceTest extends BasicPerformanceTest {
+
+	private static final int THREADS = 16;
+
+	private static final int JOBS = 20000;
+
+	private static final int WORK = 10;
+
+	/**
+	 * Create a new instance of the receiver.
+	 */
+	public JobProgressPerformanceTest() {
+		super("job progress " + THREADS + " threads");
+	}
+
+	@Override
+	protected void runTest() throws Throwable {
+		final AtomicInteger done = new AtomicInteger();
+		exercise(new TestRunnable() {
+			@Override
+			public void run() throws Exception {
+				JobGroup group = new JobGroup("JobProgressPerformanceTest", THREADS, JOBS);
+				Job[] jobs = new Job[JOBS];
+				for (int i = 0; i < JOBS; i++) {
+					jobs[i] = new Job("Progress job " + i) {
+						@Override
+						protected IStatus run(IProgressMonitor monitor) {
+							monitor.beginTask(getName(), WORK);
+							for (int w = 0; w < WORK; w++) {
+								monitor.worked(1);
+							}
+							monitor.done();
+							done.incrementAndGet();
+							return Status.OK_STATUS;
+						}
+					};
+					jobs[i].setJobGroup(group);
+				}
+
+				done.set(0);
+				startMeasuring();
+				for (int i = 0; i < JOBS; i++) {
+					jobs[i].schedule();
+				}
+				group.join(0, null);
+				stopMeasuring();
+
+				assertEquals(JOBS, done.get());
+				processEvents();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
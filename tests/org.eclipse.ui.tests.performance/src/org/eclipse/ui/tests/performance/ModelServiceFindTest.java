@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import java.util.List;
+
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartSashContainer;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
+import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.e4.ui.workbench.modeling.ElementMatcher;
+
+/**
+ * Measures {@link EModelService#findElements} on a synthetic model of 50000
+ * elements, either answered from the model's element index or by searching the
+ * whole model.
+ *
+ * @since 3.12
+ */
+public class ModelServiceFindTest extends BasicPerformanceTest {
+
+	private static final int STACKS = 50;
+
+	private static final int PARTS_PER_STACK = 999;
+
+	private static final int LOOKUPS = 200;
+
+	private final boolean indexed;
+
+	private MApplication application;
+
+	/**
+	 * @param indexed
+	 *            <code>true</code> to query by id, which is answered from the
+	 *            index, <code>false</code> to query with a selector, which
+	 *            always searches the model
+	 */
+	public ModelServiceFindTest(boolean indexed) {
+		super("findElements " + (indexed ? "indexed" : "searched"));
+		this.indexed = indexed;
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		EModelService modelService = fWorkbench.getService(EModelService.class);
+		application = modelService.createModelElement(MApplication.class);
+		MWindow window = modelService.createModelElement(MWindow.class);
+		application.getChildren().add(window);
+		MPartSashContainer sash = modelService.createModelElement(MPartSashContainer.class);
+		window.getChildren().add(sash);
+		for (int i = 0; i < STACKS; i++) {
+			MPartStack stack = modelService.createModelElement(MPartStack.class);
+			stack.setElementId("stack" + i);
+			sash.getChildren().add(stack);
+			for (int j = 0; j < PARTS_PER_STACK; j++) {
+				MPart part = modelService.createModelElement(MPart.class);
+				part.setElementId("part" + i + "." + j);
+				part.getTags().add("tag" + (j % 10));
+				stack.getChildren().add(part);
+			}
+		}
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		application = null;
+		super.doTearDown();
+	}
+
+	@Override
+	protected void runTest() throws Throwable {
+		final EModelService modelService = fWorkbench.getService(EModelService.class);
+		final String[] ids = new String[LOOKUPS];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = "part" + (i % STACKS) + "." + ((i * 31) % PARTS_PER_STACK);
+		}
+
+		// the first indexed query builds the index
+		modelService.findElements(application, ids[0], MPart.class, null);
+
+		exercise(new TestRunnable() {
+			@Override
+			public void run() throws Exception {
+				startMeasuring();
+				for (int i = 0; i < ids.length; i++) {
+					List<MPart> parts;
+					if (indexed) {
+						parts = modelService.findElements(application, ids[i], MPart.class, null);
+					} else {
+						parts = modelService.findElements(application, MPart.class, EModelService.ANYWHERE,
+								new ElementMatcher(ids[i], MPart.class, (List<String>) null));
+					}
+					assertEquals(1, parts.size());
+				}
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
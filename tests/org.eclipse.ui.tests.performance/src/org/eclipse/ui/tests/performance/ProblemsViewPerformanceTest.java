@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import java.util.Map;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.test.performance.Dimension;
@@ -38,6 +39,10 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	private String PROBLEMS_VIEW_ID = "org.eclipse.ui.tests.performance.problemsView";
 
+	private static final int LARGE_MARKER_COUNT = 500000;
+
+	private static final int CHANGED_MARKER_COUNT = 100;
+
 	/**
 	 * Create a new instance of the receiver.
 	 *
@@ -83,6 +88,54 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	}
 
+	/**
+	 * Test the update of the problems view when a few markers are added and
+	 * removed while it shows a large number of markers.
+	 */
+	public void testIncrementalUpdate() {
+		IWorkbenchWindow window = openTestWindow(EMPTY_PERSPECTIVE_ID);
+		final IWorkbenchPage page = window.getActivePage();
+
+		createMarkers(LARGE_MARKER_COUNT, IMarker.SEVERITY_ERROR);
+
+		PerformanceProblemsView view;
+
+		try {
+			view = (PerformanceProblemsView) page.showView(PROBLEMS_VIEW_ID);
+		} catch (PartInitException e) {
+			e.printStackTrace();
+			fail();
+			return;
+		}
+
+		try {
+			while (view.getTreeWidget().getItemCount() == 0)
+				processEvents();
+
+			tagIfNecessary("UI - Problems View incremental update with 500k markers",
+					Dimension.ELAPSED_PROCESS);
+
+			for (int i = 0; i < 10; i++) {
+				startMeasuring();
+				IMarker[] added = createMarkers(CHANGED_MARKER_COUNT, IMarker.SEVERITY_WARNING);
+				while (view.getTreeWidget().getItemCount() < 2)
+					processEvents();
+				deleteMarkers(added);
+				while (view.getTreeWidget().getItemCount() > 1)
+					processEvents();
+				stopMeasuring();
+			}
+			commitMeasurements();
+			assertPerformance();
+		} finally {
+			try {
+				ResourcesPlugin.getWorkspace().run((IWorkspaceRunnable) monitor -> removeMarkers(), null);
+			} catch (CoreException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
 	/**
 	 * Remove the created markers
 	 */
@@ -127,4 +180,43 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	}
 
+	/**
+	 * Create the given number of markers in a single workspace operation.
+	 *
+	 * @param count
+	 * @param severity
+	 * @return the created markers
+	 */
+	private IMarker[] createMarkers(final int count, final int severity) {
+		final IMarker[] markers = new IMarker[count];
+		try {
+			final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			ResourcesPlugin.getWorkspace().run((IWorkspaceRunnable) monitor -> {
+				for (int i = 0; i < count; i++) {
+					markers[i] = root.createMarker(IMarker.PROBLEM);
+					markers[i].setAttributes(new String[] { IMarker.SEVERITY, IMarker.MESSAGE },
+							new Object[] { Integer.valueOf(severity), "this is a test " + i });
+				}
+			}, null);
+		} catch (CoreException e) {
+			e.printStackTrace();
+			fail();
+		}
+		return markers;
+	}
+
+	/**
+	 * Delete the given markers in a single workspace operation.
+	 *
+	 * @param markers
+	 */
+	private void deleteMarkers(IMarker[] markers) {
+		try {
+			ResourcesPlugin.getWorkspace().deleteMarkers(markers);
+		} catch (CoreException e) {
+			e.printStackTrace();
+			fail();
+		}
+	}
+
 }
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.ui.internal.quickaccess.QuickAccessElement;
+import org.eclipse.ui.internal.quickaccess.QuickAccessIndex;
+import org.eclipse.ui.internal.quickaccess.QuickAccessProvider;
+
+/**
+ * Measures matching the filters typed in Quick Access against 25000
+ * elements, either looked up in the pre-tokenized {@link QuickAccessIndex} or
+ * by matching every element.
+ *
+ * @since 3.12
+ */
+public class QuickAccessMatchTest extends BasicPerformanceTest {
+
+	private static final int ELEMENTS = 25000;
+
+	private static final String[] WORDS = { "Open", "Show", "Toggle", "Java", "Type", "Hierarchy", "Project",
+			"Resource", "Breakpoint", "Console", "Search", "Refactor", "Rename", "Format", "Editor", "Compare",
+			"History", "Team", "Synchronize", "Preferences" };
+
+	private static final String[] FILTERS = { "ope", "open type", "oth", "hierarchy", "java edi", "refactor ren",
+			"synchronize team", "prefe", "console 12", "xyz" };
+
+	private final boolean indexed;
+
+	private TestProvider provider;
+
+	private static class TestElement extends QuickAccessElement {
+
+		private final String label;
+
+		TestElement(QuickAccessProvider provider, String label) {
+			super(provider);
+			this.label = label;
+		}
+
+		@Override
+		public String getLabel() {
+			return label;
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public String getId() {
+			return label;
+		}
+
+		@Override
+		public void execute() {
+		}
+	}
+
+	private static class TestProvider extends QuickAccessProvider {
+
+		private QuickAccessElement[] elements;
+
+		@Override
+		public String getId() {
+			return "org.eclipse.ui.tests.performance.quickaccess";
+		}
+
+		@Override
+		public String getName() {
+			return "Performance";
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public QuickAccessElement[] getElements() {
+			if (elements == null) {
+				elements = new QuickAccessElement[ELEMENTS];
+				for (int i = 0; i < ELEMENTS; i++) {
+					String label = WORDS[i % WORDS.length] + " " + WORDS[(i / 7) % WORDS.length] + " "
+							+ WORDS[(i / 131) % WORDS.length] + " " + i;
+					elements[i] = new TestElement(this, label);
+				}
+			}
+			return elements;
+		}
+
+		@Override
+		public QuickAccessElement getElementForId(String id) {
+			return null;
+		}
+
+		@Override
+		protected void doReset() {
+			elements = null;
+		}
+	}
+
+	/**
+	 * @param indexed
+	 *            <code>true</code> to look the filters up in the index,
+	 *            <code>false</code> to match every element
+	 */
+	public QuickAccessMatchTest(boolean indexed) {
+		super("quick access " + (indexed ? "indexed" : "scanned"));
+		this.indexed = indexed;
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		provider = new TestProvider();
+		// the index is built once, when the elements are first shown
+		provider.getIndex();
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		provider = null;
+		super.doTearDown();
+	}
+
+	@Override
+	protected void runTest() throws Throwable {
+		final int[] expected = new int[FILTERS.length];
+		for (int f = 0; f < FILTERS.length; f++) {
+			expected[f] = scan(FILTERS[f]);
+			assertEquals(FILTERS[f], expected[f], lookUp(FILTERS[f]));
+		}
+
+		exercise(new TestRunnable() {
+			@Override
+			public void run() throws Exception {
+				startMeasuring();
+				for (int f = 0; f < FILTERS.length; f++) {
+					int matches = indexed ? lookUp(FILTERS[f]) : scan(FILTERS[f]);
+					assertEquals(expected[f], matches);
+				}
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private int lookUp(String filter) {
+		QuickAccessIndex index = provider.getIndex();
+		int[] candidates = index.getCandidates(filter);
+		int size = candidates != null ? candidates.length : index.size();
+		int matches = 0;
+		for (int j = 0; j < size; j++) {
+			if (index.match(candidates != null ? candidates[j] : j, filter, provider) != null) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+	private int scan(String filter) {
+		QuickAccessElement[] elements = provider.getElementsSorted();
+		int matches = 0;
+		for (int j = 0; j < elements.length; j++) {
+			if (elements[j].match(filter, provider) != null) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+}
@@ -80,8 +80,25 @@ class WorkbenchPerformanceSuite extends TestSuite {
         addPerspectiveOpenCloseScenarios();
         addWindowOpenCloseScenarios();
         addContributionScenarios();
+        addModelServiceScenarios();
+        addJobProgressScenarios();
+        addQuickAccessScenarios();
     }
 
+	private void addQuickAccessScenarios() {
+		addTest(new QuickAccessMatchTest(true));
+		addTest(new QuickAccessMatchTest(false));
+	}
+
+	private void addJobProgressScenarios() {
+		addTest(new JobProgressPerformanceTest());
+	}
+
+	private void addModelServiceScenarios() {
+		addTest(new ModelServiceFindTest(true));
+		addTest(new ModelServiceFindTest(false));
+	}
+
     /**
 	 *
 	 */
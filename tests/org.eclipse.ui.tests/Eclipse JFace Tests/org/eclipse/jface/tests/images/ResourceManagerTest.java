@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2007 IBM Corporation and others.
+ * Copyright (c) 2004, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ import junit.framework.Assert;
 import junit.framework.TestCase;
 
 import org.eclipse.jface.resource.ColorDescriptor;
+import org.eclipse.jface.resource.CompositeImageDescriptor;
 import org.eclipse.jface.resource.DeviceResourceDescriptor;
 import org.eclipse.jface.resource.DeviceResourceException;
 import org.eclipse.jface.resource.DeviceResourceManager;
@@ -23,6 +24,8 @@ import org.eclipse.jface.resource.ResourceManager;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
@@ -82,6 +85,27 @@ public class ResourceManagerTest extends TestCase {
         }
     }
 
+    /**
+     * Draws an image. Instances are only equal to themselves.
+     */
+    private static final class TestCompositeDescriptor extends CompositeImageDescriptor {
+        private final ImageData data;
+
+        TestCompositeDescriptor(ImageData data) {
+            this.data = data;
+        }
+
+        @Override
+        protected void drawCompositeImage(int width, int height) {
+            drawImage(data, 0, 0);
+        }
+
+        @Override
+        protected Point getSize() {
+            return new Point(data.width, data.height);
+        }
+    }
+
     @Override
 	protected void setUp() throws Exception {
         super.setUp();
@@ -266,6 +290,78 @@ public class ResourceManagerTest extends TestCase {
 
     }
 
+    public void testSameResourceShared() throws Exception {
+        ImageDescriptor first = ImageDescriptor.createFromFile(ResourceManagerTest.class, "anything.gif");
+        ImageDescriptor second = ImageDescriptor.createFromFile(ImageRegistryTest.class, "anything.gif");
+        assertFalse(first.equals(second));
+
+        Image firstImage = globalResourceManager.createImage(first);
+        Image secondImage = globalResourceManager.createImage(second);
+        ImageDescriptor drawn = new TestCompositeDescriptor(testImage.getImageData());
+        Image drawnImage = globalResourceManager.createImage(drawn);
+
+        assertSame("Images of the same resource should be shared", firstImage, secondImage);
+        assertNotSame(firstImage, drawnImage);
+        assertEquals(2, globalResourceManager.getImageCount());
+        assertTrue(globalResourceManager.getImageByteCount() > 0);
+
+        globalResourceManager.destroyImage(first);
+        assertFalse("Shared image disposed while still referenced", secondImage.isDisposed());
+        globalResourceManager.destroyImage(second);
+        assertTrue(secondImage.isDisposed());
+        globalResourceManager.destroyImage(drawn);
+    }
+
+    public void testByteCountOfDisposedImage() throws Exception {
+        ImageDescriptor descriptor = ImageDescriptor.createFromFile(ResourceManagerTest.class, "anything.gif");
+        Image image = globalResourceManager.createImage(descriptor);
+        assertTrue(globalResourceManager.getImageByteCount() > 0);
+
+        // the size recorded at allocation is released, even if the image was
+        // disposed by someone else
+        image.dispose();
+        globalResourceManager.destroyImage(descriptor);
+        assertEquals(0, globalResourceManager.getImageCount());
+        assertEquals(0, globalResourceManager.getImageByteCount());
+    }
+
+    public void testUnreferencedCompositesCached() throws Exception {
+        ImageDescriptor descriptor = new TestCompositeDescriptor(testImage.getImageData());
+
+        Image image = globalResourceManager.createImage(descriptor);
+        globalResourceManager.destroyImage(descriptor);
+
+        assertFalse("Unreferenced composite should be kept", image.isDisposed());
+        assertEquals(1, globalResourceManager.getCachedImageCount());
+        assertEquals(1, globalResourceManager.getImageCount());
+        assertNull(globalResourceManager.find(descriptor));
+
+        assertSame("Cached composite should be reused", image, globalResourceManager.createImage(descriptor));
+        assertEquals(0, globalResourceManager.getCachedImageCount());
+        globalResourceManager.destroyImage(descriptor);
+
+        globalResourceManager.dispose();
+        assertTrue("Cached composite should be disposed with the manager", image.isDisposed());
+        assertEquals(0, globalResourceManager.getImageCount());
+        assertEquals(0, globalResourceManager.getImageByteCount());
+    }
+
+    public void testCachedCompositesEvicted() throws Exception {
+        ImageDescriptor first = new TestCompositeDescriptor(testImage.getImageData());
+        Image firstImage = globalResourceManager.createImage(first);
+        globalResourceManager.destroyImage(first);
+
+        // release enough composites to evict the first one
+        for (int i = 0; i < 1000 && !firstImage.isDisposed(); i++) {
+            ImageDescriptor next = new TestCompositeDescriptor(testImage2.getImageData());
+            globalResourceManager.createImage(next);
+            globalResourceManager.destroyImage(next);
+        }
+
+        assertTrue("Least recently released composite should be evicted", firstImage.isDisposed());
+        assertTrue(globalResourceManager.getCachedImageCount() < 1000);
+    }
+
     /*
      * See https://bugs.eclipse.org/bugs/show_bug.cgi?id=135088
      */
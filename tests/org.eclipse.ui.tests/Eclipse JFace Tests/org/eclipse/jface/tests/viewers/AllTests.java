@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2016 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -67,5 +67,12 @@ public class AllTests extends TestSuite {
 		addTestSuite(Bug242231Test.class);
 		addTestSuite(StyledStringBuilderTest.class);
 		addTestSuite(TreeManagerTest.class);
+		addTestSuite(BackgroundStyledCellLabelProviderTest.class);
+		addTestSuite(BackgroundLazyTreeContentProviderTest.class);
+		addTestSuite(DeferredTreeContentProviderTest.class);
+		addTestSuite(IntHashMapTest.class);
+		addTestSuite(ElementWidgetMapTest.class);
+		addTestSuite(ChangeQueueTest.class);
+		addTestSuite(ViewerDeltaTest.class);
 	}
 }
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jface.viewers.BackgroundLazyTreeContentProvider;
+import org.eclipse.jface.viewers.IBackgroundTreeContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Tree;
+
+/**
+ * Tests that a {@link BackgroundLazyTreeContentProvider} fills a virtual tree
+ * with the counts and children read in the background. The tasks are run by
+ * an executor that only runs them when the test asks for it.
+ *
+ * @since 3.12
+ */
+public class BackgroundLazyTreeContentProviderTest extends ViewerTestCase {
+
+	private static class QueueExecutor implements Executor {
+		List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+	}
+
+	private class TestBackgroundContentProvider implements IBackgroundTreeContentProvider {
+		final AtomicInteger countCalls = new AtomicInteger();
+
+		final AtomicInteger childrenCalls = new AtomicInteger();
+
+		@Override
+		public int getChildCount(Object element) {
+			countCalls.incrementAndGet();
+			return ((TestElement) element).getChildCount();
+		}
+
+		@Override
+		public Object[] getChildren(Object element, int offset, int length) {
+			childrenCalls.incrementAndGet();
+			Object[] children = new Object[length];
+			System.arraycopy(((TestElement) element).getChildren(), offset, children, 0, length);
+			return children;
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return ((TestElement) element).getContainer();
+		}
+
+		@Override
+		public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+
+	private QueueExecutor executor;
+
+	private TestBackgroundContentProvider backgroundProvider;
+
+	private BackgroundLazyTreeContentProvider contentProvider;
+
+	public BackgroundLazyTreeContentProviderTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		executor = new QueueExecutor();
+		backgroundProvider = new TestBackgroundContentProvider();
+		contentProvider = new BackgroundLazyTreeContentProvider(backgroundProvider, executor);
+		TreeViewer viewer = new TreeViewer(new Tree(parent, SWT.VIRTUAL));
+		viewer.setContentProvider(contentProvider);
+		viewer.setLabelProvider(new TestLabelProvider());
+		return viewer;
+	}
+
+	private TreeViewer getTreeViewer() {
+		return (TreeViewer) fViewer;
+	}
+
+	private Tree getTree() {
+		return getTreeViewer().getTree();
+	}
+
+	/**
+	 * Runs the queued tasks and the UI updates they post until no task is
+	 * left.
+	 */
+	private void runTasks() {
+		processEvents();
+		while (!executor.tasks.isEmpty()) {
+			List<Runnable> toRun = executor.tasks;
+			executor.tasks = new ArrayList<>();
+			for (Runnable task : toRun) {
+				task.run();
+			}
+			processEvents();
+		}
+	}
+
+	public void testRootsReadInBackground() {
+		assertEquals(0, getTree().getItemCount());
+		runTasks();
+		assertEquals(fRootElement.getChildCount(), getTree().getItemCount());
+
+		// asking for the text materializes the item
+		getTree().getItem(1).getText();
+		runTasks();
+		assertEquals(fRootElement.getChildAt(1), getTree().getItem(1).getData());
+		// the whole page was read once
+		getTree().getItem(2).getText();
+		assertEquals(fRootElement.getChildAt(2), getTree().getItem(2).getData());
+		assertEquals(1, backgroundProvider.childrenCalls.get());
+	}
+
+	public void testChildCountsCached() {
+		runTasks();
+		for (int i = 0; i < getTree().getItemCount(); i++) {
+			getTree().getItem(i).getText();
+		}
+		runTasks();
+		// the input and every root are counted once
+		int counted = 1 + fRootElement.getChildCount();
+		assertEquals(counted, backgroundProvider.countCalls.get());
+
+		// collapsed elements only show an expand button
+		assertEquals(1, getTree().getItem(0).getItemCount());
+
+		// the known count is used when the element is expanded
+		TestElement first = fRootElement.getChildAt(0);
+		getTreeViewer().expandToLevel(first, 1);
+		assertEquals(first.getChildCount(), getTree().getItem(0).getItemCount());
+		assertEquals(counted, backgroundProvider.countCalls.get());
+	}
+
+	public void testInvalidate() {
+		runTasks();
+		getTree().getItem(0).getText();
+		runTasks();
+
+		fRootElement.addChild(TestModelChange.INSERT);
+		contentProvider.invalidate(fRootElement);
+		fViewer.refresh();
+		runTasks();
+		assertEquals(fRootElement.getChildCount(), getTree().getItemCount());
+	}
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.viewers.BackgroundStyledCellLabelProvider;
+import org.eclipse.jface.viewers.DelegatingStyledCellLabelProvider.IStyledLabelProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.LabelProviderChangedEvent;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.StyledString;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.TableViewerColumn;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Table;
+
+/**
+ * Tests the placeholders and the label cache of
+ * {@link BackgroundStyledCellLabelProvider}. The labels are computed by an
+ * executor that only runs its tasks when the test asks for it.
+ *
+ * @since 3.12
+ */
+public class BackgroundStyledCellLabelProviderTest extends ViewerTestCase {
+
+	private static class QueueExecutor implements Executor {
+		List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+
+		void runAll() {
+			List<Runnable> toRun = tasks;
+			tasks = new ArrayList<>();
+			for (Runnable task : toRun) {
+				task.run();
+			}
+		}
+	}
+
+	private static class CountingLabelProvider extends LabelProvider implements IStyledLabelProvider {
+		final AtomicInteger count = new AtomicInteger();
+
+		String suffix = "";
+
+		@Override
+		public StyledString getStyledText(Object element) {
+			count.incrementAndGet();
+			return new StyledString(((TestElement) element).getLabel() + suffix);
+		}
+
+		void changed(Object[] elements) {
+			fireLabelProviderChanged(new LabelProviderChangedEvent(this, elements));
+		}
+	}
+
+	private QueueExecutor executor;
+
+	private CountingLabelProvider labelProvider;
+
+	private BackgroundStyledCellLabelProvider backgroundLabelProvider;
+
+	public BackgroundStyledCellLabelProviderTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		executor = new QueueExecutor();
+		labelProvider = new CountingLabelProvider();
+		TableViewer viewer = new TableViewer(parent, SWT.NONE);
+		viewer.setContentProvider(new TestModelContentProvider());
+		TableViewerColumn column = new TableViewerColumn(viewer, SWT.NONE);
+		column.getColumn().setWidth(200);
+		backgroundLabelProvider = new BackgroundStyledCellLabelProvider(labelProvider, executor);
+		column.setLabelProvider(backgroundLabelProvider);
+		return viewer;
+	}
+
+	private Table getTable() {
+		return (Table) fViewer.getControl();
+	}
+
+	private void computeLabels() {
+		// dispatch the queued elements, compute them and apply the labels
+		processEvents();
+		executor.runAll();
+		processEvents();
+	}
+
+	/**
+	 * Returns whether a label is cached for the element, the cache is not
+	 * exposed.
+	 */
+	private boolean isCached(Object element) throws Exception {
+		Field field = BackgroundStyledCellLabelProvider.class.getDeclaredField("labels");
+		field.setAccessible(true);
+		Object labels = field.get(backgroundLabelProvider);
+		Method get = labels.getClass().getMethod("get", Object.class);
+		get.setAccessible(true);
+		return get.invoke(labels, element) != null;
+	}
+
+	public void testPlaceholderThenLabel() {
+		String placeholder = JFaceResources.getString("BackgroundStyledCellLabelProvider.pending");
+		int count = getTable().getItemCount();
+		assertTrue(count > 0);
+		for (int i = 0; i < count; i++) {
+			assertEquals(placeholder, getTable().getItem(i).getText());
+		}
+		assertEquals(0, labelProvider.count.get());
+
+		computeLabels();
+		assertEquals(count, labelProvider.count.get());
+		for (int i = 0; i < count; i++) {
+			TestElement element = (TestElement) getTable().getItem(i).getData();
+			assertEquals(element.getLabel(), getTable().getItem(i).getText());
+		}
+	}
+
+	public void testLabelsCachedUntilChanged() {
+		computeLabels();
+		int count = labelProvider.count.get();
+
+		fViewer.refresh();
+		computeLabels();
+		assertEquals(count, labelProvider.count.get());
+
+		TestElement first = fRootElement.getChildAt(0);
+		String oldLabel = first.getLabel();
+		labelProvider.suffix = " changed";
+		labelProvider.changed(new Object[] { first });
+		// the old label is shown until the new one is known
+		assertEquals(oldLabel, getTable().getItem(0).getText());
+
+		computeLabels();
+		assertEquals(count + 1, labelProvider.count.get());
+		assertEquals(oldLabel + " changed", getTable().getItem(0).getText());
+		assertEquals(fRootElement.getChildAt(1).getLabel(), getTable().getItem(1).getText());
+
+		labelProvider.changed(null);
+		computeLabels();
+		assertEquals(2 * count + 1, labelProvider.count.get());
+		assertEquals(fRootElement.getChildAt(1).getLabel() + " changed", getTable().getItem(1).getText());
+	}
+
+	public void testRemovedElementsReleased() throws Exception {
+		computeLabels();
+		TestElement first = fRootElement.getChildAt(0);
+		TestElement second = fRootElement.getChildAt(1);
+		assertTrue(isCached(first));
+		assertTrue(isCached(second));
+
+		fRootElement.deleteChild(first);
+		processEvents();
+		assertFalse(isCached(first));
+		assertTrue(isCached(second));
+
+		// the label requested before the element was removed is not cached
+		labelProvider.changed(new Object[] { second });
+		fViewer.update(second, null);
+		fRootElement.deleteChild(second);
+		computeLabels();
+		assertFalse(isCached(second));
+		assertTrue(isCached(fRootElement.getChildAt(0)));
+	}
+}
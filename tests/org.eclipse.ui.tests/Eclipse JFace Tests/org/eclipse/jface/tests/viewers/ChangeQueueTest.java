@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.eclipse.jface.viewers.deferred.LazySortedCollection;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the ChangeQueue of the deferred content providers merges the
+ * consecutive changes of the same type when they are dequeued, so that a
+ * consumer that fell behind catches up in bulk, and that it coalesces the
+ * changes per element once it holds too many. The queue is not visible
+ * outside of its package, it is accessed through reflection.
+ */
+public class ChangeQueueTest extends TestCase {
+
+	private static final String CHANGE_QUEUE_CLASS = "org.eclipse.jface.viewers.deferred.ChangeQueue";
+
+	private Class<?> queueClass;
+
+	private Object queue;
+
+	private int maxBatchElements;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		queueClass = Class.forName(CHANGE_QUEUE_CLASS, true, LazySortedCollection.class.getClassLoader());
+		Constructor<?> constructor = queueClass.getDeclaredConstructor();
+		constructor.setAccessible(true);
+		queue = constructor.newInstance();
+		maxBatchElements = getConstant("MAX_BATCH_ELEMENTS");
+	}
+
+	public void testMergeConsecutiveChanges() throws Exception {
+		enqueue("ADD", "a", "b");
+		enqueue("ADD", "c");
+		enqueue("REMOVE", "a");
+		enqueue("REMOVE", "b");
+		enqueue("ADD", "d");
+
+		assertDequeued("ADD", "a", "b", "c");
+		assertDequeued("REMOVE", "a", "b");
+		assertDequeued("ADD", "d");
+		assertTrue(isEmpty());
+	}
+
+	public void testSetNotMerged() throws Exception {
+		enqueue("ADD", "a");
+		enqueue("SET", "b");
+		enqueue("SET", "c");
+		enqueue("ADD", "d");
+
+		// the SETs make the previous changes redundant
+		assertDequeued("SET", "c");
+		assertDequeued("ADD", "d");
+		assertTrue(isEmpty());
+	}
+
+	public void testBatchSizeBounded() throws Exception {
+		enqueue("UPDATE", new Object[maxBatchElements - 1]);
+		enqueue("UPDATE", new Object[1]);
+		enqueue("UPDATE", new Object[1]);
+
+		assertEquals(maxBatchElements, getElements(dequeue()).length);
+		assertEquals(1, getElements(dequeue()).length);
+		assertTrue(isEmpty());
+	}
+
+	public void testCoalescedAboveHighWaterMark() throws Exception {
+		enqueue("REMOVE", "a");
+		enqueue("ADD", "a");
+		enqueue("ADD", "b");
+		enqueue("UPDATE", "c");
+		enqueue("UPDATE", "c");
+		enqueue("ADD", "d");
+		enqueue("REMOVE", "d");
+		enqueue("UPDATE", "b");
+		Object[] many = new Object[getConstant("HIGH_WATER_MARK")];
+		for (int i = 0; i < many.length; i++) {
+			many[i] = Integer.valueOf(i);
+		}
+		enqueue("ADD", many);
+
+		// a is removed before it is added again, d was added and removed
+		assertDequeued("REMOVE", "a");
+		Object[] added = getElements(dequeue());
+		assertEquals(maxBatchElements, added.length);
+		assertEquals("a", added[0]);
+		assertEquals("b", added[1]);
+		int total = added.length;
+		while (total < many.length + 2) {
+			total += getElements(dequeue()).length;
+		}
+		assertEquals(many.length + 2, total);
+		assertDequeued("UPDATE", "c");
+		assertTrue(isEmpty());
+	}
+
+	private void assertDequeued(String type, Object... elements) throws Exception {
+		Object change = dequeue();
+		Method getType = change.getClass().getDeclaredMethod("getType");
+		getType.setAccessible(true);
+		assertEquals(getConstant(type), ((Integer) getType.invoke(change)).intValue());
+		assertEquals(Arrays.asList(elements), Arrays.asList(getElements(change)));
+	}
+
+	private static Object[] getElements(Object change) throws Exception {
+		Method method = change.getClass().getDeclaredMethod("getElements");
+		method.setAccessible(true);
+		return (Object[]) method.invoke(change);
+	}
+
+	private void enqueue(String type, Object... elements) throws Exception {
+		Method method = queueClass.getDeclaredMethod("enqueue", int.class, Object[].class);
+		method.setAccessible(true);
+		method.invoke(queue, Integer.valueOf(getConstant(type)), elements);
+	}
+
+	private Object dequeue() throws Exception {
+		Method method = queueClass.getDeclaredMethod("dequeue");
+		method.setAccessible(true);
+		return method.invoke(queue);
+	}
+
+	private boolean isEmpty() throws Exception {
+		Method method = queueClass.getDeclaredMethod("isEmpty");
+		method.setAccessible(true);
+		return ((Boolean) method.invoke(queue)).booleanValue();
+	}
+
+	private int getConstant(String name) throws Exception {
+		Field field = queueClass.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.getInt(null);
+	}
+}
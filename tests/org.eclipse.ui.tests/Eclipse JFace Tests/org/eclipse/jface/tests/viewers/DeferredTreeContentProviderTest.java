@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.eclipse.jface.viewers.IFilter;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.deferred.DeferredTreeContentProvider;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Tests that a {@link DeferredTreeContentProvider} fills a virtual tree with
+ * the sorted and filtered children, and reads them again when they are
+ * invalidated. The tasks are run by an executor that only runs them when the
+ * test asks for it.
+ *
+ * @since 3.12
+ */
+public class DeferredTreeContentProviderTest extends ViewerTestCase {
+
+	private static class QueueExecutor implements Executor {
+		List<Runnable> tasks = new ArrayList<>();
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+	}
+
+	/**
+	 * Provides the children of the test model, without listening to it.
+	 */
+	private static class TestTreeContentProvider implements ITreeContentProvider {
+		@Override
+		public Object[] getElements(Object inputElement) {
+			return getChildren(inputElement);
+		}
+
+		@Override
+		public Object[] getChildren(Object parentElement) {
+			return ((TestElement) parentElement).getChildren();
+		}
+
+		@Override
+		public Object getParent(Object element) {
+			return ((TestElement) element).getContainer();
+		}
+
+		@Override
+		public boolean hasChildren(Object element) {
+			return ((TestElement) element).getChildCount() > 0;
+		}
+
+		@Override
+		public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+
+	private static final Comparator<Object> DESCENDING = new Comparator<Object>() {
+		@Override
+		public int compare(Object o1, Object o2) {
+			return ((TestElement) o2).getID().compareTo(((TestElement) o1).getID());
+		}
+	};
+
+	private static final Comparator<Object> ASCENDING = new Comparator<Object>() {
+		@Override
+		public int compare(Object o1, Object o2) {
+			return ((TestElement) o1).getID().compareTo(((TestElement) o2).getID());
+		}
+	};
+
+	/**
+	 * Selects the elements whose ID ends with an even number.
+	 */
+	private static final IFilter EVEN = new IFilter() {
+		@Override
+		public boolean select(Object toTest) {
+			String id = ((TestElement) toTest).getID();
+			return Integer.parseInt(id.substring(id.lastIndexOf('-') + 1)) % 2 == 0;
+		}
+	};
+
+	private QueueExecutor executor;
+
+	private DeferredTreeContentProvider contentProvider;
+
+	public DeferredTreeContentProviderTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		executor = new QueueExecutor();
+		contentProvider = new DeferredTreeContentProvider(new TestTreeContentProvider(), DESCENDING, executor);
+		TreeViewer viewer = new TreeViewer(new Tree(parent, SWT.VIRTUAL));
+		viewer.setContentProvider(contentProvider);
+		viewer.setLabelProvider(new TestLabelProvider());
+		return viewer;
+	}
+
+	private TreeViewer getTreeViewer() {
+		return (TreeViewer) fViewer;
+	}
+
+	/**
+	 * Runs the queued tasks and the UI updates they post until no task is
+	 * left.
+	 */
+	private void runTasks() {
+		processEvents();
+		while (!executor.tasks.isEmpty()) {
+			List<Runnable> toRun = executor.tasks;
+			executor.tasks = new ArrayList<>();
+			for (Runnable task : toRun) {
+				task.run();
+			}
+			processEvents();
+		}
+	}
+
+	/**
+	 * Materializes the items and returns their elements in the order shown.
+	 */
+	private List<Object> getShown(TreeItem[] items) {
+		for (TreeItem item : items) {
+			item.getText();
+		}
+		runTasks();
+		List<Object> shown = new ArrayList<>();
+		for (TreeItem item : items) {
+			shown.add(item.getData());
+		}
+		return shown;
+	}
+
+	private List<Object> getShownRoots() {
+		runTasks();
+		return getShown(getTreeViewer().getTree().getItems());
+	}
+
+	private static List<Object> expected(TestElement parent, IFilter filter, Comparator<Object> sortOrder) {
+		List<Object> result = new ArrayList<>();
+		for (TestElement child : parent.getChildren()) {
+			if (filter == null || filter.select(child)) {
+				result.add(child);
+			}
+		}
+		Collections.sort(result, sortOrder);
+		return result;
+	}
+
+	public void testChildrenSorted() {
+		assertEquals(expected(fRootElement, null, DESCENDING), getShownRoots());
+
+		TestElement first = (TestElement) getTreeViewer().getTree().getItem(0).getData();
+		getTreeViewer().expandToLevel(first, 1);
+		runTasks();
+		TreeItem[] children = getTreeViewer().getTree().getItem(0).getItems();
+		assertEquals(expected(first, null, DESCENDING), getShown(children));
+	}
+
+	public void testSetSortOrder() {
+		getShownRoots();
+		contentProvider.setSortOrder(ASCENDING);
+		assertEquals(expected(fRootElement, null, ASCENDING), getShownRoots());
+	}
+
+	public void testSetFilter() {
+		getShownRoots();
+		contentProvider.setFilter(EVEN);
+		List<Object> expected = expected(fRootElement, EVEN, DESCENDING);
+		assertTrue(expected.size() < fRootElement.getChildCount());
+		assertEquals(expected, getShownRoots());
+
+		// the filter applies to the children too
+		TestElement first = (TestElement) expected.get(0);
+		getTreeViewer().expandToLevel(first, 1);
+		runTasks();
+		TreeItem[] children = getTreeViewer().getTree().getItem(0).getItems();
+		assertEquals(expected(first, EVEN, DESCENDING), getShown(children));
+	}
+
+	public void testInvalidate() {
+		List<Object> before = getShownRoots();
+
+		// not notified, the provider keeps the sorted children until they
+		// are invalidated
+		TestElement added = fRootElement.basicAddChild();
+		fViewer.refresh();
+		assertEquals(before, getShownRoots());
+
+		contentProvider.invalidate(fRootElement);
+		fViewer.refresh();
+		List<Object> after = getShownRoots();
+		assertEquals(expected(fRootElement, null, DESCENDING), after);
+		assertTrue(after.contains(added));
+		assertEquals(fRootElement.getChildCount(), after.size());
+	}
+}
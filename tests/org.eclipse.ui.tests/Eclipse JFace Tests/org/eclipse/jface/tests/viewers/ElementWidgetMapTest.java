@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Widget;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the open addressing and the backward-shift deletion of the
+ * ElementWidgetMap used by the structured viewers, with elements shown by
+ * several widgets and with an element comparer. The map is not visible outside
+ * of its package, it is accessed through reflection.
+ */
+public class ElementWidgetMapTest extends TestCase {
+
+	private static final String ELEMENT_WIDGET_MAP_CLASS = "org.eclipse.jface.viewers.ElementWidgetMap";
+
+	/**
+	 * The capacity of a map created for no element.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * An element with a given hash code, equal to the elements with the same
+	 * id.
+	 */
+	private static final class Key {
+		final int id;
+
+		final int hash;
+
+		Key(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).id == id;
+		}
+
+		@Override
+		public String toString() {
+			return "Key " + id;
+		}
+	}
+
+	/**
+	 * Compares strings ignoring their case.
+	 */
+	private static final IElementComparer IGNORE_CASE = new IElementComparer() {
+		@Override
+		public boolean equals(Object a, Object b) {
+			return ((String) a).equalsIgnoreCase((String) b);
+		}
+
+		@Override
+		public int hashCode(Object element) {
+			return ((String) element).toLowerCase().hashCode();
+		}
+	};
+
+	private Class<?> mapClass;
+
+	private Object map;
+
+	private Shell shell;
+
+	private Widget[] widgets;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		mapClass = Class.forName(ELEMENT_WIDGET_MAP_CLASS, true, StructuredViewer.class.getClassLoader());
+		// the smallest table, so that the tests make it grow
+		map = newMap(0, null);
+		shell = new Shell(Display.getDefault());
+		widgets = new Widget[4];
+		for (int i = 0; i < widgets.length; i++) {
+			widgets[i] = new Label(shell, SWT.NONE);
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		shell.dispose();
+		super.tearDown();
+	}
+
+	/**
+	 * Returns a hash code whose home slot in a table of the given capacity is
+	 * the given slot. Mirrors the Fibonacci hashing of the map.
+	 */
+	private static int hashForSlot(int slot, int capacity) {
+		int shift = Integer.numberOfLeadingZeros(capacity) + 1;
+		for (int hash = 0;; hash++) {
+			if ((hash * 0x9E3779B9) >>> shift == slot) {
+				return hash;
+			}
+		}
+	}
+
+	public void testRemoveWrapsAround() throws Exception {
+		// the home slot of these elements is the last one of the table, their
+		// probe sequence continues at the start of the table
+		int lastSlot = hashForSlot(INITIAL_CAPACITY - 1, INITIAL_CAPACITY);
+		Key first = new Key(0, lastSlot);
+		Key second = new Key(1, lastSlot);
+		Key third = new Key(2, lastSlot);
+		Key atStart = new Key(3, hashForSlot(0, INITIAL_CAPACITY));
+		add(first, widgets[0]);
+		add(second, widgets[1]);
+		add(third, widgets[2]);
+		add(atStart, widgets[3]);
+
+		remove(first);
+		assertNull(get(first));
+		assertSame(widgets[1], get(second));
+		assertSame(widgets[2], get(third));
+		assertSame(widgets[3], get(atStart));
+
+		remove(second);
+		assertSame(widgets[2], get(third));
+		assertSame(widgets[3], get(atStart));
+
+		remove(atStart);
+		assertSame(widgets[2], get(third));
+		assertEquals(1, size());
+	}
+
+	public void testGrow() throws Exception {
+		Key[] keys = new Key[10 * INITIAL_CAPACITY];
+		for (int i = 0; i < keys.length; i++) {
+			// the hash codes only differ in their high bits
+			keys[i] = new Key(i, i << 24);
+			add(keys[i], widgets[i % widgets.length]);
+		}
+		assertEquals(keys.length, size());
+		for (int i = 0; i < keys.length; i++) {
+			assertSame(widgets[i % widgets.length], get(keys[i]));
+		}
+
+		for (int i = 0; i < keys.length; i += 2) {
+			remove(keys[i]);
+		}
+		assertEquals(keys.length / 2, size());
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(keys[i].toString(), i % 2 == 0 ? null : widgets[i % widgets.length], get(keys[i]));
+		}
+	}
+
+	public void testSeveralWidgets() throws Exception {
+		Key key = new Key(0, 0);
+		add(key, widgets[0]);
+		assertSame(widgets[0], get(key));
+
+		add(key, widgets[1]);
+		add(key, widgets[0]);
+		assertWidgets(get(key), widgets[0], widgets[1]);
+
+		add(new Key(0, 0), widgets[2]);
+		assertEquals(1, size());
+		assertWidgets(get(key), widgets[0], widgets[1], widgets[2]);
+
+		remove(key, widgets[1]);
+		assertWidgets(get(key), widgets[0], widgets[2]);
+
+		// not mapped to that widget
+		remove(key, widgets[3]);
+		assertWidgets(get(key), widgets[0], widgets[2]);
+
+		remove(key, widgets[0]);
+		remove(key, widgets[2]);
+		assertNull(get(key));
+		assertEquals(0, size());
+	}
+
+	public void testComparer() throws Exception {
+		map = newMap(0, IGNORE_CASE);
+		add("Element", widgets[0]);
+		add("ELEMENT", widgets[1]);
+		add("other", widgets[2]);
+		assertEquals(2, size());
+		assertWidgets(get("element"), widgets[0], widgets[1]);
+		assertSame(widgets[2], get("OTHER"));
+
+		remove("eLeMeNt");
+		assertNull(get("Element"));
+		assertSame(widgets[2], get("other"));
+	}
+
+	public void testCopyWithComparer() throws Exception {
+		add("Element", widgets[0]);
+		add("ELEMENT", widgets[1]);
+		add("other", widgets[2]);
+		assertEquals(3, size());
+
+		// elements that are equal for the new comparer share their widgets
+		Constructor<?> constructor = mapClass.getDeclaredConstructor(mapClass, IElementComparer.class);
+		constructor.setAccessible(true);
+		map = constructor.newInstance(map, IGNORE_CASE);
+		assertEquals(2, size());
+		assertWidgets(get("element"), widgets[0], widgets[1]);
+		assertSame(widgets[2], get("Other"));
+	}
+
+	public void testSameAsHashMap() throws Exception {
+		Map<Key, Widget> expected = new HashMap<>();
+		Key[] keys = new Key[500];
+		for (int i = 0; i < keys.length; i++) {
+			// few distinct hash codes, many collisions
+			keys[i] = new Key(i, i % 7);
+		}
+		Random random = new Random(0);
+		for (int i = 0; i < 20000; i++) {
+			Key key = keys[random.nextInt(keys.length)];
+			if (random.nextInt(3) == 0) {
+				remove(key);
+				expected.remove(key);
+			} else if (!expected.containsKey(key)) {
+				Widget widget = widgets[random.nextInt(widgets.length)];
+				add(key, widget);
+				expected.put(key, widget);
+			}
+			assertEquals(expected.size(), size());
+		}
+		for (Key key : keys) {
+			assertSame(key.toString(), expected.get(key), get(key));
+		}
+	}
+
+	/**
+	 * Asserts that an element is mapped to the expected widgets, in any order.
+	 */
+	private static void assertWidgets(Object widgetOrWidgets, Widget... expected) {
+		assertTrue(widgetOrWidgets instanceof Widget[]);
+		Widget[] actual = (Widget[]) widgetOrWidgets;
+		assertEquals(expected.length, actual.length);
+		assertEquals(new HashSet<>(Arrays.asList(expected)), new HashSet<>(Arrays.asList(actual)));
+	}
+
+	private Object newMap(int expectedSize, IElementComparer comparer) throws Exception {
+		Constructor<?> constructor = mapClass.getDeclaredConstructor(int.class, IElementComparer.class);
+		constructor.setAccessible(true);
+		return constructor.newInstance(Integer.valueOf(expectedSize), comparer);
+	}
+
+	private void add(Object element, Widget widget) throws Exception {
+		invoke("add", new Class[] { Object.class, Widget.class }, element, widget);
+	}
+
+	private Object get(Object element) throws Exception {
+		return invoke("get", new Class[] { Object.class }, element);
+	}
+
+	private void remove(Object element) throws Exception {
+		invoke("remove", new Class[] { Object.class }, element);
+	}
+
+	private void remove(Object element, Widget widget) throws Exception {
+		invoke("remove", new Class[] { Object.class, Widget.class }, element, widget);
+	}
+
+	private int size() throws Exception {
+		return ((Integer) invoke("size", new Class[0])).intValue();
+	}
+
+	private Object invoke(String name, Class<?>[] parameterTypes, Object... args) throws Exception {
+		Method method = mapClass.getDeclaredMethod(name, parameterTypes);
+		method.setAccessible(true);
+		return method.invoke(map, args);
+	}
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.jface.viewers.deferred.LazySortedCollection;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the open addressing of the IntHashMap used by the deferred content
+ * providers with colliding keys and while the map grows. The map is not
+ * visible outside of its package, it is accessed through reflection.
+ *
+ * @since 3.12
+ */
+public class IntHashMapTest extends TestCase {
+
+	private static final String INT_HASH_MAP_CLASS = "org.eclipse.jface.viewers.deferred.IntHashMap";
+
+	private static final int MISSING = -1;
+
+	/**
+	 * A key with a given hash code, equal to the keys with the same id.
+	 */
+	private static final class Key {
+		final int id;
+
+		final int hash;
+
+		Key(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).id == id;
+		}
+
+		@Override
+		public String toString() {
+			return "Key " + id;
+		}
+	}
+
+	private Object map;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		Class<?> mapClass = Class.forName(INT_HASH_MAP_CLASS, true, LazySortedCollection.class.getClassLoader());
+		Constructor<?> constructor = mapClass.getDeclaredConstructor(int.class, float.class);
+		constructor.setAccessible(true);
+		// the smallest table, so that the tests make it grow
+		map = constructor.newInstance(Integer.valueOf(1), Float.valueOf(0.75f));
+	}
+
+	public void testPutGetRemoveWithCollisions() throws Exception {
+		Key[] keys = new Key[40];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = new Key(i, 0);
+			put(keys[i], i * 10);
+		}
+		assertEquals(keys.length, size());
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(i * 10, get(keys[i]));
+		}
+
+		for (int i = 0; i < keys.length; i += 2) {
+			remove(keys[i]);
+		}
+		assertEquals(keys.length / 2, size());
+		// removing from the middle of the probe sequence keeps the other keys
+		// reachable
+		for (int i = 0; i < keys.length; i++) {
+			if (i % 2 == 0) {
+				assertFalse(containsKey(keys[i]));
+				assertEquals(MISSING, get(keys[i]));
+			} else {
+				assertTrue(containsKey(keys[i]));
+				assertEquals(i * 10, get(keys[i]));
+			}
+		}
+	}
+
+	public void testCollisionsInLowBits() throws Exception {
+		// the hash codes only differ in their high bits
+		Key[] keys = new Key[64];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = new Key(i, i << 24);
+			put(keys[i], i);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(i, get(keys[i]));
+		}
+	}
+
+	public void testRemoveWrapsAround() throws Exception {
+		// the home slot of these keys is the last one of the initial table,
+		// their probe sequence continues at the start of the table
+		Key first = new Key(0, 15);
+		Key second = new Key(1, 15);
+		Key third = new Key(2, 15);
+		Key atStart = new Key(3, 0);
+		put(first, 1);
+		put(second, 2);
+		put(third, 3);
+		put(atStart, 4);
+
+		remove(first);
+		assertEquals(MISSING, get(first));
+		assertEquals(2, get(second));
+		assertEquals(3, get(third));
+		assertEquals(4, get(atStart));
+
+		remove(second);
+		assertEquals(3, get(third));
+		assertEquals(4, get(atStart));
+		assertEquals(2, size());
+	}
+
+	public void testPutReplacesValue() throws Exception {
+		Key key = new Key(0, 0);
+		put(key, 1);
+		put(new Key(0, 0), 2);
+		assertEquals(1, size());
+		assertEquals(2, get(key));
+
+		remove(new Key(1, 0));
+		assertEquals(1, size());
+	}
+
+	public void testSameAsHashMap() throws Exception {
+		Map<Key, Integer> expected = new HashMap<>();
+		Key[] keys = new Key[500];
+		for (int i = 0; i < keys.length; i++) {
+			// few distinct hash codes, many collisions
+			keys[i] = new Key(i, i % 7);
+		}
+		Random random = new Random(0);
+		for (int i = 0; i < 20000; i++) {
+			Key key = keys[random.nextInt(keys.length)];
+			if (random.nextInt(3) == 0) {
+				remove(key);
+				expected.remove(key);
+			} else {
+				put(key, i);
+				expected.put(key, Integer.valueOf(i));
+			}
+			assertEquals(expected.size(), size());
+		}
+		for (Key key : keys) {
+			Integer value = expected.get(key);
+			assertEquals(key.toString(), value != null, containsKey(key));
+			assertEquals(key.toString(), value == null ? MISSING : value.intValue(), get(key));
+		}
+	}
+
+	private void put(Object key, int value) throws Exception {
+		invoke("put", new Class[] { Object.class, int.class }, key, Integer.valueOf(value));
+	}
+
+	private int get(Object key) throws Exception {
+		return ((Integer) invoke("get", new Class[] { Object.class, int.class }, key, Integer.valueOf(MISSING)))
+				.intValue();
+	}
+
+	private boolean containsKey(Object key) throws Exception {
+		return ((Boolean) invoke("containsKey", new Class[] { Object.class }, key)).booleanValue();
+	}
+
+	private void remove(Object key) throws Exception {
+		invoke("remove", new Class[] { Object.class }, key);
+	}
+
+	private int size() throws Exception {
+		return ((Integer) invoke("size", new Class[0])).intValue();
+	}
+
+	private Object invoke(String name, Class<?>[] parameterTypes, Object... args) throws Exception {
+		Method method = map.getClass().getDeclaredMethod(name, parameterTypes);
+		method.setAccessible(true);
+		return method.invoke(map, args);
+	}
+}
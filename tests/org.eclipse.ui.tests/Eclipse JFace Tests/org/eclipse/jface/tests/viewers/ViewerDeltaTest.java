@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.jface.viewers.ViewerDelta;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Table;
+
+/**
+ * Tests {@link StructuredViewer#applyDelta(ViewerDelta)} on a sorted table.
+ * The items after applying a delta must be the ones a refresh shows.
+ *
+ * @since 3.12
+ */
+public class ViewerDeltaTest extends ViewerTestCase {
+
+	private static final String LABEL = "label";
+
+	public ViewerDeltaTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		TableViewer viewer = new TableViewer(parent, SWT.MULTI);
+		viewer.setContentProvider(new TestModelContentProvider());
+		viewer.setLabelProvider(new TestLabelProvider());
+		viewer.setComparator(new ViewerComparator() {
+			@Override
+			public boolean isSorterProperty(Object element, String property) {
+				return LABEL.equals(property);
+			}
+		});
+		return viewer;
+	}
+
+	private List<Object> getItemData() {
+		Table table = ((TableViewer) fViewer).getTable();
+		List<Object> result = new ArrayList<>();
+		for (int i = 0; i < table.getItemCount(); i++) {
+			result.add(table.getItem(i).getData());
+		}
+		return result;
+	}
+
+	private void assertItemsMatchRefresh() {
+		List<Object> applied = getItemData();
+		fViewer.refresh();
+		assertEquals(getItemData(), applied);
+	}
+
+	public void testAddAndRemove() {
+		TestElement first = fRootElement.basicAddChild();
+		TestElement second = fRootElement.basicAddChild();
+		TestElement removed = fRootElement.getChildAt(2);
+		fRootElement.basicDeleteChild(removed);
+
+		fViewer.applyDelta(new ViewerDelta().add(fRootElement, new Object[] { first, second }).remove(removed));
+
+		assertNotNull(fViewer.testFindItem(first));
+		assertNotNull(fViewer.testFindItem(second));
+		assertNull(fViewer.testFindItem(removed));
+		assertItemsMatchRefresh();
+	}
+
+	public void testSelectionPreserved() {
+		TestElement selected = fRootElement.getChildAt(5);
+		fViewer.setSelection(new StructuredSelection(selected));
+		TestElement removed = fRootElement.getChildAt(1);
+		fRootElement.basicDeleteChild(removed);
+		TestElement added = fRootElement.basicAddChild();
+
+		fViewer.applyDelta(new ViewerDelta().remove(removed).add(fRootElement, added));
+
+		assertSelectionEquals("selection after delta", selected);
+		assertItemsMatchRefresh();
+	}
+
+	public void testSorterPropertyMovesElement() {
+		TestElement moved = fRootElement.getChildAt(0);
+		moved.setLabel("zzz");
+		TestElement updated = fRootElement.getChildAt(1);
+
+		fViewer.applyDelta(new ViewerDelta().update(moved, new String[] { LABEL }).update(updated, null));
+
+		List<Object> data = getItemData();
+		assertEquals(fRootElement.getChildCount(), data.size());
+		assertEquals(moved, data.get(data.size() - 1));
+		assertItemsMatchRefresh();
+	}
+
+	public void testEmptyDelta() {
+		List<Object> before = getItemData();
+		fViewer.applyDelta(new ViewerDelta());
+		assertEquals(before, getItemData());
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.viewers.DecorationContext;
+import org.eclipse.jface.viewers.IDecorationContext;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.decorators.DecorationResult;
+import org.eclipse.ui.internal.decorators.DecorationResultCache;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests the eviction and statistics of the {@link DecorationResultCache}.
+ */
+public class DecorationResultCacheTest extends UITestCase {
+
+	private static final IDecorationContext CONTEXT = DecorationContext.DEFAULT_CONTEXT;
+
+	public DecorationResultCacheTest(String testName) {
+		super(testName);
+	}
+
+	private DecorationResult createResult(Object element) {
+		// No decorator applies to plain strings, the result has a weight of 1
+		return WorkbenchPlugin.getDefault().getDecoratorManager()
+				.getLightweightManager().getDecorationResult(element);
+	}
+
+	public void testLeastRecentlyUsedIsEvicted() {
+		DecorationResultCache cache = new DecorationResultCache(2);
+		DecorationResult a = createResult("a");
+		DecorationResult b = createResult("b");
+		cache.put("a", CONTEXT, a);
+		cache.put("b", CONTEXT, b);
+		// a is now more recently used than b
+		assertSame(a, cache.get("a", CONTEXT));
+		cache.put("c", CONTEXT, createResult("c"));
+
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.getWeight());
+		assertSame(a, cache.get("a", CONTEXT));
+		assertNull(cache.get("b", CONTEXT));
+		assertNotNull(cache.get("c", CONTEXT));
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(3, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		// b is retired until its label has been updated
+		assertTrue(cache.hasRetiredResults());
+		List<Object> elements = new ArrayList<>();
+		DecorationResult[] retired = cache.takeRetiredResults(elements);
+		assertEquals(1, retired.length);
+		assertSame(b, retired[0]);
+		assertEquals(1, elements.size());
+		assertEquals("b", elements.get(0));
+		assertFalse(cache.hasRetiredResults());
+	}
+
+	public void testContexts() {
+		DecorationResultCache cache = new DecorationResultCache();
+		IDecorationContext other = new DecorationContext();
+		DecorationResult defaultResult = createResult("a");
+		DecorationResult otherResult = createResult("a");
+		cache.put("a", CONTEXT, defaultResult);
+		assertFalse(cache.contains("a", other));
+		cache.put("a", other, otherResult);
+
+		assertEquals(1, cache.size());
+		assertEquals(2, cache.getWeight());
+		assertSame(defaultResult, cache.get("a", CONTEXT));
+		assertSame(otherResult, cache.get("a", other));
+		assertEquals(0, cache.getMissCount());
+	}
+
+	public void testReplaceAndClear() {
+		DecorationResultCache cache = new DecorationResultCache();
+		List<Object> elements = new ArrayList<>();
+		DecorationResult old = createResult("a");
+		cache.put("a", CONTEXT, old);
+		cache.put("a", CONTEXT, createResult("a"));
+		assertEquals(1, cache.getWeight());
+		DecorationResult[] retired = cache.takeRetiredResults(elements);
+		assertEquals(1, retired.length);
+		assertSame(old, retired[0]);
+		// the caller updates the elements whose results it replaced
+		assertTrue(elements.isEmpty());
+		assertEquals(0, cache.takeRetiredResults(elements).length);
+
+		DecorationResult b = createResult("b");
+		cache.put("b", CONTEXT, b);
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+		assertEquals(0, cache.getEvictionCount());
+		assertFalse(cache.contains("a", CONTEXT));
+		retired = cache.takeRetiredResults(elements);
+		assertEquals(2, retired.length);
+		assertTrue(retired[0] == b || retired[1] == b);
+		assertEquals(2, elements.size());
+		assertTrue(elements.contains("a"));
+		assertTrue(elements.contains("b"));
+	}
+
+	public void testInvalidate() {
+		DecorationResultCache cache = new DecorationResultCache();
+		DecorationResult a = createResult("a");
+		DecorationResult b = createResult("b");
+		cache.put("a", CONTEXT, a);
+		cache.put("b", CONTEXT, b);
+		cache.invalidate("a");
+		cache.invalidate("c");
+
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getWeight());
+		assertFalse(cache.contains("a", CONTEXT));
+		assertSame(b, cache.get("b", CONTEXT));
+		List<Object> elements = new ArrayList<>();
+		DecorationResult[] retired = cache.takeRetiredResults(elements);
+		assertEquals(1, retired.length);
+		assertSame(a, retired[0]);
+		assertEquals(1, elements.size());
+		assertEquals("a", elements.get(0));
+	}
+
+	public void testShrink() {
+		DecorationResultCache cache = new DecorationResultCache();
+		for (int i = 0; i < 100; i++) {
+			String element = "e" + i;
+			cache.put(element, CONTEXT, createResult(element));
+		}
+		cache.setMaxWeight(10);
+		assertEquals(10, cache.size());
+		assertEquals(90, cache.getEvictionCount());
+		assertTrue(cache.contains("e99", CONTEXT));
+		assertFalse(cache.contains("e89", CONTEXT));
+	}
+}
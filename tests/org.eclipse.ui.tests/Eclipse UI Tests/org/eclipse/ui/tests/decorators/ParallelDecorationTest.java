@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.viewers.IDecoration;
+import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.decorators.DecorationResult;
+import org.eclipse.ui.internal.decorators.DecoratorDefinition;
+import org.eclipse.ui.internal.decorators.DecoratorManager;
+import org.eclipse.ui.internal.decorators.LightweightDecoratorManager;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests that decorating a batch of elements with decorators running in
+ * parallel gives the same results as decorating each element on its own.
+ */
+public class ParallelDecorationTest extends UITestCase {
+
+	private static final String COLOR_DECORATOR_ID = "org.eclipse.ui.tests.decorators.parallelColorDecorator";
+
+	private static final String RESET_DECORATOR_ID = "org.eclipse.ui.tests.decorators.parallelResetDecorator";
+
+	static Color foreground;
+
+	static Color background;
+
+	static Font font;
+
+	public ParallelDecorationTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		// Colors and fonts cannot be looked up in the decoration jobs
+		foreground = fWorkbench.getDisplay().getSystemColor(SWT.COLOR_RED);
+		background = fWorkbench.getDisplay().getSystemColor(SWT.COLOR_CYAN);
+		font = JFaceResources.getBannerFont();
+		setEnabled(true);
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		setEnabled(false);
+		super.doTearDown();
+	}
+
+	private void setEnabled(boolean enabled) {
+		DecoratorManager manager = WorkbenchPlugin.getDefault()
+				.getDecoratorManager();
+		manager.clearCaches();
+		for (DecoratorDefinition definition : manager
+				.getAllDecoratorDefinitions()) {
+			if (definition.getId().equals(COLOR_DECORATOR_ID)
+					|| definition.getId().equals(RESET_DECORATOR_ID)) {
+				definition.setEnabled(enabled);
+			}
+		}
+		manager.updateForEnablementChange();
+	}
+
+	public void testSameAsSequential() {
+		Object[] elements = new Object[20];
+		for (int i = 0; i < elements.length; i++) {
+			// every third element is reset after being colored
+			elements[i] = new Element(i, i % 3 == 0);
+		}
+		LightweightDecoratorManager manager = WorkbenchPlugin.getDefault()
+				.getDecoratorManager().getLightweightManager();
+		DecorationResult[] results = manager.getDecorationResults(elements);
+
+		for (int i = 0; i < elements.length; i++) {
+			DecorationResult expected = manager
+					.getDecorationResult(elements[i]);
+			String message = elements[i].toString();
+			assertEquals(message, expected.decorateWithText("label"),
+					results[i].decorateWithText("label"));
+			assertEquals(message, expected.getForegroundColor(),
+					results[i].getForegroundColor());
+			assertEquals(message, expected.getBackgroundColor(),
+					results[i].getBackgroundColor());
+			assertEquals(message, expected.getFont(), results[i].getFont());
+		}
+	}
+
+	public void testResetToNull() {
+		Object[] elements = new Object[] { new Element(0, true),
+				new Element(1, false) };
+		DecorationResult[] results = WorkbenchPlugin.getDefault()
+				.getDecoratorManager().getLightweightManager()
+				.getDecorationResults(elements);
+
+		assertNull(results[0].getForegroundColor());
+		assertNull(results[0].getBackgroundColor());
+		assertNull(results[0].getFont());
+		assertEquals(foreground, results[1].getForegroundColor());
+		assertEquals(background, results[1].getBackgroundColor());
+		assertEquals(font, results[1].getFont());
+	}
+
+	/**
+	 * The elements decorated by the test decorators.
+	 */
+	public static class Element {
+		final int index;
+
+		final boolean reset;
+
+		Element(int index, boolean reset) {
+			this.index = index;
+			this.reset = reset;
+		}
+
+		@Override
+		public String toString() {
+			return "Element " + index;
+		}
+	}
+
+	/**
+	 * Sets the colors and font of all elements.
+	 */
+	public static class ColorDecorator extends TestDecorator {
+		@Override
+		public void decorate(Object element, IDecoration decoration) {
+			decoration.addPrefix("color ");
+			decoration.setForegroundColor(foreground);
+			decoration.setBackgroundColor(background);
+			decoration.setFont(font);
+		}
+	}
+
+	/**
+	 * Runs after the {@link ColorDecorator} and resets the colors and font of
+	 * some elements.
+	 */
+	public static class ResetDecorator extends TestDecorator {
+		@Override
+		public void decorate(Object element, IDecoration decoration) {
+			decoration.addSuffix(" " + ((Element) element).index);
+			if (((Element) element).reset) {
+				decoration.setForegroundColor(null);
+				decoration.setBackgroundColor(null);
+				decoration.setFont(null);
+			}
+		}
+	}
+
+	static abstract class TestDecorator implements
+			ILightweightLabelDecorator {
+		@Override
+		public void addListener(ILabelProviderListener listener) {
+		}
+
+		@Override
+		public void dispose() {
+		}
+
+		@Override
+		public boolean isLabelProperty(Object element, String property) {
+			return false;
+		}
+
+		@Override
+		public void removeListener(ILabelProviderListener listener) {
+		}
+	}
+}
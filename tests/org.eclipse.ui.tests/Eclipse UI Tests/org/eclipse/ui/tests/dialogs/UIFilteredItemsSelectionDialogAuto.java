@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.dialogs;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.dialogs.DialogSettings;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.dialogs.FilteredItemsSelectionDialog;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the items shown by a {@link FilteredItemsSelectionDialog} do not
+ * depend on how they were matched: in parallel or sequentially, by refining
+ * the result of an earlier pattern or by a full search.
+ */
+public class UIFilteredItemsSelectionDialogAuto extends TestCase {
+
+	/**
+	 * Enough items to be matched in several parallel chunks.
+	 */
+	private static final int ITEM_COUNT = 20000;
+
+	private static final long TIMEOUT = 30000;
+
+	private static final String[] PATTERNS = { "item", "item1", "item12",
+			"item1", "item15", "Item1*9", "item" };
+
+	private static List<String> items;
+
+	private TestDialog dialog;
+
+	/**
+	 * Whether the dialogs opened by the test order the items by the pattern.
+	 */
+	private boolean patternOrder;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		if (items == null) {
+			items = new ArrayList<>(ITEM_COUNT);
+			for (int i = 0; i < ITEM_COUNT; i++) {
+				items.add((i % 5 == 0 ? "other" : "item") + i);
+			}
+			// the dialog has to sort the items
+			Collections.shuffle(items, new Random(0));
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		closeDialog();
+		super.tearDown();
+	}
+
+	public void testParallelMatchingSameAsSequential() throws Exception {
+		for (String pattern : PATTERNS) {
+			assertEquals(pattern, search(pattern, false), search(pattern, true));
+		}
+	}
+
+	public void testRefinementSameAsFullSearch() throws Exception {
+		assertRefinementSameAsFullSearch(true);
+	}
+
+	public void testRefinementSameAsFullSearch_NotThreadSafe()
+			throws Exception {
+		assertRefinementSameAsFullSearch(false);
+	}
+
+	public void testRefinementSameAsFullSearch_PatternOrder()
+			throws Exception {
+		patternOrder = true;
+		assertRefinementSameAsFullSearch(true);
+	}
+
+	private void assertRefinementSameAsFullSearch(boolean threadSafe)
+			throws Exception {
+		List<List<String>> expected = new ArrayList<>();
+		for (String pattern : PATTERNS) {
+			expected.add(search(pattern, false));
+		}
+
+		openDialog("", threadSafe);
+		for (int i = 0; i < PATTERNS.length; i++) {
+			((Text) dialog.getPatternControl()).setText(PATTERNS[i]);
+			assertEquals(PATTERNS[i], expected.get(i), getShownItems());
+		}
+		assertFalse("A filter that is not thread safe was called concurrently",
+				dialog.concurrentMatch);
+	}
+
+	/**
+	 * Returns the items shown for the pattern by a new dialog, which does a
+	 * full search.
+	 */
+	private List<String> search(String pattern, boolean threadSafe)
+			throws Exception {
+		openDialog(pattern, threadSafe);
+		List<String> shown = getShownItems();
+		assertFalse("A filter that is not thread safe was called concurrently",
+				dialog.concurrentMatch);
+		closeDialog();
+		assertFalse(pattern, shown.isEmpty());
+		return shown;
+	}
+
+	private void openDialog(String pattern, boolean threadSafe) {
+		Shell shell = PlatformUI.getWorkbench().getActiveWorkbenchWindow()
+				.getShell();
+		dialog = new TestDialog(shell, threadSafe, patternOrder);
+		dialog.setInitialPattern(pattern);
+		dialog.setBlockOnOpen(false);
+		dialog.open();
+	}
+
+	private void closeDialog() {
+		if (dialog != null) {
+			dialog.close();
+			dialog = null;
+		}
+	}
+
+	/**
+	 * Waits for the dialog to show the items matching its pattern and returns
+	 * them in the order they are shown.
+	 */
+	private List<String> getShownItems() throws Exception {
+		waitForJobs();
+		Table table = findTable(dialog.getShell());
+		assertNotNull(table);
+		List<String> shown = new ArrayList<>();
+		for (int i = 0; i < table.getItemCount(); i++) {
+			TableItem item = table.getItem(i);
+			// make the virtual table request the element
+			item.getText();
+			shown.add((String) item.getData());
+		}
+		return shown;
+	}
+
+	private void waitForJobs() throws Exception {
+		Job[] jobs = getJobs();
+		Display display = dialog.getShell().getDisplay();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		int idleChecks = 0;
+		// the jobs schedule each other, they must be idle twice in a row
+		while (idleChecks < 2) {
+			assertTrue("Timed out waiting for the dialog",
+					System.currentTimeMillis() < end);
+			while (display.readAndDispatch()) {
+				// spin
+			}
+			boolean idle = true;
+			for (Job job : jobs) {
+				if (job.getState() != Job.NONE) {
+					idle = false;
+				}
+			}
+			idleChecks = idle ? idleChecks + 1 : 0;
+			Thread.sleep(20);
+		}
+	}
+
+	private Job[] getJobs() throws Exception {
+		Job refreshCacheJob = (Job) getField(
+				FilteredItemsSelectionDialog.class, dialog, "refreshCacheJob");
+		return new Job[] {
+				(Job) getField(FilteredItemsSelectionDialog.class, dialog,
+						"filterHistoryJob"),
+				(Job) getField(FilteredItemsSelectionDialog.class, dialog,
+						"filterJob"),
+				refreshCacheJob,
+				(Job) getField(refreshCacheJob.getClass(), refreshCacheJob,
+						"refreshJob") };
+	}
+
+	private static Object getField(Class<?> type, Object target, String name)
+			throws Exception {
+		Field field = type.getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(target);
+	}
+
+	private static Table findTable(Composite composite) {
+		for (Control child : composite.getChildren()) {
+			if (child instanceof Table) {
+				return (Table) child;
+			}
+			if (child instanceof Composite) {
+				Table table = findTable((Composite) child);
+				if (table != null) {
+					return table;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A dialog over a fixed list of strings.
+	 */
+	private static class TestDialog extends FilteredItemsSelectionDialog {
+
+		final boolean threadSafe;
+
+		/**
+		 * Whether the items are sorted in reverse order for patterns of odd
+		 * length.
+		 */
+		final boolean patternOrder;
+
+		volatile ItemsFilter lastFilter;
+
+		volatile boolean matching;
+
+		volatile boolean concurrentMatch;
+
+		TestDialog(Shell shell, boolean threadSafe, boolean patternOrder) {
+			super(shell);
+			this.threadSafe = threadSafe;
+			this.patternOrder = patternOrder;
+			setTitle("Filtered Items");
+		}
+
+		@Override
+		protected Control createExtendedContentArea(Composite parent) {
+			return null;
+		}
+
+		@Override
+		protected IDialogSettings getDialogSettings() {
+			return new DialogSettings("Filtered Items");
+		}
+
+		@Override
+		protected IStatus validateItem(Object item) {
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		protected ItemsFilter createFilter() {
+			lastFilter = new ItemsFilter() {
+				@Override
+				public boolean matchItem(Object item) {
+					if (threadSafe) {
+						return matches((String) item);
+					}
+					if (matching) {
+						concurrentMatch = true;
+					}
+					matching = true;
+					try {
+						return matches((String) item);
+					} finally {
+						matching = false;
+					}
+				}
+
+				@Override
+				public boolean isConsistentItem(Object item) {
+					return true;
+				}
+
+				@Override
+				public boolean isThreadSafe() {
+					return threadSafe;
+				}
+			};
+			return lastFilter;
+		}
+
+		@Override
+		protected Comparator<String> getItemsComparator() {
+			return new Comparator<String>() {
+				@Override
+				public int compare(String o1, String o2) {
+					ItemsFilter filter = lastFilter;
+					if (patternOrder && filter != null
+							&& filter.getPattern().length() % 2 == 1) {
+						return o2.compareTo(o1);
+					}
+					return o1.compareTo(o2);
+				}
+			};
+		}
+
+		@Override
+		protected boolean isItemsOrderFilterIndependent() {
+			return !patternOrder;
+		}
+
+		@Override
+		protected void fillContentProvider(
+				AbstractContentProvider contentProvider,
+				ItemsFilter itemsFilter, IProgressMonitor progressMonitor)
+				throws CoreException {
+			for (String item : items) {
+				contentProvider.add(item, itemsFilter);
+			}
+			progressMonitor.done();
+		}
+
+		@Override
+		public String getElementName(Object item) {
+			return (String) item;
+		}
+	}
+}
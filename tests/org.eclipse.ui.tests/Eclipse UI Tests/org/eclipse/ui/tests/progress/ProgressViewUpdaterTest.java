@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2016 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.progress;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.Status;
+import org.eclipse.ui.internal.progress.IProgressUpdateCollector;
+import org.eclipse.ui.internal.progress.JobInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the net changes recorded by the ProgressViewUpdater between updates,
+ * and the changes rolled over when an update runs out of time. The internals
+ * of the updater are accessed through reflection.
+ */
+public class ProgressViewUpdaterTest {
+
+	private static final String UPDATER_CLASS = "org.eclipse.ui.internal.progress.ProgressViewUpdater";
+
+	private static final int REFRESH = 0;
+
+	private static final int ADD = 1;
+
+	private static final int REMOVE = 2;
+
+	private Class<?> updaterClass;
+
+	private boolean hadSingleton;
+
+	private Object updater;
+
+	private Object info;
+
+	private RecordingCollector collector = new RecordingCollector();
+
+	@Before
+	public void setUp() throws Exception {
+		updaterClass = Class.forName(UPDATER_CLASS, true,
+				JobInfo.class.getClassLoader());
+		hadSingleton = (Boolean) invokeStatic("hasSingleton");
+		updater = invokeStatic("getSingleton");
+		info = invoke(updater, "getCurrentInfo");
+		invoke(updater, "addCollector", collector);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		invoke(updater, "removeCollector", collector);
+		if (!hadSingleton) {
+			invokeStatic("clearSingleton");
+		}
+	}
+
+	@Test
+	public void testAddThenRemoveInOneFrame() throws Exception {
+		JobInfo job = createJobInfo("added and removed");
+		JobInfo kept = createJobInfo("added");
+		record("add", job);
+		record("add", kept);
+		record("remove", job);
+
+		Object[][] changes = takeChanges();
+
+		// the removal replaces the addition, the job is not added
+		assertFalse(contains(changes[ADD], job));
+		assertFalse(contains(changes[REFRESH], job));
+		assertTrue(contains(changes[REMOVE], job));
+		assertTrue(contains(changes[ADD], kept));
+	}
+
+	@Test
+	public void testRefreshDoesNotReplaceAddition() throws Exception {
+		JobInfo job = createJobInfo("added and refreshed");
+		record("add", job);
+		record("refresh", job);
+
+		Object[][] changes = takeChanges();
+
+		assertTrue(contains(changes[ADD], job));
+		assertFalse(contains(changes[REFRESH], job));
+		assertFalse(contains(changes[REMOVE], job));
+	}
+
+	@Test
+	public void testRemovalCarriedOverToNextFrame() throws Exception {
+		// more removals than fit in the first chunk of an update
+		JobInfo[] jobs = new JobInfo[60];
+		for (int i = 0; i < jobs.length; i++) {
+			jobs[i] = createJobInfo("removed " + i);
+		}
+		JobInfo readded = jobs[55];
+		JobInfo refreshed = jobs[56];
+		JobInfo added = createJobInfo("added");
+
+		Object[][] changes = new Object[][] { new Object[0],
+				new Object[] { added }, jobs };
+		// changes recorded while the update runs are more recent than the
+		// ones taken by the update
+		record("add", readded);
+		record("refresh", refreshed);
+		// the deadline has passed, only the first chunk, the addition, is
+		// applied
+		boolean rolledOver = (Boolean) invoke(updater, "applyChanges",
+				changes, Long.valueOf(0));
+
+		assertTrue(rolledOver);
+		assertEquals(Arrays.asList(added), collector.added);
+		assertTrue(collector.removed.isEmpty());
+
+		Object[][] next = takeChanges();
+		for (int i = 0; i < jobs.length; i++) {
+			if (jobs[i] == readded) {
+				// the newer addition is kept
+				assertTrue(contains(next[ADD], readded));
+				assertFalse(contains(next[REMOVE], readded));
+			} else {
+				assertTrue(jobs[i].toString(), contains(next[REMOVE], jobs[i]));
+			}
+		}
+		// the removal replaces the newer refresh
+		assertFalse(contains(next[REFRESH], refreshed));
+		assertFalse(contains(next[ADD], added));
+
+		// the next update applies the rolled over removals
+		collector.clear();
+		assertFalse((Boolean) invoke(updater, "applyChanges", next,
+				Long.valueOf(Long.MAX_VALUE)));
+		assertEquals(jobs.length - 1, countOf(collector.removed, jobs));
+		assertTrue(collector.added.contains(readded));
+	}
+
+	private JobInfo createJobInfo(String name) {
+		return new ExtendedJobInfo(new DummyJob(name, Status.OK_STATUS));
+	}
+
+	private void record(String change, JobInfo job) throws Exception {
+		synchronized (getUpdateLock()) {
+			invoke(info, change, job);
+		}
+	}
+
+	private Object[][] takeChanges() throws Exception {
+		synchronized (getUpdateLock()) {
+			invoke(info, "processForUpdate");
+			return (Object[][]) invoke(info, "takeChanges");
+		}
+	}
+
+	private Object getUpdateLock() throws Exception {
+		Field field = updaterClass.getDeclaredField("updateLock");
+		field.setAccessible(true);
+		return field.get(updater);
+	}
+
+	private Object invokeStatic(String name) throws Exception {
+		Method method = updaterClass.getDeclaredMethod(name);
+		method.setAccessible(true);
+		return method.invoke(null);
+	}
+
+	private static Object invoke(Object target, String name, Object... args)
+			throws Exception {
+		for (Method method : target.getClass().getDeclaredMethods()) {
+			if (method.getName().equals(name)
+					&& method.getParameterTypes().length == args.length) {
+				method.setAccessible(true);
+				return method.invoke(target, args);
+			}
+		}
+		throw new NoSuchMethodException(name);
+	}
+
+	private static boolean contains(Object[] elements, Object element) {
+		return Arrays.asList(elements).contains(element);
+	}
+
+	private static int countOf(List<Object> elements, Object[] expected) {
+		int count = 0;
+		for (Object element : expected) {
+			if (elements.contains(element)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Records the changes passed to the collectors by the updater.
+	 */
+	private static class RecordingCollector implements
+			IProgressUpdateCollector {
+		List<Object> added = new ArrayList<>();
+
+		List<Object> removed = new ArrayList<>();
+
+		@Override
+		public void refresh() {
+		}
+
+		@Override
+		public void refresh(Object[] elements) {
+		}
+
+		@Override
+		public void add(Object[] elements) {
+			added.addAll(Arrays.asList(elements));
+		}
+
+		@Override
+		public void remove(Object[] elements) {
+			removed.addAll(Arrays.asList(elements));
+		}
+
+		void clear() {
+			added.clear();
+			removed.clear();
+		}
+	}
+}